@@ -0,0 +1,28 @@
+package com.thfh.config;
+
+import com.thfh.service.CacheInvalidationBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 缓存失效消息订阅配置
+ * 订阅其他进程发布的缓存失效消息，交给CacheInvalidationBus分发到各缓存。
+ * Redis不可用时订阅在后台按间隔重试，不阻止服务启动。
+ */
+@Configuration
+@ConditionalOnProperty(name = "cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheInvalidationConfig {
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheInvalidationBus cacheInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(CacheInvalidationBus.CHANNEL));
+        return container;
+    }
+}
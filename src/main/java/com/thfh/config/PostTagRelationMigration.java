@@ -0,0 +1,60 @@
+package com.thfh.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 动态标签关联表迁移
+ * 动态与标签的关联表原名post_tags，与标签实体PostTag的表名相同，关联记录和标签记录混在同一张表中。
+ * 关联表改名为post_tag_relation后，把旧表中的关联记录（post_id非空的行）复制到新表并从旧表删除。
+ * 迁移在Bean初始化阶段执行，依赖entityManagerFactory保证Hibernate已建好新表，Web服务启动前即完成；
+ * 完成后在schema_migration表写入标记，之后的启动直接跳过。
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class PostTagRelationMigration {
+
+    private static final String MIGRATION_NAME = "post_tag_relation";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PostTagRelationMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_migration (" +
+                "name VARCHAR(100) NOT NULL PRIMARY KEY, applied_time DATETIME NOT NULL)");
+        Integer applied = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM schema_migration WHERE name = ?", Integer.class, MIGRATION_NAME);
+        if (applied != null && applied > 0) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Integer legacyColumns = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.columns " +
+                    "WHERE table_schema = DATABASE() AND table_name = 'post_tags' AND column_name = 'post_id'",
+                    Integer.class);
+            if (legacyColumns != null && legacyColumns > 0) {
+                int copied = jdbcTemplate.update(
+                        "INSERT IGNORE INTO post_tag_relation (post_id, tag_id) " +
+                        "SELECT post_id, tag_id FROM post_tags WHERE post_id IS NOT NULL AND tag_id IS NOT NULL");
+                int removed = jdbcTemplate.update("DELETE FROM post_tags WHERE post_id IS NOT NULL");
+                log.info("迁移动态标签关联 {} 条，清理旧表中的关联记录 {} 条", copied, removed);
+            }
+            jdbcTemplate.update("INSERT IGNORE INTO schema_migration (name, applied_time) VALUES (?, NOW())",
+                    MIGRATION_NAME);
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package com.thfh.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 唯一键迁移
+ * 点赞、收藏、选课等写入依赖唯一键去重（INSERT IGNORE），唯一键若缺失，每次请求都会插入新行并使计数虚增。
+ * ddl-auto: update在已有重复数据时添加唯一键会失败，Hibernate只记录日志，因此在Web服务启动前逐个检查：
+ * 唯一键不存在时保留每组重复记录中ID最小的一条，按需重算计数，再添加唯一键。
+ * 唯一键最终仍不存在时启动失败，不在缺少唯一键的情况下对外提供服务。
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class UniqueKeyMigration {
+
+    // 删除重复数据与添加唯一键之间可能有其他进程写入重复数据，失败后重试的次数
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final List<UniqueKey> KEYS = List.of(
+            new UniqueKey("artwork_like", "uk_artwork_like_artwork_user", List.of("artwork_id", "user_id"),
+                    "UPDATE artworks a SET like_count = (SELECT COUNT(*) FROM artwork_like l WHERE l.artwork_id = a.id)"),
+            new UniqueKey("artwork_favorites", "uk_artwork_favorite_artwork_user", List.of("artwork_id", "user_id"),
+                    "UPDATE artworks a SET favorite_count = (SELECT COUNT(*) FROM artwork_favorites f WHERE f.artwork_id = a.id)"),
+            new UniqueKey("user_course", "uk_user_course_user_course", List.of("user_id", "course_id"),
+                    "UPDATE course c SET student_count = (SELECT COUNT(*) FROM user_course uc WHERE uc.course_id = c.id)")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UniqueKeyMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        for (UniqueKey key : KEYS) {
+            ensure(key);
+        }
+    }
+
+    private void ensure(UniqueKey key) {
+        for (int attempt = 1; !exists(key); attempt++) {
+            int removed = removeDuplicates(key);
+            if (removed > 0) {
+                log.warn("表 {} 中存在 {} 条重复记录，已删除", key.table, removed);
+                if (key.recountSql != null) {
+                    jdbcTemplate.update(key.recountSql);
+                }
+            }
+            try {
+                jdbcTemplate.execute("ALTER TABLE " + key.table + " ADD CONSTRAINT " + key.name
+                        + " UNIQUE (" + String.join(", ", key.columns) + ")");
+                log.info("已为表 {} 添加唯一键 {}", key.table, key.name);
+            } catch (DataAccessException e) {
+                if (attempt >= MAX_ATTEMPTS && !exists(key)) {
+                    throw new IllegalStateException("表 " + key.table + " 添加唯一键 " + key.name + " 失败", e);
+                }
+            }
+        }
+    }
+
+    private boolean exists(UniqueKey key) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ? AND non_unique = 0",
+                Integer.class, key.table, key.name);
+        return count != null && count > 0;
+    }
+
+    private int removeDuplicates(UniqueKey key) {
+        String join = key.columns.stream()
+                .map(column -> "k." + column + " = t." + column)
+                .collect(Collectors.joining(" AND "));
+        return jdbcTemplate.update("DELETE t FROM " + key.table + " t JOIN " + key.table + " k ON "
+                + join + " AND k.id < t.id");
+    }
+
+    private static final class UniqueKey {
+        private final String table;
+        private final String name;
+        private final List<String> columns;
+        // 删除了重复记录后执行的计数重算语句，可为空
+        private final String recountSql;
+
+        private UniqueKey(String table, String name, List<String> columns, String recountSql) {
+            this.table = table;
+            this.name = name;
+            this.columns = columns;
+            this.recountSql = recountSql;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.thfh.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -22,12 +21,6 @@ public class WebConfig implements WebMvcConfigurer {
     @Autowired
     private JwtInterceptor jwtInterceptor;
 
-    /**
-     * 文件上传目录，从配置文件中读取
-     */
-    @Value("${file.upload-dir}")
-    private String uploadDir;
-
     /**
      * 添加拦截器配置
      * 将JWT拦截器应用于所有/api/**路径的请求
@@ -43,15 +36,11 @@ public class WebConfig implements WebMvcConfigurer {
 
     /**
      * 添加资源处理器配置
-     * 将/uploads/**路径映射到实际的文件上传目录
-     * 使客户端可以通过/uploads/路径访问上传的文件
+     * /uploads/**下的上传文件由MediaController提供（支持Range、ETag和零拷贝发送），此处不再映射
      * @param registry 资源处理器注册表
      */
     @Override
     public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadDir + "/");
-                
         // 添加Swagger和Knife4j的静态资源映射
         registry.addResourceHandler("doc.html")
                 .addResourceLocations("classpath:/META-INF/resources/");
@@ -12,6 +12,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 /**
  * 管理员控制器
  * 提供管理员的增删改查等管理功能
@@ -113,4 +115,18 @@ public class AdminController {
         adminService.toggleAdminStatus(id);
         return Result.success(null);
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取参考数据缓存统计
+     * @return 各缓存类别的命中次数、未命中次数和版本
+     */
+    @Operation(summary = "获取参考数据缓存统计", description = "查看管理员、动态标签、课程标签等参考数据缓存的命中和未命中次数")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "获取成功"),
+        @ApiResponse(responseCode = "401", description = "未授权，请先登录")
+    })
+    @GetMapping("/cache-stats")
+    public Result<Map<String, Map<String, Long>>> getReferenceCacheStats() {
+        return Result.success(adminService.getReferenceCacheStats());
+    }
+}
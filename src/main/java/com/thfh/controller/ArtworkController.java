@@ -5,9 +5,9 @@ import com.thfh.dto.ArtworkDTO;
 import com.thfh.dto.ArtworkScoreDTO;
 import com.thfh.dto.ArtworkUpdateDTO;
 import com.thfh.dto.ArtworkSearchDTO;
-import com.thfh.dto.FollowDTO;
 import com.thfh.dto.TagDTO;
 import com.thfh.model.Artwork;
+import com.thfh.model.ArtworkTag;
 import com.thfh.model.ArtworkType;
 import com.thfh.model.User;
 import com.thfh.service.AdminService;
@@ -17,6 +17,8 @@ import com.thfh.service.UserService;
 import com.thfh.service.FollowService;
 import com.thfh.service.ArtworkBrowseHistoryService;
 import com.thfh.service.RecommendationService;
+import com.thfh.service.ImageVariantService;
+import com.thfh.service.UserCardCache;
 import com.thfh.exception.ResourceNotFoundException;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -28,7 +30,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.beans.BeanUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -74,6 +75,8 @@ public class ArtworkController {
     private final FollowService followService;
     private final ArtworkBrowseHistoryService artworkBrowseHistoryService;
     private final RecommendationService recommendationService;
+    private final ImageVariantService imageVariantService;
+    private final UserCardCache userCardCache;
 
     /**
      * 发布作品
@@ -487,6 +490,31 @@ public class ArtworkController {
         return Result.success(null, "标签删除成功");
     }
 
+    /**
+     * 合并标签
+     * @param tagId 源标签ID
+     * @param targetTagId 目标标签ID
+     * @return 目标标签
+     */
+    @Operation(summary = "合并标签", description = "将源标签的作品关联转移到目标标签，并删除源标签，仅管理员可操作")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "合并成功"),
+            @ApiResponse(responseCode = "400", description = "源标签与目标标签相同"),
+            @ApiResponse(responseCode = "401", description = "未授权，请先登录"),
+            @ApiResponse(responseCode = "403", description = "没有权限合并标签"),
+            @ApiResponse(responseCode = "404", description = "标签不存在")
+    })
+    @PostMapping("/tags/{tagId}/merge-into/{targetTagId}")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public Result<ArtworkTag> mergeTag(
+            @Parameter(description = "源标签ID", required = true)
+            @PathVariable @Positive(message = "标签ID必须为正数") Long tagId,
+            @Parameter(description = "目标标签ID", required = true)
+            @PathVariable @Positive(message = "标签ID必须为正数") Long targetTagId) {
+        log.info("合并标签: {} -> {}", tagId, targetTagId);
+        return Result.success(artworkService.mergeTag(tagId, targetTagId), "标签合并成功");
+    }
+
     /**
      * 管理员编辑作品
      * @param artworkId 作品ID
@@ -668,10 +696,7 @@ public class ArtworkController {
         PageRequest pageRequest = PageRequest.of(page - 1, size, sort);
         
         // 获取已关注的用户ID列表
-        List<Long> followingIds = followService.getFollowingList(user.getId())
-                                             .stream()
-                                             .map(FollowDTO::getFollowedId)
-                                             .collect(Collectors.toList());
+        List<Long> followingIds = followService.getFeedSourceIds(user.getId());
         
         if (followingIds.isEmpty()) {
             // 如果没有关注任何用户，返回空页面
@@ -785,14 +810,44 @@ public class ArtworkController {
      * @return 作品DTO
      */
     private ArtworkDTO convertToArtworkDTO(Artwork artwork) {
+        Set<Long> creatorIds = artwork.getCreator() == null ? Set.of() : Set.of(artwork.getCreator().getId());
+        return convertToArtworkDTO(artwork, userCardCache.getCards(creatorIds));
+    }
+
+    /**
+     * 将Artwork转换为ArtworkDTO，创作者信息取自名片
+     * @param artwork 作品实体
+     * @param creators 创作者名片
+     * @return 作品DTO
+     */
+    private ArtworkDTO convertToArtworkDTO(Artwork artwork, Map<Long, UserCardCache.Card> creators) {
         ArtworkDTO dto = new ArtworkDTO();
-        BeanUtils.copyProperties(artwork, dto, "creator", "tags");
+        dto.setId(artwork.getId());
+        dto.setTitle(artwork.getTitle());
+        dto.setDescription(artwork.getDescription());
+        dto.setCoverUrl(artwork.getCoverUrl());
+        dto.setMaterials(artwork.getMaterials());
+        dto.setPrice(artwork.getPrice());
+        dto.setType(artwork.getType());
+        dto.setRecommended(artwork.getRecommended());
+        dto.setEnabled(artwork.getEnabled());
+        dto.setAverageScore(artwork.getAverageScore());
+        dto.setScoreCount(artwork.getScoreCount());
+        dto.setFavoriteCount(artwork.getFavoriteCount());
+        dto.setLikeCount(artwork.getLikeCount());
+        dto.setViewCount(artwork.getViewCount());
+        dto.setCreateTime(artwork.getCreateTime());
+        dto.setUpdateTime(artwork.getUpdateTime());
+        dto.setCoverThumbnailUrl(imageVariantService.variantUrl(artwork.getCoverUrl(), ImageVariantService.Variant.THUMBNAIL));
         
         // 设置创建者信息
         if (artwork.getCreator() != null) {
             dto.setCreatorId(artwork.getCreator().getId());
-            dto.setCreatorName(artwork.getCreator().getUsername());
-            dto.setCreatorAvatar(artwork.getCreator().getAvatar());
+            UserCardCache.Card creator = creators.get(artwork.getCreator().getId());
+            if (creator != null) {
+                dto.setCreatorName(creator.getUsername());
+                dto.setCreatorAvatar(creator.getAvatar());
+            }
         }
         
         // 转换标签
@@ -817,7 +872,12 @@ public class ArtworkController {
      * @return 作品DTO页面
      */
     private Page<ArtworkDTO> convertToArtworkDTOPage(Page<Artwork> artworkPage) {
-        return artworkPage.map(this::convertToArtworkDTO);
+        Set<Long> creatorIds = artworkPage.getContent().stream()
+                .filter(artwork -> artwork.getCreator() != null)
+                .map(artwork -> artwork.getCreator().getId())
+                .collect(Collectors.toSet());
+        Map<Long, UserCardCache.Card> creators = userCardCache.getCards(creatorIds);
+        return artworkPage.map(artwork -> convertToArtworkDTO(artwork, creators));
     }
 
     /**
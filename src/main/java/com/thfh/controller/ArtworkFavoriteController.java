@@ -36,7 +36,7 @@ public class ArtworkFavoriteController {
      * 添加收藏
      * @param artworkId 作品ID
      * @param authentication 认证信息
-     * @return 操作结果
+     * @return 操作后的作品收藏数
      */
     @Operation(summary = "添加收藏", description = "为指定作品添加收藏")
     @ApiResponses({
@@ -45,19 +45,18 @@ public class ArtworkFavoriteController {
             @ApiResponse(responseCode = "404", description = "作品不存在")
     })
     @PostMapping("/{artworkId}/favorite")
-    public Result<Void> addFavorite(
+    public Result<Integer> addFavorite(
             @Parameter(description = "作品ID", required = true) @PathVariable Long artworkId,
             @Parameter(hidden = true) Authentication authentication) {
         User user = userService.getCurrentUser();
-        artworkFavoriteService.addFavorite(artworkId, user);
-        return Result.success(null);
+        return Result.success(artworkFavoriteService.addFavorite(artworkId, user));
     }
 
     /**
      * 取消收藏
      * @param artworkId 作品ID
      * @param authentication 认证信息
-     * @return 操作结果
+     * @return 操作后的作品收藏数
      */
     @Operation(summary = "取消收藏", description = "取消对指定作品的收藏")
     @ApiResponses({
@@ -66,12 +65,11 @@ public class ArtworkFavoriteController {
             @ApiResponse(responseCode = "404", description = "作品不存在")
     })
     @DeleteMapping("/{artworkId}/favorite")
-    public Result<Void> removeFavorite(
+    public Result<Integer> removeFavorite(
             @Parameter(description = "作品ID", required = true) @PathVariable Long artworkId,
             @Parameter(hidden = true) Authentication authentication) {
         User user = userService.getCurrentUser();
-        artworkFavoriteService.removeFavorite(artworkId, user);
-        return Result.success(null);
+        return Result.success(artworkFavoriteService.removeFavorite(artworkId, user));
     }
 
     /**
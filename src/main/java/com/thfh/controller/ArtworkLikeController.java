@@ -39,7 +39,7 @@ public class ArtworkLikeController {
      * 注意：artworkId需为正数，且作品必须存在
      * @param artworkId 作品ID
      * @param authentication 认证信息
-     * @return 操作结果
+     * @return 操作后的作品点赞数
      */
     @PreAuthorize("hasRole('USER') or hasRole('ROLE_USER')")
     @Operation(summary = "添加点赞", description = "为指定作品添加点赞")
@@ -49,7 +49,7 @@ public class ArtworkLikeController {
             @ApiResponse(responseCode = "404", description = "作品不存在")
     })
     @PostMapping("/{artworkId}/like")
-    public Result<Void> addLike(
+    public Result<Integer> addLike(
             @Parameter(description = "作品ID", required = true) @PathVariable Long artworkId,
             @Parameter(hidden = true) Authentication authentication) {
         if (artworkId == null || artworkId <= 0) {
@@ -59,8 +59,7 @@ public class ArtworkLikeController {
         if (user == null) {
             return Result.unauthorized("未登录");
         }
-        artworkLikeService.addLike(artworkId, user);
-        return Result.success(null);
+        return Result.success(artworkLikeService.addLike(artworkId, user));
     }
 
     /**
@@ -68,7 +67,7 @@ public class ArtworkLikeController {
      * 幂等性：未点赞时取消不会报错
      * @param artworkId 作品ID
      * @param authentication 认证信息
-     * @return 操作结果
+     * @return 操作后的作品点赞数
      */
     @PreAuthorize("hasRole('USER') or hasRole('ROLE_USER')")
     @Operation(summary = "取消点赞", description = "取消对指定作品的点赞")
@@ -78,7 +77,7 @@ public class ArtworkLikeController {
             @ApiResponse(responseCode = "404", description = "作品不存在")
     })
     @DeleteMapping("/{artworkId}/like")
-    public Result<Void> removeLike(
+    public Result<Integer> removeLike(
             @Parameter(description = "作品ID", required = true) @PathVariable Long artworkId,
             @Parameter(hidden = true) Authentication authentication) {
         if (artworkId == null || artworkId <= 0) {
@@ -88,8 +87,7 @@ public class ArtworkLikeController {
         if (user == null) {
             return Result.unauthorized("未登录");
         }
-        artworkLikeService.removeLike(artworkId, user);
-        return Result.success(null);
+        return Result.success(artworkLikeService.removeLike(artworkId, user));
     }
 
     /**
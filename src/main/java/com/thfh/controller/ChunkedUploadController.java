@@ -0,0 +1,128 @@
+package com.thfh.controller;
+
+import com.thfh.common.Result;
+import com.thfh.dto.ChunkedUploadInitRequest;
+import com.thfh.dto.ChunkedUploadStatusDTO;
+import com.thfh.service.ChunkedUploadService;
+import com.thfh.service.FileStorageService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 分片上传控制器
+ * 提供大文件的断点续传上传：初始化、上传分片、查询进度、完成和取消
+ */
+@Tag(name = "分片上传", description = "大文件的断点续传上传")
+@RestController
+@RequestMapping("/api/upload/chunked")
+public class ChunkedUploadController {
+
+    private static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-Sha256";
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    /**
+     * 初始化分片上传
+     * @param request 文件名、大小、分片大小等信息
+     * @return 上传会话状态，包含uploadId和分片数量
+     */
+    @Operation(summary = "初始化分片上传", description = "创建上传会话并预分配文件，返回uploadId和分片划分")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "初始化成功"),
+            @ApiResponse(responseCode = "400", description = "参数错误或文件过大"),
+            @ApiResponse(responseCode = "401", description = "未授权")
+    })
+    @PostMapping("/init")
+    public Result<ChunkedUploadStatusDTO> initiate(@Valid @RequestBody ChunkedUploadInitRequest request) throws IOException {
+        return Result.success(chunkedUploadService.initiate(request));
+    }
+
+    /**
+     * 上传一个分片
+     * 请求体为分片的原始字节，请求头X-Chunk-Sha256为分片内容的SHA-256
+     * @param uploadId 上传会话ID
+     * @param index 分片序号
+     * @param checksum 分片SHA-256
+     * @param request 请求
+     * @return 上传会话状态
+     */
+    @Operation(summary = "上传分片", description = "请求体为分片原始字节，可并行或乱序上传，校验失败的分片可重传")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "上传成功"),
+            @ApiResponse(responseCode = "400", description = "分片大小或校验值不正确"),
+            @ApiResponse(responseCode = "404", description = "上传会话不存在或已过期")
+    })
+    @PutMapping("/{uploadId}/chunks/{index}")
+    public Result<ChunkedUploadStatusDTO> uploadChunk(
+            @Parameter(description = "上传会话ID", required = true) @PathVariable String uploadId,
+            @Parameter(description = "分片序号（从0开始）", required = true) @PathVariable int index,
+            @Parameter(description = "分片内容的SHA-256", required = true) @RequestHeader(CHUNK_CHECKSUM_HEADER) String checksum,
+            HttpServletRequest request) throws IOException {
+        return Result.success(chunkedUploadService.uploadChunk(uploadId, index, checksum, request.getInputStream()));
+    }
+
+    /**
+     * 查询上传进度
+     * @param uploadId 上传会话ID
+     * @return 已接收的字节范围和缺失的分片
+     */
+    @Operation(summary = "查询上传进度", description = "返回已接收的字节范围和缺失的分片，用于断点续传")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "查询成功"),
+            @ApiResponse(responseCode = "404", description = "上传会话不存在或已过期")
+    })
+    @GetMapping("/{uploadId}")
+    public Result<ChunkedUploadStatusDTO> getStatus(
+            @Parameter(description = "上传会话ID", required = true) @PathVariable String uploadId) {
+        return Result.success(chunkedUploadService.getStatus(uploadId));
+    }
+
+    /**
+     * 完成分片上传
+     * @param uploadId 上传会话ID
+     * @return 文件访问URL、路径、大小和SHA-256
+     */
+    @Operation(summary = "完成分片上传", description = "所有分片到齐后合并文件，返回文件访问URL")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "上传完成"),
+            @ApiResponse(responseCode = "400", description = "文件校验失败"),
+            @ApiResponse(responseCode = "403", description = "仍有分片未上传"),
+            @ApiResponse(responseCode = "404", description = "上传会话不存在或已过期")
+    })
+    @PostMapping("/{uploadId}/complete")
+    public Result<Map<String, Object>> complete(
+            @Parameter(description = "上传会话ID", required = true) @PathVariable String uploadId) throws IOException {
+        FileStorageService.StorageResult stored = chunkedUploadService.complete(uploadId);
+        Map<String, Object> data = new HashMap<>();
+        data.put("url", stored.getUrl());
+        data.put("path", stored.getRelativePath());
+        data.put("size", stored.getSize());
+        data.put("sha256", stored.getSha256());
+        return Result.success(data);
+    }
+
+    /**
+     * 取消分片上传
+     * @param uploadId 上传会话ID
+     * @return 操作结果
+     */
+    @Operation(summary = "取消分片上传", description = "删除上传会话和已写入的数据")
+    @DeleteMapping("/{uploadId}")
+    public Result<Void> abort(
+            @Parameter(description = "上传会话ID", required = true) @PathVariable String uploadId) throws IOException {
+        chunkedUploadService.abort(uploadId);
+        return Result.success();
+    }
+}
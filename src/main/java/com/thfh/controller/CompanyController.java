@@ -3,6 +3,7 @@ package com.thfh.controller;
 import com.thfh.common.Result;
 import com.thfh.model.Company;
 import com.thfh.repository.CompanyRepository;
+import com.thfh.service.JobSearchIndex;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -33,6 +34,9 @@ public class CompanyController {
     @Autowired
     private CompanyRepository companyRepository;
 
+    @Autowired
+    private JobSearchIndex jobSearchIndex;
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -141,7 +145,10 @@ public class CompanyController {
             updatedCompany.setAddress(company.getAddress());
             updatedCompany.setTags(company.getTags()); // 保留标签字段
             updatedCompany.setUpdateTime(LocalDateTime.now());
-            return Result.success(companyRepository.save(updatedCompany));
+            Company savedCompany = companyRepository.save(updatedCompany);
+            // 职位搜索索引中保存了公司名称和标签
+            jobSearchIndex.refreshCompany(id);
+            return Result.success(savedCompany);
         }
         return Result.error("公司不存在");
     }
@@ -173,6 +180,7 @@ public class CompanyController {
                 
                 // 再删除公司
                 companyRepository.deleteById(id);
+                jobSearchIndex.refreshCompany(id);
                 System.out.println("公司删除成功，ID: " + id);
                 return Result.success(null);
             } else {
@@ -242,6 +250,7 @@ public class CompanyController {
             
             // 再删除公司
             companyRepository.deleteAllById(ids);
+            ids.forEach(jobSearchIndex::refreshCompany);
             System.out.println("批量删除公司成功，ID列表: " + ids);
             return Result.success(null);
         } catch (Exception e) {
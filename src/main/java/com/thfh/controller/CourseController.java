@@ -6,6 +6,7 @@ import com.thfh.dto.CourseInteractionDTO;
 import com.thfh.dto.CourseQueryDTO;
 import com.thfh.dto.SimpleUserDTO;
 import com.thfh.model.User;
+import com.thfh.service.CourseInteractionService;
 import com.thfh.service.CourseManagementService;
 import com.thfh.service.UserService;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -32,10 +33,13 @@ public class CourseController {
 
     private CourseManagementService courseManagementService;
     private UserService userService;
+    private CourseInteractionService courseInteractionService;
 
-    public CourseController(CourseManagementService courseManagementService, UserService userService) {
+    public CourseController(CourseManagementService courseManagementService, UserService userService,
+                            CourseInteractionService courseInteractionService) {
         this.courseManagementService = courseManagementService;
         this.userService = userService;
+        this.courseInteractionService = courseInteractionService;
     }
 
     /**
@@ -185,39 +189,37 @@ public class CourseController {
     /**
      * 点赞/取消点赞课程
      * @param id 课程ID
-     * @return 操作结果
+     * @return 切换后的互动状态和课程点赞数、收藏数
      */
-    @Operation(summary = "点赞/取消点赞课程", description = "对指定课程进行点赞或取消点赞操作")
+    @Operation(summary = "点赞/取消点赞课程", description = "对指定课程进行点赞或取消点赞操作，返回切换后的状态和计数")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "操作成功"),
         @ApiResponse(responseCode = "401", description = "未授权，请先登录"),
         @ApiResponse(responseCode = "404", description = "课程不存在")
     })
     @PostMapping("/{id}/toggle-like")
-    public Result<Void> toggleCourseLike(
+    public Result<CourseInteractionDTO> toggleCourseLike(
             @Parameter(description = "课程ID", required = true) @PathVariable Long id) {
         User currentUser = userService.getCurrentUser();
-        courseManagementService.toggleCourseLike(id, currentUser.getId());
-        return Result.success(null);
+        return Result.success(courseInteractionService.toggleLike(id, currentUser.getId()));
     }
 
     /**
      * 收藏/取消收藏课程
      * @param id 课程ID
-     * @return 操作结果
+     * @return 切换后的互动状态和课程点赞数、收藏数
      */
-    @Operation(summary = "收藏/取消收藏课程", description = "对指定课程进行收藏或取消收藏操作")
+    @Operation(summary = "收藏/取消收藏课程", description = "对指定课程进行收藏或取消收藏操作，返回切换后的状态和计数")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "操作成功"),
         @ApiResponse(responseCode = "401", description = "未授权，请先登录"),
         @ApiResponse(responseCode = "404", description = "课程不存在")
     })
     @PostMapping("/{id}/toggle-favorite")
-    public Result<Void> toggleCourseFavorite(
+    public Result<CourseInteractionDTO> toggleCourseFavorite(
             @Parameter(description = "课程ID", required = true) @PathVariable Long id) {
         User currentUser = userService.getCurrentUser();
-        courseManagementService.toggleCourseFavorite(id, currentUser.getId());
-        return Result.success(null);
+        return Result.success(courseInteractionService.toggleFavorite(id, currentUser.getId()));
     }
 
     /**
@@ -235,7 +237,25 @@ public class CourseController {
     public Result<CourseInteractionDTO> getCourseInteractionInfo(
             @Parameter(description = "课程ID", required = true) @PathVariable Long id) {
         User currentUser = userService.getCurrentUser();
-        return Result.success(courseManagementService.getCourseInteractionInfo(id, currentUser.getId()));
+        return Result.success(courseInteractionService.getInteraction(id, currentUser.getId()));
+    }
+
+    /**
+     * 批量获取当前用户对一批课程的交互信息
+     * @param ids 课程ID列表
+     * @return 键为课程ID的交互信息，只包含点赞或收藏过的课程
+     */
+    @Operation(summary = "批量获取课程交互信息", description = "课程列表页一次获取当前用户对多个课程的点赞和收藏状态，单次最多200个")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "获取成功"),
+        @ApiResponse(responseCode = "400", description = "课程数量超过上限"),
+        @ApiResponse(responseCode = "401", description = "未授权，请先登录")
+    })
+    @GetMapping("/interactions")
+    public Result<Map<Long, CourseInteractionDTO>> getCourseInteractions(
+            @Parameter(description = "课程ID列表", required = true) @RequestParam List<Long> ids) {
+        User currentUser = userService.getCurrentUser();
+        return Result.success(courseInteractionService.getInteractions(currentUser.getId(), ids));
     }
 
     /**
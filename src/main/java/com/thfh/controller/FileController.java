@@ -1,8 +1,8 @@
 package com.thfh.controller;
 
 import com.thfh.model.User;
+import com.thfh.service.FileStorageService;
 import com.thfh.service.UserService;
-import com.thfh.util.ServerUrlUtil;
 import com.thfh.common.Result;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
@@ -34,17 +34,16 @@ public class FileController {
 
     private static final String MESSAGE = "message";
     private static final String UNAUTHORIZED_MSG = "未授权，请先登录";
-    private static final String PATH_DELIMITER = java.io.File.separator;
 
     @Value("${file.upload-dir}")
     private String uploadDir;
     
     private final UserService userService;
-    private final ServerUrlUtil serverUrlUtil;
+    private final FileStorageService fileStorageService;
 
-    public FileController(UserService userService, ServerUrlUtil serverUrlUtil) {
+    public FileController(UserService userService, FileStorageService fileStorageService) {
         this.userService = userService;
-        this.serverUrlUtil = serverUrlUtil;
+        this.fileStorageService = fileStorageService;
     }
 
     // 允许的视频文件类型
@@ -128,42 +127,34 @@ public class FileController {
 
     /**
      * 处理文件保存
+     * 未指定路径和文件名时按内容去重存储，否则保存到指定位置
      * @param file 上传的文件
      * @param customPath 自定义路径（可选）
      * @param customFileName 自定义文件名（可选）
      * @return 保存后的文件路径和URL
      */
     private FileInfo saveFile(MultipartFile file, String customPath, String customFileName) throws IOException {
-        // 确定存储路径
-        String finalPath = customPath != null && !customPath.trim().isEmpty() 
-            ? uploadDir + PATH_DELIMITER + customPath.trim() 
-            : uploadDir;
-        
-        // 创建目录（如果不存在）
-        Path uploadPath = Paths.get(finalPath);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
-        // 确定文件名
+        boolean hasCustomPath = customPath != null && !customPath.trim().isEmpty();
+        boolean hasCustomName = customFileName != null && !customFileName.trim().isEmpty();
         String originalFilename = file.getOriginalFilename();
-        String extension = "";
-        if (originalFilename != null && originalFilename.lastIndexOf(".") != -1) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        }
-        String filename = customFileName != null && !customFileName.trim().isEmpty()
-            ? customFileName.trim() + extension
-            : UUID.randomUUID().toString() + extension;
 
-        // 保存文件
-        Path filePath = uploadPath.resolve(filename);
-        Files.copy(file.getInputStream(), filePath);
-
-        // 构建相对路径和完整URL
-        String relativePath = (customPath != null && !customPath.isEmpty() ? customPath + PATH_DELIMITER : "") + filename;
-        String fileUrl = serverUrlUtil.getFileUrl(relativePath.replace(PATH_DELIMITER, "/"));
+        FileStorageService.StorageResult result;
+        if (!hasCustomPath && !hasCustomName) {
+            result = fileStorageService.store(file);
+        } else {
+            // 确定文件名
+            String extension = "";
+            if (originalFilename != null && originalFilename.lastIndexOf(".") != -1) {
+                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            }
+            String filename = hasCustomName
+                ? customFileName.trim() + extension
+                : UUID.randomUUID().toString() + extension;
+            String relativePath = (hasCustomPath ? customPath.trim() + "/" : "") + filename;
+            result = fileStorageService.storeAt(file, relativePath);
+        }
 
-        return new FileInfo(relativePath, fileUrl, originalFilename, file.getSize(), file.getContentType());
+        return new FileInfo(result.getRelativePath(), result.getUrl(), originalFilename, file.getSize(), file.getContentType());
     }
 
     /**
@@ -334,7 +325,8 @@ public class FileController {
                 data.put(MESSAGE, "文件记录已删除，但文件不存在于磁盘");
                 return Result.success(data);
             }
-            Files.delete(fullPath);
+            // 去重存储的文件可能被其他记录引用，由存储服务按引用计数删除
+            fileStorageService.release(filePath);
             Map<String, Object> data = new HashMap<>();
             data.put(MESSAGE, "文件删除成功");
             return Result.success(data);
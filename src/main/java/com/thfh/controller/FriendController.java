@@ -154,4 +154,15 @@ public class FriendController {
             @Parameter(description = "好友ID", required = true) @RequestParam Long friendId) {
         return Result.success(friendService.isFriend(userId, friendId));
     }
+
+    /**
+     * 查询两用户的共同好友
+     */
+    @Operation(summary = "查询两用户的共同好友", description = "返回两个用户共同好友的用户ID列表")
+    @GetMapping("/mutual")
+    public Result<List<Long>> getMutualFriends(
+            @Parameter(description = "用户ID", required = true) @RequestParam Long userId,
+            @Parameter(description = "另一个用户ID", required = true) @RequestParam Long otherUserId) {
+        return Result.success(friendService.getMutualFriendIds(userId, otherUserId));
+    }
 } 
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.thfh.controller;
 import com.thfh.common.Result;
 import com.thfh.dto.JobApplicationDTO;
 import com.thfh.dto.JobApplicationQueryDTO;
+import com.thfh.dto.JobApplicationStatsDTO;
 import com.thfh.model.JobApplicationStatus;
 import com.thfh.service.JobApplicationService;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -16,6 +17,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 职位申请控制器
@@ -237,4 +239,20 @@ public class JobApplicationController {
             @Parameter(description = "公司ID", required = true) @PathVariable Long companyId) {
         return Result.success(jobApplicationService.getCompanyUnreadApplicationCount(companyId));
     }
-} 
\ No newline at end of file
+
+    /**
+     * 获取公司全部职位的申请统计
+     * @param companyId 公司ID
+     * @return 各职位的申请统计
+     */
+    @Operation(summary = "获取公司职位申请统计", description = "一次获取指定公司所有职位的各状态申请数量和未读数量，按职位ID排序")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "获取成功"),
+        @ApiResponse(responseCode = "401", description = "未授权，请先登录")
+    })
+    @GetMapping("/stats/company/{companyId}")
+    public Result<List<JobApplicationStatsDTO>> getCompanyApplicationStats(
+            @Parameter(description = "公司ID", required = true) @PathVariable Long companyId) {
+        return Result.success(jobApplicationService.getCompanyApplicationStats(companyId));
+    }
+}
@@ -3,6 +3,7 @@ package com.thfh.controller;
 import com.thfh.common.Result;
 import com.thfh.dto.JobDTO;
 import com.thfh.dto.JobQueryDTO;
+import com.thfh.dto.JobSearchResultDTO;
 import com.thfh.dto.UserDTO;
 import com.thfh.exception.ResourceNotFoundException;
 import com.thfh.model.Job;
@@ -22,7 +23,6 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 工作/职位管理控制器
@@ -54,6 +54,22 @@ public class JobController {
         return Result.success(jobService.getJobs(queryDTO));
     }
 
+    /**
+     * 搜索已发布的职位
+     * @param queryDTO 查询条件，支持标题、公司名称、地点模糊匹配和公司、分类筛选
+     * @return 当前页职位和分类、地点、公司的分面统计
+     */
+    @Operation(summary = "搜索职位", description = "搜索已发布且启用的职位，分类筛选包含子分类，同时返回分类、地点、公司的分面统计")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "搜索成功"),
+        @ApiResponse(responseCode = "401", description = "未授权，请先登录")
+    })
+    @GetMapping("/search")
+    public Result<JobSearchResultDTO> searchJobs(
+            @Parameter(description = "查询条件，包含标题、公司、地点、分类和分页信息") JobQueryDTO queryDTO) {
+        return Result.success(jobService.searchJobs(queryDTO));
+    }
+
     /**
      * 创建新工作/职位
      * @param jobDTO 工作/职位信息
@@ -220,9 +236,7 @@ public class JobController {
         
         // 获取企业用户列表
         List<User> users = userService.findUsersByCompanyId(companyId);
-        List<UserDTO> userDTOs = users.stream()
-                .map(user -> userService.convertToDTO(user))
-                .collect(Collectors.toList());
+        List<UserDTO> userDTOs = userService.convertToDTOs(users);
                     
         return Result.success(userDTOs);
     }
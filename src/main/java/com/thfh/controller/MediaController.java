@@ -0,0 +1,247 @@
+package com.thfh.controller;
+
+import com.thfh.common.Result;
+import com.thfh.service.ImageVariantService;
+import com.thfh.service.MediaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * 媒体文件控制器
+ * 替代/uploads/**的静态资源映射，直接提供上传文件的下载：
+ * 支持Range/If-Range断点续传、强ETag与Last-Modified协商缓存、UUID文件名的长期不可变缓存，
+ * 大文件优先使用Tomcat sendfile零拷贝发送，不支持时回退到FileChannel.transferTo；
+ * 图片可通过 ?variant=thumb|medium 获取缩略图或中等尺寸图
+ */
+@Tag(name = "媒体文件", description = "上传文件的下载与统计")
+@RestController
+public class MediaController {
+
+    private static final String UPLOADS_PATTERN = "/uploads/**";
+
+    // Tomcat sendfile请求属性
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    // 小于该大小的文件直接写出，sendfile的系统调用开销不划算（与Tomcat默认sendfileSize一致）
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024L;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private MediaService mediaService;
+
+    /**
+     * 下载上传的文件
+     * @param request 请求
+     * @param response 响应
+     * @throws IOException 读取或发送文件失败时抛出
+     */
+    @Operation(summary = "下载上传文件", description = "支持Range断点续传和ETag/Last-Modified协商缓存")
+    @RequestMapping(value = UPLOADS_PATTERN, method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        String relativePath = pathMatcher.extractPathWithinPattern(UPLOADS_PATTERN, path);
+        ImageVariantService.Variant variant = ImageVariantService.Variant.fromKey(request.getParameter(ImageVariantService.VARIANT_PARAM));
+        MediaService.MediaFile file = variant == null
+                ? mediaService.resolve(relativePath)
+                : mediaService.resolveVariant(relativePath, variant);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, file.getEtag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, file.getLastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, file.getCacheControl());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (isNotModified(request, file)) {
+            mediaService.recordNotModified();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long length = file.getLength();
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && isIfRangeSatisfied(request, file)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds != null && bounds.length == 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                partial = true;
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(file.getContentType().toString());
+        response.setContentLengthLong(count);
+        if (partial) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (count >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // 交给Tomcat在响应提交后通过sendfile直接从页缓存发送
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.getPath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end + 1);
+        } else {
+            transfer(file, start, count, response);
+        }
+        mediaService.recordServed(count, partial);
+    }
+
+    /**
+     * 获取媒体下载统计
+     * @return 请求数、304命中数、Range请求数、发送字节数和缓存命中率
+     */
+    @Operation(summary = "获取媒体下载统计", description = "返回上传文件下载的流量和缓存命中统计")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "获取成功"),
+            @ApiResponse(responseCode = "403", description = "无权限")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/api/media/stats")
+    public Result<Map<String, Object>> getStats() {
+        return Result.success(mediaService.getStats());
+    }
+
+    private void transfer(MediaService.MediaFile file, long start, long count, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+
+    private boolean isNotModified(HttpServletRequest request, MediaService.MediaFile file) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // 存在If-None-Match时忽略If-Modified-Since
+            return matchesEtag(ifNoneMatch, file.getEtag(), true);
+        }
+        long ifModifiedSince = getDateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && file.getLastModified() / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private boolean isIfRangeSatisfied(HttpServletRequest request, MediaService.MediaFile file) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.trim().startsWith("\"") || ifRange.trim().startsWith("W/")) {
+            // If-Range要求强比较
+            return matchesEtag(ifRange, file.getEtag(), false);
+        }
+        long date = getDateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && file.getLastModified() / 1000 == date / 1000;
+    }
+
+    private boolean matchesEtag(String header, String etag, boolean weakComparison) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if ("*".equals(value)) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                if (!weakComparison) {
+                    continue;
+                }
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long getDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 解析单段Range请求头
+     * @return {start, end}；多段或格式错误时返回null（按完整内容响应）；范围无法满足时返回空数组
+     */
+    private long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // bytes=-N 表示最后N个字节
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return new long[0];
+                }
+                start = Math.max(length - suffix, 0);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (start >= length || start > end) {
+                return new long[0];
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
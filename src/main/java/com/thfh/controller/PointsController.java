@@ -3,19 +3,24 @@ package com.thfh.controller;
 import com.thfh.common.Result;
 import com.thfh.dto.PointsRecordDTO;
 import com.thfh.dto.PointsAdjustDTO;
+import com.thfh.dto.PointsGrantDTO;
+import com.thfh.dto.PointsGrantJobDTO;
 import com.thfh.dto.PointsQueryDTO;
-import com.thfh.model.User;
+import com.thfh.service.PointsGrantService;
 import com.thfh.service.PointsService;
-import com.thfh.service.UserService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * 积分管理控制器
  * 提供用户积分的查询、调整和管理等功能
@@ -28,7 +33,7 @@ public class PointsController {
     private PointsService pointsService;
 
     @Autowired
-    private UserService userService;
+    private PointsGrantService pointsGrantService;
 
     /**
      * 获取积分记录列表
@@ -86,10 +91,60 @@ public class PointsController {
     })
     @GetMapping("/current")
     public Result<Integer> getCurrentUserPoints() {
-        User currentUser = userService.getCurrentUser();
-        if (currentUser == null) {
-            throw new RuntimeException("用户未登录");
-        }
-        return Result.success(currentUser.getPoints());
+        return Result.success(pointsService.getCurrentUserPoints());
+    }
+
+    /**
+     * 获取当前登录用户的积分流水
+     * @param cursor 上一页最后一条记录的ID，为空时查询第一页
+     * @param size 每页条数，最大100
+     * @return 按时间倒序的积分流水，包含流水序号和变动后余额
+     */
+    @Operation(summary = "获取当前用户积分流水", description = "按时间倒序的键集分页，传入上一页最后一条记录的ID获取下一页")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "获取成功"),
+        @ApiResponse(responseCode = "401", description = "未授权，请先登录")
+    })
+    @GetMapping("/ledger")
+    public Result<List<PointsRecordDTO>> getCurrentUserLedger(
+            @Parameter(description = "上一页最后一条记录的ID") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "每页条数") @RequestParam(defaultValue = "20") int size) {
+        return Result.success(pointsService.getCurrentUserLedger(cursor, size));
+    }
+
+    /**
+     * 批量发放积分和经验值
+     * @param grantDTO 发放参数，指定用户ID列表或按用户类型、状态、课程筛选
+     * @return 发放任务状态，任务在后台分块执行
+     */
+    @Operation(summary = "批量发放积分", description = "按用户列表或筛选条件向一批用户发放积分和经验值，返回后台任务ID用于查询进度")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "任务已提交"),
+        @ApiResponse(responseCode = "400", description = "请求参数错误"),
+        @ApiResponse(responseCode = "401", description = "未授权，请先登录"),
+        @ApiResponse(responseCode = "403", description = "没有权限发放积分")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/grants")
+    public Result<PointsGrantJobDTO> grantPoints(
+            @Parameter(description = "批量发放参数", required = true) @Valid @RequestBody PointsGrantDTO grantDTO) {
+        return Result.success(pointsGrantService.start(grantDTO));
+    }
+
+    /**
+     * 查询批量发放任务进度
+     * @param jobId 任务ID
+     * @return 任务状态，包含目标用户数、已处理数和发放成功数
+     */
+    @Operation(summary = "查询批量发放进度", description = "根据任务ID查询批量发放积分任务的进度和结果")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "查询成功"),
+        @ApiResponse(responseCode = "404", description = "任务不存在")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/grants/{jobId}")
+    public Result<PointsGrantJobDTO> getGrantJob(
+            @Parameter(description = "任务ID", required = true) @PathVariable String jobId) {
+        return Result.success(pointsGrantService.getJob(jobId));
     }
-}
\ No newline at end of file
+}
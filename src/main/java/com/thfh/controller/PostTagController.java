@@ -82,6 +82,25 @@ public class PostTagController {
         postTagService.deleteTag(id);
         return Result.success(null);
     }
+
+    /**
+     * 合并标签（仅管理员可操作）
+     */
+    @Operation(summary = "合并标签", description = "将源标签的动态关联转移到目标标签并删除源标签，仅管理员可操作")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "合并成功"),
+        @ApiResponse(responseCode = "400", description = "源标签与目标标签相同"),
+        @ApiResponse(responseCode = "401", description = "未授权，请先登录"),
+        @ApiResponse(responseCode = "403", description = "没有权限合并标签"),
+        @ApiResponse(responseCode = "404", description = "标签不存在")
+    })
+    @PostMapping("/{id}/merge-into/{targetId}")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public Result<PostTag> mergeTag(
+            @Parameter(description = "源标签ID", required = true) @PathVariable Long id,
+            @Parameter(description = "目标标签ID", required = true) @PathVariable Long targetId) {
+        return Result.success(postTagService.mergeTag(id, targetId));
+    }
     
     /**
      * 更新标签
@@ -20,7 +20,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import com.thfh.exception.UserNotLoggedInException;
 
 /**
@@ -202,9 +201,7 @@ public class UserController {
     public Result<List<UserDTO>> findUsersByCompanyId(
             @Parameter(description = "公司ID", required = true) @PathVariable Long companyId) {
         List<User> users = userService.findUsersByCompanyId(companyId);
-        List<UserDTO> userDTOs = users.stream()
-                .map(user -> userService.convertToDTO(user))
-                .collect(Collectors.toList());
+        List<UserDTO> userDTOs = userService.convertToDTOs(users);
         return Result.success(userDTOs);
     }
 
@@ -230,7 +227,7 @@ public class UserController {
             @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") int pageSize) {
         Pageable pageable = PageRequest.of(pageNum - 1, pageSize);
         Page<User> userPage = userService.findUsersByCompanyId(companyId, pageable);
-        Page<UserDTO> userDTOPage = userPage.map(user -> userService.convertToDTO(user));
+        Page<UserDTO> userDTOPage = userService.convertToDTOPage(userPage);
         return Result.success(userDTOPage);
     }
 
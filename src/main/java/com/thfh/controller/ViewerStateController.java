@@ -0,0 +1,51 @@
+package com.thfh.controller;
+
+import com.thfh.common.Result;
+import com.thfh.dto.ViewerStateDTO;
+import com.thfh.dto.ViewerStateRequest;
+import com.thfh.model.User;
+import com.thfh.service.UserService;
+import com.thfh.service.ViewerStateService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 用户交互状态控制器
+ * 提供批量查询当前用户点赞、收藏、评分状态的API接口，替代逐条调用的检查接口
+ */
+@Tag(name = "交互状态", description = "批量查询当前用户对作品、动态、评论的交互状态")
+@RestController
+@RequestMapping("/api/viewer-state")
+public class ViewerStateController {
+
+    @Autowired
+    private ViewerStateService viewerStateService;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * 批量查询交互状态
+     * 一次请求返回一页内容的全部点赞、收藏、评分状态
+     * @param request 作品、动态、评论ID列表
+     * @return 状态为true的ID集合
+     */
+    @Operation(summary = "批量查询交互状态", description = "返回当前用户已点赞/收藏/评分的作品、已点赞的动态和评论ID，每类ID单次最多200个")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "查询成功"),
+            @ApiResponse(responseCode = "400", description = "ID数量超过上限"),
+            @ApiResponse(responseCode = "401", description = "未授权，请先登录")
+    })
+    @PostMapping
+    public Result<ViewerStateDTO> getViewerState(@RequestBody ViewerStateRequest request) {
+        User user = userService.getCurrentUser();
+        if (user == null) {
+            return Result.unauthorized("未登录");
+        }
+        return Result.success(viewerStateService.getViewerState(user.getId(), request));
+    }
+}
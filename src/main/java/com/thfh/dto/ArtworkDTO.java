@@ -26,6 +26,9 @@ public class ArtworkDTO {
     
     @Schema(description = "封面URL", example = "https://example.com/artwork.jpg")
     private String coverUrl;
+
+    @Schema(description = "封面缩略图URL，列表展示使用", example = "https://example.com/uploads/artwork.jpg?variant=thumb")
+    private String coverThumbnailUrl;
     
     @Schema(description = "材料", example = "水彩、油画颜料")
     private String materials;
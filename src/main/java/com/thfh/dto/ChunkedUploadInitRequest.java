@@ -0,0 +1,32 @@
+package com.thfh.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * 分片上传初始化请求
+ */
+@Data
+@Schema(description = "分片上传初始化请求 - 声明文件信息并创建上传会话")
+public class ChunkedUploadInitRequest {
+    @NotBlank(message = "文件名不能为空")
+    @Schema(description = "原始文件名", required = true, example = "lesson1.mp4")
+    private String fileName;
+
+    @NotNull(message = "文件大小不能为空")
+    @Positive(message = "文件大小必须大于0")
+    @Schema(description = "文件总大小(字节)", required = true, example = "104857600")
+    private Long fileSize;
+
+    @Schema(description = "MIME类型", example = "video/mp4")
+    private String contentType;
+
+    @Schema(description = "分片大小(字节)，不传时使用服务端默认值", example = "5242880")
+    private Integer chunkSize;
+
+    @Schema(description = "整个文件的SHA-256（可选），完成时校验", example = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+    private String sha256;
+}
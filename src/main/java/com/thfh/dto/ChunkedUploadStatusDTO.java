@@ -0,0 +1,37 @@
+package com.thfh.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 分片上传会话状态
+ */
+@Data
+@Schema(description = "分片上传状态 - 已接收的分片和字节范围，用于断点续传")
+public class ChunkedUploadStatusDTO {
+    @Schema(description = "上传会话ID", example = "3f2b8c1e-6d8a-4c1f-9a0e-1b2c3d4e5f60")
+    private String uploadId;
+
+    @Schema(description = "原始文件名", example = "lesson1.mp4")
+    private String fileName;
+
+    @Schema(description = "文件总大小(字节)", example = "104857600")
+    private Long fileSize;
+
+    @Schema(description = "分片大小(字节)", example = "5242880")
+    private Integer chunkSize;
+
+    @Schema(description = "分片总数", example = "20")
+    private Integer totalChunks;
+
+    @Schema(description = "已接收的分片数", example = "12")
+    private Integer receivedChunks;
+
+    @Schema(description = "已接收的字节范围，每项为[起始偏移, 结束偏移]（均包含）", example = "[[0, 62914559]]")
+    private List<long[]> receivedRanges;
+
+    @Schema(description = "尚未接收的分片序号", example = "[12, 13, 14]")
+    private List<Integer> missingChunks;
+}
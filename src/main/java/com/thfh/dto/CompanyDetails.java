@@ -48,6 +48,9 @@ public class CompanyDetails {
     
     @Schema(description = "公司类型", example = "科技公司")
     private String type;
+
+    @Schema(description = "所属行业", example = "互联网")
+    private String industry;
     
     @Schema(description = "公司标签", example = "人工智能,无障碍技术,互联网")
     private String tags;
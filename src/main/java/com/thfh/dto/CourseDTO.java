@@ -1,10 +1,12 @@
 package com.thfh.dto;
 
+import com.thfh.model.Course;
 import com.thfh.model.CourseStatus;
 import lombok.Data;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.math.BigDecimal;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 课程数据传输对象
@@ -138,4 +140,42 @@ public class CourseDTO {
      */
     @Schema(description = "开发团队", example = "教研团队A")
     private String devTeam;
-} 
\ No newline at end of file
+
+    /**
+     * 从课程实体转换，逐字段赋值，不使用反射拷贝
+     * 讲师和标签需已加载，否则会触发懒加载
+     * @param course 课程实体
+     * @return 课程DTO
+     */
+    public static CourseDTO fromEntity(Course course) {
+        CourseDTO dto = new CourseDTO();
+        dto.setId(course.getId());
+        dto.setTitle(course.getTitle());
+        dto.setDescription(course.getDescription());
+        dto.setCoverImage(course.getCoverImage());
+        dto.setCoverVideo(course.getCoverVideo());
+        if (course.getTeacher() != null) {
+            dto.setTeacherId(course.getTeacher().getId());
+            dto.setTeacherName(course.getTeacher().getUsername());
+        }
+        dto.setPrice(course.getPrice());
+        dto.setPointsPrice(course.getPointsPrice());
+        dto.setTotalHours(course.getTotalHours());
+        dto.setStatus(course.getStatus());
+        dto.setVideoUrl(course.getVideoUrl());
+        dto.setMaterials(course.getMaterials());
+        dto.setLikeCount(course.getLikeCount());
+        dto.setFavoriteCount(course.getFavoriteCount());
+        dto.setStudentCount(course.getStudentCount());
+        dto.setEnabled(course.getEnabled());
+        if (course.getTags() != null) {
+            dto.setTags(course.getTags().stream().map(CourseTagDTO::fromEntity).collect(Collectors.toSet()));
+        }
+        if (course.getCreateTime() != null) {
+            dto.setCreateTime(course.getCreateTime().toString());
+        }
+        dto.setViewCount(course.getViewCount());
+        dto.setDevTeam(course.getDevTeam());
+        return dto;
+    }
+}
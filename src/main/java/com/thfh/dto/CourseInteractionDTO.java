@@ -14,4 +14,10 @@ public class CourseInteractionDTO {
     
     @Schema(description = "是否收藏", example = "false")
     private Boolean favorited;
+
+    @Schema(description = "课程点赞数，仅点赞/收藏操作返回", example = "256")
+    private Integer likeCount;
+
+    @Schema(description = "课程收藏数，仅点赞/收藏操作返回", example = "128")
+    private Integer favoriteCount;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.thfh.dto;
 
+import com.thfh.model.CourseTag;
 import lombok.Data;
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -20,4 +21,18 @@ public class CourseTagDTO {
     
     @Schema(description = "是否启用", example = "true")
     private Boolean enabled;
+
+    /**
+     * 从课程标签实体转换
+     * @param tag 课程标签实体
+     * @return 课程标签DTO
+     */
+    public static CourseTagDTO fromEntity(CourseTag tag) {
+        CourseTagDTO dto = new CourseTagDTO();
+        dto.setId(tag.getId());
+        dto.setName(tag.getName());
+        dto.setDescription(tag.getDescription());
+        dto.setEnabled(tag.getEnabled());
+        return dto;
+    }
 }
@@ -0,0 +1,41 @@
+package com.thfh.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 职位申请统计
+ */
+@Data
+@Schema(description = "职位申请统计 - 某个职位各状态的申请数量和未读数量")
+public class JobApplicationStatsDTO {
+    @Schema(description = "职位ID", example = "1")
+    private Long jobId;
+
+    @Schema(description = "所属公司ID", example = "1")
+    private Long companyId;
+
+    @Schema(description = "申请总数", example = "30")
+    private Long total;
+
+    @Schema(description = "待处理的申请数", example = "10")
+    private Long pending;
+
+    @Schema(description = "审核中的申请数", example = "8")
+    private Long reviewing;
+
+    @Schema(description = "面试中的申请数", example = "5")
+    private Long interview;
+
+    @Schema(description = "已接受的申请数", example = "2")
+    private Long accepted;
+
+    @Schema(description = "已拒绝的申请数", example = "4")
+    private Long rejected;
+
+    @Schema(description = "已撤回的申请数", example = "1")
+    private Long withdrawn;
+
+    @Schema(description = "企业未读的申请数", example = "6")
+    private Long unread;
+}
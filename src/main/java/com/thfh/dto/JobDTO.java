@@ -1,5 +1,6 @@
 package com.thfh.dto;
 
+import com.thfh.model.Job;
 import com.thfh.model.JobStatus;
 import lombok.Data;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -174,4 +175,114 @@ public class JobDTO {
      */
     @Schema(description = "创建时间", example = "2023-01-01 10:00:00")
     private LocalDateTime createTime;
-} 
\ No newline at end of file
+
+    /**
+     * 将职位实体转换为DTO
+     * 公司和分类需已加载，批量转换时应通过抓取连接一并查询
+     * @param job 职位实体
+     * @return 职位DTO
+     */
+    public static JobDTO fromEntity(Job job) {
+        JobDTO dto = new JobDTO();
+        dto.setId(job.getId());
+        dto.setTitle(job.getTitle());
+        dto.setDescription(job.getDescription());
+        if (job.getCompany() != null) {
+            dto.setCompanyId(job.getCompany().getId());
+            dto.setCompanyName(job.getCompany().getName());
+        }
+        if (job.getCategory() != null) {
+            dto.setCategoryId(job.getCategory().getId());
+            dto.setCategoryName(job.getCategory().getName());
+        }
+        dto.setLocation(job.getLocation());
+        dto.setSalaryMin(job.getSalaryMin());
+        dto.setSalaryMax(job.getSalaryMax());
+        dto.setRequirements(job.getRequirements());
+        dto.setBenefits(job.getBenefits());
+        dto.setDisabilitySupport(job.getDisabilitySupport());
+        dto.setContactPerson(job.getContactPerson());
+        dto.setContactPhone(job.getContactPhone());
+        dto.setContactEmail(job.getContactEmail());
+        dto.setCompanyTreatment(job.getCompanyTreatment());
+        dto.setEmployeeBenefits(job.getEmployeeBenefits());
+        dto.setPromotionProspects(job.getPromotionProspects());
+        dto.setJobRequirements(job.getJobRequirements());
+        dto.setPositions(job.getPositions());
+        // 职位没有标签时使用公司的标签
+        if (job.getTags() != null) {
+            dto.setTags(job.getTags());
+        } else if (job.getCompany() != null) {
+            dto.setTags(job.getCompany().getTags());
+        }
+        dto.setStatus(job.getStatus());
+        dto.setViewCount(job.getViewCount());
+        dto.setApplyCount(job.getApplyCount());
+        dto.setEnabled(job.getEnabled());
+        dto.setCreateTime(job.getCreateTime());
+        return dto;
+    }
+
+    /**
+     * 复制当前DTO，缓存中的DTO返回给调用方前先复制，调用方修改不影响缓存
+     * @return 新的DTO
+     */
+    public JobDTO copy() {
+        JobDTO dto = new JobDTO();
+        dto.setId(id);
+        dto.setTitle(title);
+        dto.setDescription(description);
+        dto.setCompanyId(companyId);
+        dto.setCompanyName(companyName);
+        dto.setCategoryId(categoryId);
+        dto.setCategoryName(categoryName);
+        dto.setLocation(location);
+        dto.setSalaryMin(salaryMin);
+        dto.setSalaryMax(salaryMax);
+        dto.setRequirements(requirements);
+        dto.setBenefits(benefits);
+        dto.setDisabilitySupport(disabilitySupport);
+        dto.setContactPerson(contactPerson);
+        dto.setContactPhone(contactPhone);
+        dto.setContactEmail(contactEmail);
+        dto.setCompanyTreatment(companyTreatment);
+        dto.setEmployeeBenefits(employeeBenefits);
+        dto.setPromotionProspects(promotionProspects);
+        dto.setJobRequirements(jobRequirements);
+        dto.setPositions(positions);
+        dto.setTags(tags);
+        dto.setStatus(status);
+        dto.setViewCount(viewCount);
+        dto.setApplyCount(applyCount);
+        dto.setEnabled(enabled);
+        dto.setCreateTime(createTime);
+        return dto;
+    }
+
+    /**
+     * 将可编辑字段写入职位实体
+     * 不包含ID、公司、分类、浏览数、申请数和创建时间，这些字段由服务层单独处理
+     * @param job 职位实体
+     */
+    public void applyTo(Job job) {
+        job.setTitle(title);
+        job.setDescription(description);
+        job.setLocation(location);
+        job.setSalaryMin(salaryMin);
+        job.setSalaryMax(salaryMax);
+        job.setRequirements(requirements);
+        job.setBenefits(benefits);
+        job.setDisabilitySupport(disabilitySupport);
+        job.setContactPerson(contactPerson);
+        job.setContactPhone(contactPhone);
+        job.setContactEmail(contactEmail);
+        job.setCompanyTreatment(companyTreatment);
+        job.setEmployeeBenefits(employeeBenefits);
+        job.setPromotionProspects(promotionProspects);
+        job.setJobRequirements(jobRequirements);
+        job.setPositions(positions);
+        job.setTags(tags);
+        job.setStatus(status);
+        job.setEnabled(enabled);
+    }
+}
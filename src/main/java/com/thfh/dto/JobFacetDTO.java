@@ -0,0 +1,23 @@
+package com.thfh.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 职位搜索分面统计项
+ */
+@Data
+@Schema(description = "职位搜索分面 - 某个筛选值及匹配的职位数")
+public class JobFacetDTO {
+    @Schema(description = "筛选值ID，地点分面为空", example = "5")
+    private Long id;
+
+    @Schema(description = "筛选值名称", example = "技术开发")
+    private String name;
+
+    @Schema(description = "父分类ID，仅分类分面有值", example = "1")
+    private Long parentId;
+
+    @Schema(description = "匹配的职位数，分类包含其子分类下的职位", example = "42")
+    private Long count;
+}
@@ -0,0 +1,34 @@
+package com.thfh.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 职位搜索结果
+ */
+@Data
+@Schema(description = "职位搜索结果 - 当前页职位和各维度的分面统计")
+public class JobSearchResultDTO {
+    @Schema(description = "当前页职位")
+    private List<JobDTO> content;
+
+    @Schema(description = "匹配的职位总数", example = "128")
+    private Long totalElements;
+
+    @Schema(description = "当前页码", example = "1")
+    private Integer pageNum;
+
+    @Schema(description = "每页记录数", example = "10")
+    private Integer pageSize;
+
+    @Schema(description = "分类分面，父分类的数量包含子分类")
+    private List<JobFacetDTO> categories;
+
+    @Schema(description = "工作地点分面")
+    private List<JobFacetDTO> locations;
+
+    @Schema(description = "公司分面")
+    private List<JobFacetDTO> companies;
+}
@@ -0,0 +1,40 @@
+package com.thfh.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量发放积分参数
+ * 指定userIds时只向列表中的用户发放，否则按userType、status、courseId筛选用户
+ */
+@Data
+@Schema(description = "批量发放积分参数 - 按用户列表或筛选条件向一批用户发放积分和经验值")
+public class PointsGrantDTO {
+    @Schema(description = "用户ID列表，指定后忽略筛选条件", example = "[1, 2, 3]")
+    private List<Long> userIds;
+
+    @Schema(description = "按用户类型筛选", example = "STUDENT")
+    private String userType;
+
+    @Schema(description = "按账号状态筛选", example = "ACTIVE")
+    private String status;
+
+    @Schema(description = "按已加入的课程筛选", example = "10")
+    private Long courseId;
+
+    @Min(value = 0, message = "发放积分不能为负数")
+    @Schema(description = "每人发放的积分", example = "50")
+    private Integer points = 0;
+
+    @Min(value = 0, message = "发放经验值不能为负数")
+    @Schema(description = "每人发放的经验值", example = "20")
+    private Integer experienceAmount = 0;
+
+    @NotBlank(message = "发放说明不能为空")
+    @Schema(description = "发放说明", required = true, example = "期末活动奖励")
+    private String description;
+}
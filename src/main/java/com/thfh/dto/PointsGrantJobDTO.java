@@ -0,0 +1,37 @@
+package com.thfh.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 批量发放积分任务状态
+ */
+@Data
+@Schema(description = "批量发放积分任务 - 任务进度和结果")
+public class PointsGrantJobDTO {
+    @Schema(description = "任务ID", example = "3f2b8c1e-6d8a-4c1f-9a0e-1b2c3d4e5f60")
+    private String jobId;
+
+    @Schema(description = "任务状态 - RUNNING:执行中, COMPLETED:已完成, FAILED:失败", example = "RUNNING")
+    private String state;
+
+    @Schema(description = "目标用户数", example = "100000")
+    private Long total;
+
+    @Schema(description = "已处理用户数", example = "42000")
+    private Long processed;
+
+    @Schema(description = "实际发放成功的用户数", example = "41998")
+    private Long granted;
+
+    @Schema(description = "失败原因", example = "数据库连接超时")
+    private String message;
+
+    @Schema(description = "开始时间")
+    private LocalDateTime startTime;
+
+    @Schema(description = "结束时间")
+    private LocalDateTime finishTime;
+}
@@ -47,6 +47,18 @@ public class PointsRecordDTO {
     @Schema(description = "变动说明", example = "购买Java课程")
     private String description;
     
+    /**
+     * 同一用户内单调递增的流水序号
+     */
+    @Schema(description = "流水序号", example = "12")
+    private Long seq;
+    
+    /**
+     * 变动后余额
+     */
+    @Schema(description = "变动后余额", example = "350")
+    private Integer balanceAfter;
+    
     /**
      * 积分记录创建时间
      */
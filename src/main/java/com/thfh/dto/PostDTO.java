@@ -25,6 +25,9 @@ public class PostDTO {
     
     @Schema(description = "图片URL列表", example = "[\"https://example.com/img1.jpg\", \"https://example.com/img2.jpg\"]")
     private List<String> imageUrls;
+
+    @Schema(description = "图片缩略图URL列表，与imageUrls一一对应", example = "[\"https://example.com/uploads/img1.jpg?variant=thumb\"]")
+    private List<String> thumbnailUrls;
     
     @Schema(description = "用户ID", example = "100")
     private Long userId;
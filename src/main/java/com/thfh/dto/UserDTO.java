@@ -5,7 +5,10 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 
+import com.thfh.model.InterestType;
+
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 用户DTO
@@ -111,6 +114,12 @@ public class UserDTO {
     
     @Schema(description = "企业ID", example = "1")
     private Long companyId;
+
+    @Schema(description = "企业名称", example = "某某科技有限公司")
+    private String companyName;
+
+    @Schema(description = "企业详情")
+    private CompanyDetails companyDetails;
     
     @Schema(description = "教员ID", example = "2")
     private Long teacherId;
@@ -129,4 +138,7 @@ public class UserDTO {
     
     @Schema(description = "备注", example = "这是一个备注")
     private String remark;
+
+    @Schema(description = "兴趣偏好列表")
+    private List<InterestType> interests;
 }
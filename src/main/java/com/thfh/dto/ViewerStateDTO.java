@@ -0,0 +1,30 @@
+package com.thfh.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 当前用户交互状态数据传输对象
+ * 只返回请求ID中状态为true的部分，不在集合中的ID即为false
+ */
+@Data
+@Schema(description = "交互状态 - 当前用户对一批内容的点赞、收藏、评分状态")
+public class ViewerStateDTO {
+    @Schema(description = "已点赞的作品ID", example = "[1, 3]")
+    private Set<Long> likedArtworkIds = new HashSet<>();
+
+    @Schema(description = "已收藏的作品ID", example = "[2]")
+    private Set<Long> favoritedArtworkIds = new HashSet<>();
+
+    @Schema(description = "已评分的作品ID", example = "[1]")
+    private Set<Long> scoredArtworkIds = new HashSet<>();
+
+    @Schema(description = "已点赞的动态ID", example = "[5]")
+    private Set<Long> likedPostIds = new HashSet<>();
+
+    @Schema(description = "已点赞的评论ID", example = "[8, 9]")
+    private Set<Long> likedCommentIds = new HashSet<>();
+}
@@ -0,0 +1,23 @@
+package com.thfh.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量查询当前用户交互状态的请求体
+ */
+@Data
+@Schema(description = "交互状态查询请求 - 一次查询一页内容的点赞、收藏、评分状态")
+public class ViewerStateRequest {
+    @Schema(description = "作品ID列表", example = "[1, 2, 3]")
+    private List<Long> artworkIds = new ArrayList<>();
+
+    @Schema(description = "动态ID列表", example = "[1, 2, 3]")
+    private List<Long> postIds = new ArrayList<>();
+
+    @Schema(description = "评论ID列表", example = "[1, 2, 3]")
+    private List<Long> commentIds = new ArrayList<>();
+}
@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "artwork_favorites")
+@Table(name = "artwork_favorites", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_artwork_favorite_artwork_user", columnNames = {"artwork_id", "user_id"})
+})
 @Schema(description = "作品收藏 - 用户对作品的收藏记录")
 public class ArtworkFavorite {
     @Schema(description = "收藏ID", example = "1")
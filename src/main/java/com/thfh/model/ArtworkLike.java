@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "artwork_like")
+@Table(name = "artwork_like", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_artwork_like_artwork_user", columnNames = {"artwork_id", "user_id"})
+})
 @Schema(description = "作品点赞 - 用户对作品的点赞记录")
 public class ArtworkLike {
 
@@ -0,0 +1,34 @@
+package com.thfh.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * 月度签到位图实体
+ * 每个用户每月一行，day_bits 的第 (日-1) 位表示当天是否签到（含补签）
+ */
+@Data
+@Entity
+@Table(name = "check_in_month", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_check_in_month_user_month", columnNames = {"user_id", "month_key"})
+})
+@Schema(description = "月度签到位图")
+public class CheckInMonth {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(description = "ID", example = "1")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    @Schema(description = "用户ID", example = "1", required = true)
+    private Long userId;
+
+    @Column(name = "month_key", nullable = false)
+    @Schema(description = "年月，格式为yyyyMM", example = "202405", required = true)
+    private Integer monthKey;
+
+    @Column(name = "day_bits", nullable = false)
+    @Schema(description = "签到位图，第(日-1)位为1表示当天已签到", example = "7", required = true)
+    private Integer dayBits = 0;
+}
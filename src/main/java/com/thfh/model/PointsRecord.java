@@ -7,7 +7,11 @@ import io.swagger.v3.oas.annotations.media.Schema;
 
 @Data
 @Entity
-@Table(name = "points_record")
+@Table(name = "points_record", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_points_record_student_seq", columnNames = {"student_id", "seq"})
+}, indexes = {
+    @Index(name = "idx_points_record_type", columnList = "type")
+})
 @Schema(description = "积分记录 - 用户积分变动记录")
 public class PointsRecord {
     @Id
@@ -32,6 +36,12 @@ public class PointsRecord {
     @Schema(description = "变动说明", example = "完成《汉服设计基础》课程学习")
     private String description; // 变动说明
 
+    @Schema(description = "流水序号 - 同一用户内单调递增", example = "12")
+    private Long seq; // 流水序号（同一用户内单调递增，早期记录为空）
+
+    @Schema(description = "变动后余额", example = "350")
+    private Integer balanceAfter; // 变动后余额
+
     @Column(nullable = false)
     @Schema(description = "创建时间", example = "2023-01-01T12:00:00")
     private LocalDateTime createTime = LocalDateTime.now();
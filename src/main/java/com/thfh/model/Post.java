@@ -5,6 +5,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
@@ -13,12 +14,14 @@ import java.util.List;
 
 /**
  * 帖子实体
+ * 状态为DELETED的帖子已被删除、等待清理关联数据，实体查询不再返回
  */
 @Data
 @Getter
 @Setter
 @Entity
 @Table(name = "post")
+@SQLRestriction("(status IS NULL OR status <> 'DELETED')")
 @Schema(description = "帖子实体 - 社区中的帖子内容")
 public class Post {
     
@@ -126,7 +129,7 @@ public class Post {
 
     @ManyToMany
     @JoinTable(
-        name = "post_tags",
+        name = "post_tag_relation",
         joinColumns = @JoinColumn(name = "post_id"),
         inverseJoinColumns = @JoinColumn(name = "tag_id")
     )
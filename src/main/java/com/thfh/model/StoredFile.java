@@ -0,0 +1,70 @@
+package com.thfh.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 存储文件实体
+ * 按内容SHA-256去重后的物理文件，多个上传记录共享同一个物理文件并通过引用计数管理其生命周期
+ */
+@Data
+@Entity
+@Table(name = "stored_files", indexes = {
+    @Index(name = "idx_stored_file_path", columnList = "relativePath")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_stored_file_sha256", columnNames = {"sha256"})
+})
+@Schema(description = "存储文件 - 按内容哈希去重的物理文件")
+public class StoredFile {
+    @Schema(description = "文件ID", example = "1")
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Schema(description = "文件内容的SHA-256（十六进制）", example = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Schema(description = "相对于上传目录的存储路径", example = "objects/9f/86/9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08.jpg")
+    @Column(nullable = false)
+    private String relativePath;
+
+    @Schema(description = "文件大小(字节)", example = "1024000")
+    private Long fileSize;
+
+    @Schema(description = "MIME类型", example = "image/jpeg")
+    private String contentType;
+
+    @Schema(description = "图片宽度(像素)，非图片为空", example = "4032")
+    private Integer imageWidth;
+
+    @Schema(description = "图片高度(像素)，非图片为空", example = "3024")
+    private Integer imageHeight;
+
+    @Schema(description = "已生成的衍生图规格，逗号分隔", example = "thumb,medium")
+    private String variants;
+
+    @Schema(description = "引用次数", example = "2")
+    @Column(nullable = false)
+    private Integer refCount = 1;
+
+    @Schema(description = "创建时间")
+    private LocalDateTime createTime;
+
+    @Schema(description = "更新时间")
+    private LocalDateTime updateTime;
+
+    @PrePersist
+    protected void onCreate() {
+        createTime = LocalDateTime.now();
+        updateTime = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updateTime = LocalDateTime.now();
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,6 +14,7 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
+@DynamicUpdate
 @Table(name = "user")
 @Schema(description = "用户实体 - 存储用户基本信息，包括学员、教员和企业人员")
 public class User {
@@ -74,6 +76,12 @@ public class User {
     @Schema(description = "积分", example = "100")
     private Integer points;
 
+    @Schema(description = "积分流水序号 - 每次积分变动递增", example = "12", hidden = true)
+    private Long pointsSeq;
+
+    @Schema(description = "补签卡数量", example = "1")
+    private Integer makeupCards;
+
     @Schema(description = "是否已认证", example = "true")
     private Boolean verified;
 
@@ -170,6 +178,9 @@ public class User {
         if (points == null) {
             points = 0;
         }
+        if (makeupCards == null) {
+            makeupCards = 0;
+        }
         if (verified == null) {
             verified = false;
         }
@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
-@Table(name = "user_course")
+@Table(name = "user_course", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_user_course_user_course", columnNames = {"user_id", "course_id"})
+})
 @Schema(description = "用户课程关联 - 记录用户选课信息和学习进度")
 public class UserCourse {
     @Id
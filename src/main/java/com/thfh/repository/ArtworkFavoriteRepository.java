@@ -5,9 +5,14 @@ import com.thfh.model.ArtworkFavorite;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 艺术作品收藏数据访问接口
  * 提供对艺术作品收藏(ArtworkFavorite)实体的数据库操作功能
@@ -43,4 +48,36 @@ public interface ArtworkFavoriteRepository extends JpaRepository<ArtworkFavorite
      */
     @Query("SELECT af.artwork FROM ArtworkFavorite af WHERE af.user.id = ?1 ORDER BY af.createTime DESC")
     Page<Artwork> findArtworksByUserId(Long userId, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * 条件插入收藏记录
+     * 依赖 (artwork_id, user_id) 唯一约束，已存在时不插入
+     *
+     * @param artworkId 作品ID
+     * @param userId 用户ID
+     * @return 插入的记录数量，0表示已收藏过
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO artwork_favorites (artwork_id, user_id, create_time) VALUES (:artworkId, :userId, NOW())", nativeQuery = true)
+    int insertIfAbsent(@Param("artworkId") Long artworkId, @Param("userId") Long userId);
+
+    /**
+     * 在给定作品ID中筛选出用户已收藏的作品ID
+     *
+     * @param userId 用户ID
+     * @param artworkIds 作品ID列表
+     * @return 已收藏的作品ID列表
+     */
+    @Query("SELECT af.artwork.id FROM ArtworkFavorite af WHERE af.user.id = :userId AND af.artwork.id IN :artworkIds")
+    List<Long> findArtworkIdsByUserIdAndArtworkIdIn(@Param("userId") Long userId, @Param("artworkIds") Collection<Long> artworkIds);
+
+    /**
+     * 获取用户收藏过的全部作品ID
+     *
+     * @param userId 用户ID
+     * @param pageable 分页参数，按记录ID倒序
+     * @return 作品ID列表
+     */
+    @Query("SELECT af.artwork.id FROM ArtworkFavorite af WHERE af.user.id = :userId ORDER BY af.id DESC")
+    List<Long> findArtworkIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+}
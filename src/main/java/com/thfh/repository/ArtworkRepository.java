@@ -5,9 +5,11 @@ import com.thfh.model.ArtworkType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -247,4 +249,48 @@ public interface ArtworkRepository extends JpaRepository<Artwork, Long> {
      * @return 编辑推荐作品列表
      */
     Page<Artwork> findByEnabledTrueAndRecommendedTrueOrderByUpdateTimeDesc(Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * 原子更新作品点赞数
+     * 直接在数据库中累加增量，不加载作品实体，计数不会小于0
+     *
+     * @param artworkId 作品ID
+     * @param delta 点赞数增量（可为负数）
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE artworks SET like_count = GREATEST(COALESCE(like_count, 0) + :delta, 0) WHERE id = :artworkId", nativeQuery = true)
+    int incrementLikeCount(@Param("artworkId") Long artworkId, @Param("delta") int delta);
+
+    /**
+     * 原子更新作品收藏数
+     * 直接在数据库中累加增量，不加载作品实体，计数不会小于0
+     *
+     * @param artworkId 作品ID
+     * @param delta 收藏数增量（可为负数）
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE artworks SET favorite_count = GREATEST(COALESCE(favorite_count, 0) + :delta, 0) WHERE id = :artworkId", nativeQuery = true)
+    int incrementFavoriteCount(@Param("artworkId") Long artworkId, @Param("delta") int delta);
+
+    /**
+     * 查询作品当前点赞数（只查询单列，不加载实体）
+     *
+     * @param artworkId 作品ID
+     * @return 点赞数，作品不存在时返回null
+     */
+    @Query("SELECT COALESCE(a.likeCount, 0) FROM Artwork a WHERE a.id = :artworkId")
+    Integer findLikeCountById(@Param("artworkId") Long artworkId);
+
+    /**
+     * 查询作品当前收藏数（只查询单列，不加载实体）
+     *
+     * @param artworkId 作品ID
+     * @return 收藏数，作品不存在时返回null
+     */
+    @Query("SELECT COALESCE(a.favoriteCount, 0) FROM Artwork a WHERE a.id = :artworkId")
+    Integer findFavoriteCountById(@Param("artworkId") Long artworkId);
+}
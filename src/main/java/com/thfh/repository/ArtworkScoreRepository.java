@@ -1,11 +1,14 @@
 package com.thfh.repository;
 
 import com.thfh.model.ArtworkScore;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -67,4 +70,24 @@ public interface ArtworkScoreRepository extends JpaRepository<ArtworkScore, Long
      */
     @Query("SELECT COUNT(DISTINCT s.artwork.id) FROM ArtworkScore s")
     long countDistinctArtwork();
-}
\ No newline at end of file
+
+    /**
+     * 在给定作品ID中筛选出用户已评分的作品ID
+     *
+     * @param userId 用户ID
+     * @param artworkIds 作品ID列表
+     * @return 已评分的作品ID列表
+     */
+    @Query("SELECT s.artwork.id FROM ArtworkScore s WHERE s.user.id = :userId AND s.artwork.id IN :artworkIds")
+    List<Long> findArtworkIdsByUserIdAndArtworkIdIn(@Param("userId") Long userId, @Param("artworkIds") Collection<Long> artworkIds);
+
+    /**
+     * 获取用户评分过的全部作品ID
+     *
+     * @param userId 用户ID
+     * @param pageable 分页参数，按记录ID倒序
+     * @return 作品ID列表
+     */
+    @Query("SELECT s.artwork.id FROM ArtworkScore s WHERE s.user.id = :userId ORDER BY s.id DESC")
+    List<Long> findArtworkIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+}
@@ -2,6 +2,9 @@ package com.thfh.repository;
 
 import com.thfh.model.ArtworkTag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -19,4 +22,28 @@ public interface ArtworkTagRepository extends JpaRepository<ArtworkTag, Long> {
      * @return 匹配的标签对象，如果不存在则返回null
      */
     ArtworkTag findByName(String name);
-}
\ No newline at end of file
+
+    /**
+     * 删除标签与所有作品的关联
+     *
+     * @param tagId 标签ID
+     * @return 删除的关联数量
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM artwork_tag_relation WHERE tag_id = :tagId", nativeQuery = true)
+    int deleteRelationsByTagId(@Param("tagId") Long tagId);
+
+    /**
+     * 为带有源标签、但尚未带有目标标签的作品添加目标标签
+     *
+     * @param sourceTagId 源标签ID
+     * @param targetTagId 目标标签ID
+     * @return 新增的关联数量
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO artwork_tag_relation (artwork_id, tag_id) " +
+            "SELECT r.artwork_id, :targetTagId FROM artwork_tag_relation r WHERE r.tag_id = :sourceTagId " +
+            "AND NOT EXISTS (SELECT 1 FROM artwork_tag_relation t WHERE t.artwork_id = r.artwork_id AND t.tag_id = :targetTagId)",
+            nativeQuery = true)
+    int copyRelations(@Param("sourceTagId") Long sourceTagId, @Param("targetTagId") Long targetTagId);
+}
@@ -2,6 +2,8 @@ package com.thfh.repository;
 
 import com.thfh.model.Blacklist;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,4 +11,7 @@ public interface BlacklistRepository extends JpaRepository<Blacklist, Long> {
     Optional<Blacklist> findByUserIdAndBlockedId(Long userId, Long blockedId);
     List<Blacklist> findByUserId(Long userId);
     void deleteByUserIdAndBlockedId(Long userId, Long blockedId);
+
+    @Query("SELECT b.blockedId FROM Blacklist b WHERE b.userId = :userId")
+    List<Long> findBlockedIds(@Param("userId") Long userId);
 } 
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.thfh.repository;
 import com.thfh.model.ChatMessage;
 import com.thfh.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -46,4 +47,17 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     @Query("SELECT COUNT(m) FROM ChatMessage m WHERE " +
            "m.receiver.id = :receiverId AND m.sender.id = :senderId AND m.read = false")
     Long countUnreadMessagesBetweenUsers(@Param("receiverId") Long receiverId, @Param("senderId") Long senderId);
-} 
\ No newline at end of file
+
+    // 将对方发给接收者的未读消息批量标记为已读，返回更新条数
+    @Modifying
+    @Query("UPDATE ChatMessage m SET m.read = true WHERE " +
+           "m.receiver.id = :receiverId AND m.sender.id = :senderId AND m.read = false")
+    int markAllAsReadBetweenUsers(@Param("receiverId") Long receiverId, @Param("senderId") Long senderId);
+
+    // 批量删除两个用户之间的全部消息，返回删除条数
+    @Modifying
+    @Query("DELETE FROM ChatMessage m WHERE " +
+           "(m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
+           "(m.sender.id = :userId2 AND m.receiver.id = :userId1)")
+    int deleteAllBetweenUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+}
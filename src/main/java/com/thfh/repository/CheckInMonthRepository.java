@@ -0,0 +1,71 @@
+package com.thfh.repository;
+
+import com.thfh.model.CheckInMonth;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 月度签到位图数据访问接口
+ */
+public interface CheckInMonthRepository extends JpaRepository<CheckInMonth, Long> {
+
+    /**
+     * 查询用户某月的签到位图
+     * @param userId 用户ID
+     * @param monthKey 年月（yyyyMM）
+     * @return 签到位图
+     */
+    Optional<CheckInMonth> findByUserIdAndMonthKey(Long userId, Integer monthKey);
+
+    /**
+     * 按年月倒序查询用户不晚于指定月份的非空签到位图
+     * @param userId 用户ID
+     * @param monthKey 年月上限（yyyyMM）
+     * @param dayBits 排除的位图值，传0表示排除没有签到的月份
+     * @param pageable 分页参数
+     * @return 签到位图列表
+     */
+    List<CheckInMonth> findByUserIdAndMonthKeyLessThanEqualAndDayBitsNotOrderByMonthKeyDesc(
+            Long userId, Integer monthKey, Integer dayBits, Pageable pageable);
+
+    /**
+     * 确保用户某月的位图行存在
+     * @param userId 用户ID
+     * @param monthKey 年月（yyyyMM）
+     * @return 插入的行数
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO check_in_month (user_id, month_key, day_bits) VALUES (:userId, :monthKey, 0)", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("monthKey") Integer monthKey);
+
+    /**
+     * 条件置位：只有该位尚未置位时才更新
+     * @param userId 用户ID
+     * @param monthKey 年月（yyyyMM）
+     * @param bit 当天对应的位
+     * @return 受影响的行数，0表示当天已签到
+     */
+    @Modifying
+    @Query(value = "UPDATE check_in_month SET day_bits = day_bits | :bit " +
+                   "WHERE user_id = :userId AND month_key = :monthKey AND (day_bits & :bit) = 0", nativeQuery = true)
+    int setBitIfClear(@Param("userId") Long userId, @Param("monthKey") Integer monthKey, @Param("bit") int bit);
+
+    /**
+     * 从签到流水表回填月度位图，已有位图按位或合并
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO check_in_month (user_id, month_key, day_bits) " +
+                   "SELECT user_id, YEAR(check_in_time) * 100 + MONTH(check_in_time), BIT_OR(1 << (DAY(check_in_time) - 1)) " +
+                   "FROM check_in GROUP BY user_id, YEAR(check_in_time), MONTH(check_in_time) " +
+                   "ON DUPLICATE KEY UPDATE day_bits = day_bits | VALUES(day_bits)", nativeQuery = true)
+    int backfillFromCheckIns();
+}
@@ -13,9 +13,6 @@ import java.util.List;
 
 public interface CheckInRepository extends JpaRepository<CheckIn, Long> {
     
-    @Query("SELECT c FROM CheckIn c WHERE c.userId = :userId AND DATE(c.checkInTime) = CURRENT_DATE")
-    List<CheckIn> findTodayCheckIn(@Param("userId") Long userId);
-    
     @Query("SELECT c FROM CheckIn c WHERE c.userId = :userId AND CAST(c.checkInTime AS date) = :checkInDate")
     List<CheckIn> findByUserIdAndDate(@Param("userId") Long userId, @Param("checkInDate") LocalDate checkInDate);
     
@@ -25,9 +22,6 @@ public interface CheckInRepository extends JpaRepository<CheckIn, Long> {
     @Query("SELECT c FROM CheckIn c WHERE c.userId = :userId AND YEAR(c.checkInTime) = YEAR(CURRENT_DATE) AND MONTH(c.checkInTime) = MONTH(CURRENT_DATE) ORDER BY c.checkInTime DESC")
     List<CheckIn> findMonthlyCheckIns(@Param("userId") Long userId);
     
-    @Query("SELECT c FROM CheckIn c WHERE c.userId = :userId ORDER BY c.checkInTime DESC")
-    List<CheckIn> findRecentCheckIns(@Param("userId") Long userId);
-    
     Page<CheckIn> findByUserIdOrderByCheckInTimeDesc(Long userId, Pageable pageable);
     
     @Query("SELECT COUNT(c) FROM CheckIn c WHERE c.userId = :userId AND c.checkInTime BETWEEN :startDate AND :endDate")
@@ -3,9 +3,14 @@ package com.thfh.repository;
 import com.thfh.model.CoursePointsPurchase;
 import com.thfh.model.User;
 import com.thfh.model.Course;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -64,4 +69,41 @@ public interface CoursePointsPurchaseRepository extends JpaRepository<CoursePoin
      * @return 购买成功的课程数量
      */
     long countByUserAndStatus(User user, CoursePointsPurchase.PurchaseStatus status);
-} 
\ No newline at end of file
+
+    /**
+     * 按用户ID和课程ID判断是否存在指定状态的购买记录
+     * @param userId 用户ID
+     * @param courseId 课程ID
+     * @param status 购买状态
+     * @return 是否存在
+     */
+    boolean existsByUserIdAndCourseIdAndStatus(Long userId, Long courseId, CoursePointsPurchase.PurchaseStatus status);
+
+    /**
+     * 按用户ID和课程ID加锁查询指定状态的购买记录
+     * 加锁读取总是读到最新提交的数据，不受事务快照影响
+     * @param userId 用户ID
+     * @param courseId 课程ID
+     * @param status 购买状态
+     * @return 购买记录列表
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM CoursePointsPurchase p WHERE p.user.id = :userId AND p.course.id = :courseId AND p.status = :status")
+    List<CoursePointsPurchase> findByUserIdAndCourseIdAndStatusForUpdate(@Param("userId") Long userId,
+                                                                        @Param("courseId") Long courseId,
+                                                                        @Param("status") CoursePointsPurchase.PurchaseStatus status);
+
+    /**
+     * 条件更新购买状态，只有处于期望状态时才更新，用于防止重复退款
+     * @param id 购买记录ID
+     * @param expected 期望的当前状态
+     * @param status 新状态
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Query("UPDATE CoursePointsPurchase p SET p.status = :status, p.updateTime = CURRENT_TIMESTAMP " +
+           "WHERE p.id = :id AND p.status = :expected")
+    int updateStatusIfMatch(@Param("id") Long id,
+                            @Param("expected") CoursePointsPurchase.PurchaseStatus expected,
+                            @Param("status") CoursePointsPurchase.PurchaseStatus status);
+}
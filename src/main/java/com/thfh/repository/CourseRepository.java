@@ -8,6 +8,10 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 /**
  * 课程数据访问接口
@@ -34,6 +38,64 @@ public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecif
     @Query("update Course c set c.viewCount = c.viewCount + 1 where c.id = :id")
     int increaseViewCountById(@Param("id") Long id);
 
+    /**
+     * 浏览量累加
+     * @param id 课程ID
+     * @param delta 增量
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Transactional
+    @Query("update Course c set c.viewCount = coalesce(c.viewCount, 0) + :delta where c.id = :id")
+    int addViewCount(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * 原子累加学习人数，结果不小于0
+     * @param id 课程ID
+     * @param delta 增量（可为负数）
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Query(value = "UPDATE course SET student_count = GREATEST(COALESCE(student_count, 0) + :delta, 0) WHERE id = :id", nativeQuery = true)
+    int addStudentCount(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * 原子累加点赞数，结果不小于0
+     * @param id 课程ID
+     * @param delta 增量（可为负数）
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Query(value = "UPDATE course SET like_count = GREATEST(COALESCE(like_count, 0) + :delta, 0) WHERE id = :id", nativeQuery = true)
+    int addLikeCount(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * 原子累加收藏数，结果不小于0
+     * @param id 课程ID
+     * @param delta 增量（可为负数）
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Query(value = "UPDATE course SET favorite_count = GREATEST(COALESCE(favorite_count, 0) + :delta, 0) WHERE id = :id", nativeQuery = true)
+    int addFavoriteCount(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * 查询课程目录（指定状态且启用的全部课程），同时加载讲师和标签
+     * @param status 课程状态
+     * @return 课程列表
+     */
+    @Query("select distinct c from Course c left join fetch c.teacher left join fetch c.tags " +
+           "where c.status = :status and c.enabled = true")
+    List<Course> findCatalog(@Param("status") com.thfh.model.CourseStatus status);
+
+    /**
+     * 查询单个课程，同时加载讲师和标签
+     * @param id 课程ID
+     * @return 课程
+     */
+    @Query("select c from Course c left join fetch c.teacher left join fetch c.tags where c.id = :id")
+    Optional<Course> findWithTeacherAndTagsById(@Param("id") Long id);
+
     /**
      * 分页查询热门课程，按指定字段降序排序
      * @param pageable 分页和排序参数
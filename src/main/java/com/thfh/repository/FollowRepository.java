@@ -2,6 +2,8 @@ package com.thfh.repository;
 
 import com.thfh.model.Follow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -63,4 +65,22 @@ public interface FollowRepository extends JpaRepository<Follow, Long> {
      * @param followedId 被关注者ID
      */
     void deleteByFollowerIdAndFollowedId(Long followerId, Long followedId);
-}
\ No newline at end of file
+
+    /**
+     * 查询用户关注的用户ID
+     *
+     * @param followerId 关注者ID
+     * @return 被关注者ID列表
+     */
+    @Query("SELECT f.followedId FROM Follow f WHERE f.followerId = :followerId")
+    List<Long> findFollowedIds(@Param("followerId") Long followerId);
+
+    /**
+     * 查询用户的粉丝ID
+     *
+     * @param followedId 被关注者ID
+     * @return 关注者ID列表
+     */
+    @Query("SELECT f.followerId FROM Follow f WHERE f.followedId = :followedId")
+    List<Long> findFollowerIds(@Param("followedId") Long followedId);
+}
@@ -2,6 +2,8 @@ package com.thfh.repository;
 
 import com.thfh.model.Friend;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
@@ -11,4 +13,7 @@ public interface FriendRepository extends JpaRepository<Friend, Long> {
     List<Friend> findByFriendId(Long friendId);
     Friend findByUserIdAndFriendId(Long userId, Long friendId);
     void deleteByUserIdAndFriendId(Long userId, Long friendId);
-} 
\ No newline at end of file
+
+    @Query("SELECT f.friendId FROM Friend f WHERE f.userId = :userId")
+    List<Long> findFriendIds(@Param("userId") Long userId);
+}
@@ -2,20 +2,33 @@ package com.thfh.repository;
 
 import com.thfh.model.JobApplication;
 import com.thfh.model.JobApplicationStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 职位申请数据访问接口
  * 提供对职位申请(JobApplication)实体的数据库操作功能
  */
 public interface JobApplicationRepository extends JpaRepository<JobApplication, Long>, JpaSpecificationExecutor<JobApplication> {
+    /**
+     * 查询并锁定职位申请，同一申请的并发状态变更依次执行
+     * @param id 职位申请ID
+     * @return 职位申请
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM JobApplication a WHERE a.id = :id")
+    Optional<JobApplication> findByIdForUpdate(@Param("id") Long id);
+
     /**
      * 查找用户对特定职位的申请记录
      * @param jobId 职位ID
@@ -96,4 +109,40 @@ public interface JobApplicationRepository extends JpaRepository<JobApplication,
      * @return 申请数量
      */
     long countByJobIdAndStatus(Long jobId, JobApplicationStatus status);
-} 
\ No newline at end of file
+
+    /**
+     * 按职位、状态和已读标记分组统计指定职位的申请数量
+     * 从职位左连接申请，没有申请的职位返回一行状态为空、数量为0的记录，不存在的职位不返回
+     * @param jobIds 职位ID集合
+     * @return 分组统计结果
+     */
+    @Query("SELECT j.id AS jobId, j.company.id AS companyId, ja.status AS status, ja.isRead AS isRead, COUNT(ja.id) AS total " +
+           "FROM Job j LEFT JOIN j.applications ja WHERE j.id IN :jobIds " +
+           "GROUP BY j.id, j.company.id, ja.status, ja.isRead")
+    List<StatusCount> countGroupedByJobIds(@Param("jobIds") Collection<Long> jobIds);
+
+    /**
+     * 按职位、状态和已读标记分组统计公司所有职位的申请数量
+     * @param companyId 公司ID
+     * @return 分组统计结果，没有申请的职位同样返回一行
+     */
+    @Query("SELECT j.id AS jobId, j.company.id AS companyId, ja.status AS status, ja.isRead AS isRead, COUNT(ja.id) AS total " +
+           "FROM Job j LEFT JOIN j.applications ja WHERE j.company.id = :companyId " +
+           "GROUP BY j.id, j.company.id, ja.status, ja.isRead")
+    List<StatusCount> countGroupedByCompanyId(@Param("companyId") Long companyId);
+
+    /**
+     * 申请分组统计行
+     */
+    interface StatusCount {
+        Long getJobId();
+
+        Long getCompanyId();
+
+        JobApplicationStatus getStatus();
+
+        Boolean getIsRead();
+
+        Long getTotal();
+    }
+}
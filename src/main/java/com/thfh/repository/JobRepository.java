@@ -1,8 +1,19 @@
 package com.thfh.repository;
 
 import com.thfh.model.Job;
+import com.thfh.model.JobStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * 职位数据访问接口
@@ -11,4 +22,58 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
  * 实现JpaSpecificationExecutor接口，支持复杂条件查询
  */
 public interface JobRepository extends JpaRepository<Job, Long>, JpaSpecificationExecutor<Job> {
-} 
\ No newline at end of file
+
+    /**
+     * 条件分页查询职位，同时加载公司和分类，避免逐条懒加载
+     * @param spec 查询条件
+     * @param pageable 分页参数
+     * @return 职位分页
+     */
+    @Override
+    @EntityGraph(attributePaths = {"company", "category"})
+    Page<Job> findAll(Specification<Job> spec, Pageable pageable);
+
+    /**
+     * 查询指定状态且启用的全部职位，同时加载公司和分类，用于构建搜索索引
+     * @param status 职位状态
+     * @return 职位列表
+     */
+    @Query("SELECT j FROM Job j JOIN FETCH j.company LEFT JOIN FETCH j.category " +
+           "WHERE j.status = :status AND j.enabled = true")
+    List<Job> findSearchable(@Param("status") JobStatus status);
+
+    /**
+     * 根据ID查询职位，同时加载公司和分类
+     * @param id 职位ID
+     * @return 职位
+     */
+    @EntityGraph(attributePaths = {"company", "category"})
+    Optional<Job> findWithCompanyAndCategoryById(Long id);
+
+    /**
+     * 查询公司下全部职位的ID
+     * @param companyId 公司ID
+     * @return 职位ID列表
+     */
+    @Query("SELECT j.id FROM Job j WHERE j.company.id = :companyId")
+    List<Long> findIdsByCompanyId(@Param("companyId") Long companyId);
+
+    /**
+     * 批量查询职位的浏览数和申请数
+     * @param ids 职位ID集合
+     * @return 计数列表，不存在的职位不返回
+     */
+    @Query("SELECT j.id AS id, j.viewCount AS viewCount, j.applyCount AS applyCount FROM Job j WHERE j.id IN :ids")
+    List<JobCounters> findCountersByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 职位浏览数和申请数
+     */
+    interface JobCounters {
+        Long getId();
+
+        Integer getViewCount();
+
+        Integer getApplyCount();
+    }
+}
@@ -1,9 +1,15 @@
 package com.thfh.repository;
 
 import com.thfh.model.PointsRecord;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
+import java.util.List;
+
 /**
  * 积分记录数据访问接口
  * 提供对积分记录(PointsRecord)实体的数据库操作功能
@@ -11,4 +17,31 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
  * 实现JpaSpecificationExecutor接口，支持复杂条件查询
  */
 public interface PointsRecordRepository extends JpaRepository<PointsRecord, Long>, JpaSpecificationExecutor<PointsRecord> {
-} 
\ No newline at end of file
+
+    /**
+     * 条件分页查询积分记录，同时加载所属学员，避免逐条懒加载
+     * @param spec 查询条件
+     * @param pageable 分页参数
+     * @return 积分记录分页
+     */
+    @Override
+    @EntityGraph(attributePaths = "student")
+    Page<PointsRecord> findAll(Specification<PointsRecord> spec, Pageable pageable);
+
+    /**
+     * 按ID倒序查询用户第一页积分流水
+     * @param studentId 用户ID
+     * @param pageable 分页参数（只使用条数）
+     * @return 积分流水列表
+     */
+    List<PointsRecord> findByStudentIdOrderByIdDesc(Long studentId, Pageable pageable);
+
+    /**
+     * 按ID倒序查询用户游标之前的积分流水（键集分页）
+     * @param studentId 用户ID
+     * @param id 游标，上一页最后一条记录的ID
+     * @param pageable 分页参数（只使用条数）
+     * @return 积分流水列表
+     */
+    List<PointsRecord> findByStudentIdAndIdLessThanOrderByIdDesc(Long studentId, Long id, Pageable pageable);
+}
@@ -4,6 +4,7 @@ import com.thfh.model.PostBrowseHistory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -51,4 +52,13 @@ public interface PostBrowseHistoryRepository extends JpaRepository<PostBrowseHis
      * @return 影响的行数
      */
     int deleteByUserId(Long userId);
+
+    /**
+     * 删除动态的所有浏览记录
+     * @param postId 动态ID
+     * @return 影响的行数
+     */
+    @Modifying
+    @Query("DELETE FROM PostBrowseHistory h WHERE h.postId = :postId")
+    int deleteByPostId(Long postId);
 } 
\ No newline at end of file
@@ -1,10 +1,16 @@
 package com.thfh.repository;
 
 import com.thfh.model.PostCommentLike;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PostCommentLikeRepository extends JpaRepository<PostCommentLike, Long> {
     boolean existsByUserIdAndCommentId(Long userId, Long commentId);
@@ -17,4 +23,52 @@ public interface PostCommentLikeRepository extends JpaRepository<PostCommentLike
      */
     @Modifying
     void deleteByCommentId(Long commentId);
+
+    /**
+     * 删除动态在指定层级的所有评论的点赞记录
+     * @param postId 动态ID
+     * @param level 评论层级
+     * @return 删除的记录数
+     */
+    @Modifying
+    @Query("DELETE FROM PostCommentLike l WHERE l.commentId IN " +
+           "(SELECT pc.id FROM PostComment pc WHERE pc.postId = :postId AND pc.level = :level)")
+    int deleteByPostIdAndLevel(@Param("postId") Long postId, @Param("level") Integer level);
+
+    /**
+     * 删除动态下层级为空的评论的点赞记录
+     * @param postId 动态ID
+     * @return 删除的记录数
+     */
+    @Modifying
+    @Query("DELETE FROM PostCommentLike l WHERE l.commentId IN " +
+           "(SELECT pc.id FROM PostComment pc WHERE pc.postId = :postId AND pc.level IS NULL)")
+    int deleteByPostIdAndLevelIsNull(@Param("postId") Long postId);
+
+    /**
+     * 删除一批评论的所有点赞记录
+     * @param commentIds 评论ID集合
+     * @return 删除的记录数
+     */
+    @Modifying
+    @Query("DELETE FROM PostCommentLike l WHERE l.commentId IN :commentIds")
+    int deleteByCommentIdIn(@Param("commentIds") Collection<Long> commentIds);
+
+    /**
+     * 在给定评论ID中筛选出用户已点赞的评论ID
+     * @param userId 用户ID
+     * @param commentIds 评论ID列表
+     * @return 已点赞的评论ID列表
+     */
+    @Query("SELECT l.commentId FROM PostCommentLike l WHERE l.userId = :userId AND l.commentId IN :commentIds")
+    List<Long> findCommentIdsByUserIdAndCommentIdIn(@Param("userId") Long userId, @Param("commentIds") Collection<Long> commentIds);
+
+    /**
+     * 获取用户点赞过的全部评论ID
+     * @param userId 用户ID
+     * @param pageable 分页参数，按记录ID倒序
+     * @return 评论ID列表
+     */
+    @Query("SELECT l.commentId FROM PostCommentLike l WHERE l.userId = :userId ORDER BY l.id DESC")
+    List<Long> findCommentIdsByUserId(@Param("userId") Long userId, Pageable pageable);
 }
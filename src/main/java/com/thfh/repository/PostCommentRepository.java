@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PostCommentRepository extends JpaRepository<PostComment, Long> {
@@ -15,6 +16,9 @@ public interface PostCommentRepository extends JpaRepository<PostComment, Long>
     
     // 查询子评论
     List<PostComment> findByParentIdOrderByCreateTimeAsc(Long parentId);
+
+    // 查询动态的全部回复（非一级评论），用于一次组装评论树
+    List<PostComment> findByPostIdAndParentIdIsNotNullOrderByCreateTimeAsc(Long postId);
     
     // 查询所有评论（按层级排序）
     Page<PostComment> findByPostIdOrderByLevelAscCreateTimeDesc(Long postId, Pageable pageable);
@@ -32,4 +36,32 @@ public interface PostCommentRepository extends JpaRepository<PostComment, Long>
     // 查询评论的最大层级
     @Query("SELECT MAX(pc.level) FROM PostComment pc WHERE pc.postId = :postId")
     Integer findMaxLevelByPostId(Long postId);
+
+    // 查询动态在指定层级的评论ID，用于分批清理
+    @Query("SELECT pc.id FROM PostComment pc WHERE pc.postId = :postId AND pc.level = :level ORDER BY pc.id")
+    List<Long> findIdsByPostIdAndLevel(Long postId, Integer level, Pageable pageable);
+
+    // 删除动态在指定层级的所有评论，先删子评论再删父评论，避免违反parent_id外键
+    @Modifying
+    @Query("DELETE FROM PostComment pc WHERE pc.postId = :postId AND pc.level = :level")
+    int deleteByPostIdAndLevel(Long postId, Integer level);
+
+    // 查询动态下层级为空的评论ID，用于分批清理
+    @Query("SELECT pc.id FROM PostComment pc WHERE pc.postId = :postId AND pc.level IS NULL ORDER BY pc.id")
+    List<Long> findIdsByPostIdAndLevelIsNull(Long postId, Pageable pageable);
+
+    // 清空动态下层级为空的评论的parent_id，之后这些评论可按任意顺序删除
+    @Modifying
+    @Query("UPDATE PostComment pc SET pc.parentId = NULL WHERE pc.postId = :postId AND pc.level IS NULL AND pc.parentId IS NOT NULL")
+    int clearParentIdByPostIdAndLevelIsNull(Long postId);
+
+    // 删除动态下层级为空的评论，需先清空其parent_id
+    @Modifying
+    @Query("DELETE FROM PostComment pc WHERE pc.postId = :postId AND pc.level IS NULL")
+    int deleteByPostIdAndLevelIsNull(Long postId);
+
+    // 按ID批量删除评论
+    @Modifying
+    @Query("DELETE FROM PostComment pc WHERE pc.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,9 +21,11 @@ public interface PostLikeRepository extends JpaRepository<PostLike, Long> {
     /**
      * 根据帖子ID删除所有点赞记录
      * @param postId 帖子ID
+     * @return 删除的记录数
      */
     @Modifying
-    void deleteByPostId(Long postId);
+    @Query("DELETE FROM PostLike pl WHERE pl.postId = :postId")
+    int deleteByPostId(Long postId);
     
     /**
      * 获取用户点赞的动态列表
@@ -36,8 +39,18 @@ public interface PostLikeRepository extends JpaRepository<PostLike, Long> {
     /**
      * 获取用户点赞的动态ID列表
      * @param userId 用户ID
+     * @param pageable 分页参数，按记录ID倒序
      * @return 用户点赞过的动态ID列表
      */
-    @Query("SELECT pl.postId FROM PostLike pl WHERE pl.userId = :userId")
-    List<Long> findPostIdsByUserId(@Param("userId") Long userId);
-}
\ No newline at end of file
+    @Query("SELECT pl.postId FROM PostLike pl WHERE pl.userId = :userId ORDER BY pl.id DESC")
+    List<Long> findPostIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * 在给定动态ID中筛选出用户已点赞的动态ID
+     * @param userId 用户ID
+     * @param postIds 动态ID列表
+     * @return 已点赞的动态ID列表
+     */
+    @Query("SELECT pl.postId FROM PostLike pl WHERE pl.userId = :userId AND pl.postId IN :postIds")
+    List<Long> findPostIdsByUserIdAndPostIdIn(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
+}
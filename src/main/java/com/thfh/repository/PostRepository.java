@@ -31,6 +31,15 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
     @Transactional
     @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :postId")
     void updateCommentCount(Long postId, int delta);
+
+    /**
+     * 将评论计数为负数的动态重置为实际评论数
+     * @return 修复的动态数量
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = (SELECT COUNT(c) FROM PostComment c WHERE c.postId = p.id) " +
+           "WHERE p.commentCount < 0")
+    int resetNegativeCommentCounts();
     
     @Modifying
     @Query("UPDATE Post p SET p.shareCount = p.shareCount + :delta WHERE p.id = :postId")
@@ -51,4 +60,46 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
      * @return 动态列表
      */
     Page<Post> findByUserIdInOrderByCreateTimeDesc(List<Long> userIds, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * 按标签统计关联动态的浏览量之和
+     * @return 各标签的热度，没有关联动态的标签不包含在内
+     */
+    @Query("SELECT t.id AS tagId, SUM(COALESCE(p.viewCount, 0)) AS hotness FROM Post p JOIN p.tags t GROUP BY t.id")
+    List<TagHotness> sumViewCountGroupedByTagId();
+
+    /**
+     * 将动态标记为已删除，标记后实体查询不再返回该动态
+     * @param postId 动态ID
+     * @return 更新的动态数量
+     */
+    @Modifying
+    @Query(value = "UPDATE post SET status = 'DELETED', update_time = NOW() WHERE id = :postId", nativeQuery = true)
+    int markDeleted(Long postId);
+
+    /**
+     * 查询已标记删除、等待清理的动态ID
+     * @param limit 最大数量
+     * @return 动态ID列表
+     */
+    @Query(value = "SELECT id FROM post WHERE status = 'DELETED' ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findDeletedIds(int limit);
+
+    /**
+     * 物理删除动态本身，调用前需已清理评论、点赞等关联数据
+     * @param postId 动态ID
+     * @return 删除的动态数量
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM post WHERE id = :postId", nativeQuery = true)
+    int purgeById(Long postId);
+
+    /**
+     * 标签热度
+     */
+    interface TagHotness {
+        Long getTagId();
+
+        Long getHotness();
+    }
+}
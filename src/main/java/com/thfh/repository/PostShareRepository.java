@@ -3,6 +3,7 @@ package com.thfh.repository;
 import com.thfh.model.PostShare;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -13,7 +14,9 @@ public interface PostShareRepository extends JpaRepository<PostShare, Long> {
     /**
      * 根据帖子ID删除所有分享记录
      * @param postId 帖子ID
+     * @return 删除的记录数
      */
     @Modifying
-    void deleteByPostId(Long postId);
+    @Query("DELETE FROM PostShare ps WHERE ps.postId = :postId")
+    int deleteByPostId(Long postId);
 }
\ No newline at end of file
@@ -2,6 +2,9 @@ package com.thfh.repository;
 
 import com.thfh.model.PostTag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -21,4 +24,38 @@ public interface PostTagRepository extends JpaRepository<PostTag, Long> {
      * @return 匹配的标签对象，如果不存在则返回null
      */
     Optional<PostTag> findByName(String name);
-} 
\ No newline at end of file
+
+    /**
+     * 删除标签与所有动态的关联
+     *
+     * @param tagId 标签ID
+     * @return 删除的关联数量
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM post_tag_relation WHERE tag_id = :tagId", nativeQuery = true)
+    int deleteRelationsByTagId(@Param("tagId") Long tagId);
+
+    /**
+     * 删除动态与所有标签的关联
+     *
+     * @param postId 动态ID
+     * @return 删除的关联数量
+     */
+    @Modifying
+    @Query(value = "DELETE FROM post_tag_relation WHERE post_id = :postId", nativeQuery = true)
+    int deleteRelationsByPostId(@Param("postId") Long postId);
+
+    /**
+     * 为带有源标签、但尚未带有目标标签的动态添加目标标签
+     *
+     * @param sourceTagId 源标签ID
+     * @param targetTagId 目标标签ID
+     * @return 新增的关联数量
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO post_tag_relation (post_id, tag_id) " +
+            "SELECT r.post_id, :targetTagId FROM post_tag_relation r WHERE r.tag_id = :sourceTagId " +
+            "AND NOT EXISTS (SELECT 1 FROM post_tag_relation t WHERE t.post_id = r.post_id AND t.tag_id = :targetTagId)",
+            nativeQuery = true)
+    int copyRelations(@Param("sourceTagId") Long sourceTagId, @Param("targetTagId") Long targetTagId);
+}
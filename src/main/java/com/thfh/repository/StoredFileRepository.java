@@ -0,0 +1,101 @@
+package com.thfh.repository;
+
+import com.thfh.model.StoredFile;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * 存储文件数据访问接口
+ * 提供按内容哈希去重的物理文件(StoredFile)及其引用计数的数据库操作
+ */
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, Long> {
+
+    /**
+     * 根据内容哈希查询存储文件
+     *
+     * @param sha256 文件内容SHA-256
+     * @return 存储文件
+     */
+    Optional<StoredFile> findBySha256(String sha256);
+
+    /**
+     * 根据内容哈希查询并锁定存储文件
+     * 记录不存在时同样锁定唯一索引上的间隙，其他事务无法在提交前插入该哈希
+     *
+     * @param sha256 文件内容SHA-256
+     * @return 存储文件
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM StoredFile f WHERE f.sha256 = :sha256")
+    Optional<StoredFile> findBySha256ForUpdate(@Param("sha256") String sha256);
+
+    /**
+     * 插入存储文件记录，哈希已存在时原子增加引用次数
+     * 执行后该行由当前事务锁定，相同内容的并发上传在此排队
+     *
+     * @param sha256 文件内容SHA-256
+     * @param relativePath 新记录的存储路径，哈希已存在时沿用原路径
+     * @param fileSize 文件大小
+     * @param contentType MIME类型
+     * @return 插入新记录时为1，增加已有记录的引用次数时为2
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "INSERT INTO stored_files (sha256, relative_path, file_size, content_type, ref_count, create_time, update_time) " +
+            "VALUES (:sha256, :relativePath, :fileSize, :contentType, 1, NOW(), NOW()) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, update_time = NOW()", nativeQuery = true)
+    int insertOrIncrementRefCount(@Param("sha256") String sha256, @Param("relativePath") String relativePath,
+                                  @Param("fileSize") Long fileSize, @Param("contentType") String contentType);
+
+    /**
+     * 根据存储路径查询存储文件
+     *
+     * @param relativePath 相对于上传目录的路径
+     * @return 存储文件
+     */
+    Optional<StoredFile> findByRelativePath(String relativePath);
+
+    /**
+     * 原子减少引用次数，不会小于0
+     *
+     * @param id 存储文件ID
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount - 1 WHERE f.id = :id AND f.refCount > 0")
+    int decrementRefCount(@Param("id") Long id);
+
+    /**
+     * 删除已无引用的存储文件记录
+     *
+     * @param id 存储文件ID
+     * @return 删除的记录数量
+     */
+    @Modifying
+    @Query("DELETE FROM StoredFile f WHERE f.id = :id AND f.refCount <= 0")
+    int deleteIfUnreferenced(@Param("id") Long id);
+
+    /**
+     * 记录图片尺寸和已生成的衍生图
+     * 由衍生图生成线程调用，不在上传事务中执行
+     *
+     * @param relativePath 原图相对于上传目录的路径
+     * @param width 图片宽度
+     * @param height 图片高度
+     * @param variants 已生成的衍生图规格，逗号分隔
+     * @return 受影响的行数，非去重存储的文件为0
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredFile f SET f.imageWidth = :width, f.imageHeight = :height, f.variants = :variants WHERE f.relativePath = :relativePath")
+    int updateImageMetadata(@Param("relativePath") String relativePath, @Param("width") Integer width,
+                            @Param("height") Integer height, @Param("variants") String variants);
+}
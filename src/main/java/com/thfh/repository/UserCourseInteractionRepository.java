@@ -7,7 +7,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,4 +40,70 @@ public interface UserCourseInteractionRepository extends JpaRepository<UserCours
      * @return 分页后的课程交互列表
      */
     Page<UserCourseInteraction> findByUserIdAndFavoritedTrue(Long userId, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * 切换点赞状态，记录不存在时插入为已点赞
+     * 依赖 (user_id, course_id) 唯一约束，单条语句完成插入或取反
+     * @param userId 用户ID
+     * @param courseId 课程ID
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_course_interaction (user_id, course_id, liked, favorited, create_time, update_time) " +
+                   "VALUES (:userId, :courseId, true, false, NOW(), NOW()) " +
+                   "ON DUPLICATE KEY UPDATE liked = NOT COALESCE(liked, false), update_time = NOW()", nativeQuery = true)
+    int toggleLiked(@Param("userId") Long userId, @Param("courseId") Long courseId);
+
+    /**
+     * 切换收藏状态，记录不存在时插入为已收藏
+     * 依赖 (user_id, course_id) 唯一约束，单条语句完成插入或取反
+     * @param userId 用户ID
+     * @param courseId 课程ID
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_course_interaction (user_id, course_id, liked, favorited, create_time, update_time) " +
+                   "VALUES (:userId, :courseId, false, true, NOW(), NOW()) " +
+                   "ON DUPLICATE KEY UPDATE favorited = NOT COALESCE(favorited, false), update_time = NOW()", nativeQuery = true)
+    int toggleFavorited(@Param("userId") Long userId, @Param("courseId") Long courseId);
+
+    /**
+     * 查询用户对课程的交互状态以及课程的点赞数、收藏数
+     * @param userId 用户ID
+     * @param courseId 课程ID
+     * @return 交互状态，无交互记录时为空
+     */
+    @Query(value = "SELECT i.course_id AS courseId, i.liked AS liked, i.favorited AS favorited, " +
+                   "c.like_count AS likeCount, c.favorite_count AS favoriteCount " +
+                   "FROM user_course_interaction i JOIN course c ON c.id = i.course_id " +
+                   "WHERE i.user_id = :userId AND i.course_id = :courseId", nativeQuery = true)
+    Optional<InteractionState> findState(@Param("userId") Long userId, @Param("courseId") Long courseId);
+
+    /**
+     * 批量查询用户对一批课程的交互记录（只包含点赞或收藏的记录）
+     * @param userId 用户ID
+     * @param courseIds 课程ID集合
+     * @return 交互状态列表
+     */
+    @Query(value = "SELECT i.course_id AS courseId, i.liked AS liked, i.favorited AS favorited, " +
+                   "c.like_count AS likeCount, c.favorite_count AS favoriteCount " +
+                   "FROM user_course_interaction i JOIN course c ON c.id = i.course_id " +
+                   "WHERE i.user_id = :userId AND i.course_id IN (:courseIds) " +
+                   "AND (i.liked = true OR i.favorited = true)", nativeQuery = true)
+    List<InteractionState> findStates(@Param("userId") Long userId, @Param("courseIds") Collection<Long> courseIds);
+
+    /**
+     * 交互状态投影
+     */
+    interface InteractionState {
+        Long getCourseId();
+
+        Boolean getLiked();
+
+        Boolean getFavorited();
+
+        Integer getLikeCount();
+
+        Integer getFavoriteCount();
+    }
+}
@@ -3,8 +3,13 @@ package com.thfh.repository;
 import com.thfh.model.UserCourse;
 import com.thfh.model.User;
 import com.thfh.model.Course;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,4 +23,36 @@ public interface UserCourseRepository extends JpaRepository<UserCourse, Long>, J
     List<UserCourse> findByCourse(Course course);
     Optional<UserCourse> findByUserAndCourse(User user, Course course);
     boolean existsByUserAndCourse(User user, Course course);
-}
\ No newline at end of file
+
+    /**
+     * 条件插入选课记录
+     * 依赖 (user_id, course_id) 唯一约束，已加入时不插入，重复请求天然幂等
+     * @param userId 用户ID
+     * @param courseId 课程ID
+     * @return 插入的记录数量，0表示已加入过
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_course (user_id, course_id, enroll_time, last_access_time, is_active) " +
+                   "VALUES (:userId, :courseId, NOW(), NOW(), true)", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("courseId") Long courseId);
+
+    /**
+     * 查询并锁定选课记录，同一用户同一课程的并发购买依次执行
+     * @param userId 用户ID
+     * @param courseId 课程ID
+     * @return 选课记录
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT uc FROM UserCourse uc WHERE uc.user.id = :userId AND uc.course.id = :courseId")
+    Optional<UserCourse> findByUserIdAndCourseIdForUpdate(@Param("userId") Long userId, @Param("courseId") Long courseId);
+
+    /**
+     * 删除选课记录
+     * @param userId 用户ID
+     * @param courseId 课程ID
+     * @return 删除的记录数量
+     */
+    @Modifying
+    @Query("DELETE FROM UserCourse uc WHERE uc.user.id = :userId AND uc.course.id = :courseId")
+    int deleteByUserIdAndCourseId(@Param("userId") Long userId, @Param("courseId") Long courseId);
+}
@@ -2,10 +2,14 @@ package com.thfh.repository;
 
 import com.thfh.model.UserFollow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 @Repository
 public interface UserFollowRepository extends JpaRepository<UserFollow, Long> {
     boolean existsByFollowerIdAndFollowingId(Long followerId, Long followingId);
@@ -14,4 +18,10 @@ public interface UserFollowRepository extends JpaRepository<UserFollow, Long> {
     Page<UserFollow> findByFollowingId(Long followingId, Pageable pageable);
     long countByFollowerId(Long followerId);
     long countByFollowingId(Long followingId);
-} 
\ No newline at end of file
+
+    @Query("SELECT uf.following.id FROM UserFollow uf WHERE uf.follower.id = :followerId")
+    List<Long> findFollowingIds(@Param("followerId") Long followerId);
+
+    @Query("SELECT uf.follower.id FROM UserFollow uf WHERE uf.following.id = :followingId")
+    List<Long> findFollowerIds(@Param("followingId") Long followingId);
+}
@@ -4,8 +4,11 @@ import com.thfh.model.User;
 import com.thfh.model.UserInterest;
 import com.thfh.model.InterestType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -26,6 +29,15 @@ public interface UserInterestRepository extends JpaRepository<UserInterest, Long
      * @return 用户兴趣关联列表
      */
     List<UserInterest> findByUserId(Long userId);
+
+    /**
+     * 批量查询多个用户的兴趣类型
+     * @param userIds 用户ID集合
+     * @return 用户ID与兴趣类型的对应列表
+     */
+    @Query("SELECT ui.user.id AS userId, ui.interestType AS interestType FROM UserInterest ui " +
+           "WHERE ui.user.id IN :userIds ORDER BY ui.id")
+    List<InterestView> findInterestTypesByUserIdIn(@Param("userIds") Collection<Long> userIds);
     
     /**
      * 根据用户和兴趣类型查询是否存在
@@ -47,4 +59,13 @@ public interface UserInterestRepository extends JpaRepository<UserInterest, Long
      * @param user 用户实体
      */
     void deleteByUser(User user);
-} 
\ No newline at end of file
+
+    /**
+     * 用户兴趣类型
+     */
+    interface InterestView {
+        Long getUserId();
+
+        InterestType getInterestType();
+    }
+}
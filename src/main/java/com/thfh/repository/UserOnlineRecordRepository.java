@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -63,4 +64,26 @@ public interface UserOnlineRecordRepository extends JpaRepository<UserOnlineReco
      */
     @Query("SELECT r FROM UserOnlineRecord r WHERE r.user.id IN :userIds ORDER BY r.user.id, r.updateTime DESC")
     List<UserOnlineRecord> findLatestByUserIds(@Param("userIds") List<Long> userIds);
-} 
\ No newline at end of file
+
+    /**
+     * 批量查询每个用户最近一条在线状态记录，只返回用户ID、状态和最后活跃时间
+     *
+     * @param userIds 用户ID集合
+     * @return 每个用户最近的状态，没有记录的用户不返回
+     */
+    @Query("SELECT r.user.id AS userId, r.status AS status, r.lastActive AS lastActive FROM UserOnlineRecord r " +
+           "WHERE r.user.id IN :userIds AND r.updateTime = " +
+           "(SELECT MAX(r2.updateTime) FROM UserOnlineRecord r2 WHERE r2.user.id = r.user.id)")
+    List<LatestStatus> findLatestStatusByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 用户最近的在线状态
+     */
+    interface LatestStatus {
+        Long getUserId();
+
+        UserOnlineStatus getStatus();
+
+        LocalDateTime getLastActive();
+    }
+}
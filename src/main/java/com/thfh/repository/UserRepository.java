@@ -6,10 +6,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -83,4 +85,107 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      * @return 匹配的用户列表
      */
     List<User> findByUsernameContaining(String username);
-}
\ No newline at end of file
+
+    /**
+     * 原子变动积分并递增积分流水序号，变动后余额为负时不更新
+     * 同一用户的并发变动由数据库行锁串行化，每次变动得到唯一的流水序号
+     *
+     * @param userId 用户ID
+     * @param delta 积分变动数量，正数为增加，负数为扣减
+     * @return 受影响的行数，0表示用户不存在或积分不足
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.points = COALESCE(u.points, 0) + :delta, u.pointsSeq = COALESCE(u.pointsSeq, 0) + 1 " +
+           "WHERE u.id = :userId AND COALESCE(u.points, 0) + :delta >= 0")
+    int applyPointsDelta(@Param("userId") Long userId, @Param("delta") int delta);
+
+    /**
+     * 查询用户当前积分余额和积分流水序号
+     *
+     * @param userId 用户ID
+     * @return 余额快照，用户不存在时为空
+     */
+    @Query("SELECT COALESCE(u.points, 0) AS balance, COALESCE(u.pointsSeq, 0) AS seq FROM User u WHERE u.id = :userId")
+    Optional<PointsBalance> findPointsBalance(@Param("userId") Long userId);
+
+    /**
+     * 原子变动经验值，不读取实体，并发的批量发放不会被覆盖
+     * 更新后本事务持有该行的行锁，随后读到的经验值就是本次变动的结果
+     *
+     * @param userId 用户ID
+     * @param delta 经验值变动数量
+     * @return 受影响的行数，0表示用户不存在
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.experience = COALESCE(u.experience, 0) + :delta WHERE u.id = :userId")
+    int applyExperienceDelta(@Param("userId") Long userId, @Param("delta") int delta);
+
+    /**
+     * 查询用户当前经验值
+     *
+     * @param userId 用户ID
+     * @return 经验值，用户不存在时为空
+     */
+    @Query("SELECT COALESCE(u.experience, 0) FROM User u WHERE u.id = :userId")
+    Optional<Integer> findExperienceById(@Param("userId") Long userId);
+
+    /**
+     * 更新用户等级
+     *
+     * @param userId 用户ID
+     * @param level 新等级
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.level = :level WHERE u.id = :userId")
+    int updateLevel(@Param("userId") Long userId, @Param("level") int level);
+
+    /**
+     * 原子扣减一张补签卡
+     *
+     * @param userId 用户ID
+     * @return 受影响的行数，0表示用户不存在或补签卡不足
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.makeupCards = u.makeupCards - 1 WHERE u.id = :userId AND u.makeupCards > 0")
+    int useMakeupCard(@Param("userId") Long userId);
+
+    /**
+     * 批量查询用户名片信息
+     *
+     * @param ids 用户ID集合
+     * @return 用户名片列表，不存在的用户不返回
+     */
+    @Query("SELECT u.id AS id, u.username AS username, u.realName AS realName, u.avatar AS avatar, " +
+           "u.level AS level, u.introduction AS introduction, u.userType AS userType FROM User u WHERE u.id IN :ids")
+    List<UserCardView> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 用户积分余额快照
+     */
+    interface PointsBalance {
+        Integer getBalance();
+
+        Long getSeq();
+    }
+
+    /**
+     * 用户名片信息
+     */
+    interface UserCardView {
+        Long getId();
+
+        String getUsername();
+
+        String getRealName();
+
+        String getAvatar();
+
+        Integer getLevel();
+
+        String getIntroduction();
+
+        // 与实体一致按字符串读取，库中存在枚举以外的取值时不会转换失败
+        String getUserType();
+    }
+}
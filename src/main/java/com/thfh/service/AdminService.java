@@ -3,7 +3,6 @@ package com.thfh.service;
 import com.thfh.dto.AdminDTO;
 import com.thfh.model.Admin;
 import com.thfh.repository.AdminRepository;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -16,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.criteria.Predicate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -33,6 +33,9 @@ public class AdminService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     /**
      * 获取管理员列表
      * @param queryDTO 查询条件对象，包含用户名、真实姓名、启用状态等过滤条件
@@ -70,11 +73,12 @@ public class AdminService {
     @Transactional
     public AdminDTO createAdmin(AdminDTO adminDTO) {
         Admin admin = new Admin();
-        BeanUtils.copyProperties(adminDTO, admin);
+        copyEditableFields(adminDTO, admin);
         admin.setEnabled(true);
         admin.setPassword(passwordEncoder.encode(adminDTO.getPassword())); // 加密密码
         
         Admin savedAdmin = adminRepository.save(admin);
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.ADMIN);
         return convertToDTO(savedAdmin);
     }
 
@@ -93,13 +97,15 @@ public class AdminService {
         }
         
         Admin admin = optionalAdmin.get();
-        BeanUtils.copyProperties(adminDTO, admin, "id", "password");
+        copyEditableFields(adminDTO, admin);
+        admin.setEnabled(adminDTO.getEnabled());
         
         if (adminDTO.getPassword() != null && !adminDTO.getPassword().isEmpty()) {
             admin.setPassword(passwordEncoder.encode(adminDTO.getPassword())); // 加密新密码
         }
         
         Admin updatedAdmin = adminRepository.save(admin);
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.ADMIN);
         return convertToDTO(updatedAdmin);
     }
 
@@ -113,6 +119,7 @@ public class AdminService {
             throw new RuntimeException("管理员不存在");
         }
         adminRepository.deleteById(id);
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.ADMIN);
     }
 
     /**
@@ -131,6 +138,7 @@ public class AdminService {
         Admin admin = optionalAdmin.get();
         admin.setEnabled(!admin.getEnabled());
         adminRepository.save(admin);
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.ADMIN);
     }
 
     /**
@@ -139,14 +147,38 @@ public class AdminService {
      * @return 如果是管理员返回true，否则返回false
      */
     public boolean isAdmin(String username) {
-        return adminRepository.findByUsername(username)
-                .map(Admin::getEnabled)
-                .orElse(false);
+        return referenceDataCache.isEnabledAdmin(username);
+    }
+
+    /**
+     * 复制管理员可编辑的基本信息，不包含ID、密码和启用状态
+     */
+    private static void copyEditableFields(AdminDTO adminDTO, Admin admin) {
+        admin.setUsername(adminDTO.getUsername());
+        admin.setRealName(adminDTO.getRealName());
+        admin.setPhone(adminDTO.getPhone());
+        admin.setEmail(adminDTO.getEmail());
     }
 
+    /**
+     * 管理员实体转DTO，不返回密码
+     */
     private AdminDTO convertToDTO(Admin admin) {
         AdminDTO dto = new AdminDTO();
-        BeanUtils.copyProperties(admin, dto);
+        dto.setId(admin.getId());
+        dto.setUsername(admin.getUsername());
+        dto.setRealName(admin.getRealName());
+        dto.setPhone(admin.getPhone());
+        dto.setEmail(admin.getEmail());
+        dto.setEnabled(admin.getEnabled());
         return dto;
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取参考数据缓存的命中统计
+     * @return 各缓存类别的命中次数、未命中次数和版本
+     */
+    public Map<String, Map<String, Long>> getReferenceCacheStats() {
+        return referenceDataCache.getStats();
+    }
+}
@@ -10,6 +10,7 @@ import com.thfh.repository.ArtworkBrowseHistoryRepository;
 import com.thfh.repository.ArtworkRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -17,11 +18,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.ArrayList;
+import java.util.function.Function;
 
 import com.thfh.dto.ArtworkBrowseHistoryDTO;
 import com.thfh.dto.TagDTO;
@@ -34,12 +37,14 @@ public class ArtworkBrowseHistoryService {
     private final ArtworkRepository artworkRepository;
     private final UserService userService;
     private final ArtworkService artworkService;
+    private final UserCardCache userCardCache;
 
-    public ArtworkBrowseHistoryService(ArtworkBrowseHistoryRepository artworkBrowseHistoryRepository, ArtworkRepository artworkRepository, UserService userService, ArtworkService artworkService) {
+    public ArtworkBrowseHistoryService(ArtworkBrowseHistoryRepository artworkBrowseHistoryRepository, ArtworkRepository artworkRepository, UserService userService, ArtworkService artworkService, UserCardCache userCardCache) {
         this.artworkBrowseHistoryRepository = artworkBrowseHistoryRepository;
         this.artworkRepository = artworkRepository;
         this.userService = userService;
         this.artworkService = artworkService;
+        this.userCardCache = userCardCache;
     }
 
     /**
@@ -277,7 +282,7 @@ public class ArtworkBrowseHistoryService {
                 currentUser.getId(), pageable);
         
         // 转换为DTO
-        return historyPage.map(this::convertToArtworkBrowseHistoryDTO);
+        return new PageImpl<>(convertToArtworkBrowseHistoryDTOs(historyPage.getContent()), pageable, historyPage.getTotalElements());
     }
     
     /**
@@ -295,7 +300,7 @@ public class ArtworkBrowseHistoryService {
                 currentUser.getId(), type, pageable);
         
         // 转换为DTO
-        return historyPage.map(this::convertToArtworkBrowseHistoryDTO);
+        return new PageImpl<>(convertToArtworkBrowseHistoryDTOs(historyPage.getContent()), pageable, historyPage.getTotalElements());
     }
     
     /**
@@ -316,16 +321,13 @@ public class ArtworkBrowseHistoryService {
         }
         
         // 获取对应的浏览记录和作品信息
-        List<ArtworkBrowseHistoryDTO> dtos = new ArrayList<>();
+        List<ArtworkBrowseHistory> histories = new ArrayList<>();
         for (Long artworkId : artworkIds) {
-            ArtworkBrowseHistory history = artworkBrowseHistoryRepository.findByUserIdAndArtworkId(currentUser.getId(), artworkId)
-                    .orElse(null);
-            if (history != null) {
-                dtos.add(convertToArtworkBrowseHistoryDTO(history));
-            }
+            artworkBrowseHistoryRepository.findByUserIdAndArtworkId(currentUser.getId(), artworkId)
+                    .ifPresent(histories::add);
         }
         
-        return dtos;
+        return convertToArtworkBrowseHistoryDTOs(histories);
     }
     
     /**
@@ -347,16 +349,13 @@ public class ArtworkBrowseHistoryService {
         }
         
         // 获取对应的浏览记录和作品信息
-        List<ArtworkBrowseHistoryDTO> dtos = new ArrayList<>();
+        List<ArtworkBrowseHistory> histories = new ArrayList<>();
         for (Long artworkId : artworkIds) {
-            ArtworkBrowseHistory history = artworkBrowseHistoryRepository.findByUserIdAndArtworkId(currentUser.getId(), artworkId)
-                    .orElse(null);
-            if (history != null) {
-                dtos.add(convertToArtworkBrowseHistoryDTO(history));
-            }
+            artworkBrowseHistoryRepository.findByUserIdAndArtworkId(currentUser.getId(), artworkId)
+                    .ifPresent(histories::add);
         }
         
-        return dtos;
+        return convertToArtworkBrowseHistoryDTOs(histories);
     }
     
     /**
@@ -375,7 +374,7 @@ public class ArtworkBrowseHistoryService {
                 userId, pageable);
         
         // 转换为DTO
-        return historyPage.map(this::convertToArtworkBrowseHistoryDTO);
+        return new PageImpl<>(convertToArtworkBrowseHistoryDTOs(historyPage.getContent()), pageable, historyPage.getTotalElements());
     }
     
     /**
@@ -395,15 +394,44 @@ public class ArtworkBrowseHistoryService {
                 userId, type, pageable);
         
         // 转换为DTO
-        return historyPage.map(this::convertToArtworkBrowseHistoryDTO);
+        return new PageImpl<>(convertToArtworkBrowseHistoryDTOs(historyPage.getContent()), pageable, historyPage.getTotalElements());
+    }
+    
+    /**
+     * 批量转换浏览记录，作品一次查询取回，创作者信息从名片缓存批量获取
+     * @param histories 浏览记录列表
+     * @return 浏览记录DTO列表
+     */
+    private List<ArtworkBrowseHistoryDTO> convertToArtworkBrowseHistoryDTOs(List<ArtworkBrowseHistory> histories) {
+        List<Long> artworkIds = histories.stream()
+                .map(ArtworkBrowseHistory::getArtworkId)
+                .collect(Collectors.toList());
+        Map<Long, Artwork> artworks = artworkRepository.findAllById(artworkIds).stream()
+                .collect(Collectors.toMap(Artwork::getId, Function.identity()));
+        Set<Long> creatorIds = new HashSet<>();
+        for (Artwork artwork : artworks.values()) {
+            if (artwork.getCreator() != null) {
+                creatorIds.add(artwork.getCreator().getId());
+            }
+        }
+        Map<Long, UserCardCache.Card> creators = userCardCache.getCards(creatorIds);
+        
+        List<ArtworkBrowseHistoryDTO> dtos = new ArrayList<>(histories.size());
+        for (ArtworkBrowseHistory history : histories) {
+            dtos.add(convertToArtworkBrowseHistoryDTO(history, artworks.get(history.getArtworkId()), creators));
+        }
+        return dtos;
     }
     
     /**
      * 将ArtworkBrowseHistory转换为ArtworkBrowseHistoryDTO
      * @param history 浏览记录
+     * @param artwork 浏览的作品，已删除时为空
+     * @param creators 创作者名片
      * @return 浏览记录DTO
      */
-    private ArtworkBrowseHistoryDTO convertToArtworkBrowseHistoryDTO(ArtworkBrowseHistory history) {
+    private ArtworkBrowseHistoryDTO convertToArtworkBrowseHistoryDTO(ArtworkBrowseHistory history, Artwork artwork,
+                                                                     Map<Long, UserCardCache.Card> creators) {
         ArtworkBrowseHistoryDTO dto = new ArtworkBrowseHistoryDTO();
         dto.setHistoryId(history.getId());
         dto.setArtworkId(history.getArtworkId());
@@ -411,9 +439,6 @@ public class ArtworkBrowseHistoryService {
         dto.setBrowseCount(history.getBrowseCount());
         
         // 填充作品信息
-        Artwork artwork = artworkRepository.findById(history.getArtworkId())
-                .orElse(null);
-        
         if (artwork != null) {
             dto.setTitle(artwork.getTitle());
             dto.setDescription(artwork.getDescription());
@@ -425,8 +450,11 @@ public class ArtworkBrowseHistoryService {
             // 创作者信息
             if (artwork.getCreator() != null) {
                 dto.setCreatorId(artwork.getCreator().getId());
-                dto.setCreatorName(artwork.getCreator().getUsername());
-                dto.setCreatorAvatar(artwork.getCreator().getAvatar());
+                UserCardCache.Card creator = creators.get(artwork.getCreator().getId());
+                if (creator != null) {
+                    dto.setCreatorName(creator.getUsername());
+                    dto.setCreatorAvatar(creator.getAvatar());
+                }
             }
             
             // 标签信息
@@ -0,0 +1,129 @@
+package com.thfh.service;
+
+import com.thfh.repository.ArtworkRepository;
+import com.thfh.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 作品计数服务
+ * 负责作品点赞数、收藏数的累加，避免加载并整体保存作品实体。
+ * 计数增量先在内存中按作品合并，再由定时任务以单条
+ * UPDATE artworks SET like_count = like_count + ? 语句批量写回，热门作品的并发点赞只产生一次更新。
+ */
+@Slf4j
+@Service
+public class ArtworkCounterService {
+
+    @Autowired
+    private ArtworkRepository artworkRepository;
+
+    // 待写回的点赞数增量，键为作品ID
+    private final Map<Long, Integer> pendingLikeDeltas = new ConcurrentHashMap<>();
+
+    // 待写回的收藏数增量，键为作品ID
+    private final Map<Long, Integer> pendingFavoriteDeltas = new ConcurrentHashMap<>();
+
+    /**
+     * 累加作品点赞数
+     * 处于事务中时，增量在事务提交后才计入，回滚的点赞不会影响计数
+     * @param artworkId 作品ID
+     * @param delta 增量（可为负数）
+     * @return 累加后的点赞数（已写入数据库的值加上尚未写回的增量）
+     */
+    public int addLikeDelta(Long artworkId, int delta) {
+        int current = getLikeCount(artworkId);
+        AfterCommit.run(() -> pendingLikeDeltas.merge(artworkId, delta, Integer::sum));
+        return Math.max(current + delta, 0);
+    }
+
+    /**
+     * 累加作品收藏数
+     * 处于事务中时，增量在事务提交后才计入，回滚的收藏不会影响计数
+     * @param artworkId 作品ID
+     * @param delta 增量（可为负数）
+     * @return 累加后的收藏数（已写入数据库的值加上尚未写回的增量）
+     */
+    public int addFavoriteDelta(Long artworkId, int delta) {
+        int current = getFavoriteCount(artworkId);
+        AfterCommit.run(() -> pendingFavoriteDeltas.merge(artworkId, delta, Integer::sum));
+        return Math.max(current + delta, 0);
+    }
+
+    /**
+     * 获取作品当前点赞数
+     * @param artworkId 作品ID
+     * @return 点赞数
+     */
+    public int getLikeCount(Long artworkId) {
+        Integer stored = artworkRepository.findLikeCountById(artworkId);
+        return Math.max((stored == null ? 0 : stored) + pendingLikeDeltas.getOrDefault(artworkId, 0), 0);
+    }
+
+    /**
+     * 获取作品当前收藏数
+     * @param artworkId 作品ID
+     * @return 收藏数
+     */
+    public int getFavoriteCount(Long artworkId) {
+        Integer stored = artworkRepository.findFavoriteCountById(artworkId);
+        return Math.max((stored == null ? 0 : stored) + pendingFavoriteDeltas.getOrDefault(artworkId, 0), 0);
+    }
+
+    /**
+     * 定期将内存中合并的计数增量写回数据库
+     * 默认每秒执行一次
+     */
+    @Scheduled(fixedDelayString = "${artwork.counter.flush-interval:1000}")
+    public void flush() {
+        flushLikes();
+        flushFavorites();
+    }
+
+    /**
+     * 应用关闭前写回剩余的计数增量
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flushLikes() {
+        for (Long artworkId : new ArrayList<>(pendingLikeDeltas.keySet())) {
+            Integer delta = pendingLikeDeltas.remove(artworkId);
+            if (delta == null || delta == 0) {
+                continue;
+            }
+            try {
+                artworkRepository.incrementLikeCount(artworkId, delta);
+            } catch (Exception e) {
+                // 写回失败时把增量放回，等待下一轮重试
+                pendingLikeDeltas.merge(artworkId, delta, Integer::sum);
+                log.error("写回作品点赞数失败，作品ID: {}", artworkId, e);
+            }
+        }
+    }
+
+    private void flushFavorites() {
+        for (Long artworkId : new ArrayList<>(pendingFavoriteDeltas.keySet())) {
+            Integer delta = pendingFavoriteDeltas.remove(artworkId);
+            if (delta == null || delta == 0) {
+                continue;
+            }
+            try {
+                artworkRepository.incrementFavoriteCount(artworkId, delta);
+            } catch (Exception e) {
+                // 写回失败时把增量放回，等待下一轮重试
+                pendingFavoriteDeltas.merge(artworkId, delta, Integer::sum);
+                log.error("写回作品收藏数失败，作品ID: {}", artworkId, e);
+            }
+        }
+    }
+}
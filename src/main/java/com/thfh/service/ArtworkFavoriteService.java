@@ -1,7 +1,6 @@
 package com.thfh.service;
 
 import com.thfh.model.Artwork;
-import com.thfh.model.ArtworkFavorite;
 import com.thfh.model.User;
 import com.thfh.repository.ArtworkFavoriteRepository;
 import com.thfh.repository.ArtworkRepository;
@@ -24,58 +23,55 @@ public class ArtworkFavoriteService {
     @Autowired
     private ArtworkRepository artworkRepository;
 
+    @Autowired
+    private ArtworkCounterService artworkCounterService;
+
+    @Autowired
+    private ViewerStateService viewerStateService;
+
     /**
      * 添加收藏
-     * 为指定作品添加收藏，同时更新作品的收藏数量
+     * 以条件插入写入收藏记录，并原子累加作品收藏数，不加载作品实体
      * @param artworkId 作品ID
      * @param user 用户对象
+     * @return 收藏后的作品收藏数
      * @throws IllegalStateException 当用户已经收藏过该作品时抛出
      * @throws IllegalArgumentException 当作品不存在时抛出
      */
     @Transactional
-    public void addFavorite(Long artworkId, User user) {
-        // 检查是否已经收藏
-        if (artworkFavoriteRepository.existsByArtworkIdAndUserId(artworkId, user.getId())) {
-            throw new IllegalStateException("您已经收藏过该作品");
+    public int addFavorite(Long artworkId, User user) {
+        if (!artworkRepository.existsById(artworkId)) {
+            throw new IllegalArgumentException("作品不存在");
         }
 
-        // 获取作品信息
-        Artwork artwork = artworkRepository.findById(artworkId)
-                .orElseThrow(() -> new IllegalArgumentException("作品不存在"));
-
-        // 创建收藏记录
-        ArtworkFavorite favorite = new ArtworkFavorite();
-        favorite.setArtwork(artwork);
-        favorite.setUser(user);
-        artworkFavoriteRepository.save(favorite);
-
-        // 更新作品收藏数
-        if (artwork.getFavoriteCount() == null) {
-            artwork.setFavoriteCount(0);
+        // 依赖唯一约束条件插入，已收藏时不会插入新记录
+        if (artworkFavoriteRepository.insertIfAbsent(artworkId, user.getId()) == 0) {
+            throw new IllegalStateException("您已经收藏过该作品");
         }
-        artwork.setFavoriteCount(artwork.getFavoriteCount() + 1);
-        artworkRepository.save(artwork);
+        viewerStateService.recordInteraction(user.getId(), ViewerStateService.Interaction.ARTWORK_FAVORITE, artworkId);
+
+        return artworkCounterService.addFavoriteDelta(artworkId, 1);
     }
 
     /**
      * 取消收藏
-     * 删除用户对指定作品的收藏记录，同时更新作品的收藏数量
+     * 删除用户对指定作品的收藏记录，同时原子扣减作品的收藏数量
      * @param artworkId 作品ID
      * @param user 用户对象
+     * @return 取消收藏后的作品收藏数
      * @throws IllegalArgumentException 当作品不存在时抛出
      */
     @Transactional
-    public void removeFavorite(Long artworkId, User user) {
-        // 获取作品信息
-        Artwork artwork = artworkRepository.findById(artworkId)
-                .orElseThrow(() -> new IllegalArgumentException("作品不存在"));
+    public int removeFavorite(Long artworkId, User user) {
+        if (!artworkRepository.existsById(artworkId)) {
+            throw new IllegalArgumentException("作品不存在");
+        }
 
         // 删除收藏记录
         if (artworkFavoriteRepository.deleteByArtworkIdAndUserId(artworkId, user.getId()) > 0) {
-            // 更新作品收藏数
-            artwork.setFavoriteCount(artwork.getFavoriteCount() - 1);
-            artworkRepository.save(artwork);
+            return artworkCounterService.addFavoriteDelta(artworkId, -1);
         }
+        return artworkCounterService.getFavoriteCount(artworkId);
     }
 
     /**
@@ -95,6 +91,7 @@ public class ArtworkFavoriteService {
      * @return 如果用户已收藏该作品则返回true，否则返回false
      */
     public boolean isFavorited(Long artworkId, Long userId) {
-        return artworkFavoriteRepository.existsByArtworkIdAndUserId(artworkId, userId);
+        return viewerStateService.mightHaveInteraction(userId, ViewerStateService.Interaction.ARTWORK_FAVORITE, artworkId)
+                && artworkFavoriteRepository.existsByArtworkIdAndUserId(artworkId, userId);
     }
 }
\ No newline at end of file
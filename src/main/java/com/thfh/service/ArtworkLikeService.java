@@ -1,7 +1,6 @@
 package com.thfh.service;
 
 import com.thfh.model.Artwork;
-import com.thfh.model.ArtworkLike;
 import com.thfh.model.User;
 import com.thfh.repository.ArtworkLikeRepository;
 import com.thfh.repository.ArtworkRepository;
@@ -27,60 +26,57 @@ public class ArtworkLikeService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ArtworkCounterService artworkCounterService;
+
+    @Autowired
+    private ViewerStateService viewerStateService;
+
     /**
      * 添加点赞
-     * 为指定作品添加点赞，同时更新作品的点赞数量
+     * 以条件插入写入点赞记录，并原子累加作品点赞数，不加载作品实体
      * @param artworkId 作品ID
      * @param user 用户对象（实际使用当前登录用户）
+     * @return 点赞后的作品点赞数
      * @throws IllegalStateException 当用户已经点赞过该作品时抛出
      * @throws IllegalArgumentException 当作品不存在时抛出
      */
     @Transactional
-    public void addLike(Long artworkId, User user) {
+    public int addLike(Long artworkId, User user) {
         User currentUser = userService.getCurrentUser();
-        // 检查是否已经点赞
-        if (artworkLikeRepository.existsByArtworkIdAndUserId(artworkId, currentUser.getId())) {
-            throw new IllegalStateException("您已经点赞过该作品");
+        if (!artworkRepository.existsById(artworkId)) {
+            throw new IllegalArgumentException("作品不存在");
         }
 
-        // 获取作品信息
-        Artwork artwork = artworkRepository.findById(artworkId)
-                .orElseThrow(() -> new IllegalArgumentException("作品不存在"));
-
-        // 创建点赞记录
-        ArtworkLike like = new ArtworkLike();
-        like.setArtwork(artwork);
-        like.setUser(currentUser);
-        artworkLikeRepository.save(like);
-
-        // 更新作品点赞数
-        if (artwork.getLikeCount() == null) {
-            artwork.setLikeCount(0);
+        // 依赖唯一约束条件插入，已点赞时不会插入新记录
+        if (artworkLikeRepository.insertIfAbsent(artworkId, currentUser.getId()) == 0) {
+            throw new IllegalStateException("您已经点赞过该作品");
         }
-        artwork.setLikeCount(artwork.getLikeCount() + 1);
-        artworkRepository.save(artwork);
+        viewerStateService.recordInteraction(currentUser.getId(), ViewerStateService.Interaction.ARTWORK_LIKE, artworkId);
+
+        return artworkCounterService.addLikeDelta(artworkId, 1);
     }
 
     /**
      * 取消点赞
-     * 删除用户对指定作品的点赞记录，同时更新作品的点赞数量
+     * 删除用户对指定作品的点赞记录，同时原子扣减作品的点赞数量
      * @param artworkId 作品ID
      * @param user 用户对象（实际使用当前登录用户）
+     * @return 取消点赞后的作品点赞数
      * @throws IllegalArgumentException 当作品不存在时抛出
      */
     @Transactional
-    public void removeLike(Long artworkId, User user) {
+    public int removeLike(Long artworkId, User user) {
         User currentUser = userService.getCurrentUser();
-        // 获取作品信息
-        Artwork artwork = artworkRepository.findById(artworkId)
-                .orElseThrow(() -> new IllegalArgumentException("作品不存在"));
+        if (!artworkRepository.existsById(artworkId)) {
+            throw new IllegalArgumentException("作品不存在");
+        }
 
         // 删除点赞记录
         if (artworkLikeRepository.deleteByArtworkIdAndUserId(artworkId, currentUser.getId()) > 0) {
-            // 更新作品点赞数
-            artwork.setLikeCount(artwork.getLikeCount() - 1);
-            artworkRepository.save(artwork);
+            return artworkCounterService.addLikeDelta(artworkId, -1);
         }
+        return artworkCounterService.getLikeCount(artworkId);
     }
 
     /**
@@ -100,6 +96,7 @@ public class ArtworkLikeService {
      * @return 如果用户已点赞该作品则返回true，否则返回false
      */
     public boolean isLiked(Long artworkId, Long userId) {
-        return artworkLikeRepository.existsByArtworkIdAndUserId(artworkId, userId);
+        return viewerStateService.mightHaveInteraction(userId, ViewerStateService.Interaction.ARTWORK_LIKE, artworkId)
+                && artworkLikeRepository.existsByArtworkIdAndUserId(artworkId, userId);
     }
 }
\ No newline at end of file
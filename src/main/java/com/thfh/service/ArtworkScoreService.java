@@ -25,6 +25,9 @@ public class ArtworkScoreService {
     @Autowired
     private ArtworkRepository artworkRepository;
 
+    @Autowired
+    private ViewerStateService viewerStateService;
+
     /**
      * 为作品评分
      * 创建新的评分记录，并更新作品的评分统计信息
@@ -56,6 +59,7 @@ public class ArtworkScoreService {
 
         // 保存评分记录
         artworkScoreRepository.save(artworkScore);
+        viewerStateService.recordInteraction(userId, ViewerStateService.Interaction.ARTWORK_SCORE, artworkId);
 
         // 更新作品的评分统计信息
         updateArtworkScoreStatistics(artwork);
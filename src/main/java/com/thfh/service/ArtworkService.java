@@ -8,7 +8,6 @@ import com.thfh.model.ArtworkType;
 import com.thfh.model.User;
 import com.thfh.repository.ArtworkRepository;
 import com.thfh.repository.ArtworkTagRepository;
-import org.springframework.beans.BeanUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -251,17 +250,39 @@ public class ArtworkService {
      */
     @Transactional
     public void removeTag(Long tagId) {
-        ArtworkTag tag = artworkTagRepository.findById(tagId)
-                .orElseThrow(() -> new IllegalArgumentException("标签不存在"));
+        if (!artworkTagRepository.existsById(tagId)) {
+            throw new IllegalArgumentException("标签不存在");
+        }
 
-        // 删除标签与作品的关联关系
-        artworkRepository.findAll().forEach(artwork -> {
-            artwork.getTags().removeIf(t -> t.getId().equals(tagId));
-            artworkRepository.save(artwork);
-        });
+        // 直接删除关联表中的记录，不加载作品
+        artworkTagRepository.deleteRelationsByTagId(tagId);
 
         // 删除标签
-        artworkTagRepository.delete(tag);
+        artworkTagRepository.deleteById(tagId);
+    }
+
+    /**
+     * 合并标签，将源标签的作品关联转移到目标标签后删除源标签
+     * @param sourceTagId 源标签ID
+     * @param targetTagId 目标标签ID
+     * @return 目标标签
+     */
+    @Transactional
+    public ArtworkTag mergeTag(Long sourceTagId, Long targetTagId) {
+        if (sourceTagId.equals(targetTagId)) {
+            throw new IllegalArgumentException("不能将标签合并到自身");
+        }
+        if (!artworkTagRepository.existsById(sourceTagId)) {
+            throw new IllegalArgumentException("源标签不存在");
+        }
+        ArtworkTag target = artworkTagRepository.findById(targetTagId)
+                .orElseThrow(() -> new IllegalArgumentException("目标标签不存在"));
+
+        // 已带有目标标签的作品不重复添加，随后删除源标签的全部关联
+        artworkTagRepository.copyRelations(sourceTagId, targetTagId);
+        artworkTagRepository.deleteRelationsByTagId(sourceTagId);
+        artworkTagRepository.deleteById(sourceTagId);
+        return target;
     }
 
     /**
@@ -297,6 +318,23 @@ public class ArtworkService {
         return artworkRepository.save(artwork);
     }
 
+    /**
+     * 将更新DTO中的基本信息写入作品实体
+     * 评分、计数、创建者和创建时间不可修改，标签由调用方单独处理
+     * @param updateDTO 更新的作品信息
+     * @param artwork 作品实体
+     */
+    private static void applyUpdate(ArtworkUpdateDTO updateDTO, Artwork artwork) {
+        artwork.setTitle(updateDTO.getTitle());
+        artwork.setDescription(updateDTO.getDescription());
+        artwork.setCoverUrl(updateDTO.getCoverUrl());
+        artwork.setMaterials(updateDTO.getMaterials());
+        artwork.setPrice(updateDTO.getPrice());
+        artwork.setType(updateDTO.getType());
+        artwork.setRecommended(updateDTO.getRecommended());
+        artwork.setEnabled(updateDTO.getEnabled());
+    }
+
     /**
      * 管理员更新作品信息
      * @param artworkId 作品ID
@@ -309,7 +347,7 @@ public class ArtworkService {
                 .orElseThrow(() -> new IllegalArgumentException(ARTWORK_NOT_FOUND));
         
         // 更新基本信息
-        BeanUtils.copyProperties(updateDTO, artwork, "id", "creator", "createTime", "averageScore", "scoreCount", "totalScore", "favoriteCount", "likeCount", "viewCount");
+        applyUpdate(updateDTO, artwork);
         
         // 处理标签
         if (updateDTO.getTags() != null) {
@@ -362,7 +400,7 @@ public class ArtworkService {
         }
         
         // 更新基本信息
-        BeanUtils.copyProperties(updateDTO, artwork, "id", "creator", "createTime", "averageScore", "scoreCount", "totalScore", "favoriteCount", "likeCount", "viewCount");
+        applyUpdate(updateDTO, artwork);
         
         // 处理标签
         if (updateDTO.getTags() != null) {
@@ -131,7 +131,8 @@ public class AuthService {
         user.setCreateTime(LocalDateTime.now());
         user.setUpdateTime(LocalDateTime.now());
         
-        // 设置经验值、等级和补签卡的默认值
+        // 设置积分、经验值、等级和补签卡的默认值，积分余额不接受注册请求中的值
+        user.setPoints(0);
         user.setExperience(0);
         user.setLevel(1);
         user.setMakeupCards(0);
@@ -3,19 +3,75 @@ package com.thfh.service;
 import com.thfh.dto.BlacklistDTO;
 import com.thfh.model.Blacklist;
 import com.thfh.repository.BlacklistRepository;
+import com.thfh.util.AfterCommit;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.annotation.PostConstruct;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * 黑名单服务
+ * 每个用户拉黑的用户ID缓存为有序long数组，并带有加载时的版本号。
+ * 拉黑和解除拉黑在事务提交后递增该用户的版本号，版本号不一致的缓存视为失效并重新加载，
+ * 聊天、评论、好友请求和动态流判断拉黑关系时不再访问数据库。
+ * 版本号只在本进程内递增，变更同时经CacheInvalidationBus通知其他进程；
+ * 缓存另有过期时间，消息丢失时其他进程最迟在过期后读到新的拉黑关系。
+ */
 @Service
 public class BlacklistService {
+
+    // 缓存的最大用户数，超过后整体清空
+    private static final int MAX_CACHED_USERS = 100_000;
+
+    // 失效消息中的缓存名称
+    private static final String CACHE_NAME = "blacklist";
+
     @Autowired
     private BlacklistRepository blacklistRepository;
 
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    // 缓存的过期时间
+    @Value("${cache.local.ttl:300000}")
+    private long ttlMillis;
+
+    // 用户拉黑的用户集合，键为用户ID
+    private final Map<Long, BlockedSet> blockedSets = new ConcurrentHashMap<>();
+
+    // 用户黑名单的版本号，只记录发生过变更的用户
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * 某一版本的拉黑用户集合
+     */
+    private static final class BlockedSet {
+        private final long version;
+        private final long loadedAt;
+        private final long[] blockedIds;
+
+        BlockedSet(long version, long loadedAt, long[] blockedIds) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+            this.blockedIds = blockedIds;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        cacheInvalidationBus.register(CACHE_NAME, key -> bumpVersion(Long.valueOf(key)));
+    }
+
     @Transactional
     public void addToBlacklist(Long userId, Long blockedId) {
         if (userId.equals(blockedId)) {
@@ -28,11 +84,13 @@ public class BlacklistService {
         blacklist.setBlockedId(blockedId);
         blacklist.setCreateTime(LocalDateTime.now());
         blacklistRepository.save(blacklist);
+        invalidate(userId);
     }
 
     @Transactional
     public void removeFromBlacklist(Long userId, Long blockedId) {
         blacklistRepository.deleteByUserIdAndBlockedId(userId, blockedId);
+        invalidate(userId);
     }
 
     public List<BlacklistDTO> getBlacklist(Long userId) {
@@ -45,4 +103,77 @@ public class BlacklistService {
             return dto;
         }).collect(Collectors.toList());
     }
-} 
\ No newline at end of file
+
+    /**
+     * 判断两个用户之间是否存在拉黑关系，任意一方拉黑另一方都算
+     * @param userId 用户ID
+     * @param otherUserId 另一个用户ID
+     * @return 是否存在拉黑关系
+     */
+    public boolean isBlocked(Long userId, Long otherUserId) {
+        if (userId == null || otherUserId == null || userId.equals(otherUserId)) {
+            return false;
+        }
+        return hasBlocked(userId, otherUserId) || hasBlocked(otherUserId, userId);
+    }
+
+    /**
+     * 判断用户是否拉黑了另一个用户
+     * @param userId 用户ID
+     * @param blockedId 被拉黑的用户ID
+     * @return 是否已拉黑
+     */
+    public boolean hasBlocked(Long userId, Long blockedId) {
+        return Arrays.binarySearch(getBlockedIds(userId), blockedId) >= 0;
+    }
+
+    /**
+     * 从用户ID列表中移除与指定用户存在拉黑关系的用户
+     * @param userId 用户ID
+     * @param userIds 待过滤的用户ID
+     * @return 过滤后的用户ID列表
+     */
+    public List<Long> filterBlocked(Long userId, Collection<Long> userIds) {
+        return userIds.stream()
+                .filter(otherUserId -> !isBlocked(userId, otherUserId))
+                .collect(Collectors.toList());
+    }
+
+    private long[] getBlockedIds(Long userId) {
+        long version = currentVersion(userId);
+        BlockedSet cached = blockedSets.get(userId);
+        if (cached != null && cached.version == version && System.currentTimeMillis() - cached.loadedAt < ttlMillis) {
+            return cached.blockedIds;
+        }
+        // 先读取版本号再查询，查询期间发生的变更会使本次结果立即过期
+        long[] blockedIds = blacklistRepository.findBlockedIds(userId).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        if (blockedSets.size() >= MAX_CACHED_USERS) {
+            blockedSets.clear();
+        }
+        blockedSets.merge(userId, new BlockedSet(version, System.currentTimeMillis(), blockedIds),
+                (current, loaded) -> loaded.version >= current.version ? loaded : current);
+        return blockedIds;
+    }
+
+    private long currentVersion(Long userId) {
+        AtomicLong version = versions.get(userId);
+        return version == null ? 0 : version.get();
+    }
+
+    /**
+     * 处于事务中时在事务提交后递增版本号并通知其他进程，避免重新加载时读到未提交的数据
+     */
+    private void invalidate(Long userId) {
+        AfterCommit.run(() -> {
+            bumpVersion(userId);
+            cacheInvalidationBus.publish(CACHE_NAME, userId.toString());
+        });
+    }
+
+    private void bumpVersion(Long userId) {
+        versions.computeIfAbsent(userId, key -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,110 @@
+package com.thfh.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * 缓存失效广播
+ * 用户端和管理端是两个独立进程，黑名单、用户名片、社交关系、积分余额、课程目录、职位索引、申请统计、
+ * 职位分类和参考数据都缓存在各自进程的内存中，本进程的失效只作用于本地缓存。
+ * 各缓存在事务提交后经这里把失效消息发布到Redis频道，其他进程收到后执行同样的失效，变更随即在所有进程生效。
+ * 发布在后台线程中进行，Redis不可用时只记录日志，不影响业务请求。
+ * Redis发布订阅不保证送达，订阅断开期间的消息会丢失，因此各缓存另有统一的过期时间cache.local.ttl兜底：
+ * 消息丢失或关闭广播（cache.invalidation.enabled=false）时，其他进程中的旧数据最迟在过期后重新加载。
+ * 过期时间越短，兜底越接近实时，但命中率越低、重新加载越频繁。
+ */
+@Slf4j
+@Service
+public class CacheInvalidationBus implements MessageListener {
+
+    /** 失效消息的Redis频道 */
+    public static final String CHANNEL = "thfh:cache-invalidation";
+
+    // 消息格式为 进程标识|缓存名称|失效键
+    private static final String SEPARATOR = "|";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    // 是否通过Redis广播失效消息，关闭时只依赖过期时间
+    @Value("${cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    // 本进程的标识，收到自己发布的消息时忽略
+    private final String origin = UUID.randomUUID().toString();
+
+    // 缓存名称到失效处理的映射
+    private final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 注册缓存收到其他进程失效消息时的处理
+     * @param cache 缓存名称
+     * @param handler 失效处理，参数为失效键
+     */
+    public void register(String cache, Consumer<String> handler) {
+        handlers.put(cache, handler);
+    }
+
+    /**
+     * 向其他进程广播失效消息
+     * 应在本进程的失效之后、事务提交后调用，其他进程重新加载时才能读到已提交的数据
+     * @param cache 缓存名称
+     * @param key 失效键，由对应缓存自行解析
+     */
+    public void publish(String cache, String key) {
+        if (!enabled) {
+            return;
+        }
+        String message = origin + SEPARATOR + cache + SEPARATOR + key;
+        executor.execute(() -> {
+            try {
+                stringRedisTemplate.convertAndSend(CHANNEL, message);
+            } catch (RuntimeException e) {
+                log.warn("发布缓存失效消息失败，其他进程将在缓存过期后刷新: {}", message, e);
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\" + SEPARATOR, 3);
+        if (parts.length < 3 || origin.equals(parts[0])) {
+            return;
+        }
+        Consumer<String> handler = handlers.get(parts[1]);
+        if (handler == null) {
+            return;
+        }
+        try {
+            handler.accept(parts[2]);
+        } catch (RuntimeException e) {
+            log.warn("处理缓存失效消息失败: {}", body, e);
+        }
+    }
+}
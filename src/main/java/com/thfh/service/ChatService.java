@@ -35,6 +35,9 @@ public class ChatService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private BlacklistService blacklistService;
+
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     /**
@@ -50,6 +53,10 @@ public class ChatService {
     @Transactional
     public ChatMessageDTO sendMessage(Long senderId, Long receiverId, String content, 
                                      String messageType, String mediaUrl) {
+        if (blacklistService.isBlocked(senderId, receiverId)) {
+            log.warn("双方存在拉黑关系，拒绝发送消息, senderId={}, receiverId={}", senderId, receiverId);
+            throw new BusinessException(ErrorCode.FORBIDDEN, "你与对方存在拉黑关系，无法发送消息");
+        }
         User sender = userRepository.findById(senderId)
                 .orElseThrow(() -> {
                     log.warn("发送者不存在, senderId={}", senderId);
@@ -194,27 +201,16 @@ public class ChatService {
      */
     @Transactional
     public void markAllMessagesAsRead(Long currentUserId, Long otherUserId) {
-        User currentUser = userRepository.findById(currentUserId)
-                .orElseThrow(() -> {
-                    log.warn("当前用户不存在, userId={}", currentUserId);
-                    return new ResourceNotFoundException("当前用户不存在");
-                });
-        User otherUser = userRepository.findById(otherUserId)
-                .orElseThrow(() -> {
-                    log.warn("对方用户不存在, userId={}", otherUserId);
-                    return new ResourceNotFoundException("对方用户不存在");
-                });
-        List<ChatMessage> messages = chatMessageRepository.findMessagesBetweenUsers(currentUser, otherUser);
-        boolean updated = false;
-        for (ChatMessage message : messages) {
-            if (message.getReceiver().getId().equals(currentUserId) && !message.isRead()) {
-                message.setRead(true);
-                updated = true;
-            }
+        if (!userRepository.existsById(currentUserId)) {
+            log.warn("当前用户不存在, userId={}", currentUserId);
+            throw new ResourceNotFoundException("当前用户不存在");
         }
-        if (updated) {
-            chatMessageRepository.saveAll(messages);
+        if (!userRepository.existsById(otherUserId)) {
+            log.warn("对方用户不存在, userId={}", otherUserId);
+            throw new ResourceNotFoundException("对方用户不存在");
         }
+        // 一条UPDATE语句完成，不再加载整段聊天记录
+        chatMessageRepository.markAllAsReadBetweenUsers(currentUserId, otherUserId);
     }
 
     /**
@@ -249,21 +245,15 @@ public class ChatService {
      */
     @Transactional
     public int deleteAllMessagesBetweenUsers(Long userId1, Long userId2) {
-        User user1 = userRepository.findById(userId1)
-                .orElseThrow(() -> {
-                    log.warn("用户不存在, userId={}", userId1);
-                    return new ResourceNotFoundException("用户1不存在");
-                });
-        User user2 = userRepository.findById(userId2)
-                .orElseThrow(() -> {
-                    log.warn("用户不存在, userId={}", userId2);
-                    return new ResourceNotFoundException("用户2不存在");
-                });
-        List<ChatMessage> messages = chatMessageRepository.findMessagesBetweenUsers(user1, user2);
-        int count = messages.size();
-        if (count > 0) {
-            chatMessageRepository.deleteAll(messages);
+        if (!userRepository.existsById(userId1)) {
+            log.warn("用户不存在, userId={}", userId1);
+            throw new ResourceNotFoundException("用户1不存在");
+        }
+        if (!userRepository.existsById(userId2)) {
+            log.warn("用户不存在, userId={}", userId2);
+            throw new ResourceNotFoundException("用户2不存在");
         }
-        return count;
+        // 一条DELETE语句完成，不再逐条加载和删除消息实体
+        return chatMessageRepository.deleteAllBetweenUsers(userId1, userId2);
     }
 }
@@ -3,51 +3,71 @@ package com.thfh.service;
 import com.thfh.common.CustomPage;
 import com.thfh.common.Result;
 import com.thfh.model.CheckIn;
+import com.thfh.model.CheckInMonth;
 import com.thfh.model.User;
+import com.thfh.repository.CheckInMonthRepository;
 import com.thfh.repository.CheckInRepository;
 import com.thfh.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.alibaba.fastjson.JSONObject;
 
+import jakarta.annotation.PostConstruct;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 /**
  * 签到服务类
- * 提供用户签到相关的业务逻辑处理，包括签到、补签、查询签到记录等功能
+ * 提供用户签到相关的业务逻辑处理，包括签到、补签、查询签到记录等功能。
+ * 签到状态按月保存为位图（check_in_month表，第(日-1)位表示当天已签到），
+ * 今日签到判断和月签到次数只读取一行并做位运算，连续签到天数按月逐段计算；
+ * check_in表继续保存签到流水，用于签到历史查询。
  */
+@Slf4j
 @Service
 public class CheckInService {
 
     @Autowired
     private CheckInRepository checkInRepository;
 
+    @Autowired
+    private CheckInMonthRepository checkInMonthRepository;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private UserService userService;
 
+    /**
+     * 启动时如位图表为空，则从签到流水表回填
+     */
+    @PostConstruct
+    public void backfillMonthBitmaps() {
+        try {
+            if (checkInMonthRepository.count() == 0 && checkInRepository.count() > 0) {
+                int rows = checkInMonthRepository.backfillFromCheckIns();
+                log.info("已从签到记录回填月度签到位图，影响行数: {}", rows);
+            }
+        } catch (Exception e) {
+            log.error("回填月度签到位图失败", e);
+        }
+    }
+
     /**
      * 检查当前用户今日是否已签到
      * @return 如果今日已签到则返回true，否则返回false
      */
     public boolean isCheckedInToday() {
         User currentUser = userService.getCurrentUser();
-        Long userId = currentUser.getId();
-        
-        // 检查今日是否已签到
-        List<CheckIn> todayCheckIns = checkInRepository.findTodayCheckIn(userId);
-        boolean checkInToday = !todayCheckIns.isEmpty();
-        
-        System.out.println("用户ID: " + userId + ", 今日是否已签到: " + checkInToday);
-        
-        return checkInToday;
+        return isCheckedIn(currentUser.getId(), LocalDate.now());
     }
 
     /**
@@ -60,9 +80,8 @@ public class CheckInService {
         User currentUser = userService.getCurrentUser();
         Long userId = currentUser.getId();
 
-        // 检查今日是否已签到
-        List<CheckIn> todayCheckIns = checkInRepository.findTodayCheckIn(userId);
-        if (!todayCheckIns.isEmpty()) {
+        // 条件置位，并发的重复签到只有一个能成功
+        if (!markCheckedIn(userId, LocalDate.now())) {
             throw new RuntimeException("今日已经签到过了");
         }
 
@@ -84,11 +103,6 @@ public class CheckInService {
         User currentUser = userService.getCurrentUser();
         Long userId = currentUser.getId();
 
-        // 检查用户是否有补签卡
-        if (currentUser.getMakeupCards() <= 0) {
-            throw new RuntimeException("补签卡数量不足");
-        }
-
         // 检查是否为未来日期
         LocalDate today = LocalDate.now();
         if (checkInDate.isAfter(today)) {
@@ -100,30 +114,20 @@ public class CheckInService {
             throw new RuntimeException("当天请使用普通签到功能");
         }
 
-        // 检查补签日期是否已签到，使用日期范围查询
-        LocalDateTime startOfDay = checkInDate.atStartOfDay();
-        LocalDateTime endOfDay = checkInDate.plusDays(1).atStartOfDay().minusNanos(1);
-
-        System.out.println("准备查询日期范围: 从" + startOfDay + " 到 " + endOfDay + " 用户ID: " + userId);
-        List<CheckIn> existingCheckIns = checkInRepository.findByUserIdAndDateRange(userId, startOfDay, endOfDay);
-        System.out.println("查询结果: " + (existingCheckIns == null ? "null" : existingCheckIns.size() + "条记录"));
+        // 扣除补签卡，后续失败时随事务回滚
+        if (userRepository.useMakeupCard(userId) == 0) {
+            throw new RuntimeException("补签卡数量不足");
+        }
 
-        if (existingCheckIns != null && !existingCheckIns.isEmpty()) {
-            System.out.println("已存在记录: " + existingCheckIns.get(0).getCheckInTime());
+        if (!markCheckedIn(userId, checkInDate)) {
             throw new RuntimeException("该日期已经签到过了");
         }
 
-        // 扣除补签卡
-        currentUser.setMakeupCards(currentUser.getMakeupCards() - 1);
-        userRepository.save(currentUser);
-
         // 创建补签记录
         CheckIn checkIn = new CheckIn();
         checkIn.setUserId(userId);
         // 设置为指定日期的中午时间，避免时区问题
-        LocalDateTime checkInDateTime = checkInDate.atTime(12, 0);
-        System.out.println("设置补签时间: " + checkInDateTime);
-        checkIn.setCheckInTime(checkInDateTime);
+        checkIn.setCheckInTime(checkInDate.atTime(12, 0));
         checkIn.setIsMakeup(true);
         return checkInRepository.save(checkIn);
     }
@@ -134,60 +138,47 @@ public class CheckInService {
      */
     public Long getMonthlyCheckInCount() {
         User currentUser = userService.getCurrentUser();
-        return checkInRepository.countMonthlyCheckIns(currentUser.getId());
+        return (long) Integer.bitCount(getDayBits(currentUser.getId(), YearMonth.now()));
     }
 
     /**
      * 获取当前用户连续签到次数
+     * 从最近一次签到日期向前统计连续签到的天数，可以跨月份
      * @return 连续签到次数和今日是否已签到的状态
      */
     public Result<Object> getConsecutiveCheckInCount() {
         User currentUser = userService.getCurrentUser();
         Long userId = currentUser.getId();
-        
-        // 检查今日是否已签到
-        boolean isCheckedInToday = isCheckedInToday();
-
-        // 使用findRecentCheckIns代替findMonthlyCheckIns，以便能够跨月份计算连续签到次数
-        List<CheckIn> recentCheckIns = checkInRepository.findRecentCheckIns(userId);
-        if (recentCheckIns.isEmpty()) {
-            JSONObject result = new JSONObject();
-            result.put("consecutiveCount", 0);
-            result.put("isCheckedInToday", isCheckedInToday);
-            return Result.success(result.toJSONString());
-        }
-
-        // 获取最近一次签到日期
-        LocalDate lastCheckInDate = recentCheckIns.get(0).getCheckInTime().toLocalDate();
         LocalDate today = LocalDate.now();
 
-        System.out.println("用户ID: " + userId + ", 最近签到日期: " + lastCheckInDate + ", 今天日期: " + today);
-
-        // 计算连续签到天数
-        long consecutiveCount = 1; // 至少有一条记录，所以从1开始
-        
-        // 对于当前最新的签到记录，判断它是否是连续签到的起点
-        // 最近签到时间可以是今天或者是之前的某一天
-        LocalDate expectedPreviousDate = lastCheckInDate.minusDays(1);
-        
-        for (int i = 1; i < recentCheckIns.size(); i++) {
-            LocalDate checkInDate = recentCheckIns.get(i).getCheckInTime().toLocalDate();
-            
-            System.out.println("检查签到记录 " + i + ": " + checkInDate + ", 期望日期: " + expectedPreviousDate);
-            
-            // 检查是否是期望的前一天
-            if (checkInDate.equals(expectedPreviousDate)) {
-                consecutiveCount++;
-                expectedPreviousDate = expectedPreviousDate.minusDays(1);
-            } else {
-                // 如果不是连续的，就退出循环
-                System.out.println("检测到非连续日期，中断计数");
+        long consecutiveCount = 0;
+        boolean isCheckedInToday = false;
+
+        // 找到最近一个有签到的月份
+        int currentKey = monthKey(YearMonth.from(today));
+        List<CheckInMonth> latest = checkInMonthRepository
+                .findByUserIdAndMonthKeyLessThanEqualAndDayBitsNotOrderByMonthKeyDesc(userId, currentKey, 0, PageRequest.of(0, 1));
+        CheckInMonth month = latest.isEmpty() ? null : latest.get(0);
+        // 从最近一次签到（该月最高置位）开始向前统计
+        int topBit = -1;
+        if (month != null) {
+            topBit = 31 - Integer.numberOfLeadingZeros(month.getDayBits());
+            isCheckedInToday = month.getMonthKey() == currentKey && topBit == today.getDayOfMonth() - 1;
+        }
+
+        while (month != null && topBit >= 0) {
+            int run = countRun(month.getDayBits(), topBit);
+            consecutiveCount += run;
+            if (run <= topBit) {
+                // 本月内中断
                 break;
             }
+            // 连续到本月1日，继续检查上个月最后一天
+            YearMonth previous = toYearMonth(month.getMonthKey()).minusMonths(1);
+            month = checkInMonthRepository.findByUserIdAndMonthKey(userId, monthKey(previous)).orElse(null);
+            topBit = previous.lengthOfMonth() - 1;
         }
 
-        System.out.println("用户ID: " + userId + ", 连续签到天数: " + consecutiveCount + ", 今日是否已签到: " + isCheckedInToday);
-        
         JSONObject result = new JSONObject();
         result.put("consecutiveCount", consecutiveCount);
         result.put("isCheckedInToday", isCheckedInToday);
@@ -230,4 +221,52 @@ public class CheckInService {
         Page<CheckIn> page = checkInRepository.findByUserIdOrderByCheckInTimeDesc(currentUser.getId(), pageable);
         return new CustomPage<>(page);
     }
-}
\ No newline at end of file
+
+    /**
+     * 判断用户某天是否已签到
+     */
+    private boolean isCheckedIn(Long userId, LocalDate date) {
+        return (getDayBits(userId, YearMonth.from(date)) & dayBit(date)) != 0;
+    }
+
+    /**
+     * 在位图中标记用户某天已签到
+     * @return 是否为本次新标记，该日已签到时返回false
+     */
+    private boolean markCheckedIn(Long userId, LocalDate date) {
+        int key = monthKey(YearMonth.from(date));
+        checkInMonthRepository.insertIfAbsent(userId, key);
+        return checkInMonthRepository.setBitIfClear(userId, key, dayBit(date)) > 0;
+    }
+
+    private int getDayBits(Long userId, YearMonth month) {
+        return checkInMonthRepository.findByUserIdAndMonthKey(userId, monthKey(month))
+                .map(CheckInMonth::getDayBits)
+                .orElse(0);
+    }
+
+    /**
+     * 统计从topBit位开始向低位连续置位的位数
+     */
+    private static int countRun(int bits, int topBit) {
+        // 取topBit及以下的位，找到其中最高的未置位
+        int mask = topBit >= 31 ? -1 : (1 << (topBit + 1)) - 1;
+        int clear = ~bits & mask;
+        if (clear == 0) {
+            return topBit + 1;
+        }
+        return topBit - (31 - Integer.numberOfLeadingZeros(clear));
+    }
+
+    private static int dayBit(LocalDate date) {
+        return 1 << (date.getDayOfMonth() - 1);
+    }
+
+    private static int monthKey(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    private static YearMonth toYearMonth(int monthKey) {
+        return YearMonth.of(monthKey / 100, monthKey % 100);
+    }
+}
@@ -0,0 +1,360 @@
+package com.thfh.service;
+
+import com.thfh.dto.ChunkedUploadInitRequest;
+import com.thfh.dto.ChunkedUploadStatusDTO;
+import com.thfh.exception.ResourceNotFoundException;
+import com.thfh.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分片上传服务
+ * 为大文件（如课程视频）提供可断点续传的上传协议：初始化会话、按偏移上传分片、查询已接收范围、完成合并。
+ * 初始化时校验文件类型并在上传目录内预分配目标文件，每个分片先写入临时文件，校验SHA-256后再按位置复制到目标文件，
+ * 分片之间互不依赖，可以并行上传；全部到齐后交给FileStorageService去重并原子移动到最终位置。
+ */
+@Slf4j
+@Service
+public class ChunkedUploadService {
+
+    public static final int DEFAULT_CHUNK_SIZE = 5 * 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // 允许分片上传的文件类型及对应的扩展名，与课程视频、课程资料的类型白名单一致
+    private static final Map<String, List<String>> ALLOWED_TYPES = Map.ofEntries(
+            Map.entry("video/mp4", List.of("mp4", "m4v")),
+            Map.entry("video/quicktime", List.of("mov")),
+            Map.entry("video/x-msvideo", List.of("avi")),
+            Map.entry("video/x-matroska", List.of("mkv")),
+            Map.entry("video/webm", List.of("webm")),
+            Map.entry("video/ogg", List.of("ogv", "ogg")),
+            Map.entry("application/pdf", List.of("pdf")),
+            Map.entry("application/msword", List.of("doc")),
+            Map.entry("application/vnd.openxmlformats-officedocument.wordprocessingml.document", List.of("docx")),
+            Map.entry("application/vnd.ms-excel", List.of("xls")),
+            Map.entry("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", List.of("xlsx")),
+            Map.entry("text/plain", List.of("txt"))
+    );
+
+    @Value("${file.chunked.max-file-size:2147483648}")
+    private long maxFileSize;
+
+    // 每个用户同时进行中的上传会话上限
+    @Value("${file.chunked.max-sessions-per-user:5}")
+    private int maxSessionsPerUser;
+
+    @Value("${file.chunked.session-timeout:86400000}")
+    private long sessionTimeoutMillis;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private UserService userService;
+
+    // 进行中的上传会话，键为上传ID
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * 上传会话
+     */
+    private static class UploadSession {
+        private final String uploadId;
+        private final Long userId;
+        private final String fileName;
+        private final String contentType;
+        private final long fileSize;
+        private final int chunkSize;
+        private final int totalChunks;
+        private final String expectedSha256;
+        private final Path dataFile;
+        // 已接收的分片，访问时需持有会话锁
+        private final BitSet received;
+        private volatile long lastActiveTime;
+        private boolean completed;
+
+        UploadSession(String uploadId, Long userId, ChunkedUploadInitRequest request, String contentType, int chunkSize, Path dataFile) {
+            this.uploadId = uploadId;
+            this.userId = userId;
+            this.fileName = request.getFileName();
+            this.contentType = contentType;
+            this.fileSize = request.getFileSize();
+            this.chunkSize = chunkSize;
+            this.totalChunks = (int) ((fileSize + chunkSize - 1) / chunkSize);
+            this.expectedSha256 = request.getSha256();
+            this.dataFile = dataFile;
+            this.received = new BitSet(totalChunks);
+            this.lastActiveTime = System.currentTimeMillis();
+        }
+
+        long chunkOffset(int index) {
+            return (long) index * chunkSize;
+        }
+
+        long chunkLength(int index) {
+            return Math.min(chunkSize, fileSize - chunkOffset(index));
+        }
+    }
+
+    /**
+     * 初始化分片上传
+     * @param request 文件信息
+     * @return 上传会话状态
+     * @throws IllegalArgumentException 文件过大或类型不支持时抛出
+     * @throws IllegalStateException 进行中的上传会话过多时抛出
+     * @throws IOException 预分配文件失败时抛出
+     */
+    public ChunkedUploadStatusDTO initiate(ChunkedUploadInitRequest request) throws IOException {
+        User currentUser = userService.getCurrentUser();
+        if (request.getFileSize() > maxFileSize) {
+            throw new IllegalArgumentException("文件大小不能超过" + (maxFileSize / 1024 / 1024) + "MB");
+        }
+        String contentType = resolveContentType(request.getFileName(), request.getContentType());
+        int chunkSize = request.getChunkSize() == null ? DEFAULT_CHUNK_SIZE
+                : Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, request.getChunkSize()));
+
+        String uploadId = UUID.randomUUID().toString();
+        Path dataFile = fileStorageService.newStagingFile();
+        UploadSession session = new UploadSession(uploadId, currentUser.getId(), request, contentType, chunkSize, dataFile);
+        synchronized (sessions) {
+            long open = sessions.values().stream().filter(s -> s.userId.equals(currentUser.getId())).count();
+            if (open >= maxSessionsPerUser) {
+                throw new IllegalStateException("进行中的分片上传过多，请先完成或取消已有的上传");
+            }
+            sessions.put(uploadId, session);
+        }
+
+        // 预分配目标文件，分片按偏移直接写入最终大小的文件
+        try (RandomAccessFile file = new RandomAccessFile(dataFile.toFile(), "rw")) {
+            file.setLength(request.getFileSize());
+        } catch (IOException e) {
+            sessions.remove(uploadId);
+            Files.deleteIfExists(dataFile);
+            throw e;
+        }
+        return toStatus(session);
+    }
+
+    /**
+     * 校验文件类型，MIME类型缺失时按扩展名推断
+     * @return 白名单中的MIME类型
+     */
+    private String resolveContentType(String fileName, String contentType) {
+        String extension = FilenameUtils.getExtension(fileName).toLowerCase();
+        String type = contentType == null ? "" : contentType.trim().toLowerCase();
+        if (type.isEmpty() || type.equals("application/octet-stream")) {
+            type = ALLOWED_TYPES.entrySet().stream()
+                    .filter(entry -> entry.getValue().contains(extension))
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .orElse("");
+        }
+        List<String> extensions = ALLOWED_TYPES.get(type);
+        if (extensions == null || !extensions.contains(extension)) {
+            throw new IllegalArgumentException("不支持的文件类型，请上传MP4、MOV、AVI、MKV、WEBM视频或PDF、Word、Excel、文本文档");
+        }
+        return type;
+    }
+
+    /**
+     * 上传一个分片
+     * 分片内容先写入单独的临时文件，校验通过后才复制到预分配文件的对应偏移；
+     * 校验失败的分片不会覆盖已接收的数据，可重新上传
+     * @param uploadId 上传会话ID
+     * @param index 分片序号（从0开始）
+     * @param checksum 分片内容的SHA-256（十六进制）
+     * @param body 分片内容
+     * @return 上传会话状态
+     * @throws IOException 写入文件失败时抛出
+     */
+    public ChunkedUploadStatusDTO uploadChunk(String uploadId, int index, String checksum, InputStream body) throws IOException {
+        UploadSession session = getOwnedSession(uploadId);
+        if (index < 0 || index >= session.totalChunks) {
+            throw new IllegalArgumentException("分片序号超出范围: " + index);
+        }
+        if (checksum == null || checksum.isBlank()) {
+            throw new IllegalArgumentException("缺少分片校验值");
+        }
+
+        long offset = session.chunkOffset(index);
+        long expectedLength = session.chunkLength(index);
+        Path chunkFile = fileStorageService.newStagingFile();
+        try {
+            MessageDigest digest = FileStorageService.newSha256Digest();
+            long written = 0;
+            try (OutputStream out = Files.newOutputStream(chunkFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                byte[] bytes = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = body.read(bytes)) != -1) {
+                    if (written + read > expectedLength) {
+                        throw new IllegalArgumentException("分片大小超过预期: " + expectedLength);
+                    }
+                    digest.update(bytes, 0, read);
+                    out.write(bytes, 0, read);
+                    written += read;
+                }
+            }
+            if (written != expectedLength) {
+                throw new IllegalArgumentException("分片大小不正确，期望" + expectedLength + "字节，实际" + written + "字节");
+            }
+            if (!HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(checksum.trim())) {
+                throw new IllegalArgumentException("分片校验失败，请重新上传分片: " + index);
+            }
+
+            // 持有会话锁复制，完成合并后不会再有分片写入数据文件
+            synchronized (session) {
+                if (session.completed) {
+                    throw new IllegalStateException("上传已完成");
+                }
+                try (FileChannel source = FileChannel.open(chunkFile, StandardOpenOption.READ);
+                     FileChannel target = FileChannel.open(session.dataFile, StandardOpenOption.WRITE)) {
+                    long copied = 0;
+                    while (copied < expectedLength) {
+                        copied += target.transferFrom(source, offset + copied, expectedLength - copied);
+                    }
+                }
+                session.received.set(index);
+            }
+        } finally {
+            Files.deleteIfExists(chunkFile);
+        }
+        session.lastActiveTime = System.currentTimeMillis();
+        return toStatus(session);
+    }
+
+    /**
+     * 查询上传状态，断点续传时用于确定需要补传的分片
+     * @param uploadId 上传会话ID
+     * @return 上传会话状态
+     */
+    public ChunkedUploadStatusDTO getStatus(String uploadId) {
+        return toStatus(getOwnedSession(uploadId));
+    }
+
+    /**
+     * 完成上传
+     * 所有分片到齐后校验整体SHA-256（如初始化时提供），并原子移动到最终位置
+     * @param uploadId 上传会话ID
+     * @return 存储结果
+     * @throws IOException 合并或移动文件失败时抛出
+     */
+    public FileStorageService.StorageResult complete(String uploadId) throws IOException {
+        UploadSession session = getOwnedSession(uploadId);
+        synchronized (session) {
+            if (session.completed) {
+                throw new IllegalStateException("上传已完成");
+            }
+            if (session.received.cardinality() != session.totalChunks) {
+                throw new IllegalStateException("仍有" + (session.totalChunks - session.received.cardinality()) + "个分片未上传");
+            }
+            session.completed = true;
+        }
+        sessions.remove(uploadId);
+
+        FileStorageService.StorageResult result = fileStorageService.storeStaged(session.dataFile, session.fileName, session.contentType);
+        if (session.expectedSha256 != null && !session.expectedSha256.isBlank()
+                && !session.expectedSha256.trim().equalsIgnoreCase(result.getSha256())) {
+            fileStorageService.release(result.getRelativePath());
+            throw new IllegalArgumentException("文件校验失败，请重新上传");
+        }
+        return result;
+    }
+
+    /**
+     * 取消上传并删除已写入的数据
+     * @param uploadId 上传会话ID
+     * @throws IOException 删除文件失败时抛出
+     */
+    public void abort(String uploadId) throws IOException {
+        UploadSession session = getOwnedSession(uploadId);
+        sessions.remove(uploadId);
+        Files.deleteIfExists(session.dataFile);
+    }
+
+    /**
+     * 定期清理超时未完成的上传会话
+     * 每小时执行一次
+     */
+    @Scheduled(fixedRate = 3600000)
+    public void cleanupExpiredSessions() {
+        long deadline = System.currentTimeMillis() - sessionTimeoutMillis;
+        sessions.values().removeIf(session -> {
+            if (session.lastActiveTime >= deadline) {
+                return false;
+            }
+            try {
+                Files.deleteIfExists(session.dataFile);
+            } catch (IOException e) {
+                log.warn("删除过期分片上传文件失败: {}", session.dataFile, e);
+            }
+            return true;
+        });
+    }
+
+    private UploadSession getOwnedSession(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new ResourceNotFoundException("上传会话不存在或已过期");
+        }
+        User currentUser = userService.getCurrentUser();
+        if (!session.userId.equals(currentUser.getId())) {
+            throw new AccessDeniedException("无权操作此上传会话");
+        }
+        return session;
+    }
+
+    private ChunkedUploadStatusDTO toStatus(UploadSession session) {
+        BitSet received;
+        synchronized (session) {
+            received = (BitSet) session.received.clone();
+        }
+        List<long[]> ranges = new ArrayList<>();
+        List<Integer> missing = new ArrayList<>();
+        int index = 0;
+        while (index < session.totalChunks) {
+            if (received.get(index)) {
+                int end = received.nextClearBit(index);
+                ranges.add(new long[]{session.chunkOffset(index), session.chunkOffset(end - 1) + session.chunkLength(end - 1) - 1});
+                index = end;
+            } else {
+                missing.add(index);
+                index++;
+            }
+        }
+
+        ChunkedUploadStatusDTO status = new ChunkedUploadStatusDTO();
+        status.setUploadId(session.uploadId);
+        status.setFileName(session.fileName);
+        status.setFileSize(session.fileSize);
+        status.setChunkSize(session.chunkSize);
+        status.setTotalChunks(session.totalChunks);
+        status.setReceivedChunks(received.cardinality());
+        status.setReceivedRanges(ranges);
+        status.setMissingChunks(missing);
+        return status;
+    }
+}
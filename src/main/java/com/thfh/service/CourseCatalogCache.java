@@ -0,0 +1,286 @@
+package com.thfh.service;
+
+import com.thfh.dto.CourseDTO;
+import com.thfh.model.Course;
+import com.thfh.model.CourseStatus;
+import com.thfh.repository.CourseRepository;
+import com.thfh.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 课程目录缓存
+ * 在内存中保存已发布且启用课程的CourseDTO快照，并按浏览量、点赞数、收藏数、学习人数预先排好序，
+ * 热门课程和课程详情直接从快照读取。快照定时整体重建，课程编辑提交后单独刷新对应课程，
+ * 并经CacheInvalidationBus通知其他进程刷新同一课程；消息丢失时以定时重建兜底。
+ * 快照中的DTO构建后不再修改，调用方只读使用。
+ * 课程浏览量先在内存中累加，由定时任务批量写回，详情接口不再同步执行UPDATE。
+ */
+@Slf4j
+@Service
+public class CourseCatalogCache {
+
+    /**
+     * 热门课程排序字段
+     */
+    public enum SortKey {
+        VIEW_COUNT("viewCount", CourseDTO::getViewCount),
+        LIKE_COUNT("likeCount", CourseDTO::getLikeCount),
+        FAVORITE_COUNT("favoriteCount", CourseDTO::getFavoriteCount),
+        STUDENT_COUNT("studentCount", CourseDTO::getStudentCount);
+
+        private final String field;
+        private final Function<CourseDTO, Integer> extractor;
+
+        SortKey(String field, Function<CourseDTO, Integer> extractor) {
+            this.field = field;
+            this.extractor = extractor;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        /**
+         * 根据字段名查找排序字段，无法识别时使用浏览量
+         * @param field 字段名
+         * @return 排序字段
+         */
+        public static SortKey fromField(String field) {
+            for (SortKey key : values()) {
+                if (key.field.equals(field)) {
+                    return key;
+                }
+            }
+            return VIEW_COUNT;
+        }
+
+        private Comparator<CourseDTO> comparator() {
+            // 计数相同时按ID倒序，保证分页结果稳定
+            return Comparator.<CourseDTO>comparingInt(dto -> {
+                Integer value = extractor.apply(dto);
+                return value == null ? 0 : value;
+            }).reversed().thenComparing(CourseDTO::getId, Comparator.reverseOrder());
+        }
+    }
+
+    /**
+     * 不可变目录快照
+     */
+    private static class Snapshot {
+        private final Map<Long, CourseDTO> courses;
+        private final Map<SortKey, List<CourseDTO>> rankings;
+
+        Snapshot(Map<Long, CourseDTO> courses) {
+            this.courses = Collections.unmodifiableMap(courses);
+            Map<SortKey, List<CourseDTO>> ranked = new EnumMap<>(SortKey.class);
+            for (SortKey key : SortKey.values()) {
+                List<CourseDTO> list = new ArrayList<>(courses.values());
+                list.sort(key.comparator());
+                ranked.put(key, Collections.unmodifiableList(list));
+            }
+            this.rankings = ranked;
+        }
+    }
+
+    // 失效消息中的缓存名称
+    private static final String CACHE_NAME = "course-catalog";
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private volatile Snapshot snapshot;
+
+    // 单门课程刷新的次数，由this保护
+    private long generation;
+
+    // 单独刷新过的课程及刷新时的generation，整体重建时据此重新应用加载期间的刷新，由this保护
+    private final Map<Long, Long> refreshedCourses = new HashMap<>();
+
+    // 当前快照对应的重建开始时的generation，由this保护
+    private long installedGeneration = -1;
+
+    // 待写回的浏览量增量，键为课程ID
+    private final Map<Long, Integer> pendingViews = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        cacheInvalidationBus.register(CACHE_NAME, key -> doRefreshCourse(Long.valueOf(key)));
+    }
+
+    /**
+     * 获取热门课程分页
+     * @param page 页码（从1开始）
+     * @param size 每页数量
+     * @param sortBy 排序字段（viewCount/likeCount/favoriteCount/studentCount）
+     * @return 课程分页
+     */
+    public Page<CourseDTO> getHotCourses(int page, int size, String sortBy) {
+        SortKey key = SortKey.fromField(sortBy);
+        List<CourseDTO> ranking = getSnapshot().rankings.get(key);
+        PageRequest pageRequest = PageRequest.of(page - 1, size, Sort.by(Sort.Direction.DESC, key.getField()));
+        long offset = pageRequest.getOffset();
+        if (offset >= ranking.size()) {
+            return new PageImpl<>(Collections.emptyList(), pageRequest, ranking.size());
+        }
+        int end = (int) Math.min(offset + size, ranking.size());
+        return new PageImpl<>(ranking.subList((int) offset, end), pageRequest, ranking.size());
+    }
+
+    /**
+     * 获取已发布且启用的课程快照
+     * @param courseId 课程ID
+     * @return 课程DTO，不在目录中（草稿、下架、禁用或不存在）时为空
+     */
+    public Optional<CourseDTO> getCourse(Long courseId) {
+        return Optional.ofNullable(getSnapshot().courses.get(courseId));
+    }
+
+    /**
+     * 记录一次课程浏览
+     * @param courseId 课程ID
+     */
+    public void recordView(Long courseId) {
+        pendingViews.merge(courseId, 1, Integer::sum);
+    }
+
+    /**
+     * 课程信息变更后刷新该课程的快照并通知其他进程
+     * 处于事务中时在事务提交后刷新，避免读到未提交的数据
+     * @param courseId 课程ID
+     */
+    public void refreshCourse(Long courseId) {
+        AfterCommit.run(() -> {
+            doRefreshCourse(courseId);
+            cacheInvalidationBus.publish(CACHE_NAME, courseId.toString());
+        });
+    }
+
+    /**
+     * 定时写回浏览量并重建整个目录快照
+     * 每分钟执行一次，点赞、收藏、学习人数等计数的变化在重建时进入排行
+     */
+    @Scheduled(fixedDelayString = "${course.catalog.refresh-interval:60000}")
+    public void refresh() {
+        flushViews();
+        long started;
+        synchronized (this) {
+            started = generation;
+        }
+        Map<Long, CourseDTO> courses = new HashMap<>();
+        for (Course course : courseRepository.findCatalog(CourseStatus.PUBLISHED)) {
+            courses.put(course.getId(), toSnapshotDTO(course));
+        }
+        synchronized (this) {
+            if (started < installedGeneration) {
+                // 更晚开始的重建已经安装，丢弃本次结果
+                return;
+            }
+            // 加载期间单独刷新过的课程以当前快照为准，避免整体重建覆盖下架、删除等变更
+            Snapshot current = snapshot;
+            for (Map.Entry<Long, Long> entry : refreshedCourses.entrySet()) {
+                if (entry.getValue() > started && current != null) {
+                    CourseDTO refreshed = current.courses.get(entry.getKey());
+                    if (refreshed != null) {
+                        courses.put(entry.getKey(), refreshed);
+                    } else {
+                        courses.remove(entry.getKey());
+                    }
+                }
+            }
+            refreshedCourses.values().removeIf(refreshedAt -> refreshedAt <= started);
+            installedGeneration = started;
+            snapshot = new Snapshot(courses);
+        }
+    }
+
+    /**
+     * 将累积的浏览量写回数据库
+     */
+    public void flushViews() {
+        for (Long courseId : new ArrayList<>(pendingViews.keySet())) {
+            Integer delta = pendingViews.remove(courseId);
+            if (delta == null || delta == 0) {
+                continue;
+            }
+            try {
+                courseRepository.addViewCount(courseId, delta);
+            } catch (RuntimeException e) {
+                // 写回失败时放回增量，下次重试
+                pendingViews.merge(courseId, delta, Integer::sum);
+                log.warn("写回课程浏览量失败，课程ID: {}", courseId, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushViews();
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private void doRefreshCourse(Long courseId) {
+        if (snapshot == null) {
+            // 尚未加载，首次访问时会完整加载
+            return;
+        }
+        Optional<Course> course = courseRepository.findWithTeacherAndTagsById(courseId);
+        synchronized (this) {
+            generation++;
+            refreshedCourses.put(courseId, generation);
+            if (snapshot == null) {
+                return;
+            }
+            Map<Long, CourseDTO> courses = new HashMap<>(snapshot.courses);
+            if (course.isPresent() && course.get().getStatus() == CourseStatus.PUBLISHED
+                    && Boolean.TRUE.equals(course.get().getEnabled())) {
+                courses.put(courseId, toSnapshotDTO(course.get()));
+            } else {
+                courses.remove(courseId);
+            }
+            snapshot = new Snapshot(courses);
+        }
+    }
+
+    private CourseDTO toSnapshotDTO(Course course) {
+        CourseDTO dto = CourseDTO.fromEntity(course);
+        if (dto.getTags() != null) {
+            dto.setTags(Collections.unmodifiableSet(dto.getTags()));
+        }
+        return dto;
+    }
+}
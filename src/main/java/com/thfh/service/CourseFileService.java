@@ -1,21 +1,13 @@
 package com.thfh.service;
 
 import com.thfh.model.User;
-import com.thfh.util.ServerUrlUtil;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * 课程文件服务
@@ -24,8 +16,6 @@ import java.util.UUID;
 @Service
 public class CourseFileService {
     
-    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
-    
     // 允许的图片类型
     private static final List<String> ALLOWED_IMAGE_TYPES = Arrays.asList(
             "image/jpeg", "image/png", "image/gif", "image/bmp", "image/webp", "image/svg+xml"
@@ -45,14 +35,11 @@ public class CourseFileService {
             "text/plain"
     );
     
-    @Value("${file.upload-dir}")
-    private String baseUploadDir;
-    
     @Autowired
     private UserService userService;
     
     @Autowired
-    private ServerUrlUtil serverUrlUtil;
+    private FileStorageService fileStorageService;
     
     /**
      * 上传课程相关文件（图片、视频、材料等）
@@ -141,30 +128,7 @@ public class CourseFileService {
                 throw new RuntimeException("不支持的文件类型参数");
         }
         
-        // 生成新文件名，保留原始扩展名
-        String newFilename = UUID.randomUUID().toString() + extension;
-        
-        // 获取当前日期，用于创建年月日目录结构
-        String datePath = LocalDateTime.now().format(DATE_FORMAT);
-        
-        // 构建课程文件目录路径
-        // 格式：baseUploadDir/course/fileType/YYYYMMDD/filename.ext
-        String relativePath = "course/" + fileType + "/" + datePath;
-        String fullPath = baseUploadDir + "/" + relativePath;
-        
-        // 创建目录
-        Path dirPath = Paths.get(fullPath);
-        if (!Files.exists(dirPath)) {
-            Files.createDirectories(dirPath);
-        }
-        
-        // 保存文件
-        Path filePath = dirPath.resolve(newFilename);
-        Files.copy(file.getInputStream(), filePath);
-        
-        // 生成访问URL
-        String fileUrl = serverUrlUtil.getFileUrl(relativePath + "/" + newFilename);
-        
-        return fileUrl;
+        // 边复制边计算哈希并按内容去重，返回访问URL
+        return fileStorageService.store(file).getUrl();
     }
 } 
\ No newline at end of file
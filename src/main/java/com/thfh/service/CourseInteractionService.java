@@ -0,0 +1,134 @@
+package com.thfh.service;
+
+import com.thfh.dto.CourseInteractionDTO;
+import com.thfh.exception.BusinessException;
+import com.thfh.exception.ErrorCode;
+import com.thfh.repository.CourseRepository;
+import com.thfh.repository.UserCourseInteractionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 课程互动服务
+ * 点赞、收藏通过 INSERT ... ON DUPLICATE KEY UPDATE 单条语句切换状态，
+ * 课程计数通过相对增量更新，不加载用户和课程实体，也不整体保存课程。
+ */
+@Service
+public class CourseInteractionService {
+
+    // 单次批量查询的最大课程数量
+    public static final int MAX_BATCH_SIZE = 200;
+
+    private static final String COURSE_NOT_FOUND = "课程不存在";
+
+    @Autowired
+    private UserCourseInteractionRepository userCourseInteractionRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    /**
+     * 点赞/取消点赞课程
+     * @param courseId 课程ID
+     * @param userId 用户ID
+     * @return 切换后的互动状态和课程点赞数、收藏数
+     */
+    @Transactional
+    public CourseInteractionDTO toggleLike(Long courseId, Long userId) {
+        checkCourseExists(courseId);
+        userCourseInteractionRepository.toggleLiked(userId, courseId);
+        UserCourseInteractionRepository.InteractionState state = loadState(userId, courseId);
+        // 先切换状态再按新状态调整计数，同一用户的并发切换由唯一键上的行锁串行化
+        courseRepository.addLikeCount(courseId, Boolean.TRUE.equals(state.getLiked()) ? 1 : -1);
+        return toDTO(loadState(userId, courseId), true);
+    }
+
+    /**
+     * 收藏/取消收藏课程
+     * @param courseId 课程ID
+     * @param userId 用户ID
+     * @return 切换后的互动状态和课程点赞数、收藏数
+     */
+    @Transactional
+    public CourseInteractionDTO toggleFavorite(Long courseId, Long userId) {
+        checkCourseExists(courseId);
+        userCourseInteractionRepository.toggleFavorited(userId, courseId);
+        UserCourseInteractionRepository.InteractionState state = loadState(userId, courseId);
+        courseRepository.addFavoriteCount(courseId, Boolean.TRUE.equals(state.getFavorited()) ? 1 : -1);
+        return toDTO(loadState(userId, courseId), true);
+    }
+
+    /**
+     * 获取用户对单个课程的互动状态
+     * @param courseId 课程ID
+     * @param userId 用户ID
+     * @return 互动状态，只有为true的状态才会包含在返回结果中
+     */
+    public CourseInteractionDTO getInteraction(Long courseId, Long userId) {
+        return userCourseInteractionRepository.findState(userId, courseId)
+                .map(state -> toDTO(state, false))
+                .orElseGet(() -> {
+                    checkCourseExists(courseId);
+                    return new CourseInteractionDTO();
+                });
+    }
+
+    /**
+     * 批量获取用户对一批课程的互动状态，用于课程列表页
+     * @param userId 用户ID
+     * @param courseIds 课程ID集合
+     * @return 键为课程ID的互动状态，只包含有点赞或收藏的课程
+     * @throws IllegalArgumentException 课程数量超过上限时抛出
+     */
+    public Map<Long, CourseInteractionDTO> getInteractions(Long userId, Collection<Long> courseIds) {
+        Set<Long> ids = courseIds == null ? Set.of() : courseIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("单次最多查询" + MAX_BATCH_SIZE + "个课程");
+        }
+        Map<Long, CourseInteractionDTO> result = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return result;
+        }
+        for (UserCourseInteractionRepository.InteractionState state : userCourseInteractionRepository.findStates(userId, ids)) {
+            result.put(state.getCourseId(), toDTO(state, false));
+        }
+        return result;
+    }
+
+    private void checkCourseExists(Long courseId) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new BusinessException(ErrorCode.DATA_NOT_EXIST, COURSE_NOT_FOUND);
+        }
+    }
+
+    private UserCourseInteractionRepository.InteractionState loadState(Long userId, Long courseId) {
+        return userCourseInteractionRepository.findState(userId, courseId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.DATA_NOT_EXIST, COURSE_NOT_FOUND));
+    }
+
+    private CourseInteractionDTO toDTO(UserCourseInteractionRepository.InteractionState state, boolean withCounts) {
+        CourseInteractionDTO dto = new CourseInteractionDTO();
+        if (Boolean.TRUE.equals(state.getLiked())) {
+            dto.setLiked(true);
+        }
+        if (Boolean.TRUE.equals(state.getFavorited())) {
+            dto.setFavorited(true);
+        }
+        if (withCounts) {
+            dto.setLikeCount(state.getLikeCount());
+            dto.setFavoriteCount(state.getFavoriteCount());
+        }
+        return dto;
+    }
+}
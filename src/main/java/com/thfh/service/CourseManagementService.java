@@ -1,9 +1,7 @@
 package com.thfh.service;
 
 import com.thfh.dto.CourseDTO;
-import com.thfh.dto.CourseInteractionDTO;
 import com.thfh.dto.CourseQueryDTO;
-import com.thfh.dto.CourseTagDTO;
 import com.thfh.dto.SimpleUserDTO;
 import com.thfh.dto.PointsRecordDTO;
 import com.thfh.model.Course;
@@ -16,7 +14,6 @@ import com.thfh.repository.CourseRepository;
 import com.thfh.repository.UserCourseInteractionRepository;
 import com.thfh.repository.UserCourseRepository;
 import com.thfh.repository.UserRepository;
-import org.springframework.beans.BeanUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -30,7 +27,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import com.thfh.exception.BusinessException;
@@ -50,6 +47,7 @@ public class CourseManagementService {
     private final CourseTagService courseTagService;
     private final UserService userService;
     private final PointsService pointsService;
+    private final CourseCatalogCache courseCatalogCache;
 
     // 魔法字符串常量
     private static final String COURSE_NOT_FOUND = "课程不存在";
@@ -71,10 +69,6 @@ public class CourseManagementService {
     private static final String ALREADY_PURCHASED = "您已经购买或加入过该课程";
     private static final String POINTS_NOT_ENOUGH = "积分不足，无法购买该课程";
     private static final String POINTS_NOT_SUPPORT = "该课程不支持积分购买";
-    private static final String VIEW_COUNT = "viewCount";
-    private static final String LIKE_COUNT = "likeCount";
-    private static final String FAVORITE_COUNT = "favoriteCount";
-    private static final String STUDENT_COUNT = "studentCount";
 
     public CourseManagementService(
             CourseRepository courseRepository,
@@ -83,7 +77,8 @@ public class CourseManagementService {
             UserCourseRepository userCourseRepository,
             CourseTagService courseTagService,
             UserService userService,
-            PointsService pointsService) {
+            PointsService pointsService,
+            CourseCatalogCache courseCatalogCache) {
         this.courseRepository = courseRepository;
         this.userRepository = userRepository;
         this.userCourseInteractionRepository = userCourseInteractionRepository;
@@ -91,6 +86,7 @@ public class CourseManagementService {
         this.courseTagService = courseTagService;
         this.userService = userService;
         this.pointsService = pointsService;
+        this.courseCatalogCache = courseCatalogCache;
     }
     
     /**
@@ -154,7 +150,15 @@ public class CourseManagementService {
                 .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_EXIST, TEACHER_NOT_FOUND));
 
         Course course = new Course();
-        BeanUtils.copyProperties(courseDTO, course);
+        course.setTitle(courseDTO.getTitle());
+        course.setDescription(courseDTO.getDescription());
+        course.setCoverImage(courseDTO.getCoverImage());
+        course.setCoverVideo(courseDTO.getCoverVideo());
+        course.setPrice(courseDTO.getPrice());
+        course.setPointsPrice(courseDTO.getPointsPrice());
+        course.setTotalHours(courseDTO.getTotalHours());
+        course.setVideoUrl(courseDTO.getVideoUrl());
+        course.setMaterials(courseDTO.getMaterials());
         
         // 设置必要的默认值
         // 如果前端传递了状态，则使用前端传递的状态，否则默认为草稿状态
@@ -179,6 +183,7 @@ public class CourseManagementService {
         course.setDevTeam(courseDTO.getDevTeam());
         
         course = courseRepository.save(course);
+        courseCatalogCache.refreshCourse(course.getId());
         
         return convertToDTO(course);
     }
@@ -233,6 +238,7 @@ public class CourseManagementService {
         }
 
         course = courseRepository.save(course);
+        courseCatalogCache.refreshCourse(id);
         return convertToDTO(course);
     }
     
@@ -242,6 +248,7 @@ public class CourseManagementService {
      */
     public void deleteCourse(Long id) {
         courseRepository.deleteById(id);
+        courseCatalogCache.refreshCourse(id);
     }
     
     /**
@@ -255,70 +262,12 @@ public class CourseManagementService {
                 .orElseThrow(() -> new BusinessException(ErrorCode.DATA_NOT_EXIST, COURSE_NOT_FOUND));
         course.setEnabled(!course.getEnabled());
         courseRepository.save(course);
+        courseCatalogCache.refreshCourse(id);
     }
     
-    /**
-     * 点赞/取消点赞课程
-     * @param courseId 课程ID
-     * @param userId 用户ID
-     */
-    @Transactional
-    public void toggleCourseLike(Long courseId, Long userId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new BusinessException(ErrorCode.DATA_NOT_EXIST, COURSE_NOT_FOUND));
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_EXIST, USER_NOT_FOUND));
-
-        UserCourseInteraction interaction = userCourseInteractionRepository
-                .findByUserAndCourse(user, course)
-                .orElseGet(() -> {
-                    UserCourseInteraction newInteraction = new UserCourseInteraction();
-                    newInteraction.setUser(user);
-                    newInteraction.setCourse(course);
-                    return newInteraction;
-                });
-
-        boolean newLikeStatus = !interaction.getLiked();
-        interaction.setLiked(newLikeStatus);
-        userCourseInteractionRepository.save(interaction);
-
-        // 更新课程点赞数
-        course.setLikeCount(course.getLikeCount() + (newLikeStatus ? 1 : -1));
-        courseRepository.save(course);
-    }
-
-    /**
-     * 收藏/取消收藏课程
-     * @param courseId 课程ID
-     * @param userId 用户ID
-     */
-    @Transactional
-    public void toggleCourseFavorite(Long courseId, Long userId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new BusinessException(ErrorCode.DATA_NOT_EXIST, COURSE_NOT_FOUND));
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_EXIST, USER_NOT_FOUND));
-
-        UserCourseInteraction interaction = userCourseInteractionRepository
-                .findByUserAndCourse(user, course)
-                .orElseGet(() -> {
-                    UserCourseInteraction newInteraction = new UserCourseInteraction();
-                    newInteraction.setUser(user);
-                    newInteraction.setCourse(course);
-                    return newInteraction;
-                });
-
-        boolean newFavoriteStatus = !interaction.getFavorited();
-        interaction.setFavorited(newFavoriteStatus);
-        userCourseInteractionRepository.save(interaction);
-
-        // 更新课程收藏数
-        course.setFavoriteCount(course.getFavoriteCount() + (newFavoriteStatus ? 1 : -1));
-        courseRepository.save(course);
-    }
-
     /**
      * 学生加入课程
+     * 选课记录依赖唯一约束条件插入，学习人数原子累加，不加载后整体保存课程实体
      * @param courseId 课程ID
      * @param userId 学生ID
      * @return 加入后的课程信息
@@ -339,20 +288,17 @@ public class CourseManagementService {
             throw new BusinessException(ErrorCode.FORBIDDEN, ONLY_STUDENT_CAN_JOIN);
         }
 
-        if (userCourseRepository.existsByUserAndCourse(student, course)) {
+        if (userCourseRepository.insertIfAbsent(userId, courseId) == 0) {
             throw new BusinessException(ErrorCode.CONFLICT, ALREADY_JOINED);
         }
 
-        UserCourse userCourse = new UserCourse();
-        userCourse.setUser(student);
-        userCourse.setCourse(course);
-        userCourseRepository.save(userCourse);
-
         // 更新课程学习人数
-        course.setStudentCount(course.getStudentCount() + 1);
-        courseRepository.save(course);
+        courseRepository.addStudentCount(courseId, 1);
 
-        return convertToDTO(course);
+        // 课程实体未被修改，返回的DTO单独加上本次加入
+        CourseDTO dto = convertToDTO(course);
+        dto.setStudentCount((dto.getStudentCount() == null ? 0 : dto.getStudentCount()) + 1);
+        return dto;
     }
 
     /**
@@ -362,20 +308,19 @@ public class CourseManagementService {
      */
     @Transactional
     public void unenrollCourse(Long courseId, Long userId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new BusinessException(ErrorCode.DATA_NOT_EXIST, COURSE_NOT_FOUND));
-
-        User student = userRepository.findById(userId)
-                .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_EXIST, USER_NOT_FOUND));
-
-        UserCourse userCourse = userCourseRepository.findByUserAndCourse(student, course)
-                .orElseThrow(() -> new BusinessException(ErrorCode.DATA_NOT_EXIST, NOT_JOINED));
+        if (!courseRepository.existsById(courseId)) {
+            throw new BusinessException(ErrorCode.DATA_NOT_EXIST, COURSE_NOT_FOUND);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new BusinessException(ErrorCode.USER_NOT_EXIST, USER_NOT_FOUND);
+        }
 
-        userCourseRepository.delete(userCourse);
+        if (userCourseRepository.deleteByUserIdAndCourseId(userId, courseId) == 0) {
+            throw new BusinessException(ErrorCode.DATA_NOT_EXIST, NOT_JOINED);
+        }
 
         // 更新课程学习人数
-        course.setStudentCount(Math.max(0, course.getStudentCount() - 1));
-        courseRepository.save(course);
+        courseRepository.addStudentCount(courseId, -1);
     }
     
     /**
@@ -393,32 +338,6 @@ public class CourseManagementService {
                 .collect(Collectors.toList());
     }
 
-    /**
-     * 获取用户对课程的交互信息（点赞和收藏状态）
-     * @param courseId 课程ID
-     * @param userId 用户ID
-     * @return 包含点赞和收藏状态的对象，只有为true的状态才会包含在返回结果中
-     */
-    public CourseInteractionDTO getCourseInteractionInfo(Long courseId, Long userId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new BusinessException(ErrorCode.DATA_NOT_EXIST, COURSE_NOT_FOUND));
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_EXIST, USER_NOT_FOUND));
-
-        CourseInteractionDTO interactionDTO = new CourseInteractionDTO();
-        userCourseInteractionRepository.findByUserAndCourse(user, course)
-                .ifPresent(interaction -> {
-                    if (interaction.getLiked()) {
-                        interactionDTO.setLiked(true);
-                    }
-                    if (interaction.getFavorited()) {
-                        interactionDTO.setFavorited(true);
-                    }
-                });
-
-        return interactionDTO;
-    }
-
     /**
      * 获取课程的点赞和收藏用户列表
      * @param courseId 课程ID
@@ -459,13 +378,18 @@ public class CourseManagementService {
     
     /**
      * 获取课程详情
+     * 已发布且启用的课程直接从目录缓存返回，浏览量异步累加
      * @param id 课程ID
      * @return 课程详情
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public CourseDTO getCourseDetail(Long id) {
-        courseRepository.increaseViewCountById(id);
-        Course course = courseRepository.findById(id)
+        Optional<CourseDTO> cached = courseCatalogCache.getCourse(id);
+        if (cached.isPresent()) {
+            courseCatalogCache.recordView(id);
+            return cached.get();
+        }
+        Course course = courseRepository.findWithTeacherAndTagsById(id)
                 .orElseThrow(() -> new BusinessException(ErrorCode.DATA_NOT_EXIST, COURSE_NOT_FOUND));
         // 如果课程状态为草稿，只有课程创建者可以查看
         if (course.getStatus() == CourseStatus.DRAFT) {
@@ -474,6 +398,7 @@ public class CourseManagementService {
                 throw new BusinessException(ErrorCode.FORBIDDEN, COURSE_NOT_PUBLISHED);
             }
         }
+        courseCatalogCache.recordView(id);
         // 转换为DTO并返回
         return convertToDTO(course);
     }
@@ -515,12 +440,14 @@ public class CourseManagementService {
         course.setStatus(CourseStatus.PUBLISHED);
         course.setUpdateTime(LocalDateTime.now());
         course = courseRepository.save(course);
+        courseCatalogCache.refreshCourse(id);
         
         return convertToDTO(course);
     }
 
     /**
      * 获取热门课程分页列表
+     * 从课程目录缓存中预先排好序的列表分页，不查询数据库
      * @param page 页码（从1开始）
      * @param size 每页数量
      * @param sortBy 排序字段（viewCount/likeCount/favoriteCount/studentCount），默认viewCount
@@ -529,14 +456,8 @@ public class CourseManagementService {
     public Page<CourseDTO> getHotCourses(int page, int size, String sortBy) {
         if (page < 1) page = 1;
         if (size < 1) size = 10;
-        if (sortBy == null || sortBy.isEmpty()) sortBy = VIEW_COUNT;
-        if (!sortBy.equals(VIEW_COUNT) && !sortBy.equals(LIKE_COUNT) && !sortBy.equals(FAVORITE_COUNT) && !sortBy.equals(STUDENT_COUNT)) {
-            sortBy = VIEW_COUNT;
-        }
-        Pageable pageable = PageRequest.of(page - 1, size, org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC, sortBy));
-        // 只查已发布且启用的课程
-        Page<Course> coursePage = courseRepository.findAllByStatusAndEnabledTrue(CourseStatus.PUBLISHED, pageable);
-        return coursePage.map(this::convertToDTO);
+        // 只包含已发布且启用的课程，无法识别的排序字段按浏览量排序
+        return courseCatalogCache.getHotCourses(page, size, sortBy);
     }
 
     /**
@@ -545,35 +466,6 @@ public class CourseManagementService {
      * @return 课程DTO对象
      */
     private CourseDTO convertToDTO(Course course) {
-        CourseDTO dto = new CourseDTO();
-        BeanUtils.copyProperties(course, dto);
-        
-        // 设置讲师信息
-        if (course.getTeacher() != null) {
-            dto.setTeacherId(course.getTeacher().getId());
-            dto.setTeacherName(course.getTeacher().getUsername());
-        }
-        
-        // 设置标签信息
-        if (course.getTags() != null) {
-            Set<CourseTagDTO> tagDTOs = course.getTags().stream()
-                .map(tag -> {
-                    CourseTagDTO tagDTO = new CourseTagDTO();
-                    BeanUtils.copyProperties(tag, tagDTO);
-                    return tagDTO;
-                })
-                .collect(Collectors.toSet());
-            dto.setTags(tagDTOs);
-        }
-        
-        // 设置时间格式
-        if (course.getCreateTime() != null) {
-            dto.setCreateTime(course.getCreateTime().toString());
-        }
-        
-        // 新增：设置开发团队字段
-        dto.setDevTeam(course.getDevTeam());
-        
-        return dto;
+        return CourseDTO.fromEntity(course);
     }
 } 
\ No newline at end of file
@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -17,6 +18,9 @@ public class CourseTagService {
     
     @Autowired
     private CourseTagRepository courseTagRepository;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
     
     /**
      * 创建新标签
@@ -36,6 +40,7 @@ public class CourseTagService {
         tag.setName(name);
         tag.setDescription(description);
         tag.setEnabled(true);
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.COURSE_TAG);
         return courseTagRepository.save(tag);
     }
     
@@ -45,7 +50,16 @@ public class CourseTagService {
      * @return 标签列表
      */
     public List<CourseTag> getAllTags() {
-        return courseTagRepository.findAll();
+        List<CourseTag> tags = new ArrayList<>();
+        for (ReferenceDataCache.TagEntry entry : referenceDataCache.getCourseTags()) {
+            CourseTag tag = new CourseTag();
+            tag.setId(entry.getId());
+            tag.setName(entry.getName());
+            tag.setDescription(entry.getDescription());
+            tag.setEnabled(entry.getEnabled());
+            tags.add(tag);
+        }
+        return tags;
     }
     
     /**
@@ -82,6 +96,7 @@ public class CourseTagService {
         return courseTagRepository.findById(id).map(tag -> {
             tag.setName(name);
             tag.setDescription(description);
+            referenceDataCache.invalidate(ReferenceDataCache.Kind.COURSE_TAG);
             return courseTagRepository.save(tag);
         });
     }
@@ -97,6 +112,7 @@ public class CourseTagService {
     public Optional<CourseTag> setTagEnabled(Long id, boolean enabled) {
         return courseTagRepository.findById(id).map(tag -> {
             tag.setEnabled(enabled);
+            referenceDataCache.invalidate(ReferenceDataCache.Kind.COURSE_TAG);
             return courseTagRepository.save(tag);
         });
     }
@@ -107,6 +123,7 @@ public class CourseTagService {
     @Transactional
     public void deleteTag(Long id) {
         courseTagRepository.deleteById(id);
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.COURSE_TAG);
     }
     
     /**
@@ -127,6 +144,7 @@ public class CourseTagService {
         
         tag.setName(updatedTag.getName());
         tag.setDescription(updatedTag.getDescription());
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.COURSE_TAG);
         return courseTagRepository.save(tag);
     }
     
@@ -171,6 +189,7 @@ public class CourseTagService {
         tag.setName(tagDTO.getName());
         tag.setDescription(tagDTO.getDescription());
         tag.setEnabled(true);
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.COURSE_TAG);
         return courseTagRepository.save(tag);
     }
 }
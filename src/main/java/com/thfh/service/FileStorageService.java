@@ -0,0 +1,337 @@
+package com.thfh.service;
+
+import com.thfh.model.StoredFile;
+import com.thfh.repository.StoredFileRepository;
+import com.thfh.util.AfterCommit;
+import com.thfh.util.ServerUrlUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 文件存储服务
+ * 所有上传入口统一通过该服务落盘：把上传文件复制到上传目录内的临时文件，复制的同时计算SHA-256，
+ * 写完后按内容哈希去重——相同内容只保留一个物理文件，通过引用计数决定何时真正删除。
+ * MultipartFile已由Servlet容器缓存在内存或临时文件中，这里不是直接读取请求流，
+ * 省掉的是单独计算哈希的一次读取；移动到最终位置是同一文件系统上的重命名，不再复制。
+ * 图片落盘后交给ImageVariantService异步生成缩略图等衍生图。
+ */
+@Slf4j
+@Service
+public class FileStorageService {
+
+    // 去重文件的存储目录，按哈希前四位分两级子目录
+    private static final String OBJECTS_DIR = "objects";
+
+    // 写入过程中的临时目录，位于上传目录内以保证最终移动是同一文件系统上的原子重命名
+    private static final String STAGING_DIR = ".staging";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path uploadRoot;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Autowired
+    private ServerUrlUtil serverUrlUtil;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    public FileStorageService(@Value("${file.upload-dir}") String uploadDir, PlatformTransactionManager transactionManager) {
+        this.uploadRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 存储结果
+     */
+    public static class StorageResult {
+        private final String relativePath;
+        private final String url;
+        private final String sha256;
+        private final long size;
+        private final boolean deduplicated;
+
+        StorageResult(String relativePath, String url, String sha256, long size, boolean deduplicated) {
+            this.relativePath = relativePath;
+            this.url = url;
+            this.sha256 = sha256;
+            this.size = size;
+            this.deduplicated = deduplicated;
+        }
+
+        public String getRelativePath() {
+            return relativePath;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public boolean isDeduplicated() {
+            return deduplicated;
+        }
+    }
+
+    /**
+     * 按内容去重存储上传文件
+     * 内容已存在时只增加引用次数并返回已有文件的路径
+     * @param file 上传的文件
+     * @return 存储结果
+     * @throws IOException 写入文件失败时抛出
+     */
+    @Transactional
+    public StorageResult store(MultipartFile file) throws IOException {
+        Path staging = newStagingFile();
+        try {
+            String sha256 = writeAndHash(file.getInputStream(), staging);
+            return commitStaged(staging, sha256, extensionOf(file.getOriginalFilename()), file.getContentType());
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+    }
+
+    /**
+     * 按内容去重存储已在上传目录内写好的临时文件（如分片上传合并后的文件）
+     * 临时文件会被移动到最终位置或在内容重复时删除
+     * @param staged 上传目录内的临时文件
+     * @param originalFilename 原始文件名，用于确定扩展名
+     * @param contentType MIME类型
+     * @return 存储结果
+     * @throws IOException 读取或移动文件失败时抛出
+     */
+    @Transactional
+    public StorageResult storeStaged(Path staged, String originalFilename, String contentType) throws IOException {
+        try {
+            String sha256;
+            try (InputStream in = Files.newInputStream(staged)) {
+                sha256 = hash(in);
+            }
+            return commitStaged(staged, sha256, extensionOf(originalFilename), contentType);
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    /**
+     * 创建位于上传目录内的临时文件路径（文件本身不创建）
+     * 在该路径写入的文件可以原子移动到最终位置
+     * @return 临时文件路径
+     * @throws IOException 创建临时目录失败时抛出
+     */
+    public Path newStagingFile() throws IOException {
+        Path stagingDir = uploadRoot.resolve(STAGING_DIR);
+        Files.createDirectories(stagingDir);
+        return stagingDir.resolve(UUID.randomUUID().toString());
+    }
+
+    /**
+     * 以数据库行锁代替进程内的锁：插入或增加引用次数的语句会锁定该哈希的记录直到事务提交，
+     * 多个进程对相同内容的并发上传和释放都在这一行上排队
+     */
+    private StorageResult commitStaged(Path staging, String sha256, String extension, String contentType) throws IOException {
+        long size = Files.size(staging);
+        String newPath = OBJECTS_DIR + "/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4)
+                + "/" + sha256 + extension;
+        boolean inserted = storedFileRepository.insertOrIncrementRefCount(sha256, newPath, size, contentType) == 1;
+        StoredFile storedFile = storedFileRepository.findBySha256ForUpdate(sha256)
+                .orElseThrow(() -> new IllegalStateException("存储文件记录写入失败: " + sha256));
+        String relativePath = storedFile.getRelativePath();
+        Path target = resolve(relativePath);
+        // 物理文件按内容寻址，已存在的文件内容一定相同；记录存在但文件丢失时恢复文件
+        boolean fileExists = Files.exists(target);
+        if (!fileExists) {
+            Files.createDirectories(target.getParent());
+            Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        // 衍生图已存在时schedule不会重复生成
+        AfterCommit.run(() -> imageVariantService.schedule(relativePath));
+        return new StorageResult(relativePath, serverUrlUtil.getFileUrl(relativePath), sha256, size, !inserted && fileExists);
+    }
+
+    /**
+     * 按指定路径存储上传文件（不参与去重）
+     * 用于调用方指定了存储目录或文件名的场景，目标文件已存在时失败
+     * @param file 上传的文件
+     * @param relativePath 相对于上传目录的目标路径
+     * @return 存储结果
+     * @throws IOException 写入文件失败或目标文件已存在时抛出
+     */
+    public StorageResult storeAt(MultipartFile file, String relativePath) throws IOException {
+        Path target = resolve(relativePath);
+        Path staging = newStagingFile();
+        try {
+            String sha256 = writeAndHash(file.getInputStream(), staging);
+            long size = Files.size(staging);
+            Files.createDirectories(target.getParent());
+            // 先以CREATE_NEW占住目标路径，目标已存在时抛出FileAlreadyExistsException；
+            // ATOMIC_MOVE在POSIX上会直接覆盖已有文件，不能用来判断目标是否存在
+            Files.createFile(target);
+            try {
+                Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                Files.deleteIfExists(target);
+                throw e;
+            }
+            String normalized = uploadRoot.relativize(target).toString().replace('\\', '/');
+            imageVariantService.schedule(normalized);
+            return new StorageResult(normalized, serverUrlUtil.getFileUrl(normalized), sha256, size, false);
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+    }
+
+    /**
+     * 释放一次文件引用
+     * 去重文件在引用次数归零且事务提交后才删除物理文件；非去重文件在事务提交后直接删除
+     * @param relativePath 相对于上传目录的路径
+     * @throws IOException 文件路径非法时抛出
+     */
+    @Transactional
+    public void release(String relativePath) throws IOException {
+        if (relativePath == null || relativePath.isEmpty()) {
+            return;
+        }
+        String normalized = relativePath.replace('\\', '/');
+        Path path = resolve(normalized);
+        Optional<StoredFile> stored = storedFileRepository.findByRelativePath(normalized);
+        if (stored.isEmpty()) {
+            AfterCommit.run(() -> deletePhysicalFile(path, normalized));
+            return;
+        }
+        StoredFile storedFile = stored.get();
+        // 减少引用次数会锁定该行，并发的上传在此之后才能增加引用次数
+        if (storedFileRepository.decrementRefCount(storedFile.getId()) == 0) {
+            log.warn("存储文件已被删除或引用次数已为0: {}", normalized);
+            return;
+        }
+        if (storedFileRepository.deleteIfUnreferenced(storedFile.getId()) > 0) {
+            String sha256 = storedFile.getSha256();
+            AfterCommit.run(() -> deleteIfStillUnreferenced(sha256, path, normalized));
+        }
+    }
+
+    /**
+     * 记录删除提交后，在新事务中锁定该哈希再删除物理文件
+     * 提交与删除之间如有相同内容的上传重新插入了记录，则保留文件
+     */
+    private void deleteIfStillUnreferenced(String sha256, Path path, String normalized) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (storedFileRepository.findBySha256ForUpdate(sha256).isEmpty()) {
+                    deletePhysicalFile(path, normalized);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("删除无引用文件失败: {}", normalized, e);
+        }
+    }
+
+    private void deletePhysicalFile(Path path, String normalized) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除文件失败: {}", normalized, e);
+        }
+        imageVariantService.deleteVariants(normalized);
+    }
+
+    /**
+     * 从文件访问URL中提取相对于上传目录的路径
+     * @param fileUrl 文件URL
+     * @return 相对路径，不是上传文件URL时返回null
+     */
+    public String relativePathFromUrl(String fileUrl) {
+        if (fileUrl == null) {
+            return null;
+        }
+        int index = fileUrl.indexOf("/uploads/");
+        return index < 0 ? null : fileUrl.substring(index + "/uploads/".length());
+    }
+
+    private Path resolve(String relativePath) throws IOException {
+        Path path = uploadRoot.resolve(relativePath).normalize();
+        if (!path.startsWith(uploadRoot)) {
+            throw new IOException("非法的文件路径: " + relativePath);
+        }
+        return path;
+    }
+
+    private String writeAndHash(InputStream inputStream, Path target) throws IOException {
+        MessageDigest digest = newSha256Digest();
+        try (InputStream in = inputStream;
+             OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String hash(InputStream in) throws IOException {
+        MessageDigest digest = newSha256Digest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 创建SHA-256摘要
+     * @return 新的MessageDigest实例
+     */
+    public static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JVM不支持SHA-256", e);
+        }
+    }
+
+    private String extensionOf(String filename) {
+        String extension = FilenameUtils.getExtension(filename);
+        if (extension == null || !extension.matches("[A-Za-z0-9]{1,10}")) {
+            return "";
+        }
+        return "." + extension.toLowerCase();
+    }
+}
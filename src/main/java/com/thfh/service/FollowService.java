@@ -29,6 +29,12 @@ public class FollowService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SocialGraphService socialGraphService;
+
+    @Autowired
+    private BlacklistService blacklistService;
+
     /**
      * 关注用户
      * 创建当前登录用户与目标用户的关注关系
@@ -60,6 +66,7 @@ public class FollowService {
         follow.setFollowedId(followedId);
         follow.setFollowTime(LocalDateTime.now());
         followRepository.save(follow);
+        socialGraphService.edgeAdded(SocialGraphService.Edge.FOLLOW, currentUser.getId(), followedId);
     }
 
     /**
@@ -76,6 +83,7 @@ public class FollowService {
             throw new RuntimeException("用户未登录");
         }
         followRepository.deleteByFollowerIdAndFollowedId(currentUser.getId(), followedId);
+        socialGraphService.edgeRemoved(SocialGraphService.Edge.FOLLOW, currentUser.getId(), followedId);
     }
 
     /**
@@ -98,13 +106,31 @@ public class FollowService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 获取用户关注的用户ID列表
+     * @param userId 用户ID
+     * @return 被关注用户的ID列表
+     */
+    public List<Long> getFollowingIds(Long userId) {
+        return socialGraphService.getOutgoingIds(SocialGraphService.Edge.FOLLOW, userId);
+    }
+
+    /**
+     * 获取动态流的来源用户ID，即用户关注的、且双方之间没有拉黑关系的用户
+     * @param userId 用户ID
+     * @return 用户ID列表
+     */
+    public List<Long> getFeedSourceIds(Long userId) {
+        return blacklistService.filterBlocked(userId, getFollowingIds(userId));
+    }
+
     /**
      * 获取用户关注的用户数量
      * @param userId 用户ID
      * @return 用户关注的用户数量
      */
     public long getFollowingCount(Long userId) {
-        return followRepository.countByFollowerId(userId);
+        return socialGraphService.getOutDegree(SocialGraphService.Edge.FOLLOW, userId);
     }
 
     /**
@@ -113,7 +139,7 @@ public class FollowService {
      * @return 关注该用户的粉丝数量
      */
     public long getFollowersCount(Long userId) {
-        return followRepository.countByFollowedId(userId);
+        return socialGraphService.getInDegree(SocialGraphService.Edge.FOLLOW, userId);
     }
 
     /**
@@ -123,6 +149,6 @@ public class FollowService {
      * @return 如果关注关系存在则返回true，否则返回false
      */
     public boolean isFollowing(Long followerId, Long followedId) {
-        return followRepository.findByFollowerIdAndFollowedId(followerId, followedId).isPresent();
+        return socialGraphService.hasEdge(SocialGraphService.Edge.FOLLOW, followerId, followedId);
     }
 }
\ No newline at end of file
@@ -4,11 +4,8 @@ import com.thfh.model.Friend;
 import com.thfh.model.FriendRequest;
 import com.thfh.repository.FriendRepository;
 import com.thfh.repository.FriendRequestRepository;
-import com.thfh.repository.UserRepository;
-import com.thfh.model.User;
 import com.thfh.dto.FriendRequestDTO;
 import com.thfh.dto.FriendDTO;
-import com.thfh.model.UserOnlineRecord;
 import com.thfh.model.UserOnlineStatus;
 import com.thfh.repository.UserOnlineRecordRepository;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -17,7 +14,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Collections;
 import java.util.stream.Collectors;
 import java.time.Duration;
@@ -26,18 +27,22 @@ import java.time.LocalDateTime;
 @Tag(name = "好友业务逻辑")
 @Service
 public class FriendService {
+    private static final Duration INACTIVE_TIMEOUT = Duration.ofMinutes(5);
+
     private final FriendRepository friendRepository;
     private final FriendRequestRepository friendRequestRepository;
     private final BlacklistService blacklistService;
-    private final UserRepository userRepository;
     private final UserOnlineRecordRepository userOnlineRecordRepository;
+    private final SocialGraphService socialGraphService;
+    private final UserCardCache userCardCache;
 
-    public FriendService(FriendRepository friendRepository, FriendRequestRepository friendRequestRepository, BlacklistService blacklistService, UserRepository userRepository, UserOnlineRecordRepository userOnlineRecordRepository) {
+    public FriendService(FriendRepository friendRepository, FriendRequestRepository friendRequestRepository, BlacklistService blacklistService, UserOnlineRecordRepository userOnlineRecordRepository, SocialGraphService socialGraphService, UserCardCache userCardCache) {
         this.friendRepository = friendRepository;
         this.friendRequestRepository = friendRequestRepository;
         this.blacklistService = blacklistService;
-        this.userRepository = userRepository;
         this.userOnlineRecordRepository = userOnlineRecordRepository;
+        this.socialGraphService = socialGraphService;
+        this.userCardCache = userCardCache;
     }
 
     /**
@@ -48,8 +53,12 @@ public class FriendService {
         if (fromUserId.equals(toUserId)) {
             return "不能添加自己为好友";
         }
+        // 任意一方拉黑了对方
+        if (blacklistService.isBlocked(fromUserId, toUserId)) {
+            return "无法添加该用户为好友";
+        }
         // 已是好友
-        if (friendRepository.findByUserIdAndFriendId(fromUserId, toUserId) != null) {
+        if (isFriend(fromUserId, toUserId)) {
             return "已是好友";
         }
         // 已有未处理请求
@@ -89,6 +98,8 @@ public class FriendService {
             f2.setCreatedAt(new Date());
             friendRepository.save(f1);
             friendRepository.save(f2);
+            socialGraphService.edgeAdded(SocialGraphService.Edge.FRIEND, request.getFromUserId(), request.getToUserId());
+            socialGraphService.edgeAdded(SocialGraphService.Edge.FRIEND, request.getToUserId(), request.getFromUserId());
             request.setStatus(1);
         } else {
             request.setStatus(2);
@@ -103,8 +114,7 @@ public class FriendService {
      */
     @Operation(summary = "查询好友列表")
     public List<FriendDTO> listFriends(Long userId) {
-        List<Friend> friends = friendRepository.findByUserId(userId);
-        return friends.stream().map(this::toFriendDTO).collect(Collectors.toList());
+        return toFriendDTOs(friendRepository.findByUserId(userId));
     }
 
     /**
@@ -115,10 +125,25 @@ public class FriendService {
     public String deleteFriend(Long userId, Long friendId) {
         friendRepository.deleteByUserIdAndFriendId(userId, friendId);
         friendRepository.deleteByUserIdAndFriendId(friendId, userId);
+        socialGraphService.edgeRemoved(SocialGraphService.Edge.FRIEND, userId, friendId);
+        socialGraphService.edgeRemoved(SocialGraphService.Edge.FRIEND, friendId, userId);
         return "已删除好友";
     }
 
-    private FriendRequestDTO toDTO(FriendRequest req) {
+    /**
+     * 批量转换好友请求，请求双方的用户信息一次性从名片缓存获取
+     */
+    private List<FriendRequestDTO> toDTOs(List<FriendRequest> requests) {
+        Set<Long> userIds = new HashSet<>();
+        for (FriendRequest req : requests) {
+            userIds.add(req.getFromUserId());
+            userIds.add(req.getToUserId());
+        }
+        Map<Long, UserCardCache.Card> cards = userCardCache.getCards(userIds);
+        return requests.stream().map(req -> toDTO(req, cards)).collect(Collectors.toList());
+    }
+
+    private FriendRequestDTO toDTO(FriendRequest req, Map<Long, UserCardCache.Card> cards) {
         FriendRequestDTO dto = new FriendRequestDTO();
         dto.setId(req.getId());
         dto.setFromUserId(req.getFromUserId());
@@ -126,8 +151,8 @@ public class FriendService {
         dto.setStatus(req.getStatus());
         dto.setCreatedAt(req.getCreatedAt());
         dto.setUpdatedAt(req.getUpdatedAt());
-        User fromUser = userRepository.findById(req.getFromUserId()).orElse(null);
-        User toUser = userRepository.findById(req.getToUserId()).orElse(null);
+        UserCardCache.Card fromUser = cards.get(req.getFromUserId());
+        UserCardCache.Card toUser = cards.get(req.getToUserId());
         if (fromUser != null) {
             dto.setFromUserName(fromUser.getUsername());
             dto.setFromUserAvatar(fromUser.getAvatar());
@@ -152,7 +177,7 @@ public class FriendService {
             list = friendRequestRepository.findByToUserIdAndStatus(userId, statusInt);
         }
         if (list == null) return Collections.emptyList();
-        return list.stream().map(this::toDTO).collect(Collectors.toList());
+        return toDTOs(list);
     }
     
     public List<FriendRequestDTO> getSentFriendRequests(Long userId, String status) {
@@ -164,7 +189,7 @@ public class FriendService {
             list = friendRequestRepository.findByFromUserIdAndStatus(userId, statusInt);
         }
         if (list == null) return Collections.emptyList();
-        return list.stream().map(this::toDTO).collect(Collectors.toList());
+        return toDTOs(list);
     }
     
     private Integer parseStatus(String status) {
@@ -198,7 +223,7 @@ public class FriendService {
     
     public FriendDTO getFriendDetail(Long userId, Long friendId) {
         Friend friend = friendRepository.findByUserIdAndFriendId(userId, friendId);
-        return friend == null ? null : toFriendDTO(friend);
+        return friend == null ? null : toFriendDTOs(List.of(friend)).get(0);
     }
     
     public String cancelFriendRequest(Long requestId, Long userId) {
@@ -223,18 +248,42 @@ public class FriendService {
      */
     @Operation(summary = "判断两用户是否为好友")
     public boolean isFriend(Long userId, Long friendId) {
-        return friendRepository.findByUserIdAndFriendId(userId, friendId) != null;
+        return socialGraphService.hasEdge(SocialGraphService.Edge.FRIEND, userId, friendId);
     }
 
-    private FriendDTO toFriendDTO(Friend friend) {
+    /**
+     * 查询两用户的共同好友
+     */
+    @Operation(summary = "查询两用户的共同好友")
+    public List<Long> getMutualFriendIds(Long userId, Long otherUserId) {
+        return socialGraphService.getMutualIds(SocialGraphService.Edge.FRIEND, userId, otherUserId);
+    }
+
+    /**
+     * 批量转换好友记录
+     * 好友的用户信息一次性从名片缓存获取，在线状态通过一条查询取每个好友最近的记录
+     */
+    private List<FriendDTO> toFriendDTOs(List<Friend> friends) {
+        List<Long> friendIds = friends.stream().map(Friend::getFriendId).collect(Collectors.toList());
+        Map<Long, UserCardCache.Card> cards = userCardCache.getCards(friendIds);
+        Map<Long, UserOnlineRecordRepository.LatestStatus> statuses = new HashMap<>();
+        if (!cards.isEmpty()) {
+            for (UserOnlineRecordRepository.LatestStatus status : userOnlineRecordRepository.findLatestStatusByUserIds(cards.keySet())) {
+                statuses.merge(status.getUserId(), status, (a, b) -> isAfter(b.getLastActive(), a.getLastActive()) ? b : a);
+            }
+        }
+        return friends.stream()
+                .map(friend -> toFriendDTO(friend, cards.get(friend.getFriendId()), statuses.get(friend.getFriendId())))
+                .collect(Collectors.toList());
+    }
+
+    private FriendDTO toFriendDTO(Friend friend, UserCardCache.Card user, UserOnlineRecordRepository.LatestStatus onlineRecord) {
         FriendDTO dto = new FriendDTO();
         dto.setId(friend.getId());
         dto.setUserId(friend.getUserId());
         dto.setFriendId(friend.getFriendId());
         dto.setRemark(friend.getRemark());
         dto.setCreatedAt(friend.getCreatedAt());
-        // 查找好友用户名、头像、简介和等级
-        User user = userRepository.findById(friend.getFriendId()).orElse(null);
         if (user != null) {
             dto.setFriendName(user.getUsername());
             dto.setAvatar(user.getAvatar());
@@ -242,18 +291,16 @@ public class FriendService {
             dto.setLevel(user.getLevel());
             dto.setRealName(user.getRealName());
             
-            // 获取好友在线状态
-            UserOnlineRecord onlineRecord = userOnlineRecordRepository.findTopByUserOrderByUpdateTimeDesc(user).orElse(null);
-            if (onlineRecord != null) {
+            // 好友在线状态
+            if (onlineRecord != null && onlineRecord.getLastActive() != null) {
                 dto.setOnlineStatus(onlineRecord.getStatus());
                 // 将LocalDateTime转为Date
                 Date lastActiveTime = java.util.Date.from(onlineRecord.getLastActive().atZone(java.time.ZoneId.systemDefault()).toInstant());
                 dto.setLastActiveTime(lastActiveTime);
                 
                 // 检查是否超过不活跃超时时间
-                Duration inactiveTimeout = Duration.ofMinutes(5);
                 if (onlineRecord.getStatus() != UserOnlineStatus.OFFLINE && 
-                    Duration.between(onlineRecord.getLastActive(), LocalDateTime.now()).compareTo(inactiveTimeout) > 0) {
+                    Duration.between(onlineRecord.getLastActive(), LocalDateTime.now()).compareTo(INACTIVE_TIMEOUT) > 0) {
                     dto.setOnlineStatus(UserOnlineStatus.OFFLINE);
                 }
             } else {
@@ -262,4 +309,8 @@ public class FriendService {
         }
         return dto;
     }
-} 
\ No newline at end of file
+
+    private static boolean isAfter(LocalDateTime a, LocalDateTime b) {
+        return a != null && (b == null || a.isAfter(b));
+    }
+}
@@ -0,0 +1,323 @@
+package com.thfh.service;
+
+import com.thfh.repository.StoredFileRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图片衍生图服务
+ * 上传图片后在有界线程池中生成缩略图和中等尺寸图，列表接口通过 ?variant= 参数引用小图，
+ * 减少带宽和客户端解码开销。解码时按目标尺寸设置源图采样间隔，大图不会以原始分辨率载入内存。
+ * 衍生图保存在上传目录的.variants子目录，路径由原图路径推导，原图删除时一并删除。
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    /**
+     * 衍生图规格
+     */
+    public enum Variant {
+        THUMBNAIL("thumb", 320),
+        MEDIUM("medium", 1280);
+
+        private final String key;
+        private final int maxDimension;
+
+        Variant(String key, int maxDimension) {
+            this.key = key;
+            this.maxDimension = maxDimension;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getMaxDimension() {
+            return maxDimension;
+        }
+
+        /**
+         * 根据URL参数值查找规格
+         * @param key 参数值
+         * @return 规格，无法识别时返回null
+         */
+        public static Variant fromKey(String key) {
+            for (Variant variant : values()) {
+                if (variant.key.equalsIgnoreCase(key)) {
+                    return variant;
+                }
+            }
+            return null;
+        }
+    }
+
+    public static final String VARIANT_PARAM = "variant";
+
+    private static final String VARIANTS_DIR = ".variants";
+    private static final String VARIANT_FORMAT = "jpg";
+    private static final float JPEG_QUALITY = 0.82f;
+
+    // 可以生成衍生图的原图格式
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "bmp", "webp");
+
+    private static final String UPLOADS_PREFIX = "/uploads/";
+
+    private final Path uploadRoot;
+
+    private final ThreadPoolExecutor executor;
+
+    // 已提交但尚未处理完成的原图，避免同一图片被重复排队
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Value("${image.variants.max-pixels:100000000}")
+    private long maxPixels;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    public ImageVariantService(@Value("${file.upload-dir}") String uploadDir,
+                               @Value("${image.variants.threads:2}") int threads,
+                               @Value("${image.variants.queue-capacity:200}") int queueCapacity) {
+        this.uploadRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variant-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 为上传文件URL生成指定规格衍生图的URL
+     * 非上传目录中的图片原样返回；衍生图尚未生成时该URL会回退为原图
+     * @param url 原图URL
+     * @param variant 衍生图规格
+     * @return 衍生图URL
+     */
+    public String variantUrl(String url, Variant variant) {
+        if (url == null || !url.contains(UPLOADS_PREFIX) || !isImage(url)) {
+            return url;
+        }
+        return url + (url.indexOf('?') >= 0 ? "&" : "?") + VARIANT_PARAM + "=" + variant.getKey();
+    }
+
+    /**
+     * 批量生成衍生图URL
+     * @param urls 原图URL列表
+     * @param variant 衍生图规格
+     * @return 衍生图URL列表，顺序与输入一致
+     */
+    public List<String> variantUrls(List<String> urls, Variant variant) {
+        if (urls == null) {
+            return null;
+        }
+        List<String> result = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            result.add(variantUrl(url, variant));
+        }
+        return result;
+    }
+
+    /**
+     * 获取衍生图文件路径
+     * @param relativePath 原图相对于上传目录的路径
+     * @param variant 衍生图规格
+     * @return 衍生图路径（文件不一定存在）
+     * @throws IOException 路径越界时抛出
+     */
+    public Path variantPath(String relativePath, Variant variant) throws IOException {
+        // 保留原扩展名，避免同名不同格式的原图共用衍生图
+        String name = relativePath.replace('\\', '/') + "_" + variant.getKey() + "." + VARIANT_FORMAT;
+        Path path = uploadRoot.resolve(VARIANTS_DIR).resolve(name).normalize();
+        if (!path.startsWith(uploadRoot.resolve(VARIANTS_DIR))) {
+            throw new IOException("非法的文件路径: " + relativePath);
+        }
+        return path;
+    }
+
+    /**
+     * 提交衍生图生成任务
+     * 已存在的衍生图不会重新生成；线程池队列已满时放弃本次任务，下次访问衍生图时会再次提交
+     * @param relativePath 原图相对于上传目录的路径
+     */
+    public void schedule(String relativePath) {
+        if (relativePath == null || !isImage(relativePath) || !inFlight.add(relativePath)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(relativePath);
+                } catch (Exception e) {
+                    log.warn("生成衍生图失败: {}", relativePath, e);
+                } finally {
+                    inFlight.remove(relativePath);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(relativePath);
+            log.debug("衍生图队列已满，跳过: {}", relativePath);
+        }
+    }
+
+    /**
+     * 删除原图的所有衍生图
+     * @param relativePath 原图相对于上传目录的路径
+     */
+    public void deleteVariants(String relativePath) {
+        if (relativePath == null || !isImage(relativePath)) {
+            return;
+        }
+        for (Variant variant : Variant.values()) {
+            try {
+                Files.deleteIfExists(variantPath(relativePath, variant));
+            } catch (IOException e) {
+                log.warn("删除衍生图失败: {} {}", relativePath, variant, e);
+            }
+        }
+    }
+
+    /**
+     * 判断文件名是否为可生成衍生图的图片
+     * @param name 文件名、路径或URL
+     * @return 是否为图片
+     */
+    public boolean isImage(String name) {
+        int query = name.indexOf('?');
+        String extension = FilenameUtils.getExtension(query >= 0 ? name.substring(0, query) : name);
+        return extension != null && IMAGE_EXTENSIONS.contains(extension.toLowerCase());
+    }
+
+    private void generate(String relativePath) throws IOException {
+        Path original = uploadRoot.resolve(relativePath).normalize();
+        if (!original.startsWith(uploadRoot) || !Files.isRegularFile(original)) {
+            return;
+        }
+        Path mediumPath = variantPath(relativePath, Variant.MEDIUM);
+        Path thumbnailPath = variantPath(relativePath, Variant.THUMBNAIL);
+        if (Files.exists(mediumPath) && Files.exists(thumbnailPath)) {
+            return;
+        }
+
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            if (input == null) {
+                return;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                // 没有可用的解码器（如JDK不支持的WebP），列表中继续使用原图
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("图片像素过多，跳过衍生图生成: {} {}x{}", relativePath, width, height);
+                    return;
+                }
+
+                // 只解码一次：按中等尺寸采样读取，缩略图再从中等尺寸图缩小
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / Variant.MEDIUM.getMaxDimension());
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                // 小于目标尺寸的图片也写出衍生图（仅转码不放大），避免每次访问都回退原图并重新排队
+                BufferedImage medium = scale(decoded, Variant.MEDIUM.getMaxDimension());
+                decoded.flush();
+                write(medium, mediumPath);
+                write(scale(medium, Variant.THUMBNAIL.getMaxDimension()), thumbnailPath);
+                storedFileRepository.updateImageMetadata(relativePath, width, height,
+                        Variant.THUMBNAIL.getKey() + "," + Variant.MEDIUM.getKey());
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 等比缩放到最长边不超过maxDimension，并转换为不透明RGB（透明区域填充白色）
+     */
+    private BufferedImage scale(BufferedImage source, int maxDimension) {
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * 写入JPEG衍生图，先写临时文件再原子移动，读取方不会看到写了一半的文件
+     */
+    private void write(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling("." + UUID.randomUUID() + ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(VARIANT_FORMAT).next();
+        try {
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.thfh.service;
 
 import com.thfh.dto.JobApplicationDTO;
 import com.thfh.dto.JobApplicationQueryDTO;
+import com.thfh.dto.JobApplicationStatsDTO;
 import com.thfh.model.Job;
 import com.thfh.model.JobApplication;
 import com.thfh.model.JobApplicationStatus;
@@ -9,7 +10,6 @@ import com.thfh.model.User;
 import com.thfh.repository.JobApplicationRepository;
 import com.thfh.repository.JobRepository;
 import com.thfh.repository.UserRepository;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -22,6 +22,9 @@ import jakarta.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 职位申请服务类
@@ -38,6 +41,12 @@ public class JobApplicationService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private JobApplicationStatsService jobApplicationStatsService;
+
+    @Autowired
+    private UserCardCache userCardCache;
+
     /**
      * 创建职位申请
      * @param jobApplicationDTO 职位申请信息
@@ -69,6 +78,7 @@ public class JobApplicationService {
         // 更新职位申请数量
         job.setApplyCount(job.getApplyCount() + 1);
         jobRepository.save(job);
+        jobApplicationStatsService.applicationCreated(jobApplication);
 
         return convertToDTO(jobApplication);
     }
@@ -111,7 +121,12 @@ public class JobApplicationService {
         Page<JobApplication> applicationPage = jobApplicationRepository.findAll(spec,
                 PageRequest.of(queryDTO.getPageNum() - 1, queryDTO.getPageSize(), sort));
 
-        return applicationPage.map(this::convertToDTO);
+        // 申请人信息从名片缓存批量获取
+        Set<Long> userIds = applicationPage.getContent().stream()
+                .map(application -> application.getUser().getId())
+                .collect(Collectors.toSet());
+        Map<Long, UserCardCache.Card> cards = userCardCache.getCards(userIds);
+        return applicationPage.map(application -> convertToDTO(application, cards));
     }
 
     /**
@@ -134,15 +149,17 @@ public class JobApplicationService {
      */
     @Transactional
     public JobApplicationDTO updateJobApplicationStatus(Long id, JobApplicationStatus status, String reason) {
-        JobApplication jobApplication = jobApplicationRepository.findById(id)
+        JobApplication jobApplication = jobApplicationRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("职位申请不存在"));
 
+        JobApplicationStatus previousStatus = jobApplication.getStatus();
         jobApplication.setStatus(status);
         if (status == JobApplicationStatus.REJECTED && reason != null) {
             jobApplication.setRejectionReason(reason);
         }
 
         jobApplication = jobApplicationRepository.save(jobApplication);
+        jobApplicationStatsService.statusChanged(jobApplication, previousStatus);
         return convertToDTO(jobApplication);
     }
 
@@ -156,15 +173,17 @@ public class JobApplicationService {
      */
     @Transactional
     public JobApplicationDTO arrangeInterview(Long id, LocalDateTime interviewTime, String interviewLocation, String notes) {
-        JobApplication jobApplication = jobApplicationRepository.findById(id)
+        JobApplication jobApplication = jobApplicationRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("职位申请不存在"));
 
+        JobApplicationStatus previousStatus = jobApplication.getStatus();
         jobApplication.setStatus(JobApplicationStatus.INTERVIEW);
         jobApplication.setInterviewTime(interviewTime);
         jobApplication.setInterviewLocation(interviewLocation);
         jobApplication.setNotes(notes);
 
         jobApplication = jobApplicationRepository.save(jobApplication);
+        jobApplicationStatsService.statusChanged(jobApplication, previousStatus);
         return convertToDTO(jobApplication);
     }
 
@@ -175,12 +194,13 @@ public class JobApplicationService {
      */
     @Transactional
     public JobApplicationDTO markAsRead(Long id) {
-        JobApplication jobApplication = jobApplicationRepository.findById(id)
+        JobApplication jobApplication = jobApplicationRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("职位申请不存在"));
 
         if (!jobApplication.getIsRead()) {
             jobApplication.setIsRead(true);
             jobApplication = jobApplicationRepository.save(jobApplication);
+            jobApplicationStatsService.markedRead(jobApplication);
         }
 
         return convertToDTO(jobApplication);
@@ -194,7 +214,7 @@ public class JobApplicationService {
      */
     @Transactional
     public JobApplicationDTO withdrawApplication(Long id, Long userId) {
-        JobApplication jobApplication = jobApplicationRepository.findById(id)
+        JobApplication jobApplication = jobApplicationRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("职位申请不存在"));
 
         // 验证是否是申请人本人
@@ -206,8 +226,10 @@ public class JobApplicationService {
         if (jobApplication.getStatus() == JobApplicationStatus.PENDING || 
             jobApplication.getStatus() == JobApplicationStatus.REVIEWING || 
             jobApplication.getStatus() == JobApplicationStatus.INTERVIEW) {
+            JobApplicationStatus previousStatus = jobApplication.getStatus();
             jobApplication.setStatus(JobApplicationStatus.WITHDRAWN);
             jobApplication = jobApplicationRepository.save(jobApplication);
+            jobApplicationStatsService.statusChanged(jobApplication, previousStatus);
         } else {
             throw new RuntimeException("当前状态无法撤回申请");
         }
@@ -232,6 +254,7 @@ public class JobApplicationService {
         }
         
         jobApplicationRepository.delete(jobApplication);
+        jobApplicationStatsService.applicationDeleted(jobApplication);
     }
 
     /**
@@ -257,19 +280,7 @@ public class JobApplicationService {
      * @return 未读申请数量
      */
     public long getUnreadApplicationCount(Long jobId) {
-        // 验证职位是否存在
-        jobRepository.findById(jobId)
-                .orElseThrow(() -> new RuntimeException("职位不存在"));
-                
-        // 使用Specification查询未读的申请数量
-        Specification<JobApplication> spec = (root, query, cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
-            predicates.add(cb.equal(root.get("job").get("id"), jobId));
-            predicates.add(cb.equal(root.get("isRead"), false));
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
-        
-        return jobApplicationRepository.count(spec);
+        return jobApplicationStatsService.getJobStats(jobId).getUnread();
     }
 
     /**
@@ -278,15 +289,16 @@ public class JobApplicationService {
      * @return 未读申请数量
      */
     public long getCompanyUnreadApplicationCount(Long companyId) {
-        // 使用Specification查询公司未读的申请数量
-        Specification<JobApplication> spec = (root, query, cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
-            predicates.add(cb.equal(root.get("job").get("company").get("id"), companyId));
-            predicates.add(cb.equal(root.get("isRead"), false));
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
-        
-        return jobApplicationRepository.count(spec);
+        return jobApplicationStatsService.getCompanyUnreadCount(companyId);
+    }
+
+    /**
+     * 获取公司全部职位的申请统计
+     * @param companyId 公司ID
+     * @return 各职位的申请统计
+     */
+    public List<JobApplicationStatsDTO> getCompanyApplicationStats(Long companyId) {
+        return jobApplicationStatsService.getCompanyJobStats(companyId);
     }
 
     /**
@@ -295,15 +307,38 @@ public class JobApplicationService {
      * @return 职位申请DTO
      */
     private JobApplicationDTO convertToDTO(JobApplication jobApplication) {
+        return convertToDTO(jobApplication, userCardCache.getCards(List.of(jobApplication.getUser().getId())));
+    }
+
+    /**
+     * 将JobApplication实体转换为DTO，申请人信息取自名片
+     * @param jobApplication 职位申请实体
+     * @param cards 申请人名片
+     * @return 职位申请DTO
+     */
+    private JobApplicationDTO convertToDTO(JobApplication jobApplication, Map<Long, UserCardCache.Card> cards) {
         JobApplicationDTO dto = new JobApplicationDTO();
-        BeanUtils.copyProperties(jobApplication, dto);
+        dto.setId(jobApplication.getId());
+        dto.setResumeUrl(jobApplication.getResumeUrl());
+        dto.setCoverLetter(jobApplication.getCoverLetter());
+        dto.setStatus(jobApplication.getStatus());
+        dto.setRejectionReason(jobApplication.getRejectionReason());
+        dto.setNotes(jobApplication.getNotes());
+        dto.setInterviewTime(jobApplication.getInterviewTime());
+        dto.setInterviewLocation(jobApplication.getInterviewLocation());
+        dto.setIsRead(jobApplication.getIsRead());
+        dto.setCreateTime(jobApplication.getCreateTime());
+        dto.setUpdateTime(jobApplication.getUpdateTime());
         
         dto.setJobId(jobApplication.getJob().getId());
         dto.setJobTitle(jobApplication.getJob().getTitle());
         dto.setUserId(jobApplication.getUser().getId());
-        dto.setUsername(jobApplication.getUser().getUsername());
-        dto.setRealName(jobApplication.getUser().getRealName());
-        dto.setAvatar(jobApplication.getUser().getAvatar());
+        UserCardCache.Card applicant = cards.get(jobApplication.getUser().getId());
+        if (applicant != null) {
+            dto.setUsername(applicant.getUsername());
+            dto.setRealName(applicant.getRealName());
+            dto.setAvatar(applicant.getAvatar());
+        }
         
         return dto;
     }
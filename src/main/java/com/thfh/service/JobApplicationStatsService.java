@@ -0,0 +1,334 @@
+package com.thfh.service;
+
+import com.thfh.dto.JobApplicationStatsDTO;
+import com.thfh.exception.ResourceNotFoundException;
+import com.thfh.model.JobApplication;
+import com.thfh.model.JobApplicationStatus;
+import com.thfh.repository.JobApplicationRepository;
+import com.thfh.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 职位申请统计服务
+ * 各状态申请数和未读数通过一条按职位、状态、已读标记分组的查询一次算出，按职位和按公司分别缓存。
+ * 申请的创建、状态变更、标记已读和删除在事务提交后移除对应职位和公司的缓存，下次访问时重新分组查询。
+ * 不在缓存上叠加增量：提交与提交后回调之间的查询已能读到新数据，再叠加增量会重复计数。
+ * 查询期间如有缓存失效，查询结果不写入缓存，避免用旧数据覆盖。
+ * 失效同时经CacheInvalidationBus通知其他进程；缓存另有过期时间，消息丢失时最迟在过期后重新查询。
+ */
+@Service
+public class JobApplicationStatsService {
+
+    private static final JobApplicationStatus[] STATUSES = JobApplicationStatus.values();
+
+    // 缓存的最大职位数和公司数，超过后整体清空
+    private static final int MAX_CACHED_JOBS = 50_000;
+    private static final int MAX_CACHED_COMPANIES = 10_000;
+
+    // 失效消息中的缓存名称，失效键为 职位ID:公司ID，公司ID可为空
+    private static final String CACHE_NAME = "job-application-stats";
+
+    @Autowired
+    private JobApplicationRepository jobApplicationRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    // 缓存的过期时间
+    @Value("${cache.local.ttl:300000}")
+    private long ttlMillis;
+
+    // 职位统计缓存，键为职位ID
+    private final Map<Long, JobStats> jobStats = new ConcurrentHashMap<>();
+
+    // 公司统计缓存，键为公司ID
+    private final Map<Long, CompanyStats> companyStats = new ConcurrentHashMap<>();
+
+    // 计数变更或缓存失效的次数，由this保护
+    private long generation;
+
+    /**
+     * 单个职位的申请统计，构建后不再修改
+     */
+    public static final class JobStats {
+        private final Long jobId;
+        private final Long companyId;
+        private final long[] counts;
+        private final long unread;
+        private final long loadedAt;
+
+        private JobStats(Long jobId, Long companyId, long[] counts, long unread) {
+            this.jobId = jobId;
+            this.companyId = companyId;
+            this.counts = counts;
+            this.unread = unread;
+            this.loadedAt = System.currentTimeMillis();
+        }
+
+        public long getCount(JobApplicationStatus status) {
+            return counts[status.ordinal()];
+        }
+
+        public long getTotal() {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+
+        public long getUnread() {
+            return unread;
+        }
+
+        private JobApplicationStatsDTO toDTO() {
+            JobApplicationStatsDTO dto = new JobApplicationStatsDTO();
+            dto.setJobId(jobId);
+            dto.setCompanyId(companyId);
+            dto.setTotal(getTotal());
+            dto.setPending(getCount(JobApplicationStatus.PENDING));
+            dto.setReviewing(getCount(JobApplicationStatus.REVIEWING));
+            dto.setInterview(getCount(JobApplicationStatus.INTERVIEW));
+            dto.setAccepted(getCount(JobApplicationStatus.ACCEPTED));
+            dto.setRejected(getCount(JobApplicationStatus.REJECTED));
+            dto.setWithdrawn(getCount(JobApplicationStatus.WITHDRAWN));
+            dto.setUnread(unread);
+            return dto;
+        }
+    }
+
+    /**
+     * 公司全部职位的申请统计
+     */
+    private static final class CompanyStats {
+        private final Map<Long, JobStats> jobs;
+        private final long loadedAt;
+
+        CompanyStats(Map<Long, JobStats> jobs, long loadedAt) {
+            this.jobs = jobs;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        cacheInvalidationBus.register(CACHE_NAME, key -> {
+            String[] parts = key.split(":", -1);
+            evictJob(Long.valueOf(parts[0]), parts[1].isEmpty() ? null : Long.valueOf(parts[1]));
+        });
+    }
+
+    /**
+     * 获取单个职位的申请统计
+     * @param jobId 职位ID
+     * @return 申请统计
+     * @throws ResourceNotFoundException 职位不存在时抛出
+     */
+    public JobStats getJobStats(Long jobId) {
+        JobStats stats = getJobStats(Collections.singletonList(jobId)).get(jobId);
+        if (stats == null) {
+            throw new ResourceNotFoundException("职位不存在");
+        }
+        return stats;
+    }
+
+    /**
+     * 批量获取职位的申请统计，未缓存的职位合并为一次分组查询
+     * @param jobIds 职位ID集合
+     * @return 职位ID到申请统计的映射，不存在的职位不包含在内
+     */
+    public Map<Long, JobStats> getJobStats(Collection<Long> jobIds) {
+        Map<Long, JobStats> result = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long jobId : jobIds) {
+            JobStats cached = jobStats.get(jobId);
+            if (cached != null && !isExpired(cached.loadedAt)) {
+                result.put(jobId, cached);
+            } else if (jobId != null && !missing.contains(jobId)) {
+                missing.add(jobId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long expected = currentGeneration();
+            Map<Long, JobStats> loaded = group(jobApplicationRepository.countGroupedByJobIds(missing));
+            synchronized (this) {
+                if (generation == expected) {
+                    if (jobStats.size() + loaded.size() > MAX_CACHED_JOBS) {
+                        jobStats.clear();
+                    }
+                    jobStats.putAll(loaded);
+                }
+            }
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    /**
+     * 获取公司全部职位的申请统计
+     * @param companyId 公司ID
+     * @return 各职位的申请统计，按职位ID排序
+     */
+    public List<JobApplicationStatsDTO> getCompanyJobStats(Long companyId) {
+        List<JobApplicationStatsDTO> result = new ArrayList<>();
+        for (JobStats stats : getCompanyStats(companyId).values()) {
+            result.add(stats.toDTO());
+        }
+        result.sort(Comparator.comparing(JobApplicationStatsDTO::getJobId));
+        return result;
+    }
+
+    /**
+     * 获取公司所有职位的未读申请总数
+     * @param companyId 公司ID
+     * @return 未读申请数量
+     */
+    public long getCompanyUnreadCount(Long companyId) {
+        long unread = 0;
+        for (JobStats stats : getCompanyStats(companyId).values()) {
+            unread += stats.unread;
+        }
+        return unread;
+    }
+
+    /**
+     * 记录新提交的申请
+     * @param application 职位申请
+     */
+    public void applicationCreated(JobApplication application) {
+        invalidateAfterCommit(application);
+    }
+
+    /**
+     * 记录申请状态变更
+     * @param application 状态变更后的职位申请
+     * @param from 变更前的状态
+     */
+    public void statusChanged(JobApplication application, JobApplicationStatus from) {
+        if (from != application.getStatus()) {
+            invalidateAfterCommit(application);
+        }
+    }
+
+    /**
+     * 记录申请由未读变为已读
+     * @param application 职位申请
+     */
+    public void markedRead(JobApplication application) {
+        invalidateAfterCommit(application);
+    }
+
+    /**
+     * 记录申请被删除
+     * @param application 删除前的职位申请
+     */
+    public void applicationDeleted(JobApplication application) {
+        invalidateAfterCommit(application);
+    }
+
+    /**
+     * 职位新增、删除或更换公司后使相关缓存失效
+     * @param jobId 职位ID
+     * @param companyId 职位当前所属的公司ID，可为空
+     */
+    public void invalidateJob(Long jobId, Long companyId) {
+        AfterCommit.run(() -> {
+            evictJob(jobId, companyId);
+            publish(jobId, companyId);
+        });
+    }
+
+    private Map<Long, JobStats> getCompanyStats(Long companyId) {
+        CompanyStats cached = companyStats.get(companyId);
+        if (cached != null && !isExpired(cached.loadedAt)) {
+            return cached.jobs;
+        }
+        long expected = currentGeneration();
+        Map<Long, JobStats> loaded = Collections.unmodifiableMap(
+                group(jobApplicationRepository.countGroupedByCompanyId(companyId)));
+        synchronized (this) {
+            if (generation == expected) {
+                if (companyStats.size() >= MAX_CACHED_COMPANIES) {
+                    companyStats.clear();
+                }
+                companyStats.put(companyId, new CompanyStats(loaded, System.currentTimeMillis()));
+            }
+        }
+        return loaded;
+    }
+
+    private Map<Long, JobStats> group(List<JobApplicationRepository.StatusCount> rows) {
+        Map<Long, long[]> counts = new HashMap<>();
+        Map<Long, long[]> unread = new HashMap<>();
+        Map<Long, Long> companies = new HashMap<>();
+        for (JobApplicationRepository.StatusCount row : rows) {
+            long[] jobCounts = counts.computeIfAbsent(row.getJobId(), key -> new long[STATUSES.length]);
+            long[] jobUnread = unread.computeIfAbsent(row.getJobId(), key -> new long[1]);
+            companies.put(row.getJobId(), row.getCompanyId());
+            // 没有申请的职位只有一行状态为空的记录
+            if (row.getStatus() != null) {
+                long total = row.getTotal() == null ? 0 : row.getTotal();
+                jobCounts[row.getStatus().ordinal()] += total;
+                if (!Boolean.TRUE.equals(row.getIsRead())) {
+                    jobUnread[0] += total;
+                }
+            }
+        }
+        Map<Long, JobStats> result = new HashMap<>();
+        for (Map.Entry<Long, long[]> entry : counts.entrySet()) {
+            Long jobId = entry.getKey();
+            result.put(jobId, new JobStats(jobId, companies.get(jobId), entry.getValue(), unread.get(jobId)[0]));
+        }
+        return result;
+    }
+
+    private void invalidateAfterCommit(JobApplication application) {
+        Long jobId = application.getJob().getId();
+        Long companyId = application.getJob().getCompany().getId();
+        AfterCommit.run(() -> {
+            evict(jobId, companyId);
+            publish(jobId, companyId);
+        });
+    }
+
+    private synchronized void evict(Long jobId, Long companyId) {
+        generation++;
+        jobStats.remove(jobId);
+        companyStats.remove(companyId);
+    }
+
+    private synchronized void evictJob(Long jobId, Long companyId) {
+        generation++;
+        jobStats.remove(jobId);
+        if (companyId != null) {
+            companyStats.remove(companyId);
+        }
+        // 职位可能从其他公司转移过来
+        companyStats.values().removeIf(stats -> stats.jobs.containsKey(jobId));
+    }
+
+    private void publish(Long jobId, Long companyId) {
+        cacheInvalidationBus.publish(CACHE_NAME, jobId + ":" + (companyId == null ? "" : companyId));
+    }
+
+    private boolean isExpired(long loadedAt) {
+        return System.currentTimeMillis() - loadedAt >= ttlMillis;
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+}
@@ -8,41 +8,35 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 职位分类服务类
- * 提供职位分类的增删改查等功能
+ * 提供职位分类的增删改查等功能，查询从分类树缓存读取，变更后使缓存失效
  */
 @Service
 public class JobCategoryService {
     @Autowired
     private JobCategoryRepository jobCategoryRepository;
 
+    @Autowired
+    private JobCategoryTree jobCategoryTree;
+
     /**
      * 获取所有职位分类（树形结构）
      * @return 职位分类树形列表
      */
     public List<JobCategoryDTO> getAllCategoriesTree() {
-        // 获取所有顶级分类
-        List<JobCategory> rootCategories = jobCategoryRepository.findByParentIdIsNullOrderBySortAsc();
-        
-        // 转换为DTO并构建树形结构
-        return buildCategoryTree(rootCategories);
+        return jobCategoryTree.getTree(false);
     }
 
     /**
      * 获取所有启用的职位分类（树形结构）
+     * 禁用分类及其子分类不包含在结果中
      * @return 启用的职位分类树形列表
      */
     public List<JobCategoryDTO> getEnabledCategoriesTree() {
-        // 获取所有启用的顶级分类
-        List<JobCategory> rootCategories = jobCategoryRepository.findByParentIdIsNullAndEnabledTrueOrderBySortAsc();
-        
-        // 转换为DTO并构建树形结构
-        return buildCategoryTree(rootCategories);
+        return jobCategoryTree.getTree(true);
     }
 
     /**
@@ -51,10 +45,8 @@ public class JobCategoryService {
      * @return 职位分类DTO
      */
     public JobCategoryDTO getCategoryById(Long id) {
-        JobCategory category = jobCategoryRepository.findById(id)
+        return jobCategoryTree.getCategory(id)
                 .orElseThrow(() -> new RuntimeException("职位分类不存在"));
-        
-        return convertToDTO(category);
     }
 
     /**
@@ -65,15 +57,15 @@ public class JobCategoryService {
     @Transactional
     public JobCategoryDTO createCategory(JobCategoryDTO categoryDTO) {
         // 如果有父分类ID，验证父分类是否存在
-        if (categoryDTO.getParentId() != null) {
-            jobCategoryRepository.findById(categoryDTO.getParentId())
-                    .orElseThrow(() -> new RuntimeException("父分类不存在"));
+        if (categoryDTO.getParentId() != null && !jobCategoryRepository.existsById(categoryDTO.getParentId())) {
+            throw new RuntimeException("父分类不存在");
         }
         
         JobCategory category = new JobCategory();
         BeanUtils.copyProperties(categoryDTO, category, "id", "createTime", "updateTime", "children");
         
         category = jobCategoryRepository.save(category);
+        jobCategoryTree.invalidate();
         
         return convertToDTO(category);
     }
@@ -97,17 +89,19 @@ public class JobCategoryService {
             }
             
             // 不能将分类的父分类设置为其子分类
-            if (isChildCategory(id, categoryDTO.getParentId())) {
+            if (jobCategoryTree.isAncestor(id, categoryDTO.getParentId())) {
                 throw new RuntimeException("不能将分类的父分类设置为其子分类");
             }
             
-            jobCategoryRepository.findById(categoryDTO.getParentId())
-                    .orElseThrow(() -> new RuntimeException("父分类不存在"));
+            if (!jobCategoryRepository.existsById(categoryDTO.getParentId())) {
+                throw new RuntimeException("父分类不存在");
+            }
         }
         
         BeanUtils.copyProperties(categoryDTO, category, "id", "createTime", "updateTime", "children");
         
         category = jobCategoryRepository.save(category);
+        jobCategoryTree.invalidate();
         
         return convertToDTO(category);
     }
@@ -129,6 +123,7 @@ public class JobCategoryService {
         
         // 删除分类
         jobCategoryRepository.delete(category);
+        jobCategoryTree.invalidate();
     }
 
     /**
@@ -143,51 +138,11 @@ public class JobCategoryService {
         
         category.setEnabled(!category.getEnabled());
         category = jobCategoryRepository.save(category);
+        jobCategoryTree.invalidate();
         
         return convertToDTO(category);
     }
 
-    /**
-     * 构建分类树形结构
-     * @param rootCategories 顶级分类列表
-     * @return 树形结构的分类DTO列表
-     */
-    private List<JobCategoryDTO> buildCategoryTree(List<JobCategory> rootCategories) {
-        List<JobCategoryDTO> result = new ArrayList<>();
-        
-        for (JobCategory rootCategory : rootCategories) {
-            JobCategoryDTO rootDTO = convertToDTO(rootCategory);
-            
-            // 递归获取子分类
-            List<JobCategory> children = jobCategoryRepository.findByParentIdOrderBySortAsc(rootCategory.getId());
-            if (!children.isEmpty()) {
-                rootDTO.setChildren(buildCategoryTree(children));
-            }
-            
-            result.add(rootDTO);
-        }
-        
-        return result;
-    }
-
-    /**
-     * 判断targetId是否是sourceId的子分类
-     * @param sourceId 源分类ID
-     * @param targetId 目标分类ID
-     * @return 如果targetId是sourceId的子分类，返回true；否则返回false
-     */
-    private boolean isChildCategory(Long sourceId, Long targetId) {
-        List<JobCategory> children = jobCategoryRepository.findByParentIdOrderBySortAsc(sourceId);
-        
-        for (JobCategory child : children) {
-            if (child.getId().equals(targetId) || isChildCategory(child.getId(), targetId)) {
-                return true;
-            }
-        }
-        
-        return false;
-    }
-
     /**
      * 将分类实体转换为DTO
      * @param category 分类实体
@@ -205,19 +160,6 @@ public class JobCategoryService {
      * @return 子分类DTO列表
      */
     public List<JobCategoryDTO> getChildCategories(Long parentId) {
-        List<JobCategory> categories;
-        
-        if (parentId == null) {
-            // 如果父分类ID为null，获取所有启用的顶级分类
-            categories = jobCategoryRepository.findByParentIdIsNullAndEnabledTrueOrderBySortAsc();
-        } else {
-            // 获取指定父分类ID下的所有启用的子分类
-            categories = jobCategoryRepository.findByParentIdAndEnabledTrueOrderBySortAsc(parentId);
-        }
-        
-        // 转换为DTO列表
-        return categories.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return jobCategoryTree.getChildren(parentId, true);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,305 @@
+package com.thfh.service;
+
+import com.thfh.dto.JobCategoryDTO;
+import com.thfh.model.JobCategory;
+import com.thfh.repository.JobCategoryRepository;
+import com.thfh.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 职位分类树缓存
+ * 一次查询加载整张分类表，在内存中组装为不可变的树并建立父节点索引。
+ * 缓存带版本号，分类增删改和启用状态切换在事务提交后递增版本，下次访问时重新加载。
+ * 版本号只在本进程内递增，变更同时经CacheInvalidationBus通知其他进程；
+ * 分类树另有过期时间，消息丢失时其他进程最迟在过期后重新加载。
+ * 祖先/子孙判断沿父节点向上查找，复杂度为树的深度。
+ */
+@Service
+public class JobCategoryTree {
+
+    // 失效消息中的缓存名称
+    private static final String CACHE_NAME = "job-category";
+
+    @Autowired
+    private JobCategoryRepository jobCategoryRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    // 分类树的过期时间
+    @Value("${cache.local.ttl:300000}")
+    private long ttlMillis;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 分类节点，构建后不再修改
+     */
+    public static final class Node {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final Long parentId;
+        private final Integer sort;
+        private final boolean enabled;
+        private final LocalDateTime createTime;
+        private final LocalDateTime updateTime;
+        private List<Node> children = List.of();
+
+        private Node(JobCategory category) {
+            this.id = category.getId();
+            this.name = category.getName();
+            this.description = category.getDescription();
+            this.parentId = category.getParentId();
+            this.sort = category.getSort();
+            this.enabled = Boolean.TRUE.equals(category.getEnabled());
+            this.createTime = category.getCreateTime();
+            this.updateTime = category.getUpdateTime();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Long getParentId() {
+            return parentId;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public List<Node> getChildren() {
+            return children;
+        }
+    }
+
+    /**
+     * 某一版本的分类树
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final long loadedAt;
+        private final Map<Long, Node> nodes;
+        private final List<Node> roots;
+
+        Snapshot(long version, List<JobCategory> categories) {
+            this.version = version;
+            this.loadedAt = System.currentTimeMillis();
+            Map<Long, Node> byId = new HashMap<>();
+            for (JobCategory category : categories) {
+                byId.put(category.getId(), new Node(category));
+            }
+            Map<Long, List<Node>> childrenById = new HashMap<>();
+            List<Node> rootList = new ArrayList<>();
+            for (Node node : byId.values()) {
+                // 父分类不存在的节点按顶级分类处理
+                if (node.parentId != null && byId.containsKey(node.parentId)) {
+                    childrenById.computeIfAbsent(node.parentId, key -> new ArrayList<>()).add(node);
+                } else {
+                    rootList.add(node);
+                }
+            }
+            Comparator<Node> order = Comparator.comparing((Node node) -> node.sort, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(node -> node.id);
+            for (Map.Entry<Long, List<Node>> entry : childrenById.entrySet()) {
+                entry.getValue().sort(order);
+                byId.get(entry.getKey()).children = Collections.unmodifiableList(entry.getValue());
+            }
+            rootList.sort(order);
+            this.nodes = Collections.unmodifiableMap(byId);
+            this.roots = Collections.unmodifiableList(rootList);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        cacheInvalidationBus.register(CACHE_NAME, key -> version.incrementAndGet());
+    }
+
+    /**
+     * 获取分类树
+     * @param enabledOnly 是否只包含启用的分类，禁用分类的子分类一并排除
+     * @return 分类树，每次返回新的DTO副本
+     */
+    public List<JobCategoryDTO> getTree(boolean enabledOnly) {
+        return toDTOs(getSnapshot().roots, enabledOnly, true);
+    }
+
+    /**
+     * 获取指定父分类下的直接子分类
+     * @param parentId 父分类ID，为空时返回顶级分类
+     * @param enabledOnly 是否只包含启用的分类
+     * @return 子分类列表，不包含孙分类
+     */
+    public List<JobCategoryDTO> getChildren(Long parentId, boolean enabledOnly) {
+        Snapshot current = getSnapshot();
+        List<Node> children;
+        if (parentId == null) {
+            children = current.roots;
+        } else {
+            Node parent = current.nodes.get(parentId);
+            children = parent == null ? List.of() : parent.children;
+        }
+        return toDTOs(children, enabledOnly, false);
+    }
+
+    /**
+     * 获取分类节点
+     * @param id 分类ID
+     * @return 分类节点，不存在时为空
+     */
+    public Optional<Node> get(Long id) {
+        return Optional.ofNullable(getSnapshot().nodes.get(id));
+    }
+
+    /**
+     * 获取分类DTO
+     * @param id 分类ID
+     * @return 分类DTO（不含子分类），不存在时为空
+     */
+    public Optional<JobCategoryDTO> getCategory(Long id) {
+        return get(id).map(node -> toDTO(node, false, false));
+    }
+
+    /**
+     * 判断ancestorId是否是descendantId的祖先分类（不含自身）
+     * 沿父节点向上查找，复杂度为树的深度
+     * @param ancestorId 祖先分类ID
+     * @param descendantId 子孙分类ID
+     * @return 是否为祖先
+     */
+    public boolean isAncestor(Long ancestorId, Long descendantId) {
+        Snapshot current = getSnapshot();
+        Node node = current.nodes.get(descendantId);
+        Set<Long> visited = new HashSet<>();
+        while (node != null && node.parentId != null && visited.add(node.id)) {
+            if (node.parentId.equals(ancestorId)) {
+                return true;
+            }
+            node = current.nodes.get(node.parentId);
+        }
+        return false;
+    }
+
+    /**
+     * 获取分类及其所有祖先分类的ID，从自身到顶级分类排列
+     * @param id 分类ID
+     * @return 分类ID列表，分类不存在时为空列表
+     */
+    public List<Long> getPath(Long id) {
+        Snapshot current = getSnapshot();
+        List<Long> path = new ArrayList<>();
+        Node node = current.nodes.get(id);
+        while (node != null && !path.contains(node.id)) {
+            path.add(node.id);
+            node = node.parentId == null ? null : current.nodes.get(node.parentId);
+        }
+        return path;
+    }
+
+    /**
+     * 获取分类及其所有子孙分类的ID
+     * @param id 分类ID
+     * @return 分类ID集合，分类不存在时只包含自身
+     */
+    public Set<Long> getSubtreeIds(Long id) {
+        Snapshot current = getSnapshot();
+        Set<Long> ids = new LinkedHashSet<>();
+        Deque<Long> pending = new ArrayDeque<>();
+        pending.push(id);
+        while (!pending.isEmpty()) {
+            Long next = pending.pop();
+            if (ids.add(next)) {
+                Node node = current.nodes.get(next);
+                if (node != null) {
+                    node.children.forEach(child -> pending.push(child.id));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 分类变更后使缓存失效并通知其他进程
+     * 处于事务中时在事务提交后递增版本，避免重新加载时读到未提交的数据
+     */
+    public void invalidate() {
+        AfterCommit.run(() -> {
+            version.incrementAndGet();
+            cacheInvalidationBus.publish(CACHE_NAME, "");
+        });
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        long expected = version.get();
+        if (!isFresh(current, expected)) {
+            synchronized (this) {
+                current = snapshot;
+                expected = version.get();
+                if (!isFresh(current, expected)) {
+                    // 先读取版本再查询，查询期间发生的变更会使新快照立即过期
+                    current = new Snapshot(expected, jobCategoryRepository.findAll());
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private boolean isFresh(Snapshot current, long expectedVersion) {
+        return current != null && current.version == expectedVersion
+                && System.currentTimeMillis() - current.loadedAt < ttlMillis;
+    }
+
+    private List<JobCategoryDTO> toDTOs(List<Node> nodes, boolean enabledOnly, boolean withChildren) {
+        List<JobCategoryDTO> result = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            if (!enabledOnly || node.enabled) {
+                result.add(toDTO(node, enabledOnly, withChildren));
+            }
+        }
+        return result;
+    }
+
+    private JobCategoryDTO toDTO(Node node, boolean enabledOnly, boolean withChildren) {
+        JobCategoryDTO dto = new JobCategoryDTO();
+        dto.setId(node.id);
+        dto.setName(node.name);
+        dto.setDescription(node.description);
+        dto.setParentId(node.parentId);
+        dto.setSort(node.sort);
+        dto.setEnabled(node.enabled);
+        dto.setCreateTime(node.createTime);
+        dto.setUpdateTime(node.updateTime);
+        if (withChildren) {
+            dto.setChildren(toDTOs(node.children, enabledOnly, true));
+        }
+        return dto;
+    }
+}
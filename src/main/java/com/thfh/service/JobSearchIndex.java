@@ -0,0 +1,462 @@
+package com.thfh.service;
+
+import com.thfh.dto.JobDTO;
+import com.thfh.dto.JobFacetDTO;
+import com.thfh.dto.JobQueryDTO;
+import com.thfh.dto.JobSearchResultDTO;
+import com.thfh.model.Job;
+import com.thfh.model.JobStatus;
+import com.thfh.repository.JobRepository;
+import com.thfh.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * 职位搜索索引
+ * 在内存中为已发布且启用的职位建立倒排索引：标题、公司名称、工作地点按单字和相邻双字建立位图，
+ * 公司和分类按ID建立位图。查询对位图求交集后再用包含判断校验，语义与原来的 LIKE %...% 一致。
+ * 分类筛选包含其所有子分类，分面统计把职位数累加到分类的每一级祖先，分类层级取自分类树缓存。
+ * 职位增删改、公司信息修改后在事务提交后增量更新对应职位，并经CacheInvalidationBus通知其他进程更新；
+ * 另有定时任务整体重建，默认间隔与缓存过期时间cache.local.ttl相同，消息丢失时以此兜底。
+ * 浏览数、申请数变化频繁，不放入索引，返回结果时按当前页的职位ID批量查询；返回的DTO均为副本。
+ */
+@Service
+public class JobSearchIndex {
+
+    // 地点、公司分面最多返回的条数
+    private static final int MAX_FACET_VALUES = 20;
+
+    // 单页最大条数
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final char FIELD_TITLE = 'T';
+    private static final char FIELD_COMPANY = 'C';
+    private static final char FIELD_LOCATION = 'L';
+
+    // 失效消息中的缓存名称，失效键为 job:职位ID 或 company:公司ID
+    private static final String CACHE_NAME = "job-search";
+    private static final String JOB_PREFIX = "job:";
+    private static final String COMPANY_PREFIX = "company:";
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private JobCategoryTree jobCategoryTree;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile Index index;
+
+    // 重建期间增量更新过的职位，重建完成后重新应用
+    private volatile Set<Long> refreshedDuringRebuild;
+
+    /**
+     * 索引中的职位
+     */
+    private static final class Doc {
+        private final JobDTO dto;
+        private final String title;
+        private final String company;
+        private final String location;
+
+        Doc(JobDTO dto) {
+            // 计数在查询时实时读取，索引中不保留
+            dto.setViewCount(null);
+            dto.setApplyCount(null);
+            this.dto = dto;
+            this.title = normalize(dto.getTitle());
+            this.company = normalize(dto.getCompanyName());
+            this.location = normalize(dto.getLocation());
+        }
+    }
+
+    /**
+     * 倒排索引，读写需持有lock
+     */
+    private static final class Index {
+        // 按序号保存的职位，删除后位置为空并回收序号
+        private final List<Doc> docs = new ArrayList<>();
+        private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final BitSet live = new BitSet();
+        // 键为字段标记加单字或双字
+        private final Map<String, BitSet> grams = new HashMap<>();
+        private final Map<Long, BitSet> byCategory = new HashMap<>();
+        private final Map<Long, BitSet> byCompany = new HashMap<>();
+
+        void add(JobDTO dto) {
+            remove(dto.getId());
+            Integer ordinal = freeOrdinals.poll();
+            Doc doc = new Doc(dto);
+            if (ordinal == null) {
+                ordinal = docs.size();
+                docs.add(doc);
+            } else {
+                docs.set(ordinal, doc);
+            }
+            ordinals.put(dto.getId(), ordinal);
+            live.set(ordinal);
+            for (String key : keys(doc)) {
+                grams.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+            }
+            if (dto.getCategoryId() != null) {
+                byCategory.computeIfAbsent(dto.getCategoryId(), k -> new BitSet()).set(ordinal);
+            }
+            if (dto.getCompanyId() != null) {
+                byCompany.computeIfAbsent(dto.getCompanyId(), k -> new BitSet()).set(ordinal);
+            }
+        }
+
+        void remove(Long jobId) {
+            Integer ordinal = ordinals.remove(jobId);
+            if (ordinal == null) {
+                return;
+            }
+            Doc doc = docs.get(ordinal);
+            for (String key : keys(doc)) {
+                clear(grams, key, ordinal);
+            }
+            clear(byCategory, doc.dto.getCategoryId(), ordinal);
+            clear(byCompany, doc.dto.getCompanyId(), ordinal);
+            live.clear(ordinal);
+            docs.set(ordinal, null);
+            freeOrdinals.push(ordinal);
+        }
+
+        private static <K> void clear(Map<K, BitSet> postings, K key, int ordinal) {
+            if (key == null) {
+                return;
+            }
+            BitSet bits = postings.get(key);
+            if (bits != null) {
+                bits.clear(ordinal);
+                if (bits.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+
+        private static Set<String> keys(Doc doc) {
+            Set<String> keys = new HashSet<>();
+            addGrams(keys, FIELD_TITLE, doc.title);
+            addGrams(keys, FIELD_COMPANY, doc.company);
+            addGrams(keys, FIELD_LOCATION, doc.location);
+            return keys;
+        }
+
+        private static void addGrams(Set<String> keys, char field, String text) {
+            for (int i = 0; i < text.length(); i++) {
+                keys.add(field + text.substring(i, i + 1));
+                if (i + 1 < text.length()) {
+                    keys.add(field + text.substring(i, i + 2));
+                }
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        cacheInvalidationBus.register(CACHE_NAME, key -> {
+            if (key.startsWith(JOB_PREFIX)) {
+                doRefreshJob(Long.valueOf(key.substring(JOB_PREFIX.length())));
+            } else if (key.startsWith(COMPANY_PREFIX)) {
+                doRefreshCompany(Long.valueOf(key.substring(COMPANY_PREFIX.length())));
+            }
+        });
+    }
+
+    /**
+     * 搜索已发布且启用的职位
+     * 支持标题、公司名称、工作地点模糊匹配，公司和分类精确筛选（分类包含子分类），
+     * 结果按创建时间倒序，同时返回分类、地点、公司的分面统计
+     * @param queryDTO 查询条件
+     * @return 搜索结果
+     */
+    public JobSearchResultDTO search(JobQueryDTO queryDTO) {
+        int pageNum = queryDTO.getPageNum() == null || queryDTO.getPageNum() < 1 ? 1 : queryDTO.getPageNum();
+        int pageSize = queryDTO.getPageSize() == null || queryDTO.getPageSize() < 1 ? 10
+                : Math.min(queryDTO.getPageSize(), MAX_PAGE_SIZE);
+
+        JobSearchResultDTO result = new JobSearchResultDTO();
+        List<Doc> matched = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Index current = getIndex();
+            BitSet bits = match(current, queryDTO);
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                matched.add(current.docs.get(i));
+            }
+
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.setCategories(categoryFacets(matched));
+        result.setLocations(valueFacets(matched, doc -> null, doc -> doc.dto.getLocation()));
+        result.setCompanies(valueFacets(matched, doc -> doc.dto.getCompanyId(), doc -> doc.dto.getCompanyName()));
+
+        matched.sort(Comparator.comparing((Doc doc) -> doc.dto.getCreateTime(), Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(doc -> doc.dto.getId(), Comparator.reverseOrder()));
+        int from = Math.min((pageNum - 1) * pageSize, matched.size());
+        int to = Math.min(from + pageSize, matched.size());
+        List<JobDTO> content = new ArrayList<>(to - from);
+        for (Doc doc : matched.subList(from, to)) {
+            content.add(doc.dto.copy());
+        }
+        fillCounters(content);
+        result.setContent(content);
+        result.setTotalElements((long) matched.size());
+        result.setPageNum(pageNum);
+        result.setPageSize(pageSize);
+        return result;
+    }
+
+    /**
+     * 职位变更后更新索引中的该职位并通知其他进程
+     * 处于事务中时在事务提交后更新，避免读到未提交的数据
+     * @param jobId 职位ID
+     */
+    public void refreshJob(Long jobId) {
+        AfterCommit.run(() -> {
+            doRefreshJob(jobId);
+            cacheInvalidationBus.publish(CACHE_NAME, JOB_PREFIX + jobId);
+        });
+    }
+
+    /**
+     * 公司信息变更或删除后更新索引中该公司的全部职位并通知其他进程
+     * 处于事务中时在事务提交后更新
+     * @param companyId 公司ID
+     */
+    public void refreshCompany(Long companyId) {
+        AfterCommit.run(() -> {
+            doRefreshCompany(companyId);
+            cacheInvalidationBus.publish(CACHE_NAME, COMPANY_PREFIX + companyId);
+        });
+    }
+
+    /**
+     * 定时整体重建索引
+     * 默认间隔与缓存过期时间相同，兜底未经过JobService的数据变更和丢失的失效消息
+     */
+    @Scheduled(fixedDelayString = "${job.search.rebuild-interval:${cache.local.ttl:300000}}")
+    public void rebuild() {
+        Set<Long> refreshed = ConcurrentHashMap.newKeySet();
+        refreshedDuringRebuild = refreshed;
+        try {
+            Index rebuilt = buildIndex();
+            lock.writeLock().lock();
+            try {
+                index = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            refreshedDuringRebuild = null;
+        }
+        // 重建期间提交的变更可能未包含在新索引中，重新应用一次
+        refreshed.forEach(this::doRefreshJob);
+    }
+
+    private Index getIndex() {
+        Index current = index;
+        if (current == null) {
+            // 首次访问时加载
+            synchronized (this) {
+                if (index == null) {
+                    index = buildIndex();
+                }
+                current = index;
+            }
+        }
+        return current;
+    }
+
+    private Index buildIndex() {
+        Index built = new Index();
+        for (Job job : jobRepository.findSearchable(JobStatus.PUBLISHED)) {
+            built.add(JobDTO.fromEntity(job));
+        }
+        return built;
+    }
+
+    private void doRefreshJob(Long jobId) {
+        Set<Long> refreshed = refreshedDuringRebuild;
+        if (refreshed != null) {
+            refreshed.add(jobId);
+        }
+        if (index == null) {
+            // 尚未加载，首次访问时会完整加载
+            return;
+        }
+        Optional<Job> job = jobRepository.findWithCompanyAndCategoryById(jobId);
+        lock.writeLock().lock();
+        try {
+            if (job.isPresent() && job.get().getStatus() == JobStatus.PUBLISHED
+                    && Boolean.TRUE.equals(job.get().getEnabled())) {
+                index.add(JobDTO.fromEntity(job.get()));
+            } else {
+                index.remove(jobId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void doRefreshCompany(Long companyId) {
+        if (index == null) {
+            return;
+        }
+        // 已从数据库删除的职位也要从索引中移除
+        Set<Long> jobIds = new HashSet<>(jobRepository.findIdsByCompanyId(companyId));
+        lock.readLock().lock();
+        try {
+            BitSet bits = index.byCompany.getOrDefault(companyId, new BitSet());
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                jobIds.add(index.docs.get(i).dto.getId());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        jobIds.forEach(this::doRefreshJob);
+    }
+
+    private void fillCounters(List<JobDTO> content) {
+        if (content.isEmpty()) {
+            return;
+        }
+        Map<Long, JobDTO> byId = new HashMap<>();
+        for (JobDTO dto : content) {
+            byId.put(dto.getId(), dto);
+        }
+        for (JobRepository.JobCounters counters : jobRepository.findCountersByIdIn(byId.keySet())) {
+            JobDTO dto = byId.get(counters.getId());
+            dto.setViewCount(counters.getViewCount());
+            dto.setApplyCount(counters.getApplyCount());
+        }
+    }
+
+    private BitSet match(Index current, JobQueryDTO queryDTO) {
+        BitSet bits = (BitSet) current.live.clone();
+        if (queryDTO.getCompanyId() != null) {
+            bits.and(current.byCompany.getOrDefault(queryDTO.getCompanyId(), new BitSet()));
+        }
+        if (queryDTO.getCategoryId() != null) {
+            BitSet inCategory = new BitSet();
+            for (Long id : jobCategoryTree.getSubtreeIds(queryDTO.getCategoryId())) {
+                BitSet posting = current.byCategory.get(id);
+                if (posting != null) {
+                    inCategory.or(posting);
+                }
+            }
+            bits.and(inCategory);
+        }
+        String title = normalize(queryDTO.getTitle());
+        String company = normalize(queryDTO.getCompanyName());
+        String location = normalize(queryDTO.getLocation());
+        intersectGrams(current, bits, FIELD_TITLE, title);
+        intersectGrams(current, bits, FIELD_COMPANY, company);
+        intersectGrams(current, bits, FIELD_LOCATION, location);
+
+        // 双字交集可能包含不连续的匹配，逐个校验子串
+        if (!title.isEmpty() || !company.isEmpty() || !location.isEmpty()) {
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                Doc doc = current.docs.get(i);
+                if (!doc.title.contains(title) || !doc.company.contains(company) || !doc.location.contains(location)) {
+                    bits.clear(i);
+                }
+            }
+        }
+        return bits;
+    }
+
+    private void intersectGrams(Index current, BitSet bits, char field, String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        if (text.length() == 1) {
+            bits.and(current.grams.getOrDefault(field + text, new BitSet()));
+            return;
+        }
+        for (int i = 0; i + 1 < text.length() && !bits.isEmpty(); i++) {
+            bits.and(current.grams.getOrDefault(field + text.substring(i, i + 2), new BitSet()));
+        }
+    }
+
+    private List<JobFacetDTO> categoryFacets(List<Doc> matched) {
+        Map<Long, Long> direct = new HashMap<>();
+        for (Doc doc : matched) {
+            if (doc.dto.getCategoryId() != null) {
+                direct.merge(doc.dto.getCategoryId(), 1L, Long::sum);
+            }
+        }
+        // 逐级累加到祖先分类
+        Map<Long, Long> counts = new HashMap<>();
+        for (Map.Entry<Long, Long> entry : direct.entrySet()) {
+            for (Long id : jobCategoryTree.getPath(entry.getKey())) {
+                counts.merge(id, entry.getValue(), Long::sum);
+            }
+        }
+        List<JobFacetDTO> facets = new ArrayList<>(counts.size());
+        for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+            jobCategoryTree.get(entry.getKey()).ifPresent(node ->
+                    facets.add(facet(node.getId(), node.getName(), node.getParentId(), entry.getValue())));
+        }
+        facets.sort(Comparator.comparing(JobFacetDTO::getCount, Comparator.reverseOrder())
+                .thenComparing(JobFacetDTO::getId));
+        return facets;
+    }
+
+    private List<JobFacetDTO> valueFacets(List<Doc> matched, Function<Doc, Long> idOf, Function<Doc, String> nameOf) {
+        Map<String, JobFacetDTO> facets = new HashMap<>();
+        for (Doc doc : matched) {
+            String name = nameOf.apply(doc);
+            if (name == null || name.isEmpty()) {
+                continue;
+            }
+            Long id = idOf.apply(doc);
+            String key = id == null ? name : id.toString();
+            JobFacetDTO facet = facets.computeIfAbsent(key, k -> facet(id, name, null, 0L));
+            facet.setCount(facet.getCount() + 1);
+        }
+        List<JobFacetDTO> sorted = new ArrayList<>(facets.values());
+        sorted.sort(Comparator.comparing(JobFacetDTO::getCount, Comparator.reverseOrder())
+                .thenComparing(JobFacetDTO::getName));
+        return sorted.size() > MAX_FACET_VALUES ? new ArrayList<>(sorted.subList(0, MAX_FACET_VALUES)) : sorted;
+    }
+
+    private static JobFacetDTO facet(Long id, String name, Long parentId, Long count) {
+        JobFacetDTO facet = new JobFacetDTO();
+        facet.setId(id);
+        facet.setName(name);
+        facet.setParentId(parentId);
+        facet.setCount(count);
+        return facet;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+}
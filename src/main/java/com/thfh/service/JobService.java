@@ -2,6 +2,7 @@ package com.thfh.service;
 
 import com.thfh.dto.JobDTO;
 import com.thfh.dto.JobQueryDTO;
+import com.thfh.dto.JobSearchResultDTO;
 import com.thfh.model.Job;
 import com.thfh.model.Company;
 import com.thfh.model.JobStatus;
@@ -9,11 +10,10 @@ import com.thfh.model.JobApplicationStatus;
 import com.thfh.model.JobCategory;
 import com.thfh.repository.JobRepository;
 import com.thfh.repository.CompanyRepository;
-import com.thfh.repository.JobApplicationRepository;
 import com.thfh.repository.JobCategoryRepository;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
@@ -40,17 +40,28 @@ public class JobService {
     private CompanyRepository companyRepository;
 
     @Autowired
-    private JobApplicationRepository jobApplicationRepository;
+    private JobApplicationStatsService jobApplicationStatsService;
     
     @Autowired
     private JobCategoryRepository jobCategoryRepository;
 
+    @Autowired
+    private JobSearchIndex jobSearchIndex;
+
     /**
      * 根据查询条件获取职位列表
      * @param queryDTO 查询条件对象，包含职位标题、公司ID、地点、状态、启用状态等过滤条件
      * @return 分页后的职位DTO列表
      */
     public Page<JobDTO> getJobs(JobQueryDTO queryDTO) {
+        // 求职者查询的已发布且启用职位直接走搜索索引
+        if (queryDTO.getStatus() == JobStatus.PUBLISHED && Boolean.TRUE.equals(queryDTO.getEnabled())) {
+            JobSearchResultDTO result = jobSearchIndex.search(queryDTO);
+            return new PageImpl<>(result.getContent(),
+                    PageRequest.of(result.getPageNum() - 1, result.getPageSize(), Sort.by(Sort.Direction.DESC, "createTime")),
+                    result.getTotalElements());
+        }
+
         Specification<Job> spec = (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
@@ -87,6 +98,15 @@ public class JobService {
         return jobPage.map(this::convertToDTO);
     }
 
+    /**
+     * 搜索已发布且启用的职位，并返回分类、地点、公司分面统计
+     * @param queryDTO 查询条件，状态和启用条件会被忽略
+     * @return 搜索结果
+     */
+    public JobSearchResultDTO searchJobs(JobQueryDTO queryDTO) {
+        return jobSearchIndex.search(queryDTO);
+    }
+
     /**
      * 创建新职位
      * @param jobDTO 职位信息对象，包含职位的基本信息
@@ -116,7 +136,7 @@ public class JobService {
         }
 
         Job job = new Job();
-        BeanUtils.copyProperties(jobDTO, job);
+        jobDTO.applyTo(job);
         job.setCompany(company);
         
         // 设置职位分类
@@ -141,6 +161,8 @@ public class JobService {
         }
         
         job = jobRepository.save(job);
+        jobSearchIndex.refreshJob(job.getId());
+        jobApplicationStatsService.invalidateJob(job.getId(), company.getId());
 
         return convertToDTO(job);
     }
@@ -176,9 +198,8 @@ public class JobService {
             throw new RuntimeException("职位标题长度不能超过50个字符");
         }
 
-        // 5. 复制属性时排除不应更新的字段
-        BeanUtils.copyProperties(jobDTO, job, 
-            "id", "createTime", "viewCount", "applyCount", "applications", "company", "category");
+        // 5. 复制可编辑字段，ID、创建时间、计数、公司和分类不在其中
+        jobDTO.applyTo(job);
 
         // 6. 设置关联对象
         job.setCompany(company);
@@ -207,6 +228,8 @@ public class JobService {
         // 8. 保存更新
         try {
             job = jobRepository.save(job);
+            jobSearchIndex.refreshJob(job.getId());
+            jobApplicationStatsService.invalidateJob(job.getId(), company.getId());
             return convertToDTO(job);
         } catch (Exception e) {
             throw new RuntimeException("保存职位信息失败：" + e.getMessage());
@@ -225,6 +248,7 @@ public class JobService {
                 .orElseThrow(() -> new RuntimeException("职位不存在"));
         job.setStatus(JobStatus.PUBLISHED);
         jobRepository.save(job);
+        jobSearchIndex.refreshJob(id);
     }
 
     /**
@@ -239,6 +263,7 @@ public class JobService {
                 .orElseThrow(() -> new RuntimeException("职位不存在"));
         job.setStatus(JobStatus.CLOSED);
         jobRepository.save(job);
+        jobSearchIndex.refreshJob(id);
     }
 
     /**
@@ -247,6 +272,8 @@ public class JobService {
      */
     public void deleteJob(Long id) {
         jobRepository.deleteById(id);
+        jobSearchIndex.refreshJob(id);
+        jobApplicationStatsService.invalidateJob(id, null);
     }
 
     /**
@@ -260,6 +287,7 @@ public class JobService {
                 .orElseThrow(() -> new RuntimeException("职位不存在"));
         job.setEnabled(!job.getEnabled());
         jobRepository.save(job);
+        jobSearchIndex.refreshJob(id);
     }
 
     /**
@@ -268,10 +296,11 @@ public class JobService {
      * @return 包含各状态申请数量的DTO对象
      */
     public Map<String, Long> getJobApplicationCounts(Long jobId) {
+        JobApplicationStatsService.JobStats stats = jobApplicationStatsService.getJobStats(jobId);
         Map<String, Long> counts = new HashMap<>();
-        counts.put("pending", jobApplicationRepository.countByJobIdAndStatus(jobId, JobApplicationStatus.PENDING));
-        counts.put("reviewing", jobApplicationRepository.countByJobIdAndStatus(jobId, JobApplicationStatus.REVIEWING));
-        counts.put("interview", jobApplicationRepository.countByJobIdAndStatus(jobId, JobApplicationStatus.INTERVIEW));
+        counts.put("pending", stats.getCount(JobApplicationStatus.PENDING));
+        counts.put("reviewing", stats.getCount(JobApplicationStatus.REVIEWING));
+        counts.put("interview", stats.getCount(JobApplicationStatus.INTERVIEW));
         return counts;
     }
 
@@ -281,26 +310,7 @@ public class JobService {
      * @return JobDTO对象
      */
     private JobDTO convertToDTO(Job job) {
-        JobDTO dto = new JobDTO();
-        BeanUtils.copyProperties(job, dto);
-        dto.setCompanyId(job.getCompany().getId());
-        dto.setCompanyName(job.getCompany().getName());
-        
-        // 设置分类信息
-        if (job.getCategory() != null) {
-            dto.setCategoryId(job.getCategory().getId());
-            dto.setCategoryName(job.getCategory().getName());
-        }
-        
-        // 确保tags字段被复制
-        if (job.getTags() != null) {
-            dto.setTags(job.getTags());
-        } else if (job.getCompany() != null && job.getCompany().getTags() != null) {
-            // 如果Job没有标签，尝试使用Company的标签
-            dto.setTags(job.getCompany().getTags());
-        }
-        
-        return dto;
+        return JobDTO.fromEntity(job);
     }
 
     /**
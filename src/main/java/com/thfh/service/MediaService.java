@@ -0,0 +1,182 @@
+package com.thfh.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 媒体文件服务
+ * 负责把上传目录中的文件解析为可下载的媒体资源，生成强ETag和缓存策略，并统计下载流量与缓存命中情况
+ */
+@Service
+public class MediaService {
+
+    // UUID或内容SHA-256命名的文件内容不会变化，可以被客户端长期缓存
+    private static final Pattern IMMUTABLE_FILENAME = Pattern.compile(
+            "^([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|[0-9a-f]{64})(\\.[A-Za-z0-9]+)?$");
+
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String DEFAULT_CACHE_CONTROL = "public, max-age=3600";
+
+    private final Path uploadRoot;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong notModifiedCount = new AtomicLong();
+    private final AtomicLong partialCount = new AtomicLong();
+    private final AtomicLong bytesServed = new AtomicLong();
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    public MediaService(@Value("${file.upload-dir}") String uploadDir) {
+        this.uploadRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    /**
+     * 媒体资源信息
+     */
+    public static class MediaFile {
+        private final Path path;
+        private final long length;
+        private final long lastModified;
+        private final String etag;
+        private final MediaType contentType;
+        private final String cacheControl;
+
+        MediaFile(Path path, long length, long lastModified, String etag, MediaType contentType, String cacheControl) {
+            this.path = path;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.etag = etag;
+            this.contentType = contentType;
+            this.cacheControl = cacheControl;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public MediaType getContentType() {
+            return contentType;
+        }
+
+        public String getCacheControl() {
+            return cacheControl;
+        }
+    }
+
+    /**
+     * 解析上传目录下的相对路径
+     * @param relativePath 相对于上传目录的路径
+     * @return 媒体资源信息，文件不存在或路径越界时返回null
+     * @throws IOException 读取文件属性失败时抛出
+     */
+    public MediaFile resolve(String relativePath) throws IOException {
+        if (relativePath == null || relativePath.isEmpty()) {
+            return null;
+        }
+        Path file = uploadRoot.resolve(relativePath).normalize();
+        // 防止通过 ../ 访问上传目录之外的文件，以及访问写入中的临时文件（如.staging目录）
+        if (!file.startsWith(uploadRoot) || !Files.isRegularFile(file)
+                || uploadRoot.relativize(file).getName(0).toString().startsWith(".")) {
+            return null;
+        }
+        return describe(file, cacheControlFor(file));
+    }
+
+    /**
+     * 解析图片的衍生图
+     * 衍生图尚未生成时提交生成任务并返回原图，此时使用短缓存，避免客户端长期缓存回退的原图
+     * @param relativePath 原图相对于上传目录的路径
+     * @param variant 衍生图规格
+     * @return 媒体资源信息，原图不存在时返回null
+     * @throws IOException 读取文件属性失败时抛出
+     */
+    public MediaFile resolveVariant(String relativePath, ImageVariantService.Variant variant) throws IOException {
+        MediaFile original = resolve(relativePath);
+        if (original == null || !imageVariantService.isImage(relativePath)) {
+            return original;
+        }
+        Path variantFile = imageVariantService.variantPath(relativePath, variant);
+        if (Files.isRegularFile(variantFile)) {
+            // 衍生图由原图决定，原图不可变时衍生图同样不可变
+            return describe(variantFile, original.getCacheControl());
+        }
+        imageVariantService.schedule(relativePath);
+        return describe(original.getPath(), DEFAULT_CACHE_CONTROL);
+    }
+
+    private MediaFile describe(Path file, String cacheControl) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        MediaType contentType = MediaTypeFactory.getMediaType(file.getFileName().toString()).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return new MediaFile(file, length, lastModified, etag, contentType, cacheControl);
+    }
+
+    private String cacheControlFor(Path file) {
+        return IMMUTABLE_FILENAME.matcher(file.getFileName().toString()).matches() ? IMMUTABLE_CACHE_CONTROL : DEFAULT_CACHE_CONTROL;
+    }
+
+    /**
+     * 记录一次完整或部分内容响应
+     * @param bytes 发送的字节数
+     * @param partial 是否为Range部分响应
+     */
+    public void recordServed(long bytes, boolean partial) {
+        requestCount.incrementAndGet();
+        bytesServed.addAndGet(bytes);
+        if (partial) {
+            partialCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 记录一次304缓存命中
+     */
+    public void recordNotModified() {
+        requestCount.incrementAndGet();
+        notModifiedCount.incrementAndGet();
+    }
+
+    /**
+     * 获取媒体下载统计
+     * @return 请求数、304命中数、Range请求数、发送字节数和缓存命中率
+     */
+    public Map<String, Object> getStats() {
+        long requests = requestCount.get();
+        long notModified = notModifiedCount.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("requestCount", requests);
+        stats.put("notModifiedCount", notModified);
+        stats.put("partialCount", partialCount.get());
+        stats.put("bytesServed", bytesServed.get());
+        stats.put("cacheHitRatio", requests == 0 ? 0.0 : (double) notModified / requests);
+        return stats;
+    }
+}
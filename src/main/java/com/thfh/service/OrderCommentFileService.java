@@ -1,21 +1,12 @@
 package com.thfh.service;
 
-import com.thfh.util.ServerUrlUtil;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
 
 import com.thfh.exception.BusinessException;
 import com.thfh.exception.ErrorCode;
@@ -27,8 +18,6 @@ import com.thfh.exception.ErrorCode;
 @Service
 public class OrderCommentFileService {
     
-    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
-    
     // 允许的图片类型
     private static final List<String> ALLOWED_IMAGE_TYPES = Arrays.asList(
             "image/jpeg", "image/png", "image/gif", "image/bmp", "image/webp"
@@ -39,13 +28,10 @@ public class OrderCommentFileService {
             "video/mp4", "video/quicktime", "video/x-msvideo", "video/x-matroska", "video/webm"
     );
     
-    @Value("${file.upload-dir}")
-    private String baseUploadDir;
-    
-    private final ServerUrlUtil serverUrlUtil;
+    private final FileStorageService fileStorageService;
     
-    public OrderCommentFileService(ServerUrlUtil serverUrlUtil) {
-        this.serverUrlUtil = serverUrlUtil;
+    public OrderCommentFileService(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
     }
     
     /**
@@ -63,7 +49,7 @@ public class OrderCommentFileService {
             throw new IOException("不支持的文件类型：" + mimeType);
         }
         
-        return uploadFile(file, "order/comment/images");
+        return uploadFile(file);
     }
     
     /**
@@ -81,44 +67,20 @@ public class OrderCommentFileService {
             throw new IOException("不支持的文件类型：" + mimeType);
         }
         
-        return uploadFile(file, "order/comment/videos");
+        return uploadFile(file);
     }
     
     /**
      * 上传文件
+     * 边复制边计算哈希并按内容去重，相同的评价图片/视频只保存一份
      * @param file 文件
-     * @param subDir 子目录
      * @return 文件URL
      */
-    private String uploadFile(MultipartFile file, String subDir) throws IOException {
-        // 获取当前日期，用于创建年月日目录结构
-        String datePath = LocalDateTime.now().format(DATE_FORMAT);
-        
-        // 构建文件目录路径
-        // 格式：baseUploadDir/order/comment/images|videos/YYYYMMDD/filename.ext
-        String relativePath = subDir + "/" + datePath;
-        String fullPath = baseUploadDir + File.separator + relativePath;
-        
-        // 创建目录
-        Path dirPath = Paths.get(fullPath);
-        if (!Files.exists(dirPath)) {
-            Files.createDirectories(dirPath);
-        }
-        
-        // 生成唯一文件名
-        String originalFilename = file.getOriginalFilename();
-        if (originalFilename == null) {
+    private String uploadFile(MultipartFile file) throws IOException {
+        if (file.getOriginalFilename() == null) {
             throw new IOException("文件名不能为空");
         }
-        String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        String newFilename = UUID.randomUUID().toString() + extension;
-        
-        // 保存文件
-        Path filePath = dirPath.resolve(newFilename);
-        Files.copy(file.getInputStream(), filePath);
-        
-        // 生成访问URL
-        return serverUrlUtil.getFileUrl(relativePath + "/" + newFilename);
+        return fileStorageService.store(file).getUrl();
     }
     
     /**
@@ -130,11 +92,8 @@ public class OrderCommentFileService {
             return;
         }
         try {
-            // 从URL中提取文件名
-            String fileName = fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
-            Path filePath = Paths.get(baseUploadDir, fileName);
-            // 删除文件
-            Files.deleteIfExists(filePath);
+            // 从URL中提取相对路径，释放文件引用
+            fileStorageService.release(fileStorageService.relativePathFromUrl(fileUrl));
         } catch (IOException e) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "删除文件失败: " + e.getMessage());
         }
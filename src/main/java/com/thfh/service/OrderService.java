@@ -18,10 +18,12 @@ import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 
 import com.thfh.dto.OrderDTO;
 import com.thfh.dto.ArtworkDTO;
@@ -40,6 +42,8 @@ public class OrderService {
     private final RestTemplate restTemplate;
     private final UserService userService;
     private final ArtworkService artworkService;
+    private final ImageVariantService imageVariantService;
+    private final UserCardCache userCardCache;
 
     @Value("${cainiao.api.url}")
     private String cainiaoApiUrl;
@@ -49,11 +53,14 @@ public class OrderService {
 
     private static final Random RANDOM = new Random();
 
-    public OrderService(OrderRepository orderRepository, RestTemplate restTemplate, UserService userService, ArtworkService artworkService) {
+    public OrderService(OrderRepository orderRepository, RestTemplate restTemplate, UserService userService, ArtworkService artworkService,
+                        ImageVariantService imageVariantService, UserCardCache userCardCache) {
         this.orderRepository = orderRepository;
         this.restTemplate = restTemplate;
         this.userService = userService;
         this.artworkService = artworkService;
+        this.imageVariantService = imageVariantService;
+        this.userCardCache = userCardCache;
     }
 
     /**
@@ -201,6 +208,10 @@ public class OrderService {
      */
     public OrderDTO toOrderDTO(Order order) {
         if (order == null) return null;
+        return toOrderDTO(order, userCardCache.getCards(referencedUserIds(List.of(order))));
+    }
+
+    private OrderDTO toOrderDTO(Order order, Map<Long, UserCardCache.Card> cards) {
         OrderDTO dto = new OrderDTO();
         dto.setId(order.getId());
         dto.setOrderNo(order.getOrderNo());
@@ -219,12 +230,16 @@ public class OrderService {
             artworkDTO.setId(order.getArtwork().getId());
             artworkDTO.setTitle(order.getArtwork().getTitle());
             artworkDTO.setCoverUrl(order.getArtwork().getCoverUrl());
+            artworkDTO.setCoverThumbnailUrl(imageVariantService.variantUrl(order.getArtwork().getCoverUrl(), ImageVariantService.Variant.THUMBNAIL));
             artworkDTO.setPrice(order.getArtwork().getPrice());
             // creator
             if (order.getArtwork().getCreator() != null) {
                 artworkDTO.setCreatorId(order.getArtwork().getCreator().getId());
-                artworkDTO.setCreatorName(order.getArtwork().getCreator().getUsername());
-                artworkDTO.setCreatorAvatar(order.getArtwork().getCreator().getAvatar());
+                UserCardCache.Card creator = cards.get(order.getArtwork().getCreator().getId());
+                if (creator != null) {
+                    artworkDTO.setCreatorName(creator.getUsername());
+                    artworkDTO.setCreatorAvatar(creator.getAvatar());
+                }
             }
             dto.setArtwork(artworkDTO);
         }
@@ -232,9 +247,12 @@ public class OrderService {
         if (order.getUser() != null) {
             UserDTO userDTO = new UserDTO();
             userDTO.setId(order.getUser().getId());
-            userDTO.setUsername(order.getUser().getUsername());
-            userDTO.setAvatar(order.getUser().getAvatar());
-            userDTO.setUserType(order.getUser().getUserType());
+            UserCardCache.Card buyer = cards.get(order.getUser().getId());
+            if (buyer != null) {
+                userDTO.setUsername(buyer.getUsername());
+                userDTO.setAvatar(buyer.getAvatar());
+                userDTO.setUserType(buyer.getUserType());
+            }
             dto.setUser(userDTO);
         }
         return dto;
@@ -244,7 +262,24 @@ public class OrderService {
      * 分页实体转DTO
      */
     public Page<OrderDTO> toOrderDTOPage(Page<Order> orderPage) {
-        return orderPage.map(this::toOrderDTO);
+        Map<Long, UserCardCache.Card> cards = userCardCache.getCards(referencedUserIds(orderPage.getContent()));
+        return orderPage.map(order -> toOrderDTO(order, cards));
+    }
+
+    /**
+     * 收集订单引用的买家和创作者ID
+     */
+    private static Set<Long> referencedUserIds(List<Order> orders) {
+        Set<Long> ids = new HashSet<>();
+        for (Order order : orders) {
+            if (order.getUser() != null) {
+                ids.add(order.getUser().getId());
+            }
+            if (order.getArtwork() != null && order.getArtwork().getCreator() != null) {
+                ids.add(order.getArtwork().getCreator().getId());
+            }
+        }
+        return ids;
     }
 
     /**
@@ -0,0 +1,289 @@
+package com.thfh.service;
+
+import com.thfh.dto.PointsGrantDTO;
+import com.thfh.dto.PointsGrantJobDTO;
+import com.thfh.exception.ResourceNotFoundException;
+import com.thfh.model.PointsType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 批量发放积分服务
+ * 管理员按用户列表或筛选条件向一批用户发放积分和经验值。任务在后台单线程中按用户ID分块执行，
+ * 每块一个事务：一条UPDATE同时更新积分、流水序号、经验值和等级，再按块批量插入积分记录，
+ * 10万用户约100个事务、300条语句。任务进度保存在内存中，可通过任务ID查询。
+ */
+@Slf4j
+@Service
+public class PointsGrantService {
+
+    // 每个事务处理的用户数
+    private static final int CHUNK_SIZE = 1000;
+
+    // 单次按列表发放的最大用户数
+    public static final int MAX_USER_IDS = 100_000;
+
+    // 保留的已结束任务数
+    private static final int MAX_FINISHED_JOBS = 100;
+
+    private static final String STATE_RUNNING = "RUNNING";
+    private static final String STATE_COMPLETED = "COMPLETED";
+    private static final String STATE_FAILED = "FAILED";
+
+    private static final String INSERT_RECORD_SQL = "INSERT INTO points_record " +
+            "(student_id, points, type, description, seq, balance_after, create_time) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PointsLedgerService pointsLedgerService;
+
+    @Autowired
+    private UserCardCache userCardCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "points-grant");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 发放任务，键为任务ID
+    private final Map<String, GrantJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 发放任务进度
+     */
+    private static class GrantJob {
+        private final String jobId = UUID.randomUUID().toString();
+        private final LocalDateTime startTime = LocalDateTime.now();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong granted = new AtomicLong();
+        private volatile long total;
+        private volatile String state = STATE_RUNNING;
+        private volatile String message;
+        private volatile LocalDateTime finishTime;
+
+        PointsGrantJobDTO toDTO() {
+            PointsGrantJobDTO dto = new PointsGrantJobDTO();
+            dto.setJobId(jobId);
+            dto.setState(state);
+            dto.setTotal(total);
+            dto.setProcessed(processed.get());
+            dto.setGranted(granted.get());
+            dto.setMessage(message);
+            dto.setStartTime(startTime);
+            dto.setFinishTime(finishTime);
+            return dto;
+        }
+    }
+
+    public PointsGrantService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交批量发放任务
+     * 任务按提交顺序逐个执行
+     * @param request 发放参数
+     * @return 任务状态
+     * @throws IllegalArgumentException 参数不合法时抛出
+     */
+    public PointsGrantJobDTO start(PointsGrantDTO request) {
+        int points = request.getPoints() == null ? 0 : request.getPoints();
+        int experience = request.getExperienceAmount() == null ? 0 : request.getExperienceAmount();
+        if (points < 0 || experience < 0) {
+            throw new IllegalArgumentException("批量发放的积分和经验值不能为负数");
+        }
+        if (points == 0 && experience == 0) {
+            throw new IllegalArgumentException("积分和经验值不能同时为0");
+        }
+        List<Long> userIds = null;
+        if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
+            userIds = request.getUserIds().stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted()
+                    .collect(Collectors.toList());
+            if (userIds.size() > MAX_USER_IDS) {
+                throw new IllegalArgumentException("单次最多向" + MAX_USER_IDS + "个用户发放");
+            }
+        } else if (request.getCourseId() == null && isBlank(request.getUserType()) && isBlank(request.getStatus())) {
+            // 避免漏填条件时向全部用户发放
+            throw new IllegalArgumentException("请指定用户列表或筛选条件");
+        }
+
+        GrantJob job = new GrantJob();
+        pruneFinishedJobs();
+        jobs.put(job.jobId, job);
+        List<Long> targets = userIds;
+        executor.execute(() -> run(job, request, targets, points, experience));
+        return job.toDTO();
+    }
+
+    /**
+     * 查询发放任务状态
+     * @param jobId 任务ID
+     * @return 任务状态
+     */
+    public PointsGrantJobDTO getJob(String jobId) {
+        GrantJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("发放任务不存在");
+        }
+        return job.toDTO();
+    }
+
+    private void run(GrantJob job, PointsGrantDTO request, List<Long> userIds, int points, int experience) {
+        try {
+            if (userIds != null) {
+                job.total = userIds.size();
+                for (int from = 0; from < userIds.size(); from += CHUNK_SIZE) {
+                    List<Long> chunk = userIds.subList(from, Math.min(from + CHUNK_SIZE, userIds.size()));
+                    grantChunk(job, chunk, points, experience, request.getDescription());
+                }
+            } else {
+                job.total = countFiltered(request);
+                // 按用户ID键集分页，每块只扫描本块的索引范围
+                long lastId = 0;
+                List<Long> chunk;
+                while (!(chunk = nextFilteredChunk(request, lastId)).isEmpty()) {
+                    grantChunk(job, chunk, points, experience, request.getDescription());
+                    lastId = chunk.get(chunk.size() - 1);
+                }
+            }
+            job.state = STATE_COMPLETED;
+        } catch (RuntimeException e) {
+            log.error("批量发放积分失败，任务ID: {}", job.jobId, e);
+            job.message = e.getMessage();
+            job.state = STATE_FAILED;
+        } finally {
+            job.finishTime = LocalDateTime.now();
+        }
+    }
+
+    private void grantChunk(GrantJob job, List<Long> userIds, int points, int experience, String description) {
+        Integer updated = transactionTemplate.execute(status -> {
+            String placeholders = String.join(",", Collections.nCopies(userIds.size(), "?"));
+            List<Object> args = new ArrayList<>();
+            StringBuilder sql = new StringBuilder("UPDATE `user` SET ");
+            if (points > 0) {
+                sql.append("points = COALESCE(points, 0) + ?, points_seq = COALESCE(points_seq, 0) + 1, ");
+                args.add(points);
+            }
+            // MySQL按从左到右的顺序执行赋值，等级按更新后的经验值计算
+            sql.append("experience = COALESCE(experience, 0) + ?, level = ").append(levelCase())
+                    .append(" WHERE id IN (").append(placeholders).append(")");
+            args.add(experience);
+            args.addAll(userIds);
+            int rows = jdbcTemplate.update(sql.toString(), args.toArray());
+
+            if (points > 0 && rows > 0) {
+                // 行锁由本事务持有，读到的余额和序号就是本次发放的结果
+                List<Object[]> balances = jdbcTemplate.query(
+                        "SELECT id, points, points_seq FROM `user` WHERE id IN (" + placeholders + ")",
+                        (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getInt(2), rs.getLong(3)},
+                        userIds.toArray());
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<Object[]> records = new ArrayList<>(balances.size());
+                for (Object[] balance : balances) {
+                    records.add(new Object[]{balance[0], points, PointsType.ADMIN_ADJUST.name(), description,
+                            balance[2], balance[1], now});
+                    pointsLedgerService.cacheAfterCommit((Long) balance[0], (Long) balance[2], (Integer) balance[1]);
+                }
+                jdbcTemplate.batchUpdate(INSERT_RECORD_SQL, records);
+            }
+            // 经验值变化可能改变等级
+            userIds.forEach(userCardCache::invalidate);
+            return rows;
+        });
+        job.processed.addAndGet(userIds.size());
+        job.granted.addAndGet(updated == null ? 0 : updated);
+    }
+
+    /**
+     * 按UserService中的等级经验阈值生成等级计算表达式
+     */
+    private static String levelCase() {
+        int level2 = UserService.LEVEL_1_TO_2_EXP;
+        int level3 = level2 + UserService.LEVEL_2_TO_3_EXP;
+        int level4 = level3 + UserService.LEVEL_3_TO_4_EXP;
+        int level5 = level4 + UserService.LEVEL_4_TO_5_EXP;
+        return "CASE WHEN experience < " + level2 + " THEN 1"
+                + " WHEN experience < " + level3 + " THEN 2"
+                + " WHEN experience < " + level4 + " THEN 3"
+                + " WHEN experience < " + level5 + " THEN 4 ELSE 5 END";
+    }
+
+    private long countFiltered(PointsGrantDTO request) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT COUNT(*) " + filterClause(request, args);
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, args.toArray());
+        return count == null ? 0 : count;
+    }
+
+    private List<Long> nextFilteredChunk(PointsGrantDTO request, long lastId) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT u.id " + filterClause(request, args) + " AND u.id > ? ORDER BY u.id LIMIT " + CHUNK_SIZE;
+        args.add(lastId);
+        return jdbcTemplate.queryForList(sql, Long.class, args.toArray());
+    }
+
+    private String filterClause(PointsGrantDTO request, List<Object> args) {
+        StringBuilder sql = new StringBuilder("FROM `user` u");
+        if (request.getCourseId() != null) {
+            sql.append(" JOIN user_course uc ON uc.user_id = u.id AND uc.course_id = ?");
+            args.add(request.getCourseId());
+        }
+        sql.append(" WHERE 1 = 1");
+        if (!isBlank(request.getUserType())) {
+            sql.append(" AND u.user_type = ?");
+            args.add(request.getUserType());
+        }
+        if (!isBlank(request.getStatus())) {
+            sql.append(" AND u.status = ?");
+            args.add(request.getStatus());
+        }
+        return sql.toString();
+    }
+
+    private void pruneFinishedJobs() {
+        List<GrantJob> finished = jobs.values().stream()
+                .filter(job -> !STATE_RUNNING.equals(job.state))
+                .sorted((a, b) -> a.startTime.compareTo(b.startTime))
+                .collect(Collectors.toList());
+        for (int i = 0; i <= finished.size() - MAX_FINISHED_JOBS; i++) {
+            jobs.remove(finished.get(i).jobId);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,169 @@
+package com.thfh.service;
+
+import com.thfh.exception.BadRequestException;
+import com.thfh.exception.ResourceNotFoundException;
+import com.thfh.model.PointsRecord;
+import com.thfh.model.PointsType;
+import com.thfh.repository.PointsRecordRepository;
+import com.thfh.repository.UserRepository;
+import com.thfh.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 积分账本服务
+ * 所有积分变动都经过这里：用户积分通过一条带余额条件的UPDATE原子变动并递增流水序号，
+ * 随后追加一条带序号和变动后余额的积分记录，积分记录只插入不修改。
+ * 余额按用户缓存，事务提交后按流水序号更新，序号较旧的值不会覆盖较新的值。
+ * 更新后的余额和序号经CacheInvalidationBus通知其他进程，其他进程同样按序号合并；
+ * 缓存的余额另有过期时间，消息丢失时最迟在过期后从数据库重新读取。
+ */
+@Service
+public class PointsLedgerService {
+
+    // 单页流水的最大条数
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // 余额缓存的最大用户数，超过后整体清空
+    private static final int MAX_CACHED_BALANCES = 100_000;
+
+    // 失效消息中的缓存名称
+    private static final String CACHE_NAME = "points-balance";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PointsRecordRepository pointsRecordRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    // 余额缓存的过期时间
+    @Value("${cache.local.ttl:300000}")
+    private long ttlMillis;
+
+    // 用户积分余额缓存，键为用户ID
+    private final Map<Long, CachedBalance> balances = new ConcurrentHashMap<>();
+
+    /**
+     * 缓存的余额及其对应的流水序号
+     */
+    private static final class CachedBalance {
+        private final long seq;
+        private final int balance;
+        private final long cachedAt;
+
+        CachedBalance(long seq, int balance, long cachedAt) {
+            this.seq = seq;
+            this.balance = balance;
+            this.cachedAt = cachedAt;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        // 消息格式为 用户ID:流水序号:余额
+        cacheInvalidationBus.register(CACHE_NAME, key -> {
+            String[] parts = key.split(":");
+            cache(Long.valueOf(parts[0]), Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+        });
+    }
+
+    /**
+     * 记录一次积分变动
+     * 需要在事务中调用，变动和积分记录随调用方事务一起提交或回滚
+     * @param userId 用户ID
+     * @param delta 积分变动数量，正数为增加，负数为扣减
+     * @param type 积分变动类型
+     * @param description 变动说明
+     * @return 积分记录
+     * @throws ResourceNotFoundException 用户不存在时抛出
+     * @throws BadRequestException 扣减后余额为负时抛出
+     */
+    @Transactional
+    public PointsRecord record(Long userId, int delta, PointsType type, String description) {
+        if (userRepository.applyPointsDelta(userId, delta) == 0) {
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("用户不存在");
+            }
+            throw new BadRequestException("积分不足");
+        }
+        // 积分行已被当前事务锁定，读到的余额和序号就是本次变动的结果
+        UserRepository.PointsBalance balance = userRepository.findPointsBalance(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("用户不存在"));
+
+        PointsRecord record = new PointsRecord();
+        record.setStudent(userRepository.getReferenceById(userId));
+        record.setPoints(delta);
+        record.setType(type);
+        record.setDescription(description);
+        record.setSeq(balance.getSeq());
+        record.setBalanceAfter(balance.getBalance());
+        record = pointsRecordRepository.save(record);
+
+        cacheAfterCommit(userId, balance.getSeq(), balance.getBalance());
+        return record;
+    }
+
+    /**
+     * 获取用户积分余额，优先读取缓存
+     * @param userId 用户ID
+     * @return 积分余额
+     * @throws ResourceNotFoundException 用户不存在时抛出
+     */
+    public int getBalance(Long userId) {
+        CachedBalance cached = balances.get(userId);
+        if (cached != null && System.currentTimeMillis() - cached.cachedAt < ttlMillis) {
+            return cached.balance;
+        }
+        UserRepository.PointsBalance balance = userRepository.findPointsBalance(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("用户不存在"));
+        cache(userId, balance.getSeq(), balance.getBalance());
+        return balance.getBalance();
+    }
+
+    /**
+     * 按ID倒序分页查询用户积分流水（键集分页）
+     * @param userId 用户ID
+     * @param cursor 上一页最后一条记录的ID，为空时查询第一页
+     * @param size 每页条数
+     * @return 积分流水列表
+     */
+    public List<PointsRecord> getLedger(Long userId, Long cursor, int size) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        if (cursor == null) {
+            return pointsRecordRepository.findByStudentIdOrderByIdDesc(userId, page);
+        }
+        return pointsRecordRepository.findByStudentIdAndIdLessThanOrderByIdDesc(userId, cursor, page);
+    }
+
+    /**
+     * 事务提交后更新余额缓存并通知其他进程，不在事务中时立即执行
+     * @param userId 用户ID
+     * @param seq 余额对应的流水序号
+     * @param balance 积分余额
+     */
+    void cacheAfterCommit(Long userId, long seq, int balance) {
+        AfterCommit.run(() -> {
+            cache(userId, seq, balance);
+            cacheInvalidationBus.publish(CACHE_NAME, userId + ":" + seq + ":" + balance);
+        });
+    }
+
+    private void cache(Long userId, long seq, int balance) {
+        if (balances.size() >= MAX_CACHED_BALANCES) {
+            balances.clear();
+        }
+        balances.merge(userId, new CachedBalance(seq, balance, System.currentTimeMillis()),
+                (current, updated) -> updated.seq >= current.seq ? updated : current);
+    }
+}
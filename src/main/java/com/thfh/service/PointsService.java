@@ -8,7 +8,6 @@ import com.thfh.model.PointsType;
 import com.thfh.model.User;
 import com.thfh.repository.PointsRecordRepository;
 import com.thfh.repository.UserRepository;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -32,6 +31,12 @@ public class PointsService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserCardCache userCardCache;
+
+    @Autowired
+    private PointsLedgerService pointsLedgerService;
+
     public Page<PointsRecordDTO> getPointsRecords(PointsQueryDTO queryDTO) {
         Specification<PointsRecord> spec = (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
@@ -46,7 +51,8 @@ public class PointsService {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "createTime");
+        // ID与创建顺序一致，按主键排序可以利用索引
+        Sort sort = Sort.by(Sort.Direction.DESC, "id");
         Page<PointsRecord> recordPage = pointsRecordRepository.findAll(spec, 
             PageRequest.of(queryDTO.getPageNum() - 1, queryDTO.getPageSize(), sort));
         
@@ -55,48 +61,58 @@ public class PointsService {
 
     @Transactional
     public PointsRecordDTO adjustPoints(PointsAdjustDTO adjustDTO) {
-        User student = userRepository.findById(adjustDTO.getStudentId())
-                .orElseThrow(() -> new RuntimeException("学员不存在"));
-
-        // 创建积分记录
-        PointsRecord record = new PointsRecord();
-        record.setStudent(student);
-        record.setPoints(adjustDTO.getPoints());
-        record.setType(PointsType.ADMIN_ADJUST);
-        record.setDescription(adjustDTO.getDescription());
-        record = pointsRecordRepository.save(record);
-
-        // 更新学员积分，如果当前积分为null则初始化为0
-        Integer currentPoints = student.getPoints();
-        if (currentPoints == null) {
-            currentPoints = 0;
+        if (adjustDTO.getPoints() == null) {
+            throw new IllegalArgumentException("积分调整数量不能为空");
         }
-        student.setPoints(currentPoints + adjustDTO.getPoints());
-        
-        // 如果需要同时调整经验值
+        PointsRecord record = pointsLedgerService.record(adjustDTO.getStudentId(), adjustDTO.getPoints(),
+                PointsType.ADMIN_ADJUST, adjustDTO.getDescription());
+
+        // 如果需要同时调整经验值，与批量发放一样用原子UPDATE变动后读回，不覆盖并发的发放
         if (Boolean.TRUE.equals(adjustDTO.getIncludeExperience()) && adjustDTO.getExperienceAmount() != null) {
-            Integer currentExperience = student.getExperience();
-            if (currentExperience == null) {
-                currentExperience = 0;
+            Long studentId = adjustDTO.getStudentId();
+            if (userRepository.applyExperienceDelta(studentId, adjustDTO.getExperienceAmount()) == 0) {
+                throw new RuntimeException("学员不存在");
             }
-            student.setExperience(currentExperience + adjustDTO.getExperienceAmount());
-            
+            int newExperience = userRepository.findExperienceById(studentId)
+                    .orElseThrow(() -> new RuntimeException("学员不存在"));
+
             // 使用UserService中的方法计算新等级
-            int newExperience = student.getExperience();
-            int newLevel = userService.calculateUserLevel(newExperience);
-            student.setLevel(newLevel);
+            userRepository.updateLevel(studentId, userService.calculateUserLevel(newExperience));
+            userCardCache.invalidate(studentId);
         }
-        
-        userRepository.save(student);
 
         return convertToDTO(record);
     }
 
+    /**
+     * 按ID倒序查询当前用户的积分流水（键集分页）
+     * @param cursor 上一页最后一条记录的ID，为空时查询第一页
+     * @param size 每页条数
+     * @return 积分流水列表
+     */
+    public List<PointsRecordDTO> getCurrentUserLedger(Long cursor, int size) {
+        User currentUser = userService.getCurrentUser();
+        List<PointsRecordDTO> result = new ArrayList<>();
+        for (PointsRecord record : pointsLedgerService.getLedger(currentUser.getId(), cursor, size)) {
+            result.add(toDTO(record, currentUser));
+        }
+        return result;
+    }
+
     private PointsRecordDTO convertToDTO(PointsRecord record) {
+        return toDTO(record, record.getStudent());
+    }
+
+    private static PointsRecordDTO toDTO(PointsRecord record, User student) {
         PointsRecordDTO dto = new PointsRecordDTO();
-        BeanUtils.copyProperties(record, dto);
-        dto.setStudentId(record.getStudent().getId());
-        dto.setStudentName(record.getStudent().getRealName());
+        dto.setId(record.getId());
+        dto.setPoints(record.getPoints());
+        dto.setType(record.getType());
+        dto.setDescription(record.getDescription());
+        dto.setSeq(record.getSeq());
+        dto.setBalanceAfter(record.getBalanceAfter());
+        dto.setStudentId(student.getId());
+        dto.setStudentName(student.getRealName());
         return dto;
     }
 
@@ -105,6 +121,6 @@ public class PointsService {
         if (currentUser == null) {
             throw new RuntimeException("用户未登录");
         }
-        return currentUser.getPoints();
+        return pointsLedgerService.getBalance(currentUser.getId());
     }
 }
\ No newline at end of file
@@ -10,14 +10,18 @@ import com.thfh.repository.PostBrowseHistoryRepository;
 import com.thfh.repository.PostRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -93,11 +97,11 @@ public class PostBrowseHistoryService {
                 currentUser.getId(), pageable);
         
         // 转换为动态DTO列表
-        return historyPage.map(history -> {
-            Post post = postRepository.findById(history.getPostId())
-                    .orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, POST_NOT_FOUND));
-            return postService.toPostDTO(post);
-        });
+        List<Long> postIds = historyPage.getContent().stream()
+                .map(PostBrowseHistory::getPostId)
+                .collect(Collectors.toList());
+        List<PostDTO> dtoList = postService.toPostDTOs(loadPosts(postIds));
+        return new PageImpl<>(dtoList, pageable, historyPage.getTotalElements());
     }
 
     /**
@@ -116,11 +120,11 @@ public class PostBrowseHistoryService {
                 userId, pageable);
         
         // 转换为动态DTO列表
-        return historyPage.map(history -> {
-            Post post = postRepository.findById(history.getPostId())
-                    .orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, POST_NOT_FOUND));
-            return postService.toPostDTO(post);
-        });
+        List<Long> postIds = historyPage.getContent().stream()
+                .map(PostBrowseHistory::getPostId)
+                .collect(Collectors.toList());
+        List<PostDTO> dtoList = postService.toPostDTOs(loadPosts(postIds));
+        return new PageImpl<>(dtoList, pageable, historyPage.getTotalElements());
     }
 
     /**
@@ -137,13 +141,27 @@ public class PostBrowseHistoryService {
                 currentUser.getId(), PageRequest.of(0, limit));
         
         // 获取对应的动态，并转换为DTO
-        return postIds.stream()
-                .map(postId -> {
-                    Post post = postRepository.findById(postId)
-                            .orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND, POST_NOT_FOUND));
-                    return postService.toPostDTO(post);
-                })
-                .collect(Collectors.toList());
+        return postService.toPostDTOs(loadPosts(postIds));
+    }
+
+    /**
+     * 按ID顺序批量加载动态
+     *
+     * @param postIds 动态ID列表
+     * @return 动态列表，顺序与ID列表一致
+     */
+    private List<Post> loadPosts(List<Long> postIds) {
+        Map<Long, Post> postMap = postRepository.findAllById(postIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        List<Post> posts = new ArrayList<>(postIds.size());
+        for (Long postId : postIds) {
+            Post post = postMap.get(postId);
+            if (post == null) {
+                throw new BusinessException(ErrorCode.NOT_FOUND, POST_NOT_FOUND);
+            }
+            posts.add(post);
+        }
+        return posts;
     }
 
     /**
@@ -0,0 +1,197 @@
+package com.thfh.service;
+
+import com.thfh.repository.PostBrowseHistoryRepository;
+import com.thfh.repository.PostCommentLikeRepository;
+import com.thfh.repository.PostCommentRepository;
+import com.thfh.repository.PostLikeRepository;
+import com.thfh.repository.PostRepository;
+import com.thfh.repository.PostShareRepository;
+import com.thfh.repository.PostTagRepository;
+import com.thfh.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 动态删除服务
+ * 删除动态时不再逐条加载评论、逐条删除评论点赞，而是按评论层级从深到浅执行批量删除语句，
+ * 先删子评论再删父评论，避免违反parent_id外键；层级为空的历史评论先清空parent_id，最后单独删除。
+ * 开启异步清理时（默认），删除请求只把动态标记为DELETED，实体查询随即不再返回该动态；
+ * 评论、点赞等关联数据在事务提交后由后台线程分批删除，每批一个短事务，热门动态不会长时间占用事务。
+ * 定时任务会重新提交因重启等原因未清理完的动态。
+ */
+@Slf4j
+@Service
+public class PostPurgeService {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostCommentRepository postCommentRepository;
+
+    @Autowired
+    private PostCommentLikeRepository postCommentLikeRepository;
+
+    @Autowired
+    private PostLikeRepository postLikeRepository;
+
+    @Autowired
+    private PostShareRepository postShareRepository;
+
+    @Autowired
+    private PostBrowseHistoryRepository postBrowseHistoryRepository;
+
+    @Autowired
+    private PostTagRepository postTagRepository;
+
+    // 是否先标记删除再异步清理，关闭时在删除请求的事务内同步清理
+    @Value("${post.purge.async:true}")
+    private boolean async;
+
+    // 异步清理时每批删除的评论数
+    @Value("${post.purge.chunk-size:500}")
+    private int chunkSize;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "post-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 已提交清理、尚未完成的动态ID
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    public PostPurgeService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 删除动态及其评论、评论点赞、点赞、分享、浏览记录和标签关联
+     * 需在调用方的事务中执行，调用前应已完成权限校验
+     * @param postId 动态ID
+     */
+    public void delete(Long postId) {
+        if (!async) {
+            purgeNow(postId);
+            return;
+        }
+        postRepository.markDeleted(postId);
+        AfterCommit.run(() -> submit(postId));
+    }
+
+    /**
+     * 定时提交未清理完的已删除动态
+     */
+    @Scheduled(fixedDelayString = "${post.purge.sweep-interval:300000}")
+    public void sweep() {
+        if (!async) {
+            return;
+        }
+        for (Long postId : postRepository.findDeletedIds(100)) {
+            submit(postId);
+        }
+    }
+
+    private void submit(Long postId) {
+        if (queued.add(postId)) {
+            executor.execute(() -> {
+                try {
+                    purgeInChunks(postId);
+                } catch (Exception e) {
+                    log.error("清理已删除动态 {} 失败，等待下次定时清理", postId, e);
+                } finally {
+                    queued.remove(postId);
+                }
+            });
+        }
+    }
+
+    /**
+     * 在当前事务中按层级批量删除全部关联数据和动态本身
+     */
+    private void purgeNow(Long postId) {
+        // 层级为空的评论不会被MAX(level)取到，先清空其parent_id，避免删除父评论时违反外键，最后统一删除
+        postCommentRepository.clearParentIdByPostIdAndLevelIsNull(postId);
+        Integer level = postCommentRepository.findMaxLevelByPostId(postId);
+        while (level != null) {
+            postCommentLikeRepository.deleteByPostIdAndLevel(postId, level);
+            postCommentRepository.deleteByPostIdAndLevel(postId, level);
+            level = postCommentRepository.findMaxLevelByPostId(postId);
+        }
+        postCommentLikeRepository.deleteByPostIdAndLevelIsNull(postId);
+        postCommentRepository.deleteByPostIdAndLevelIsNull(postId);
+        deletePostRows(postId);
+    }
+
+    /**
+     * 每批一个事务，从最深层级开始分批删除评论及其点赞，最后删除动态本身
+     */
+    private void purgeInChunks(Long postId) {
+        long deleted = 0;
+        // 层级为空的评论不会被MAX(level)取到，先清空其parent_id，避免删除父评论时违反外键，最后分批删除
+        transactionTemplate.executeWithoutResult(status ->
+                postCommentRepository.clearParentIdByPostIdAndLevelIsNull(postId));
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                Integer level = postCommentRepository.findMaxLevelByPostId(postId);
+                if (level == null) {
+                    return 0;
+                }
+                List<Long> ids = postCommentRepository.findIdsByPostIdAndLevel(postId, level, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                postCommentLikeRepository.deleteByCommentIdIn(ids);
+                return postCommentRepository.deleteByIdIn(ids);
+            });
+            if (count == null || count == 0) {
+                break;
+            }
+            deleted += count;
+        }
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<Long> ids = postCommentRepository.findIdsByPostIdAndLevelIsNull(postId, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                postCommentLikeRepository.deleteByCommentIdIn(ids);
+                return postCommentRepository.deleteByIdIn(ids);
+            });
+            if (count == null || count == 0) {
+                break;
+            }
+            deleted += count;
+        }
+        transactionTemplate.executeWithoutResult(status -> deletePostRows(postId));
+        log.info("已清理动态 {}，删除评论 {} 条", postId, deleted);
+    }
+
+    private void deletePostRows(Long postId) {
+        postLikeRepository.deleteByPostId(postId);
+        postShareRepository.deleteByPostId(postId);
+        postBrowseHistoryRepository.deleteByPostId(postId);
+        postTagRepository.deleteRelationsByPostId(postId);
+        postRepository.purgeById(postId);
+    }
+}
@@ -82,7 +82,7 @@ public class PostRecommendationService {
             }
             
             // 转换为DTO
-            return postPage.map(postService::toPostDTO);
+            return postService.toPostDTOPage(postPage);
         } catch (Exception e) {
             log.error("获取推荐动态发生错误", e);
             // 发生错误时返回最新动态作为兜底推荐
@@ -414,7 +414,7 @@ public class PostRecommendationService {
                             org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC, CREATE_TIME)));
             
             // 转换为DTO
-            return postPage.map(postService::toPostDTO);
+            return postService.toPostDTOPage(postPage);
         } catch (Exception e) {
             log.error("获取兜底推荐也失败", e);
             return Page.empty(pageable);
@@ -1,18 +1,20 @@
 package com.thfh.service;
 
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
 import lombok.extern.slf4j.Slf4j;
 import java.util.ArrayList;
 import java.util.Optional;
 import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Arrays;
 
 import com.thfh.model.*;
 import com.thfh.repository.*;
-import com.thfh.dto.FollowDTO;
 import com.thfh.dto.PostCommentDTO;
 import com.thfh.dto.PostDTO;
 import com.thfh.repository.PostCommentLikeRepository;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -55,10 +57,10 @@ public class PostService {
     private PostShareRepository postShareRepository;
 
     @Autowired
-    private FollowService followService;
+    private PostPurgeService postPurgeService;
 
     @Autowired
-    private AdminRepository adminRepository;
+    private FollowService followService;
 
     @Autowired
     private PostTagRepository postTagRepository;
@@ -72,6 +74,21 @@ public class PostService {
     @Autowired
     private PostTagService postTagService;
 
+    @Autowired
+    private ViewerStateService viewerStateService;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private BlacklistService blacklistService;
+
+    @Autowired
+    private UserCardCache userCardCache;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     /**
      * 验证排序字段是否有效，如果无效则回退到默认排序字段"createTime"
      * @param sortBy 排序字段
@@ -145,7 +162,7 @@ public class PostService {
         String username = authentication.getName();
 
         // 验证当前用户是否为管理员
-        adminRepository.findByUsername(username)
+        referenceDataCache.findAdmin(username)
                 .orElseThrow(() -> new IllegalStateException("非管理员账号，无权操作"));
 
         // 验证目标用户是否存在
@@ -264,6 +281,7 @@ public class PostService {
         postLike.setUserId(currentUser.getId());
         postLike.setPostId(postId);
         postLikeRepository.save(postLike);
+        viewerStateService.recordInteraction(currentUser.getId(), ViewerStateService.Interaction.POST_LIKE, postId);
 
         postRepository.updateLikeCount(postId, 1);
     }
@@ -292,7 +310,10 @@ public class PostService {
     public PostComment commentPost(Long postId, String content, Long parentId) {
         User currentUser = userService.getCurrentUser();
         // 确认动态存在
-        getPost(postId);
+        Post post = getPost(postId);
+        if (blacklistService.isBlocked(currentUser.getId(), post.getUser().getId())) {
+            throw new BusinessException(ErrorCode.FORBIDDEN, "你与动态作者存在拉黑关系，无法评论");
+        }
 
         PostComment comment = new PostComment();
         comment.setPostId(postId);
@@ -308,6 +329,9 @@ public class PostService {
             if (!parentComment.getPostId().equals(postId)) {
                 throw new BusinessException(ErrorCode.PARAMETER_ERROR, "父评论不属于该动态");
             }
+            if (blacklistService.isBlocked(currentUser.getId(), parentComment.getUserId())) {
+                throw new BusinessException(ErrorCode.FORBIDDEN, "你与该评论作者存在拉黑关系，无法回复");
+            }
 
             comment.setParentId(parentId);
             comment.setLevel(parentComment.getLevel() + 1);
@@ -328,13 +352,25 @@ public class PostService {
             Page<PostComment> rootComments = postCommentRepository
                     .findByPostIdAndParentIdIsNullOrderByCreateTimeDesc(postId, pageable);
 
+            // 一次查询取回动态的全部回复，在内存中按父评论分组，再一次性取回本页评论树中所有评论者的名片
+            Map<Long, List<PostComment>> childrenByParent = new HashMap<>();
+            if (!rootComments.isEmpty()) {
+                for (PostComment reply : postCommentRepository.findByPostIdAndParentIdIsNotNullOrderByCreateTimeAsc(postId)) {
+                    childrenByParent.computeIfAbsent(reply.getParentId(), key -> new ArrayList<>()).add(reply);
+                }
+            }
+            Set<Long> userIds = new HashSet<>();
+            for (PostComment comment : rootComments.getContent()) {
+                userIds.add(comment.getUserId());
+                collectChildUserIds(comment.getId(), childrenByParent, userIds);
+            }
+            Map<Long, UserCardCache.Card> cards = userCardCache.getCards(userIds);
+
             // 转换为DTO对象
             List<PostCommentDTO> dtoList = new ArrayList<>();
             for (PostComment comment : rootComments.getContent()) {
-                PostCommentDTO dto = convertToCommentDTO(comment);
-
-                // 递归获取子评论
-                dto.setChildren(getChildComments(comment.getId()));
+                PostCommentDTO dto = convertToCommentDTO(comment, cards);
+                dto.setChildren(buildChildComments(comment.getId(), childrenByParent, cards));
                 dtoList.add(dto);
             }
 
@@ -348,21 +384,33 @@ public class PostService {
     }
 
     /**
-     * 递归获取子评论
+     * 递归收集子评论的评论者ID
      * @param parentId 父评论ID
+     * @param childrenByParent 父评论ID到子评论列表的映射
+     * @param userIds 评论者ID集合
+     */
+    private void collectChildUserIds(Long parentId, Map<Long, List<PostComment>> childrenByParent, Set<Long> userIds) {
+        for (PostComment child : childrenByParent.getOrDefault(parentId, List.of())) {
+            userIds.add(child.getUserId());
+            collectChildUserIds(child.getId(), childrenByParent, userIds);
+        }
+    }
+
+    /**
+     * 递归组装子评论DTO
+     * @param parentId 父评论ID
+     * @param childrenByParent 父评论ID到子评论列表的映射
+     * @param cards 评论者名片
      * @return 子评论列表
      */
-    private List<PostCommentDTO> getChildComments(Long parentId) {
-        List<PostComment> children = postCommentRepository.findByParentIdOrderByCreateTimeAsc(parentId);
+    private List<PostCommentDTO> buildChildComments(Long parentId, Map<Long, List<PostComment>> childrenByParent,
+                                                    Map<Long, UserCardCache.Card> cards) {
         List<PostCommentDTO> childDtos = new ArrayList<>();
-
-        for (PostComment child : children) {
-            PostCommentDTO childDto = convertToCommentDTO(child);
-            // 递归获取子评论
-            childDto.setChildren(getChildComments(child.getId()));
+        for (PostComment child : childrenByParent.getOrDefault(parentId, List.of())) {
+            PostCommentDTO childDto = convertToCommentDTO(child, cards);
+            childDto.setChildren(buildChildComments(child.getId(), childrenByParent, cards));
             childDtos.add(childDto);
         }
-
         return childDtos;
     }
 
@@ -373,10 +421,14 @@ public class PostService {
         try {
             Page<PostComment> comments = postCommentRepository.findByPostIdOrderByLevelAscCreateTimeDesc(postId, pageable);
 
-            // 转换为DTO对象
+            // 转换为DTO对象，评论者名片一次取回
+            Set<Long> userIds = comments.getContent().stream()
+                    .map(PostComment::getUserId)
+                    .collect(Collectors.toSet());
+            Map<Long, UserCardCache.Card> cards = userCardCache.getCards(userIds);
             List<PostCommentDTO> dtoList = new ArrayList<>();
             for (PostComment comment : comments.getContent()) {
-                dtoList.add(convertToCommentDTO(comment));
+                dtoList.add(convertToCommentDTO(comment, cards));
             }
 
             return new PageImpl<>(dtoList, pageable, comments.getTotalElements());
@@ -421,24 +473,8 @@ public class PostService {
             throw new IllegalStateException("您没有权限删除该动态");
         }
 
-        // 删除动态前先清除所有关联数据
-        // 1. 删除所有评论点赞记录
-        List<PostComment> comments = postCommentRepository.findByPostIdOrderByLevelAscCreateTimeDesc(postId, Pageable.unpaged()).getContent();
-        for (PostComment comment : comments) {
-            postCommentLikeRepository.deleteByCommentId(comment.getId());
-        }
-        
-        // 2. 删除所有评论
-        postCommentRepository.deleteAll(comments);
-        
-        // 3. 删除所有点赞记录
-        postLikeRepository.deleteByPostId(postId);
-        
-        // 4. 删除所有分享记录
-        postShareRepository.deleteByPostId(postId);
-        
-        // 5. 最后删除动态本身
-        postRepository.deleteById(postId);
+        // 评论、点赞等关联数据由PostPurgeService批量清理
+        postPurgeService.delete(postId);
         
         log.info("用户 {} 删除了动态 {}", currentUser.getUsername(), postId);
     }
@@ -509,7 +545,8 @@ public class PostService {
      * 检查用户是否已点赞动态
      */
     public boolean isLiked(Long postId, Long userId) {
-        return postLikeRepository.existsByUserIdAndPostId(userId, postId);
+        return viewerStateService.mightHaveInteraction(userId, ViewerStateService.Interaction.POST_LIKE, postId)
+                && postLikeRepository.existsByUserIdAndPostId(userId, postId);
     }
 
     /**
@@ -523,12 +560,55 @@ public class PostService {
     }
 
     private PostDTO convertToDTO(Post post) {
+        return convertToDTO(post, userCardCache.getCards(authorIds(List.of(post))));
+    }
+
+    /**
+     * 批量转换动态，作者信息从名片缓存一次取回
+     */
+    private List<PostDTO> convertToDTOs(List<Post> posts) {
+        Map<Long, UserCardCache.Card> cards = userCardCache.getCards(authorIds(posts));
+        return posts.stream().map(post -> convertToDTO(post, cards)).collect(Collectors.toList());
+    }
+
+    private Page<PostDTO> convertToDTOPage(Page<Post> posts) {
+        Map<Long, UserCardCache.Card> cards = userCardCache.getCards(authorIds(posts.getContent()));
+        return posts.map(post -> convertToDTO(post, cards));
+    }
+
+    /**
+     * 收集动态作者ID，读取代理对象的ID不会触发懒加载
+     */
+    private static Set<Long> authorIds(List<Post> posts) {
+        Set<Long> ids = new HashSet<>();
+        for (Post post : posts) {
+            if (post.getUser() != null) {
+                ids.add(post.getUser().getId());
+            }
+        }
+        return ids;
+    }
+
+    private PostDTO convertToDTO(Post post, Map<Long, UserCardCache.Card> cards) {
         PostDTO dto = new PostDTO();
-        BeanUtils.copyProperties(post, dto);
+        dto.setId(post.getId());
+        dto.setTitle(post.getTitle());
+        dto.setContent(post.getContent());
+        dto.setLikeCount(post.getLikeCount());
+        dto.setCommentCount(post.getCommentCount());
+        dto.setCreateTime(post.getCreateTime());
+        dto.setUpdateTime(post.getUpdateTime());
+        List<String> imageUrls = parseImageUrls(post.getImageUrls());
+        dto.setImageUrls(imageUrls);
+        dto.setThumbnailUrls(imageVariantService.variantUrls(imageUrls, ImageVariantService.Variant.THUMBNAIL));
         if (post.getUser() != null) {
-            dto.setUserName(post.getUser().getUsername());
-            dto.setUserRealName(post.getUser().getRealName());
-            dto.setUserAvatar(post.getUser().getAvatar());
+            dto.setUserId(post.getUser().getId());
+            UserCardCache.Card author = cards.get(post.getUser().getId());
+            if (author != null) {
+                dto.setUserName(author.getUsername());
+                dto.setUserRealName(author.getRealName());
+                dto.setUserAvatar(author.getAvatar());
+            }
         }
         
         // 复制标签信息
@@ -537,10 +617,36 @@ public class PostService {
         return dto;
     }
 
+    /**
+     * 解析动态中以JSON数组（兼容逗号分隔）保存的图片URL
+     */
+    private List<String> parseImageUrls(String imageUrls) {
+        if (imageUrls == null || imageUrls.isBlank()) {
+            return new ArrayList<>();
+        }
+        String value = imageUrls.trim();
+        if (value.startsWith("[")) {
+            try {
+                return JSON.parseArray(value, String.class);
+            } catch (JSONException e) {
+                log.warn("动态图片URL格式错误: {}", value);
+                return new ArrayList<>();
+            }
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .collect(Collectors.toList());
+    }
+
     /**
      * 将PostComment实体转换为PostCommentDTO
      */
     private PostCommentDTO convertToCommentDTO(PostComment comment) {
+        return convertToCommentDTO(comment, userCardCache.getCards(List.of(comment.getUserId())));
+    }
+
+    private PostCommentDTO convertToCommentDTO(PostComment comment, Map<Long, UserCardCache.Card> cards) {
         PostCommentDTO dto = new PostCommentDTO();
         dto.setId(comment.getId());
         dto.setContent(comment.getContent());
@@ -553,10 +659,11 @@ public class PostService {
         dto.setUpdateTime(comment.getUpdateTime());
 
         // 设置用户信息
-        if (comment.getUser() != null) {
-            dto.setUserName(comment.getUser().getUsername());
-            dto.setUserRealName(comment.getUser().getRealName());
-            dto.setUserAvatar(comment.getUser().getAvatar());
+        UserCardCache.Card author = cards.get(comment.getUserId());
+        if (author != null) {
+            dto.setUserName(author.getUsername());
+            dto.setUserRealName(author.getRealName());
+            dto.setUserAvatar(author.getAvatar());
         }
 
         return dto;
@@ -588,9 +695,7 @@ public class PostService {
         };
 
         Page<Post> posts = postRepository.findAll(spec, pageable);
-        List<PostDTO> dtoList = posts.getContent().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<PostDTO> dtoList = convertToDTOs(posts.getContent());
 
         return new PageImpl<>(dtoList, pageable, posts.getTotalElements());
     }
@@ -600,10 +705,7 @@ public class PostService {
      */
     public Page<Post> getFollowingPosts(Pageable pageable) {
         User currentUser = userService.getCurrentUser();
-        List<Long> followingIds = followService.getFollowingList(currentUser.getId())
-                .stream()
-                .map(FollowDTO::getFollowedId)
-                .collect(Collectors.toList());
+        List<Long> followingIds = followService.getFeedSourceIds(currentUser.getId());
                 
         if (followingIds.isEmpty()) {
             return Page.empty(pageable);
@@ -617,7 +719,7 @@ public class PostService {
                 query.distinct(true);
             }
             
-            return root.get("userId").in(followingIds);
+            return root.get("user").get("id").in(followingIds);
         };
 
         return postRepository.findAll(spec, pageable);
@@ -630,9 +732,7 @@ public class PostService {
      */
     public Page<PostDTO> getFollowingPostsWithUserInfo(Pageable pageable) {
         Page<Post> posts = getFollowingPosts(pageable);
-        List<PostDTO> dtoList = posts.getContent().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<PostDTO> dtoList = convertToDTOs(posts.getContent());
         return new PageImpl<>(dtoList, pageable, posts.getTotalElements());
     }
 
@@ -652,7 +752,7 @@ public class PostService {
         String username = authentication.getName();
 
         // 验证当前用户是否为管理员
-        adminRepository.findByUsername(username)
+        referenceDataCache.findAdmin(username)
                 .orElseThrow(() -> new IllegalStateException("非管理员账号，无权操作"));
 
         // 检查动态是否存在
@@ -661,24 +761,8 @@ public class PostService {
             throw new IllegalArgumentException("动态不存在");
         }
 
-        // 删除动态前先清除所有关联数据
-        // 1. 删除所有评论点赞记录
-        List<PostComment> comments = postCommentRepository.findByPostIdOrderByLevelAscCreateTimeDesc(postId, Pageable.unpaged()).getContent();
-        for (PostComment comment : comments) {
-            postCommentLikeRepository.deleteByCommentId(comment.getId());
-        }
-        
-        // 2. 删除所有评论
-        postCommentRepository.deleteAll(comments);
-        
-        // 3. 删除所有点赞记录
-        postLikeRepository.deleteByPostId(postId);
-        
-        // 4. 删除所有分享记录
-        postShareRepository.deleteByPostId(postId);
-        
-        // 5. 最后删除动态本身
-        postRepository.deleteById(postId);
+        // 评论、点赞等关联数据由PostPurgeService批量清理
+        postPurgeService.delete(postId);
         
         log.info("管理员 {} 删除了动态 {}", username, postId);
     }
@@ -695,7 +779,7 @@ public class PostService {
         User currentUser = userService.getCurrentUser();
 
         // 检查权限（如果是管理员则允许操作）
-        boolean isAdmin = adminRepository.findByUsername(currentUser.getUsername()).isPresent();
+        boolean isAdmin = referenceDataCache.findAdmin(currentUser.getUsername()).isPresent();
         if (!isAdmin && !post.getUserId().equals(currentUser.getId())) {
             throw new IllegalStateException("您没有权限为该动态添加标签");
         }
@@ -786,7 +870,7 @@ public class PostService {
         String username = authentication.getName();
 
         // 验证当前用户是否为管理员
-        adminRepository.findByUsername(username)
+        referenceDataCache.findAdmin(username)
                 .orElseThrow(() -> new IllegalStateException("非管理员账号，无权操作"));
 
         // 验证目标用户是否存在
@@ -840,7 +924,7 @@ public class PostService {
         String username = authentication.getName();
 
         // 验证当前用户是否为管理员
-        adminRepository.findByUsername(username)
+        referenceDataCache.findAdmin(username)
                 .orElseThrow(() -> new IllegalStateException("非管理员账号，无权操作"));
 
         // 检查评论是否存在
@@ -900,6 +984,7 @@ public class PostService {
         like.setUserId(currentUser.getId());
         like.setCommentId(commentId);
         postCommentLikeRepository.save(like);
+        viewerStateService.recordInteraction(currentUser.getId(), ViewerStateService.Interaction.COMMENT_LIKE, commentId);
 
         // 计算新的点赞数
         int newLikeCount = (comment.getLikeCount() != null ? comment.getLikeCount() : 0) + 1;
@@ -965,7 +1050,7 @@ public class PostService {
         String username = authentication.getName();
 
         // 验证当前用户是否为管理员
-        adminRepository.findByUsername(username)
+        referenceDataCache.findAdmin(username)
                 .orElseThrow(() -> new IllegalStateException("非管理员账号，无权操作"));
 
         // 验证目标用户是否存在
@@ -988,6 +1073,7 @@ public class PostService {
         like.setUserId(userId);
         like.setCommentId(commentId);
         postCommentLikeRepository.save(like);
+        viewerStateService.recordInteraction(userId, ViewerStateService.Interaction.COMMENT_LIKE, commentId);
 
         // 计算新的点赞数
         int newLikeCount = (comment.getLikeCount() != null ? comment.getLikeCount() : 0) + 1;
@@ -1007,7 +1093,8 @@ public class PostService {
      * @return 是否已点赞
      */
     public boolean isCommentLiked(Long commentId, Long userId) {
-        return postCommentLikeRepository.existsByUserIdAndCommentId(userId, commentId);
+        return viewerStateService.mightHaveInteraction(userId, ViewerStateService.Interaction.COMMENT_LIKE, commentId)
+                && postCommentLikeRepository.existsByUserIdAndCommentId(userId, commentId);
     }
 
     /**
@@ -1066,6 +1153,20 @@ public class PostService {
         return convertToDTO(post);
     }
 
+    /**
+     * Post分页转PostDTO分页，作者信息批量获取
+     */
+    public Page<PostDTO> toPostDTOPage(Page<Post> posts) {
+        return convertToDTOPage(posts);
+    }
+
+    /**
+     * Post列表转PostDTO列表，作者信息批量获取
+     */
+    public List<PostDTO> toPostDTOs(List<Post> posts) {
+        return convertToDTOs(posts);
+    }
+
     /**
      * 根据ID获取PostDTO
      */
@@ -1079,7 +1180,7 @@ public class PostService {
      */
     public Page<PostDTO> getUserLikedPostsDTO(Long userId, Pageable pageable) {
         Page<Post> posts = getUserLikedPosts(userId, pageable);
-        return posts.map(this::convertToDTO);
+        return convertToDTOPage(posts);
     }
 
     /**
@@ -1103,7 +1204,7 @@ public class PostService {
      */
     public Page<PostDTO> getUserPostsDTO(Long userId, Pageable pageable) {
         Page<Post> posts = getUserPosts(userId, pageable);
-        return posts.map(this::convertToDTO);
+        return convertToDTOPage(posts);
     }
 
     /**
@@ -1134,27 +1235,9 @@ public class PostService {
      */
     @Transactional
     public int fixAllPostsCommentCount() {
-        int fixedCount = 0;
-        
-        // 获取所有帖子
-        List<Post> posts = postRepository.findAll();
-        
-        for (Post post : posts) {
-            // 检查评论计数是否为负数
-            if (post.getCommentCount() != null && post.getCommentCount() < 0) {
-                // 计算实际评论数
-                long actualCommentCount = postCommentRepository.countByPostId(post.getId());
-                
-                // 更新为正确的评论数或0
-                post.setCommentCount((int) Math.max(0, actualCommentCount));
-                postRepository.save(post);
-                
-                fixedCount++;
-                log.info("Fixed comment count for post ID {}: from {} to {}", 
-                        post.getId(), post.getCommentCount(), actualCommentCount);
-            }
-        }
-        
+        // 一条UPDATE语句只修复计数为负数的动态，不再加载全部动态
+        int fixedCount = postRepository.resetNegativeCommentCounts();
+        log.info("Fixed comment count for {} posts", fixedCount);
         return fixedCount;
     }
 
@@ -1185,7 +1268,7 @@ public class PostService {
      */
     public Page<PostDTO> findPostsByTagNameDTO(String tagName, Pageable pageable) {
         Page<Post> posts = findPostsByTagName(tagName, pageable);
-        return posts.map(this::convertToDTO);
+        return convertToDTOPage(posts);
     }
 
     /**
@@ -1283,9 +1366,7 @@ public class PostService {
         };
         
         Page<Post> posts = postRepository.findAll(spec, pageable);
-        List<PostDTO> dtoList = posts.getContent().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<PostDTO> dtoList = convertToDTOs(posts.getContent());
                 
         return new PageImpl<>(dtoList, pageable, posts.getTotalElements());
     }
@@ -9,7 +9,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -20,6 +23,9 @@ public class PostTagService {
     
     @Autowired
     private PostRepository postRepository;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
     
     /**
      * 创建新标签
@@ -40,6 +46,7 @@ public class PostTagService {
         tag.setName(name);
         tag.setDescription(description);
         tag.setEnabled(true);
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.POST_TAG);
         return postTagRepository.save(tag);
     }
     
@@ -49,9 +56,7 @@ public class PostTagService {
      * @return 标签列表
      */
     public List<PostTag> getAllTags() {
-        List<PostTag> tags = postTagRepository.findAll();
-        tags.forEach(tag -> tag.setHotness(getTagHotness(tag.getId())));
-        return tags;
+        return loadTagsWithHotness();
     }
     
     /**
@@ -90,6 +95,7 @@ public class PostTagService {
         return postTagRepository.findById(id).map(tag -> {
             tag.setName(name);
             tag.setDescription(description);
+            referenceDataCache.invalidate(ReferenceDataCache.Kind.POST_TAG);
             return postTagRepository.save(tag);
         });
     }
@@ -105,6 +111,7 @@ public class PostTagService {
     public Optional<PostTag> setTagEnabled(Long id, boolean enabled) {
         return postTagRepository.findById(id).map(tag -> {
             tag.setEnabled(enabled);
+            referenceDataCache.invalidate(ReferenceDataCache.Kind.POST_TAG);
             return postTagRepository.save(tag);
         });
     }
@@ -114,18 +121,42 @@ public class PostTagService {
      */
     @Transactional
     public void deleteTag(Long id) {
-        PostTag tag = postTagRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("标签不存在"));
-
-        // 获取所有使用该标签的动态，并解除关联
-        List<Post> posts = postRepository.findByTagsId(id, Pageable.unpaged()).getContent();
-        for (Post post : posts) {
-            post.getTags().remove(tag);
-            postRepository.save(post);
+        if (!postTagRepository.existsById(id)) {
+            throw new IllegalArgumentException("标签不存在");
         }
 
+        // 直接删除关联表中的记录，不加载动态
+        postTagRepository.deleteRelationsByTagId(id);
+
         // 删除标签
         postTagRepository.deleteById(id);
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.POST_TAG);
+    }
+
+    /**
+     * 合并标签，将源标签的动态关联转移到目标标签后删除源标签
+     *
+     * @param sourceId 源标签ID
+     * @param targetId 目标标签ID
+     * @return 目标标签
+     */
+    @Transactional
+    public PostTag mergeTag(Long sourceId, Long targetId) {
+        if (sourceId.equals(targetId)) {
+            throw new IllegalArgumentException("不能将标签合并到自身");
+        }
+        if (!postTagRepository.existsById(sourceId)) {
+            throw new IllegalArgumentException("源标签不存在");
+        }
+        PostTag target = postTagRepository.findById(targetId)
+                .orElseThrow(() -> new IllegalArgumentException("目标标签不存在"));
+
+        // 已带有目标标签的动态不重复添加，随后删除源标签的全部关联
+        postTagRepository.copyRelations(sourceId, targetId);
+        postTagRepository.deleteRelationsByTagId(sourceId);
+        postTagRepository.deleteById(sourceId);
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.POST_TAG);
+        return target;
     }
     
     /**
@@ -146,6 +177,7 @@ public class PostTagService {
         
         tag.setName(updatedTag.getName());
         tag.setDescription(updatedTag.getDescription());
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.POST_TAG);
         return postTagRepository.save(tag);
     }
     
@@ -183,6 +215,7 @@ public class PostTagService {
             newTag.setName(trimmedName);
             newTag.setEnabled(true);
             PostTag savedTag = postTagRepository.save(newTag);
+            referenceDataCache.invalidate(ReferenceDataCache.Kind.POST_TAG);
             return savedTag; // 返回已保存的标签，确保ID已生成
         } catch (Exception e) {
             // 可能在保存过程中出现唯一约束冲突（并发情况）
@@ -200,13 +233,33 @@ public class PostTagService {
      * 获取热门标签（按热度降序排列，仅返回已启用标签）
      */
     public List<PostTag> getTopHotTags(int limit) {
-        List<PostTag> tags = postTagRepository.findAll();
+        List<PostTag> tags = loadTagsWithHotness();
         tags.removeIf(tag -> tag.getEnabled() == null || !tag.getEnabled());
-        tags.forEach(tag -> tag.setHotness(getTagHotness(tag.getId())));
         tags.sort((a, b) -> Long.compare(b.getHotness(), a.getHotness()));
         if (tags.size() > limit) {
             return tags.subList(0, limit);
         }
         return tags;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 从参考数据缓存复制全部标签，热度通过一次分组查询取回
+     */
+    private List<PostTag> loadTagsWithHotness() {
+        Map<Long, Long> hotness = new HashMap<>();
+        for (PostRepository.TagHotness row : postRepository.sumViewCountGroupedByTagId()) {
+            hotness.put(row.getTagId(), row.getHotness() == null ? 0L : row.getHotness());
+        }
+        List<PostTag> tags = new ArrayList<>();
+        for (ReferenceDataCache.TagEntry entry : referenceDataCache.getPostTags()) {
+            PostTag tag = new PostTag();
+            tag.setId(entry.getId());
+            tag.setName(entry.getName());
+            tag.setDescription(entry.getDescription());
+            tag.setEnabled(entry.getEnabled());
+            tag.setHotness(hotness.getOrDefault(entry.getId(), 0L));
+            tags.add(tag);
+        }
+        return tags;
+    }
+}
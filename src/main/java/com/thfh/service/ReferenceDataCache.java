@@ -0,0 +1,303 @@
+package com.thfh.service;
+
+import com.thfh.model.Admin;
+import com.thfh.model.CourseTag;
+import com.thfh.model.PostTag;
+import com.thfh.repository.AdminRepository;
+import com.thfh.repository.CourseTagRepository;
+import com.thfh.repository.PostTagRepository;
+import com.thfh.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 参考数据缓存
+ * 管理员账号、动态标签、课程标签等读多写少的小表整表加载为不可变快照，按类别分别缓存。
+ * 每个类别带版本号，对应的增删改在事务提交后递增版本，下次访问时重新加载。
+ * 版本号只在本进程内递增，变更同时经CacheInvalidationBus通知其他进程递增同一类别的版本；
+ * 快照另有过期时间，消息丢失时另一进程中的变更（如禁用管理员）最迟在过期后生效，管理员账号的过期时间较短。
+ * 每个类别记录命中、未命中（重新加载）次数，供管理端查看。
+ */
+@Service
+public class ReferenceDataCache {
+
+    /**
+     * 缓存类别
+     */
+    public enum Kind {
+        /** 管理员账号 */
+        ADMIN,
+        /** 动态标签 */
+        POST_TAG,
+        /** 课程标签 */
+        COURSE_TAG
+    }
+
+    // 失效消息中的缓存名称，失效键为类别名称
+    private static final String CACHE_NAME = "reference-data";
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private PostTagRepository postTagRepository;
+
+    @Autowired
+    private CourseTagRepository courseTagRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    // 管理员快照的过期时间，用于权限判断，取值较短
+    @Value("${reference.cache.admin-ttl:5000}")
+    private long adminTtlMillis;
+
+    // 标签快照的过期时间，默认与其他缓存相同
+    @Value("${reference.cache.tag-ttl:${cache.local.ttl:300000}}")
+    private long tagTtlMillis;
+
+    private final Map<Kind, Section<?>> sections = new EnumMap<>(Kind.class);
+
+    private Section<Map<String, AdminEntry>> admins;
+    private Section<List<TagEntry>> postTags;
+    private Section<List<TagEntry>> courseTags;
+
+    @PostConstruct
+    public void init() {
+        admins = register(Kind.ADMIN, adminTtlMillis, () -> {
+            Map<String, AdminEntry> byUsername = new HashMap<>();
+            for (Admin admin : adminRepository.findAll()) {
+                byUsername.put(admin.getUsername(), new AdminEntry(admin));
+            }
+            return Collections.unmodifiableMap(byUsername);
+        });
+        postTags = register(Kind.POST_TAG, tagTtlMillis, () -> {
+            List<TagEntry> tags = new ArrayList<>();
+            for (PostTag tag : postTagRepository.findAll()) {
+                tags.add(new TagEntry(tag.getId(), tag.getName(), tag.getDescription(), tag.getEnabled()));
+            }
+            return sorted(tags);
+        });
+        courseTags = register(Kind.COURSE_TAG, tagTtlMillis, () -> {
+            List<TagEntry> tags = new ArrayList<>();
+            for (CourseTag tag : courseTagRepository.findAll()) {
+                tags.add(new TagEntry(tag.getId(), tag.getName(), tag.getDescription(), tag.getEnabled()));
+            }
+            return sorted(tags);
+        });
+        cacheInvalidationBus.register(CACHE_NAME, key -> sections.get(Kind.valueOf(key)).version.incrementAndGet());
+    }
+
+    /**
+     * 管理员账号信息，不包含密码，构建后不再修改
+     */
+    public static final class AdminEntry {
+        private final Long id;
+        private final String username;
+        private final String realName;
+        private final boolean enabled;
+
+        private AdminEntry(Admin admin) {
+            this.id = admin.getId();
+            this.username = admin.getUsername();
+            this.realName = admin.getRealName();
+            this.enabled = Boolean.TRUE.equals(admin.getEnabled());
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getRealName() {
+            return realName;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+    }
+
+    /**
+     * 标签信息，构建后不再修改
+     */
+    public static final class TagEntry {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final Boolean enabled;
+
+        private TagEntry(Long id, String name, String description, Boolean enabled) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.enabled = enabled;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+    }
+
+    /**
+     * 单个类别的版本化快照
+     */
+    private static final class Section<V> {
+        private final Supplier<V> loader;
+        private final long ttlMillis;
+        private final AtomicLong version = new AtomicLong();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private volatile Snapshot<V> snapshot;
+
+        Section(long ttlMillis, Supplier<V> loader) {
+            this.ttlMillis = ttlMillis;
+            this.loader = loader;
+        }
+
+        V get() {
+            Snapshot<V> current = snapshot;
+            if (isFresh(current, version.get())) {
+                hits.incrementAndGet();
+                return current.value;
+            }
+            synchronized (this) {
+                current = snapshot;
+                long expected = version.get();
+                if (!isFresh(current, expected)) {
+                    misses.incrementAndGet();
+                    // 先读取版本再查询，查询期间发生的变更会使新快照立即过期
+                    current = new Snapshot<>(expected, System.currentTimeMillis(), loader.get());
+                    snapshot = current;
+                } else {
+                    hits.incrementAndGet();
+                }
+            }
+            return current.value;
+        }
+
+        private boolean isFresh(Snapshot<V> current, long expectedVersion) {
+            return current != null && current.version == expectedVersion
+                    && System.currentTimeMillis() - current.loadedAt < ttlMillis;
+        }
+    }
+
+    private static final class Snapshot<V> {
+        private final long version;
+        private final long loadedAt;
+        private final V value;
+
+        Snapshot(long version, long loadedAt, V value) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+            this.value = value;
+        }
+    }
+
+    /**
+     * 按用户名查找管理员
+     * @param username 用户名
+     * @return 管理员信息，不是管理员时为空
+     */
+    public Optional<AdminEntry> findAdmin(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(admins.get().get(username));
+    }
+
+    /**
+     * 判断用户名是否属于已启用的管理员
+     * @param username 用户名
+     * @return 是否为已启用的管理员
+     */
+    public boolean isEnabledAdmin(String username) {
+        return findAdmin(username).map(AdminEntry::isEnabled).orElse(false);
+    }
+
+    /**
+     * 获取全部动态标签
+     * @return 按ID升序排列的标签列表
+     */
+    public List<TagEntry> getPostTags() {
+        return postTags.get();
+    }
+
+    /**
+     * 获取全部课程标签
+     * @return 按ID升序排列的标签列表
+     */
+    public List<TagEntry> getCourseTags() {
+        return courseTags.get();
+    }
+
+    /**
+     * 数据变更后使对应类别失效并通知其他进程
+     * 处于事务中时在事务提交后递增版本，避免重新加载时读到未提交的数据
+     * @param kind 缓存类别
+     */
+    public void invalidate(Kind kind) {
+        Section<?> section = sections.get(kind);
+        AfterCommit.run(() -> {
+            section.version.incrementAndGet();
+            cacheInvalidationBus.publish(CACHE_NAME, kind.name());
+        });
+    }
+
+    /**
+     * 获取各类别的命中统计
+     * @return 类别名称到命中次数、未命中次数、当前版本的映射
+     */
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        for (Map.Entry<Kind, Section<?>> entry : sections.entrySet()) {
+            Section<?> section = entry.getValue();
+            Map<String, Long> sectionStats = new LinkedHashMap<>();
+            sectionStats.put("hits", section.hits.get());
+            sectionStats.put("misses", section.misses.get());
+            sectionStats.put("version", section.version.get());
+            stats.put(entry.getKey().name(), sectionStats);
+        }
+        return stats;
+    }
+
+    private <V> Section<V> register(Kind kind, long ttlMillis, Supplier<V> loader) {
+        Section<V> section = new Section<>(ttlMillis, loader);
+        sections.put(kind, section);
+        return section;
+    }
+
+    private static List<TagEntry> sorted(List<TagEntry> tags) {
+        tags.sort(Comparator.comparing(TagEntry::getId));
+        return Collections.unmodifiableList(tags);
+    }
+}
@@ -0,0 +1,336 @@
+package com.thfh.service;
+
+import com.thfh.repository.FollowRepository;
+import com.thfh.repository.FriendRepository;
+import com.thfh.repository.UserFollowRepository;
+import com.thfh.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 社交关系图服务
+ * 统一缓存关注（follows表）、用户关注（user_follow表）和好友（friend表）三种关系的邻接集合。
+ * 每个用户的邻接集合保存为有序的long数组，首次访问时用一条只查ID的查询加载，按LRU淘汰。
+ * 关系判断使用二分查找，共同关注/共同好友按有序数组归并求交集，关注数、粉丝数、好友数直接取数组长度。
+ * 关系写入在事务提交后同步更新已缓存的集合；加载期间如有写入，加载结果不写入缓存，避免覆盖新数据。
+ * 其他进程经CacheInvalidationBus收到关系变更后移除双方对应的集合，下次访问时重新加载；
+ * 集合另有过期时间，消息丢失时最迟在过期后重新加载。
+ */
+@Service
+public class SocialGraphService {
+
+    // 每种邻接集合缓存的最大用户数
+    private static final int MAX_CACHED_USERS = 20_000;
+
+    private static final long[] EMPTY = new long[0];
+
+    // 失效消息中的缓存名称
+    private static final String CACHE_NAME = "social-graph";
+
+    /**
+     * 关系类型
+     */
+    public enum Edge {
+        /** 关注，对应follows表 */
+        FOLLOW,
+        /** 用户关注，对应user_follow表 */
+        USER_FOLLOW,
+        /** 好友，对应friend表，双向各存一行 */
+        FRIEND
+    }
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private UserFollowRepository userFollowRepository;
+
+    @Autowired
+    private FriendRepository friendRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    // 邻接集合的过期时间
+    @Value("${cache.local.ttl:300000}")
+    private long ttlMillis;
+
+    private AdjacencyCache following;
+    private AdjacencyCache followers;
+    private AdjacencyCache userFollowing;
+    private AdjacencyCache userFollowers;
+    private AdjacencyCache friends;
+
+    @PostConstruct
+    public void init() {
+        following = new AdjacencyCache(ttlMillis, followRepository::findFollowedIds);
+        followers = new AdjacencyCache(ttlMillis, followRepository::findFollowerIds);
+        userFollowing = new AdjacencyCache(ttlMillis, userFollowRepository::findFollowingIds);
+        userFollowers = new AdjacencyCache(ttlMillis, userFollowRepository::findFollowerIds);
+        friends = new AdjacencyCache(ttlMillis, friendRepository::findFriendIds);
+        // 消息格式为 关系类型:from:to
+        cacheInvalidationBus.register(CACHE_NAME, key -> {
+            String[] parts = key.split(":");
+            Edge edge = Edge.valueOf(parts[0]);
+            Long from = Long.valueOf(parts[1]);
+            Long to = Long.valueOf(parts[2]);
+            outgoing(edge).evict(from);
+            incoming(edge).evict(to);
+        });
+    }
+
+    /**
+     * 某一时刻的邻接集合
+     */
+    private static final class Adjacency {
+        private final long[] ids;
+        private final long loadedAt;
+
+        Adjacency(long[] ids, long loadedAt) {
+            this.ids = ids;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * 单一方向的邻接集合缓存，按访问顺序淘汰
+     */
+    private static final class AdjacencyCache {
+        private final long ttlMillis;
+        private final Function<Long, List<Long>> loader;
+        private final Map<Long, Adjacency> sets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Adjacency> eldest) {
+                return size() > MAX_CACHED_USERS;
+            }
+        };
+        // 写入次数，由this保护
+        private long generation;
+
+        AdjacencyCache(long ttlMillis, Function<Long, List<Long>> loader) {
+            this.ttlMillis = ttlMillis;
+            this.loader = loader;
+        }
+
+        /**
+         * 获取用户的邻接集合，返回的数组不可修改
+         */
+        long[] get(Long userId) {
+            long expected;
+            synchronized (this) {
+                Adjacency cached = sets.get(userId);
+                if (cached != null && System.currentTimeMillis() - cached.loadedAt < ttlMillis) {
+                    return cached.ids;
+                }
+                expected = generation;
+            }
+            long[] loaded = toSortedArray(loader.apply(userId));
+            synchronized (this) {
+                if (generation == expected) {
+                    sets.put(userId, new Adjacency(loaded, System.currentTimeMillis()));
+                }
+            }
+            return loaded;
+        }
+
+        synchronized void add(Long userId, long id) {
+            generation++;
+            Adjacency cached = sets.get(userId);
+            if (cached != null) {
+                long[] current = cached.ids;
+                int index = Arrays.binarySearch(current, id);
+                if (index < 0) {
+                    int insertAt = -index - 1;
+                    long[] updated = new long[current.length + 1];
+                    System.arraycopy(current, 0, updated, 0, insertAt);
+                    updated[insertAt] = id;
+                    System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+                    sets.put(userId, new Adjacency(updated, cached.loadedAt));
+                }
+            }
+        }
+
+        synchronized void remove(Long userId, long id) {
+            generation++;
+            Adjacency cached = sets.get(userId);
+            if (cached != null) {
+                long[] current = cached.ids;
+                int index = Arrays.binarySearch(current, id);
+                if (index >= 0) {
+                    long[] updated = new long[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, index);
+                    System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+                    sets.put(userId, new Adjacency(updated, cached.loadedAt));
+                }
+            }
+        }
+
+        synchronized void evict(Long userId) {
+            generation++;
+            sets.remove(userId);
+        }
+    }
+
+    /**
+     * 判断from到to是否存在指定关系
+     * @param edge 关系类型
+     * @param from 关注者或用户ID
+     * @param to 被关注者或好友ID
+     * @return 是否存在该关系
+     */
+    public boolean hasEdge(Edge edge, Long from, Long to) {
+        if (from == null || to == null) {
+            return false;
+        }
+        return Arrays.binarySearch(outgoing(edge).get(from), to) >= 0;
+    }
+
+    /**
+     * 获取用户关注的用户或好友的ID
+     * @param edge 关系类型
+     * @param userId 用户ID
+     * @return 按ID升序排列的用户ID列表
+     */
+    public List<Long> getOutgoingIds(Edge edge, Long userId) {
+        return toList(outgoing(edge).get(userId));
+    }
+
+    /**
+     * 获取关注该用户的用户ID（粉丝），好友关系与好友ID相同
+     * @param edge 关系类型
+     * @param userId 用户ID
+     * @return 按ID升序排列的用户ID列表
+     */
+    public List<Long> getIncomingIds(Edge edge, Long userId) {
+        return toList(incoming(edge).get(userId));
+    }
+
+    /**
+     * 获取用户的关注数或好友数
+     * @param edge 关系类型
+     * @param userId 用户ID
+     * @return 关注数或好友数
+     */
+    public int getOutDegree(Edge edge, Long userId) {
+        return outgoing(edge).get(userId).length;
+    }
+
+    /**
+     * 获取用户的粉丝数或好友数
+     * @param edge 关系类型
+     * @param userId 用户ID
+     * @return 粉丝数或好友数
+     */
+    public int getInDegree(Edge edge, Long userId) {
+        return incoming(edge).get(userId).length;
+    }
+
+    /**
+     * 获取两个用户共同关注的用户或共同好友
+     * @param edge 关系类型
+     * @param userId 用户ID
+     * @param otherUserId 另一个用户ID
+     * @return 按ID升序排列的共同用户ID列表
+     */
+    public List<Long> getMutualIds(Edge edge, Long userId, Long otherUserId) {
+        AdjacencyCache cache = outgoing(edge);
+        long[] a = cache.get(userId);
+        long[] b = cache.get(otherUserId);
+        List<Long> result = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result.add(a[i]);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 记录新增的关系，事务提交后更新缓存并通知其他进程
+     * 好友关系只记录from到to一个方向，另一方向需单独记录
+     * @param edge 关系类型
+     * @param from 关注者或用户ID
+     * @param to 被关注者或好友ID
+     */
+    public void edgeAdded(Edge edge, Long from, Long to) {
+        AfterCommit.run(() -> {
+            outgoing(edge).add(from, to);
+            if (edge != Edge.FRIEND) {
+                incoming(edge).add(to, from);
+            }
+            cacheInvalidationBus.publish(CACHE_NAME, edge.name() + ":" + from + ":" + to);
+        });
+    }
+
+    /**
+     * 记录删除的关系，事务提交后更新缓存并通知其他进程
+     * @param edge 关系类型
+     * @param from 关注者或用户ID
+     * @param to 被关注者或好友ID
+     */
+    public void edgeRemoved(Edge edge, Long from, Long to) {
+        AfterCommit.run(() -> {
+            outgoing(edge).remove(from, to);
+            if (edge != Edge.FRIEND) {
+                incoming(edge).remove(to, from);
+            }
+            cacheInvalidationBus.publish(CACHE_NAME, edge.name() + ":" + from + ":" + to);
+        });
+    }
+
+    private AdjacencyCache outgoing(Edge edge) {
+        switch (edge) {
+            case FOLLOW:
+                return following;
+            case USER_FOLLOW:
+                return userFollowing;
+            default:
+                return friends;
+        }
+    }
+
+    private AdjacencyCache incoming(Edge edge) {
+        switch (edge) {
+            case FOLLOW:
+                return followers;
+            case USER_FOLLOW:
+                return userFollowers;
+            default:
+                // 好友关系双向各存一行，入边与出边相同
+                return friends;
+        }
+    }
+
+    private static long[] toSortedArray(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return EMPTY;
+        }
+        long[] sorted = ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        return sorted.length == 0 ? EMPTY : sorted;
+    }
+
+    private static List<Long> toList(long[] ids) {
+        List<Long> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+}
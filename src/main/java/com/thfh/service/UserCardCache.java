@@ -0,0 +1,228 @@
+package com.thfh.service;
+
+import com.thfh.repository.UserRepository;
+import com.thfh.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 用户名片缓存
+ * 缓存列表展示常用的用户基本信息（用户名、姓名、头像、等级、个性签名、用户类型）。
+ * 淘汰采用分段LRU：新名片先进入试用段，再次命中后晋升到保护段，试用段满时淘汰试用段中最久未用的名片，
+ * 管理后台翻页等一次性扫描只会挤占试用段，不会把频繁访问的作者名片挤出缓存。
+ * 各服务组装列表DTO时先收集整页引用的用户ID，再通过getCards一次取回，未缓存的用户合并为一条IN查询，
+ * 不再逐行懒加载用户实体。用户资料变更后在事务提交后失效本节点上对应的名片，并经CacheInvalidationBus通知其他进程；
+ * 名片另有过期时间，消息丢失时其他进程最迟在过期后重新加载。
+ */
+@Service
+public class UserCardCache {
+
+    // 缓存的最大用户数
+    private static final int MAX_CACHED_CARDS = 50_000;
+
+    // 保护段的最大用户数
+    private static final int MAX_PROTECTED_CARDS = MAX_CACHED_CARDS * 4 / 5;
+
+    // 失效消息中的缓存名称
+    private static final String CACHE_NAME = "user-card";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    // 名片的过期时间
+    @Value("${cache.local.ttl:300000}")
+    private long ttlMillis;
+
+    // 试用段和保护段，均按访问顺序排列，由this保护
+    private final LinkedHashMap<Long, Card> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Long, Card> protectedCards = new LinkedHashMap<>(16, 0.75f, true);
+
+    // 失效次数，由this保护，加载期间有失效时加载结果不写入缓存
+    private long generation;
+
+    /**
+     * 用户名片，构建后不再修改
+     */
+    public static final class Card {
+        private final Long id;
+        private final String username;
+        private final String realName;
+        private final String avatar;
+        private final Integer level;
+        private final String introduction;
+        private final String userType;
+        private final long loadedAt;
+
+        private Card(UserRepository.UserCardView view) {
+            this.id = view.getId();
+            this.username = view.getUsername();
+            this.realName = view.getRealName();
+            this.avatar = view.getAvatar();
+            this.level = view.getLevel();
+            this.introduction = view.getIntroduction();
+            this.userType = view.getUserType();
+            this.loadedAt = System.currentTimeMillis();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getRealName() {
+            return realName;
+        }
+
+        public String getAvatar() {
+            return avatar;
+        }
+
+        public Integer getLevel() {
+            return level;
+        }
+
+        public String getIntroduction() {
+            return introduction;
+        }
+
+        public String getUserType() {
+            return userType;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        cacheInvalidationBus.register(CACHE_NAME, key -> evict(Long.valueOf(key)));
+    }
+
+    /**
+     * 获取单个用户的名片
+     * @param userId 用户ID
+     * @return 用户名片，用户不存在时为空
+     */
+    public Card getCard(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return getCards(List.of(userId)).get(userId);
+    }
+
+    /**
+     * 批量获取用户名片，未缓存的用户通过一条IN查询加载
+     * @param userIds 用户ID集合
+     * @return 用户ID到名片的映射，不存在的用户不包含在内
+     */
+    public Map<Long, Card> getCards(Collection<Long> userIds) {
+        Map<Long, Card> result = new LinkedHashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        long expected;
+        synchronized (this) {
+            for (Long userId : userIds) {
+                if (userId == null) {
+                    continue;
+                }
+                Card card = lookup(userId);
+                if (card != null) {
+                    result.put(userId, card);
+                } else {
+                    missing.add(userId);
+                }
+            }
+            expected = generation;
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        List<Card> loaded = new ArrayList<>(missing.size());
+        for (UserRepository.UserCardView view : userRepository.findCardsByIdIn(missing)) {
+            loaded.add(new Card(view));
+        }
+        synchronized (this) {
+            for (Card card : loaded) {
+                if (generation == expected) {
+                    admit(card);
+                }
+                result.put(card.id, card);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 用户资料变更后使名片失效并通知其他进程，处于事务中时在事务提交后执行
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        AfterCommit.run(() -> {
+            evict(userId);
+            cacheInvalidationBus.publish(CACHE_NAME, userId.toString());
+        });
+    }
+
+    private synchronized void evict(Long userId) {
+        generation++;
+        probation.remove(userId);
+        protectedCards.remove(userId);
+    }
+
+    /**
+     * 查找名片，试用段命中时晋升到保护段，保护段溢出的名片退回试用段，过期的名片直接移除
+     */
+    private Card lookup(Long userId) {
+        Card card = protectedCards.get(userId);
+        if (card != null) {
+            if (isExpired(card)) {
+                protectedCards.remove(userId);
+                return null;
+            }
+            return card;
+        }
+        card = probation.remove(userId);
+        if (card != null && isExpired(card)) {
+            return null;
+        }
+        if (card != null) {
+            protectedCards.put(userId, card);
+            if (protectedCards.size() > MAX_PROTECTED_CARDS) {
+                Map.Entry<Long, Card> eldest = protectedCards.entrySet().iterator().next();
+                protectedCards.remove(eldest.getKey());
+                probation.put(eldest.getKey(), eldest.getValue());
+            }
+        }
+        return card;
+    }
+
+    private boolean isExpired(Card card) {
+        return System.currentTimeMillis() - card.loadedAt >= ttlMillis;
+    }
+
+    /**
+     * 新名片放入试用段，总数超过上限时淘汰试用段中最久未用的名片
+     */
+    private void admit(Card card) {
+        if (protectedCards.containsKey(card.id)) {
+            protectedCards.put(card.id, card);
+            return;
+        }
+        probation.put(card.id, card);
+        while (probation.size() + protectedCards.size() > MAX_CACHED_CARDS && !probation.isEmpty()) {
+            probation.remove(probation.keySet().iterator().next());
+        }
+    }
+}
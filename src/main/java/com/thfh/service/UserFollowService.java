@@ -18,6 +18,9 @@ public class UserFollowService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SocialGraphService socialGraphService;
+
     @Transactional
     public void follow(Long followerId, Long followingId) {
         if (!userFollowRepository.existsByFollowerIdAndFollowingId(followerId, followingId)) {
@@ -27,16 +30,18 @@ public class UserFollowService {
             userFollow.setFollower(follower);
             userFollow.setFollowing(following);
             userFollowRepository.save(userFollow);
+            socialGraphService.edgeAdded(SocialGraphService.Edge.USER_FOLLOW, followerId, followingId);
         }
     }
 
     @Transactional
     public void unfollow(Long followerId, Long followingId) {
         userFollowRepository.deleteByFollowerIdAndFollowingId(followerId, followingId);
+        socialGraphService.edgeRemoved(SocialGraphService.Edge.USER_FOLLOW, followerId, followingId);
     }
 
     public boolean isFollowing(Long followerId, Long followingId) {
-        return userFollowRepository.existsByFollowerIdAndFollowingId(followerId, followingId);
+        return socialGraphService.hasEdge(SocialGraphService.Edge.USER_FOLLOW, followerId, followingId);
     }
 
     public Page<User> getFollowingList(Long userId, Pageable pageable) {
@@ -50,10 +55,10 @@ public class UserFollowService {
     }
 
     public long getFollowingCount(Long userId) {
-        return userFollowRepository.countByFollowerId(userId);
+        return socialGraphService.getOutDegree(SocialGraphService.Edge.USER_FOLLOW, userId);
     }
 
     public long getFollowerCount(Long userId) {
-        return userFollowRepository.countByFollowingId(userId);
+        return socialGraphService.getInDegree(SocialGraphService.Edge.USER_FOLLOW, userId);
     }
 } 
\ No newline at end of file
@@ -18,6 +18,7 @@ import org.springframework.stereotype.Service;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -38,16 +39,22 @@ public class UserOnlineStatusService {
     private final UserRepository userRepository;
     private final FriendRepository friendRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final SocialGraphService socialGraphService;
+    private final UserCardCache userCardCache;
     
     public UserOnlineStatusService(
             UserOnlineRecordRepository userOnlineRecordRepository,
             UserRepository userRepository,
             FriendRepository friendRepository,
-            SimpMessagingTemplate messagingTemplate) {
+            SimpMessagingTemplate messagingTemplate,
+            SocialGraphService socialGraphService,
+            UserCardCache userCardCache) {
         this.userOnlineRecordRepository = userOnlineRecordRepository;
         this.userRepository = userRepository;
         this.friendRepository = friendRepository;
         this.messagingTemplate = messagingTemplate;
+        this.socialGraphService = socialGraphService;
+        this.userCardCache = userCardCache;
     }
 
     /**
@@ -164,7 +171,10 @@ public class UserOnlineStatusService {
      * @return 好友在线状态列表
      */
     public List<UserOnlineStatusDTO> getFriendsStatus(Long userId) {
-        // 获取用户的好友列表
+        // 获取用户的好友列表，没有好友时不再查询好友记录
+        if (socialGraphService.getOutDegree(SocialGraphService.Edge.FRIEND, userId) == 0) {
+            return new ArrayList<>();
+        }
         List<Friend> friends = friendRepository.findByUserId(userId);
         if (friends.isEmpty()) {
             return new ArrayList<>();
@@ -175,40 +185,35 @@ public class UserOnlineStatusService {
                 .map(Friend::getFriendId)
                 .collect(Collectors.toList());
         
-        // 好友备注Map
-        Map<Long, String> friendRemarkMap = friends.stream()
-                .collect(Collectors.toMap(Friend::getFriendId, Friend::getRemark, (a, b) -> a));
-        
-        // 查询好友的在线状态
-        List<UserOnlineRecord> onlineRecords = userOnlineRecordRepository.findLatestByUserIds(friendIds);
+        // 好友备注Map，备注可能为空，不能用Collectors.toMap
+        Map<Long, String> friendRemarkMap = new HashMap<>();
+        for (Friend friend : friends) {
+            friendRemarkMap.putIfAbsent(friend.getFriendId(), friend.getRemark());
+        }
         
-        // 组织好友ID到最新记录的映射
-        Map<Long, UserOnlineRecord> userIdToRecord = onlineRecords.stream()
-                .collect(Collectors.toMap(
-                        r -> r.getUser().getId(),
-                        r -> r,
-                        (a, b) -> a.getUpdateTime().isAfter(b.getUpdateTime()) ? a : b
-                ));
+        // 一次查询每个好友最近的在线状态
+        Map<Long, UserOnlineRecordRepository.LatestStatus> userIdToRecord = new HashMap<>();
+        for (UserOnlineRecordRepository.LatestStatus record : userOnlineRecordRepository.findLatestStatusByUserIds(friendIds)) {
+            userIdToRecord.putIfAbsent(record.getUserId(), record);
+        }
         
-        // 获取所有好友用户实体
-        List<User> friendUsers = userRepository.findAllById(friendIds);
-        Map<Long, User> userIdToUser = friendUsers.stream()
-                .collect(Collectors.toMap(User::getId, u -> u));
+        // 好友的用户信息从名片缓存批量获取
+        Map<Long, UserCardCache.Card> userIdToUser = userCardCache.getCards(friendIds);
         
         // 构建返回结果
         List<UserOnlineStatusDTO> result = new ArrayList<>();
         for (Long friendId : friendIds) {
-            User user = userIdToUser.get(friendId);
+            UserCardCache.Card user = userIdToUser.get(friendId);
             if (user == null) continue;
             
-            UserOnlineRecord record = userIdToRecord.get(friendId);
+            UserOnlineRecordRepository.LatestStatus record = userIdToRecord.get(friendId);
             UserOnlineStatusDTO dto = new UserOnlineStatusDTO();
             dto.setUserId(friendId);
             dto.setUsername(user.getUsername());
             dto.setAvatar(user.getAvatar());
             dto.setRemark(friendRemarkMap.get(friendId));
             
-            if (record != null) {
+            if (record != null && record.getLastActive() != null) {
                 dto.setStatus(record.getStatus());
                 dto.setLastActive(record.getLastActive());
                 
@@ -235,8 +240,13 @@ public class UserOnlineStatusService {
      * @param status 新状态
      */
     private void notifyFriendsOfStatusChange(Long userId, UserOnlineStatus status) {
-        // 获取用户信息
-        User user = userRepository.findById(userId).orElse(null);
+        // 没有好友时无需查询用户和好友关系
+        if (socialGraphService.getInDegree(SocialGraphService.Edge.FRIEND, userId) == 0) {
+            return;
+        }
+
+        // 获取用户名片
+        UserCardCache.Card user = userCardCache.getCard(userId);
         if (user == null) return;
         
         // 查询谁将该用户添加为好友
@@ -12,6 +12,7 @@ import com.thfh.repository.UserRepository;
 import com.thfh.util.JwtUtil;
 import org.springframework.beans.BeanUtils;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -45,15 +46,17 @@ public class UserService {
     private final JwtUtil jwtUtil;
     private final UserInterestRepository userInterestRepository;
     private final CompanyRepository companyRepository;
+    private final UserCardCache userCardCache;
 
     private static final String USER_NOT_FOUND_MESSAGE = "用户不存在";
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil, UserInterestRepository userInterestRepository, CompanyRepository companyRepository) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil, UserInterestRepository userInterestRepository, CompanyRepository companyRepository, UserCardCache userCardCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
         this.userInterestRepository = userInterestRepository;
         this.companyRepository = companyRepository;
+        this.userCardCache = userCardCache;
     }
 
     // 用户等级经验值常量
@@ -63,6 +66,9 @@ public class UserService {
     public static final int LEVEL_4_TO_5_EXP = 1200;
     public static final int MAX_LEVEL = 5;
 
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     /**
      * 根据查询条件获取用户列表
      * @param queryDTO 查询条件对象，包含用户类型、用户名、真实姓名、启用状态等过滤条件
@@ -91,7 +97,7 @@ public class UserService {
         Page<User> userPage = userRepository.findAll(spec,
                 PageRequest.of(queryDTO.getPageNum() - 1, queryDTO.getPageSize()));
 
-        return userPage.map(this::convertToDTO);
+        return convertToDTOPage(userPage);
     }
 
     /**
@@ -226,8 +232,9 @@ public class UserService {
             throw new RuntimeException("新用户名已存在");
         }
 
-        // 复制属性，排除敏感字段
-        BeanUtils.copyProperties(userDTO, targetUser, "id", "password", "createTime", "updateTime", "lastLoginTime", "birthday");
+        // 复制属性，排除敏感字段；积分余额只能经积分流水变更（管理员调整走PointsService.adjustPoints），经验和等级同样不随资料修改
+        BeanUtils.copyProperties(userDTO, targetUser, "id", "password", "createTime", "updateTime", "lastLoginTime", "birthday",
+                "points", "experience", "level");
 
         // 处理密码更新
         if (userDTO.getPassword() != null && !userDTO.getPassword().trim().isEmpty()) {
@@ -245,6 +252,7 @@ public class UserService {
 
         targetUser.setUpdateTime(LocalDateTime.now());
         targetUser = userRepository.save(targetUser);
+        userCardCache.invalidate(targetUser.getId());
 
         return convertToDTO(targetUser);
     }
@@ -269,6 +277,7 @@ public class UserService {
         }
 
         userRepository.delete(targetUser);
+        userCardCache.invalidate(targetUser.getId());
     }
 
     /**
@@ -303,42 +312,114 @@ public class UserService {
      * @return 转换后的UserDTO对象
      */
     public UserDTO convertToDTO(User user) {
-        UserDTO dto = new UserDTO();
-        BeanUtils.copyProperties(user, dto, "password");
+        return convertToDTOs(List.of(user)).get(0);
+    }
 
-        // 转换生日日期为字符串格式
-        if (user.getBirthday() != null) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            dto.setBirthday(user.getBirthday().format(formatter));
+    /**
+     * 批量将User实体对象转换为UserDTO对象
+     * 整批用户的兴趣通过一条IN查询取回，字段逐个赋值，不再反射复制属性
+     *
+     * @param users 用户实体列表
+     * @return 转换后的UserDTO列表，顺序与入参一致
+     */
+    public List<UserDTO> convertToDTOs(List<User> users) {
+        if (users.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, List<InterestType>> interestsByUser = new HashMap<>();
+        List<Long> userIds = users.stream().map(User::getId).collect(Collectors.toList());
+        for (UserInterestRepository.InterestView view : userInterestRepository.findInterestTypesByUserIdIn(userIds)) {
+            interestsByUser.computeIfAbsent(view.getUserId(), key -> new ArrayList<>()).add(view.getInterestType());
         }
+        List<UserDTO> result = new ArrayList<>(users.size());
+        for (User user : users) {
+            result.add(toDTO(user, interestsByUser.get(user.getId())));
+        }
+        return result;
+    }
 
-        // 转换创建时间为字符串格式
+    /**
+     * 分页将User实体对象转换为UserDTO对象
+     *
+     * @param userPage 用户分页数据
+     * @return UserDTO分页数据
+     */
+    public Page<UserDTO> convertToDTOPage(Page<User> userPage) {
+        return new PageImpl<>(convertToDTOs(userPage.getContent()), userPage.getPageable(), userPage.getTotalElements());
+    }
+
+    private static UserDTO toDTO(User user, List<InterestType> interests) {
+        UserDTO dto = new UserDTO();
+        dto.setId(user.getId());
+        dto.setUsername(user.getUsername());
+        dto.setRealName(user.getRealName());
+        dto.setPhone(user.getPhone());
+        dto.setEmail(user.getEmail());
+        dto.setAvatar(user.getAvatar());
+        dto.setUserType(user.getUserType());
+        dto.setStatus(user.getStatus());
+        dto.setBio(user.getBio());
+        dto.setGender(user.getGender());
+        dto.setAddress(user.getAddress());
+        dto.setPoints(user.getPoints());
+        dto.setVerified(user.getVerified());
+        dto.setVerificationType(user.getVerificationType());
+        dto.setTags(user.getTags());
+        dto.setFollowingCount(user.getFollowingCount());
+        dto.setFollowersCount(user.getFollowersCount());
+        dto.setVip(user.getVip());
+        dto.setMuted(user.getMuted());
+        dto.setOnline(user.getOnline());
+        dto.setDeviceId(user.getDeviceId());
+        dto.setPushId(user.getPushId());
+        dto.setPushEnabled(user.getPushEnabled());
+        dto.setPrivacySettings(user.getPrivacySettings());
+        dto.setCompanyId(user.getCompanyId());
+        dto.setCompanyName(user.getCompanyName());
+        dto.setCompanyDetails(toCompanyDetailsDTO(user.getCompanyDetails()));
+        dto.setTeacherId(user.getTeacherId());
+        dto.setDisabilityType(user.getDisabilityType());
+        dto.setDisabilityLevel(user.getDisabilityLevel());
+        dto.setEmergencyContact(user.getEmergencyContact());
+        dto.setEmergencyPhone(user.getEmergencyPhone());
+        dto.setRemark(user.getRemark());
+
+        // 转换生日和各时间字段为字符串格式
+        if (user.getBirthday() != null) {
+            dto.setBirthday(user.getBirthday().format(DATE_FORMATTER));
+        }
         if (user.getCreateTime() != null) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            dto.setCreateTime(user.getCreateTime().format(formatter));
+            dto.setCreateTime(user.getCreateTime().format(DATE_TIME_FORMATTER));
         }
-
-        // 转换最后登录时间为字符串格式
         if (user.getLastLoginTime() != null) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            dto.setLastLoginTime(user.getLastLoginTime().format(formatter));
+            dto.setLastLoginTime(user.getLastLoginTime().format(DATE_TIME_FORMATTER));
         }
-
-        // 转换更新时间为字符串格式
         if (user.getUpdateTime() != null) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            dto.setUpdateTime(user.getUpdateTime().format(formatter));
+            dto.setUpdateTime(user.getUpdateTime().format(DATE_TIME_FORMATTER));
         }
-        
-        // 获取用户兴趣
-        List<UserInterest> userInterests = userInterestRepository.findByUser(user);
-        if (userInterests != null && !userInterests.isEmpty()) {
-            List<InterestType> interests = userInterests.stream()
-                    .map(UserInterest::getInterestType)
-                    .collect(Collectors.toList());
+
+        if (interests != null && !interests.isEmpty()) {
             dto.setInterests(interests);
         }
+        return dto;
+    }
 
+    private static CompanyDetails toCompanyDetailsDTO(com.thfh.model.CompanyDetails details) {
+        if (details == null) {
+            return null;
+        }
+        CompanyDetails dto = new CompanyDetails();
+        dto.setId(details.getId());
+        dto.setName(details.getName());
+        dto.setDescription(details.getDescription());
+        dto.setAddress(details.getAddress());
+        dto.setPhone(details.getContact());
+        dto.setWebsite(details.getWebsite());
+        dto.setLogo(details.getLogoUrl());
+        dto.setScale(details.getScale());
+        dto.setIndustry(details.getIndustry());
+        dto.setFoundingTime(details.getEstablishmentDate());
+        dto.setVerificationStatus(details.getVerificationStatus());
         return dto;
     }
 
@@ -395,15 +476,6 @@ public class UserService {
             userDTO.getCompanyDetails().setWebsite(company.getWebsite());
         }
         
-        // 获取用户兴趣
-        List<UserInterest> userInterests = userInterestRepository.findByUser(user);
-        if (userInterests != null && !userInterests.isEmpty()) {
-            List<InterestType> interests = userInterests.stream()
-                    .map(UserInterest::getInterestType)
-                    .collect(Collectors.toList());
-            userDTO.setInterests(interests);
-        }
-        
         return userDTO;
     }
 
@@ -458,6 +530,7 @@ public class UserService {
         currentUser.setIntroduction(introduction);
         currentUser.setUpdateTime(LocalDateTime.now());
         userRepository.save(currentUser);
+        userCardCache.invalidate(currentUser.getId());
     }
 
     /**
@@ -574,7 +647,7 @@ public class UserService {
      */
     public List<UserDTO> searchByUsername(String username) {
         List<User> users = userRepository.findByUsernameContaining(username);
-        return users.stream().map(this::convertToDTO).collect(Collectors.toList());
+        return convertToDTOs(users);
     }
 
     /**
@@ -606,6 +679,6 @@ public class UserService {
         }
 
         // 转换并返回DTO列表
-        return users.stream().map(this::convertToDTO).collect(Collectors.toList());
+        return convertToDTOs(users);
     }
 }
\ No newline at end of file
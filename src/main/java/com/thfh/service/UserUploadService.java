@@ -4,10 +4,7 @@ import com.thfh.model.FileType;
 import com.thfh.model.User;
 import com.thfh.model.UserUpload;
 import com.thfh.repository.UserUploadRepository;
-import com.thfh.util.ServerUrlUtil;
-import org.apache.commons.io.FilenameUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -15,20 +12,13 @@ import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.transaction.Transactional;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 public class UserUploadService {
 
-    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
-
     // 定义不同类型文件的MIME类型前缀
     private static final List<String> IMAGE_MIME_TYPES = Arrays.asList(
             "image/jpeg", "image/png", "image/gif", "image/bmp", "image/webp", "image/svg+xml"
@@ -49,9 +39,6 @@ public class UserUploadService {
             "text/plain", "text/html"
     );
     
-    @Value("${file.upload-dir}")
-    private String baseUploadDir;
-    
     @Autowired
     private UserUploadRepository userUploadRepository;
     
@@ -59,7 +46,7 @@ public class UserUploadService {
     private UserService userService;
     
     @Autowired
-    private ServerUrlUtil serverUrlUtil;
+    private FileStorageService fileStorageService;
     
     /**
      * 获取文件类型
@@ -89,32 +76,6 @@ public class UserUploadService {
         }
     }
     
-    /**
-     * 获取文件扩展名
-     * @param filename 文件名
-     */
-    private String getFileExtension(String filename) {
-        return FilenameUtils.getExtension(filename);
-    }
-    
-    /**
-     * 确定上传路径
-     * @param fileType 文件类型
-     * @param userId 用户ID
-     */
-    private String determineUploadPath(String fileType, Long userId) {
-        String datePath = LocalDateTime.now().format(DATE_FORMAT);
-        return userId + "/" + fileType + "/" + datePath;
-    }
-    
-    /**
-     * 生成新文件名
-     * @param extension 文件扩展名
-     */
-    private String generateFilename(String extension) {
-        return UUID.randomUUID().toString() + "." + extension;
-    }
-    
     /**
      * 上传文件
      * @param file 上传的文件
@@ -137,46 +98,21 @@ public class UserUploadService {
         String mimeType = file.getContentType();
         String fileType = determineFileType(mimeType);
         String originalFilename = file.getOriginalFilename();
-        String extension = getFileExtension(originalFilename);
-        
-        String relativePath = determineUploadPath(fileType, currentUser.getId());
-        String newFilename = generateFilename(extension);
         
-        // 构建实际目录路径
-        Path directoryPath = Paths.get(baseUploadDir, relativePath);
-        if (!Files.exists(directoryPath)) {
-            Files.createDirectories(directoryPath);
-        }
-        
-        // 构建文件完整路径
-        Path filePath = directoryPath.resolve(newFilename);
-        
-        // 使用try-with-resources确保流关闭
+        // 边复制边计算哈希并按内容去重
+        FileStorageService.StorageResult stored;
         try {
-            // 检查并清理文件流
-            Files.copy(file.getInputStream(), filePath);
-            
-            // 尝试清理可能的临时文件
-            try {
-                // 使用Spring提供的MultipartFile接口清理临时资源
-                file.getInputStream().close();
-            } catch (Exception e) {
-                // 记录但不抛出异常，避免影响主流程
-                System.err.println("清理临时文件失败: " + e.getMessage());
-            }
+            stored = fileStorageService.store(file);
         } catch (IOException e) {
             throw new IOException("保存文件失败: " + e.getMessage(), e);
         }
         
-        // 构建访问URL
-        String fileUrl = serverUrlUtil.getFileUrl(relativePath + "/" + newFilename);
-        
         // 创建上传记录
         UserUpload upload = new UserUpload();
         upload.setUserId(currentUser.getId());
         upload.setFileName(originalFilename);
-        upload.setFilePath(relativePath + "/" + newFilename);
-        upload.setUrl(fileUrl);
+        upload.setFilePath(stored.getRelativePath());
+        upload.setUrl(stored.getUrl());
         upload.setFileType(fileType);
         upload.setMimeType(mimeType);
         upload.setFileSize(file.getSize());
@@ -281,11 +217,8 @@ public class UserUploadService {
             throw new RuntimeException("无权删除此文件");
         }
         
-        // 物理删除文件
-        Path fullPath = Paths.get(baseUploadDir, upload.getFilePath());
-        if (Files.exists(fullPath)) {
-            Files.delete(fullPath);
-        }
+        // 释放文件引用，无其他引用时删除物理文件
+        fileStorageService.release(upload.getFilePath());
         
         // 从数据库中删除记录（逻辑删除）
         upload.setIsEnabled(false);
@@ -0,0 +1,269 @@
+package com.thfh.service;
+
+import com.thfh.dto.ViewerStateDTO;
+import com.thfh.dto.ViewerStateRequest;
+import com.thfh.repository.ArtworkFavoriteRepository;
+import com.thfh.repository.ArtworkLikeRepository;
+import com.thfh.repository.ArtworkScoreRepository;
+import com.thfh.repository.PostCommentLikeRepository;
+import com.thfh.repository.PostLikeRepository;
+import com.thfh.util.LongBloomFilter;
+import com.thfh.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 用户交互状态服务
+ * 批量查询当前用户对作品、动态、评论的点赞/收藏/评分状态，每种关系最多一次IN查询。
+ * 每个用户维护一个近期交互布隆过滤器（LRU淘汰），过滤器判定为"一定没有交互"的ID不再查询数据库。
+ * 过滤器每类交互只加载最近的RECENT_LOAD_LIMIT条记录；某类交互超过该数量时，过滤器不能排除更早的记录，
+ * 该类交互的判断全部回退到数据库查询。
+ */
+@Service
+public class ViewerStateService {
+
+    /**
+     * 交互关系类型
+     */
+    public enum Interaction {
+        ARTWORK_LIKE, ARTWORK_FAVORITE, ARTWORK_SCORE, POST_LIKE, COMMENT_LIKE
+    }
+
+    // 单次批量查询每类ID的最大数量
+    public static final int MAX_BATCH_SIZE = 200;
+
+    // 最多缓存的用户过滤器数量
+    private static final int MAX_CACHED_USERS = 5000;
+
+    // 过滤器的最小容量，避免交互很少的用户频繁重建
+    private static final int MIN_FILTER_CAPACITY = 1024;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    // 每类交互加载到过滤器的最大记录数
+    private static final int RECENT_LOAD_LIMIT = 2000;
+
+    @Autowired
+    private ArtworkLikeRepository artworkLikeRepository;
+
+    @Autowired
+    private ArtworkFavoriteRepository artworkFavoriteRepository;
+
+    @Autowired
+    private ArtworkScoreRepository artworkScoreRepository;
+
+    @Autowired
+    private PostLikeRepository postLikeRepository;
+
+    @Autowired
+    private PostCommentLikeRepository postCommentLikeRepository;
+
+    // 按访问顺序排列的用户过滤器，超过上限时淘汰最久未访问的用户
+    private final Map<Long, InteractionFilter> filters = Collections.synchronizedMap(
+            new LinkedHashMap<Long, InteractionFilter>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, InteractionFilter> eldest) {
+                    return size() > MAX_CACHED_USERS;
+                }
+            });
+
+    /**
+     * 批量查询用户对一批内容的交互状态
+     * @param userId 用户ID
+     * @param request 待查询的作品、动态、评论ID
+     * @return 状态为true的ID集合
+     * @throws IllegalArgumentException 当某类ID数量超过上限时抛出
+     */
+    public ViewerStateDTO getViewerState(Long userId, ViewerStateRequest request) {
+        Set<Long> artworkIds = normalize(request.getArtworkIds());
+        Set<Long> postIds = normalize(request.getPostIds());
+        Set<Long> commentIds = normalize(request.getCommentIds());
+
+        InteractionFilter filter = getFilter(userId);
+        ViewerStateDTO state = new ViewerStateDTO();
+        state.setLikedArtworkIds(query(filter, Interaction.ARTWORK_LIKE, artworkIds,
+                ids -> artworkLikeRepository.findArtworkIdsByUserIdAndArtworkIdIn(userId, ids)));
+        state.setFavoritedArtworkIds(query(filter, Interaction.ARTWORK_FAVORITE, artworkIds,
+                ids -> artworkFavoriteRepository.findArtworkIdsByUserIdAndArtworkIdIn(userId, ids)));
+        state.setScoredArtworkIds(query(filter, Interaction.ARTWORK_SCORE, artworkIds,
+                ids -> artworkScoreRepository.findArtworkIdsByUserIdAndArtworkIdIn(userId, ids)));
+        state.setLikedPostIds(query(filter, Interaction.POST_LIKE, postIds,
+                ids -> postLikeRepository.findPostIdsByUserIdAndPostIdIn(userId, ids)));
+        state.setLikedCommentIds(query(filter, Interaction.COMMENT_LIKE, commentIds,
+                ids -> postCommentLikeRepository.findCommentIdsByUserIdAndCommentIdIn(userId, ids)));
+        return state;
+    }
+
+    /**
+     * 判断用户对单个目标是否可能存在交互
+     * 返回false时一定没有交互，返回true时需要再查询数据库确认
+     * @param userId 用户ID
+     * @param interaction 交互类型
+     * @param targetId 目标ID
+     * @return 是否可能存在交互
+     */
+    public boolean mightHaveInteraction(Long userId, Interaction interaction, Long targetId) {
+        if (userId == null || targetId == null) {
+            return false;
+        }
+        return getFilter(userId).mightContain(interaction, targetId);
+    }
+
+    /**
+     * 记录一次新的交互，在点赞、收藏、评分写入时调用
+     * 处于事务中时在事务提交后写入过滤器，避免提交前加载的过滤器漏掉这条交互
+     * 取消交互无需调用，过滤器中残留的键只会导致一次多余的数据库确认
+     * @param userId 用户ID
+     * @param interaction 交互类型
+     * @param targetId 目标ID
+     */
+    public void recordInteraction(Long userId, Interaction interaction, Long targetId) {
+        if (userId == null || targetId == null) {
+            return;
+        }
+        AfterCommit.run(() -> record(userId, interaction, targetId));
+    }
+
+    private void record(Long userId, Interaction interaction, Long targetId) {
+        InteractionFilter filter = filters.get(userId);
+        if (filter == null) {
+            // 尚未缓存的用户下次查询时会从数据库完整加载
+            return;
+        }
+        if (!filter.put(key(interaction, targetId))) {
+            // 过滤器已超过设计容量，误判率上升，丢弃后重新加载
+            filters.remove(userId, filter);
+        }
+    }
+
+    /**
+     * 清除指定用户的过滤器
+     * @param userId 用户ID
+     */
+    public void evict(Long userId) {
+        filters.remove(userId);
+    }
+
+    private Set<Long> query(InteractionFilter filter, Interaction interaction, Set<Long> ids,
+                            Function<Collection<Long>, List<Long>> loader) {
+        if (ids.isEmpty()) {
+            return new HashSet<>();
+        }
+        List<Long> candidates = ids.stream()
+                .filter(id -> filter.mightContain(interaction, id))
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(loader.apply(candidates));
+    }
+
+    private InteractionFilter getFilter(Long userId) {
+        InteractionFilter filter;
+        synchronized (filters) {
+            filter = filters.get(userId);
+            if (filter == null) {
+                filter = new InteractionFilter();
+                filters.put(userId, filter);
+            }
+        }
+        // 先登记再加载：加载期间写入的交互会进入登记后的过滤器，加载前已提交的交互会被查询到
+        filter.ensureLoaded(userId);
+        return filter;
+    }
+
+    private Set<Long> normalize(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<Long> result = ids.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (result.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("单次最多查询" + MAX_BATCH_SIZE + "个ID");
+        }
+        return result;
+    }
+
+    private static long key(Interaction interaction, Long targetId) {
+        return (targetId << 3) | interaction.ordinal();
+    }
+
+    /**
+     * 单个用户的交互过滤器
+     * 加载完成前写入的键暂存在recentKeys中，查询时与布隆过滤器一起判断
+     */
+    private class InteractionFilter {
+        private volatile LongBloomFilter bloom;
+        private final Set<Long> recentKeys = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger size = new AtomicInteger();
+        private int capacity;
+        // 各类交互是否已全部加载，未全部加载的类型不能用过滤器排除
+        private final boolean[] complete = new boolean[Interaction.values().length];
+
+        synchronized void ensureLoaded(Long userId) {
+            if (bloom != null) {
+                return;
+            }
+            Pageable recent = PageRequest.of(0, RECENT_LOAD_LIMIT);
+            List<Long> artworkLikes = artworkLikeRepository.findArtworkIdsByUserId(userId, recent);
+            List<Long> artworkFavorites = artworkFavoriteRepository.findArtworkIdsByUserId(userId, recent);
+            List<Long> artworkScores = artworkScoreRepository.findArtworkIdsByUserId(userId, recent);
+            List<Long> postLikes = postLikeRepository.findPostIdsByUserId(userId, recent);
+            List<Long> commentLikes = postCommentLikeRepository.findCommentIdsByUserId(userId, recent);
+            complete[Interaction.ARTWORK_LIKE.ordinal()] = artworkLikes.size() < RECENT_LOAD_LIMIT;
+            complete[Interaction.ARTWORK_FAVORITE.ordinal()] = artworkFavorites.size() < RECENT_LOAD_LIMIT;
+            complete[Interaction.ARTWORK_SCORE.ordinal()] = artworkScores.size() < RECENT_LOAD_LIMIT;
+            complete[Interaction.POST_LIKE.ordinal()] = postLikes.size() < RECENT_LOAD_LIMIT;
+            complete[Interaction.COMMENT_LIKE.ordinal()] = commentLikes.size() < RECENT_LOAD_LIMIT;
+
+            int total = artworkLikes.size() + artworkFavorites.size() + artworkScores.size()
+                    + postLikes.size() + commentLikes.size();
+            capacity = Math.max(total * 2, MIN_FILTER_CAPACITY);
+            LongBloomFilter loaded = new LongBloomFilter(capacity, FALSE_POSITIVE_RATE);
+            artworkLikes.forEach(id -> loaded.put(key(Interaction.ARTWORK_LIKE, id)));
+            artworkFavorites.forEach(id -> loaded.put(key(Interaction.ARTWORK_FAVORITE, id)));
+            artworkScores.forEach(id -> loaded.put(key(Interaction.ARTWORK_SCORE, id)));
+            postLikes.forEach(id -> loaded.put(key(Interaction.POST_LIKE, id)));
+            commentLikes.forEach(id -> loaded.put(key(Interaction.COMMENT_LIKE, id)));
+            size.set(total);
+            bloom = loaded;
+        }
+
+        boolean mightContain(Interaction interaction, Long targetId) {
+            LongBloomFilter current = bloom;
+            if (current == null || !complete[interaction.ordinal()]) {
+                return true;
+            }
+            long key = key(interaction, targetId);
+            return recentKeys.contains(key) || current.mightContain(key);
+        }
+
+        /**
+         * @return 过滤器仍在设计容量内时返回true
+         */
+        boolean put(long key) {
+            LongBloomFilter current = bloom;
+            if (current == null) {
+                recentKeys.add(key);
+                return true;
+            }
+            current.put(key);
+            return size.incrementAndGet() <= capacity;
+        }
+    }
+}
@@ -4,16 +4,14 @@ import com.thfh.exception.ResourceNotFoundException;
 import com.thfh.exception.BadRequestException;
 import com.thfh.model.Course;
 import com.thfh.model.CoursePointsPurchase;
-import com.thfh.model.PointsRecord;
 import com.thfh.model.PointsType;
 import com.thfh.model.User;
-import com.thfh.model.UserCourse;
 import com.thfh.repository.CoursePointsPurchaseRepository;
 import com.thfh.repository.CourseRepository;
-import com.thfh.repository.PointsRecordRepository;
 import com.thfh.repository.UserCourseRepository;
 import com.thfh.repository.UserRepository;
 import com.thfh.service.CoursePointsPurchaseService;
+import com.thfh.service.PointsLedgerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -41,13 +39,16 @@ public class CoursePointsPurchaseServiceImpl implements CoursePointsPurchaseServ
     private UserRepository userRepository;
     
     @Autowired
-    private PointsRecordRepository pointsRecordRepository;
+    private PointsLedgerService pointsLedgerService;
     
     @Autowired
     private UserCourseRepository userCourseRepository;
 
     /**
      * 使用积分购买课程
+     * 用户和课程只读取不保存：选课记录通过唯一约束条件插入，已免费加入的学员可以继续购买，
+     * 是否已购买在持有选课记录行锁后加锁查询，积分通过积分账本条件扣减保证不超额，
+     * 学习人数原子累加，任一步失败整体回滚
      * @param userId 用户ID
      * @param courseId 课程ID
      * @return 购买记录
@@ -62,16 +63,24 @@ public class CoursePointsPurchaseServiceImpl implements CoursePointsPurchaseServ
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResourceNotFoundException("课程不存在"));
         
-        // 检查用户是否已购买该课程
-        if (hasPurchasedCourse(userId, courseId)) {
-            throw new BadRequestException("您已购买过该课程");
-        }
-        
         // 检查课程是否支持积分购买
         if (course.getPointsPrice() == null || course.getPointsPrice() <= 0) {
             throw new BadRequestException("该课程不支持积分购买");
         }
         
+        // 创建用户-课程关联；已免费加入的学员没有购买记录，锁定已有的选课记录后继续购买
+        // 两种情况下本事务都持有该选课记录的行锁，同一用户同一课程的并发购买依次执行
+        boolean enrolled = userCourseRepository.insertIfAbsent(userId, courseId) > 0;
+        if (!enrolled && userCourseRepository.findByUserIdAndCourseIdForUpdate(userId, courseId).isEmpty()) {
+            throw new BadRequestException("选课记录已变更，请重试");
+        }
+        
+        // 检查用户是否已购买该课程
+        if (!purchaseRepository.findByUserIdAndCourseIdAndStatusForUpdate(
+                userId, courseId, CoursePointsPurchase.PurchaseStatus.SUCCESS).isEmpty()) {
+            throw new BadRequestException("您已购买过该课程");
+        }
+        
         // 判断用户是否为残疾学员（disability不为空）
         boolean isDisabledStudent = StringUtils.isNotBlank(user.getDisability());
         
@@ -88,22 +97,8 @@ public class CoursePointsPurchaseServiceImpl implements CoursePointsPurchaseServ
             purchase.setPointsSpent(0);
             purchase.setRemark("残疾学员免费获取课程：" + course.getTitle());
         } else {
-            // 检查用户积分是否足够
-            if (user.getPoints() < requiredPoints) {
-                throw new BadRequestException("积分不足，无法购买课程");
-            }
-            
-            // 扣除用户积分
-            user.setPoints(user.getPoints() - requiredPoints);
-            userRepository.save(user);
-            
-            // 记录积分变动
-            PointsRecord pointsRecord = new PointsRecord();
-            pointsRecord.setStudent(user);
-            pointsRecord.setPoints(-requiredPoints);
-            pointsRecord.setType(PointsType.EXCHANGE_COURSE);
-            pointsRecord.setDescription("购买课程：" + course.getTitle());
-            pointsRecordRepository.save(pointsRecord);
+            // 条件扣除用户积分并记账，积分不足时抛出异常回滚已插入的选课记录
+            pointsLedgerService.record(userId, -requiredPoints, PointsType.EXCHANGE_COURSE, "购买课程：" + course.getTitle());
             
             purchase.setPointsSpent(requiredPoints);
             purchase.setRemark("积分购买课程：" + course.getTitle());
@@ -111,18 +106,10 @@ public class CoursePointsPurchaseServiceImpl implements CoursePointsPurchaseServ
         
         purchase.setCreateTime(LocalDateTime.now());
         
-        // 更新课程学生数量
-        course.setStudentCount(course.getStudentCount() + 1);
-        courseRepository.save(course);
-        
-        // 创建用户-课程关联
-        UserCourse userCourse = new UserCourse();
-        userCourse.setUser(user);
-        userCourse.setCourse(course);
-        userCourse.setEnrollTime(LocalDateTime.now());
-        userCourse.setLastAccessTime(LocalDateTime.now());
-        userCourse.setIsActive(true);
-        userCourseRepository.save(userCourse);
+        // 更新课程学生数量，已加入过的学员在加入时已计数
+        if (enrolled) {
+            courseRepository.addStudentCount(courseId, 1);
+        }
         
         // 保存并返回购买记录
         return purchaseRepository.save(purchase);
@@ -149,16 +136,8 @@ public class CoursePointsPurchaseServiceImpl implements CoursePointsPurchaseServ
      */
     @Override
     public boolean hasPurchasedCourse(Long userId, Long courseId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("用户不存在"));
-        
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("课程不存在"));
-        
-        Optional<CoursePointsPurchase> purchase = purchaseRepository.findByUserAndCourse(user, course);
-        
-        return purchase.isPresent() && 
-               purchase.get().getStatus() == CoursePointsPurchase.PurchaseStatus.SUCCESS;
+        return purchaseRepository.existsByUserIdAndCourseIdAndStatus(
+                userId, courseId, CoursePointsPurchase.PurchaseStatus.SUCCESS);
     }
 
     /**
@@ -173,6 +152,7 @@ public class CoursePointsPurchaseServiceImpl implements CoursePointsPurchaseServ
 
     /**
      * 退款处理
+     * 购买状态通过条件更新从SUCCESS切换为REFUNDED，并发的重复退款只有一个能成功
      * @param purchaseId 购买记录ID
      * @return 更新后的购买记录
      */
@@ -187,8 +167,9 @@ public class CoursePointsPurchaseServiceImpl implements CoursePointsPurchaseServ
             throw new BadRequestException("该购买记录已经退款");
         }
         
-        // 检查购买状态
-        if (purchase.getStatus() != CoursePointsPurchase.PurchaseStatus.SUCCESS) {
+        // 检查购买状态并标记为已退款
+        if (purchaseRepository.updateStatusIfMatch(purchaseId, CoursePointsPurchase.PurchaseStatus.SUCCESS,
+                CoursePointsPurchase.PurchaseStatus.REFUNDED) == 0) {
             throw new BadRequestException("只有成功的购买才能退款");
         }
         
@@ -198,31 +179,20 @@ public class CoursePointsPurchaseServiceImpl implements CoursePointsPurchaseServ
         
         // 只有当消费的积分大于0时才进行退还操作 (处理残疾学员情况)
         if (refundPoints > 0) {
-            // 退还积分
-            user.setPoints(user.getPoints() + refundPoints);
-            userRepository.save(user);
-            
-            // 记录积分变动
-            PointsRecord pointsRecord = new PointsRecord();
-            pointsRecord.setStudent(user);
-            pointsRecord.setPoints(refundPoints);
-            pointsRecord.setType(PointsType.ADMIN_ADJUST);
-            pointsRecord.setDescription("退款：课程《" + course.getTitle() + "》积分退还");
-            pointsRecordRepository.save(pointsRecord);
+            // 退还积分并记账
+            pointsLedgerService.record(user.getId(), refundPoints, PointsType.ADMIN_ADJUST,
+                    "退款：课程《" + course.getTitle() + "》积分退还");
         }
         
-        // 更新课程学生数量
-        course.setStudentCount(course.getStudentCount() - 1);
-        courseRepository.save(course);
-        
-        // 删除用户-课程关联
-        userCourseRepository.findByUserAndCourse(user, course)
-                .ifPresent(userCourse -> userCourseRepository.delete(userCourse));
+        // 删除用户-课程关联并更新课程学生数量
+        if (userCourseRepository.deleteByUserIdAndCourseId(user.getId(), course.getId()) > 0) {
+            courseRepository.addStudentCount(course.getId(), -1);
+        }
         
-        // 更新购买记录状态
+        // 批量更新不会同步到已加载的实体，返回前同步状态
         purchase.setStatus(CoursePointsPurchase.PurchaseStatus.REFUNDED);
         purchase.setUpdateTime(LocalDateTime.now());
-        return purchaseRepository.save(purchase);
+        return purchase;
     }
 
     /**
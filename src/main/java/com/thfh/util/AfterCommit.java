@@ -0,0 +1,31 @@
+package com.thfh.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务提交后执行工具类
+ * 缓存失效、文件删除等操作只能在数据库修改提交后进行，事务回滚时不执行。
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * 当前线程存在事务时在提交后执行，否则立即执行
+     * @param action 要执行的操作
+     */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
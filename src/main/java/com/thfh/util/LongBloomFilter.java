@@ -0,0 +1,92 @@
+package com.thfh.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 长整型布隆过滤器
+ * 用于快速判断某个键"一定不存在"，判断为可能存在时需要再查询数据库确认。
+ * 位数组基于AtomicLongArray，支持多线程并发添加和查询。
+ */
+public class LongBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int bitSize;
+    private final int hashCount;
+
+    /**
+     * 按预期元素数量和误判率创建布隆过滤器
+     * @param expectedInsertions 预期插入的元素数量
+     * @param falsePositiveRate 可接受的误判率，例如0.01
+     */
+    public LongBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(expectedInsertions, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitSize = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+        this.bits = new AtomicLongArray((bitSize + 63) / 64);
+    }
+
+    /**
+     * 添加元素
+     * @param key 元素键
+     */
+    public void put(long key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int combined = h1 + i * h2;
+            if (combined < 0) {
+                combined = ~combined;
+            }
+            setBit(combined % bitSize);
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在
+     * @param key 元素键
+     * @return false表示一定不存在，true表示可能存在
+     */
+    public boolean mightContain(long key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int combined = h1 + i * h2;
+            if (combined < 0) {
+                combined = ~combined;
+            }
+            if (!getBit(combined % bitSize)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setBit(int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    private boolean getBit(int index) {
+        return (bits.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * 64位混淆函数（SplitMix64），使相邻ID的哈希分布均匀
+     */
+    private static long mix(long key) {
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
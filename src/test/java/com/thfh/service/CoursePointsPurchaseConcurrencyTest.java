@@ -0,0 +1,169 @@
+package com.thfh.service;
+
+import com.thfh.ThfhApplication;
+import com.thfh.model.Course;
+import com.thfh.model.CourseStatus;
+import com.thfh.model.User;
+import com.thfh.repository.CourseRepository;
+import com.thfh.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 课程积分购买并发测试
+ * 多个线程同时为同一学员购买同一课程，验证只成功一次、积分只扣一次、学习人数只加一次。
+ * 依赖application-database.yml中配置的MySQL（INSERT IGNORE和行锁），默认不执行，
+ * 使用 mvn test -Dcourse.purchase.concurrency=true 运行。
+ */
+@SpringBootTest(classes = ThfhApplication.class)
+@EnabledIfSystemProperty(named = "course.purchase.concurrency", matches = "true")
+class CoursePointsPurchaseConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int PRICE = 60;
+    private static final int INITIAL_POINTS = 1000;
+
+    @Autowired
+    private CoursePointsPurchaseService purchaseService;
+
+    @Autowired
+    private CourseManagementService courseManagementService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User teacher;
+    private User student;
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        teacher = userRepository.save(newUser("TEACHER"));
+        student = userRepository.save(newUser("STUDENT"));
+
+        Course newCourse = new Course();
+        newCourse.setTitle("并发购买测试课程");
+        newCourse.setCoverImage("test.png");
+        newCourse.setTeacher(teacher);
+        newCourse.setPrice(BigDecimal.ZERO);
+        newCourse.setPointsPrice(PRICE);
+        newCourse.setTotalHours(1);
+        newCourse.setStatus(CourseStatus.PUBLISHED);
+        newCourse.setEnabled(true);
+        newCourse.setStudentCount(0);
+        course = courseRepository.save(newCourse);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM course_points_purchase WHERE course_id = ?", course.getId());
+        jdbcTemplate.update("DELETE FROM user_course WHERE course_id = ?", course.getId());
+        jdbcTemplate.update("DELETE FROM points_record WHERE student_id = ?", student.getId());
+        jdbcTemplate.update("DELETE FROM course WHERE id = ?", course.getId());
+        jdbcTemplate.update("DELETE FROM `user` WHERE id IN (?, ?)", student.getId(), teacher.getId());
+    }
+
+    @Test
+    void concurrentPurchasesChargeOnce() throws Exception {
+        int succeeded = purchaseConcurrently();
+
+        assertThat(succeeded).isEqualTo(1);
+        assertPurchasedOnce();
+        assertThat(studentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void enrolledStudentCanStillPurchaseOnce() throws Exception {
+        courseManagementService.enrollCourse(course.getId(), student.getId());
+
+        int succeeded = purchaseConcurrently();
+
+        assertThat(succeeded).isEqualTo(1);
+        assertPurchasedOnce();
+        // 免费加入时已计入学习人数，购买不再重复累加
+        assertThat(studentCount()).isEqualTo(1);
+    }
+
+    private int purchaseConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        purchaseService.purchaseCourseWithPoints(student.getId(), course.getId());
+                        return true;
+                    } catch (RuntimeException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertPurchasedOnce() {
+        Integer purchases = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM course_points_purchase WHERE course_id = ? AND user_id = ?",
+                Integer.class, course.getId(), student.getId());
+        Integer enrollments = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_course WHERE course_id = ? AND user_id = ?",
+                Integer.class, course.getId(), student.getId());
+        Integer points = jdbcTemplate.queryForObject(
+                "SELECT points FROM `user` WHERE id = ?", Integer.class, student.getId());
+        assertThat(purchases).isEqualTo(1);
+        assertThat(enrollments).isEqualTo(1);
+        assertThat(points).isEqualTo(INITIAL_POINTS - PRICE);
+    }
+
+    private Integer studentCount() {
+        return jdbcTemplate.queryForObject(
+                "SELECT student_count FROM course WHERE id = ?", Integer.class, course.getId());
+    }
+
+    private static User newUser(String userType) {
+        User user = new User();
+        user.setUsername("purchase_test_" + UUID.randomUUID().toString().substring(0, 8));
+        user.setPassword("test");
+        user.setUserType(userType);
+        user.setPoints(INITIAL_POINTS);
+        user.setCreateTime(LocalDateTime.now());
+        user.setUpdateTime(LocalDateTime.now());
+        return user;
+    }
+}